@@ -20,7 +20,9 @@ import java.lang.reflect.Field;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -44,6 +46,7 @@ import org.apache.cassandra.thrift.Compression;
 import org.apache.cassandra.thrift.ConsistencyLevel;
 import org.apache.cassandra.thrift.CounterColumn;
 import org.apache.cassandra.thrift.CounterSuperColumn;
+import org.apache.cassandra.thrift.CqlPreparedResult;
 import org.apache.cassandra.thrift.CqlResult;
 import org.apache.cassandra.thrift.CqlRow;
 import org.apache.cassandra.thrift.IndexClause;
@@ -53,7 +56,6 @@ import org.apache.cassandra.thrift.InvalidRequestException;
 import org.apache.cassandra.thrift.KeySlice;
 import org.apache.cassandra.thrift.KsDef;
 import org.apache.cassandra.thrift.Mutation;
-import org.apache.cassandra.thrift.NotFoundException;
 import org.apache.cassandra.thrift.SchemaDisagreementException;
 import org.apache.cassandra.thrift.SuperColumn;
 import org.apache.cassandra.thrift.TimedOutException;
@@ -69,11 +71,13 @@ import org.slf4j.LoggerFactory;
 
 import com.impetus.client.cassandra.common.CassandraConstants;
 import com.impetus.client.cassandra.common.CassandraUtilities;
+import com.impetus.client.cassandra.common.HiLoIdAllocator;
 import com.impetus.client.cassandra.config.CassandraPropertyReader;
 import com.impetus.client.cassandra.datahandler.CassandraDataHandler;
 import com.impetus.client.cassandra.schemamanager.CassandraValidationClassMapper;
 import com.impetus.client.cassandra.thrift.CQLTranslator;
 import com.impetus.client.cassandra.thrift.CQLTranslator.TranslationType;
+import com.impetus.client.cassandra.thrift.PreparedStatementCache;
 import com.impetus.client.cassandra.thrift.ThriftClientFactory.Connection;
 import com.impetus.client.cassandra.thrift.ThriftDataResultHelper;
 import com.impetus.client.cassandra.thrift.ThriftRow;
@@ -138,6 +142,9 @@ public abstract class CassandraClientBase extends ClientBase implements ClientPr
 
     protected CQLClient cqlClient;
 
+    /** prepared CQL3 statements. */
+    private final PreparedStatementCache statementCache = new PreparedStatementCache();
+
     /**
      * constructor using fields.
      * 
@@ -572,8 +579,19 @@ public abstract class CassandraClientBase extends ClientBase implements ClientPr
     {
         EntityMetadata entityMetadata = KunderaMetadataManager.getEntityMetadata(entityClass);
         List<E> results = new ArrayList<E>();
-        results = find(entityClass, entityMetadata.getRelationNames(), entityMetadata.getRelationNames() != null
-                && !entityMetadata.getRelationNames().isEmpty(), entityMetadata, rowIds);
+        MetamodelImpl metaModel = (MetamodelImpl) KunderaMetadata.INSTANCE.getApplicationMetadata().getMetamodel(
+                entityMetadata.getPersistenceUnit());
+
+        if (isCql3Enabled(entityMetadata) && rowIds != null && rowIds.length > 0
+                && !metaModel.isEmbeddable(entityMetadata.getIdAttribute().getBindableJavaType()))
+        {
+            results = (List<E>) cqlClient.findAll(entityMetadata, entityMetadata.getRelationNames(), rowIds);
+        }
+        else
+        {
+            results = find(entityClass, entityMetadata.getRelationNames(), entityMetadata.getRelationNames() != null
+                    && !entityMetadata.getRelationNames().isEmpty(), entityMetadata, rowIds);
+        }
         return results.isEmpty() ? null : results;
     }
 
@@ -937,6 +955,96 @@ public abstract class CassandraClientBase extends ClientBase implements ClientPr
         return insert_Query;
     }
 
+    /**
+     * Executes insert for given entity as a prepared statement, with values
+     * bound in binary format. Statements are cached per column set, so query
+     * string is neither rebuilt nor re-parsed by server for each insert.
+     * Returns false if entity values can not be bound or statement can not be
+     * prepared, in that case caller should fall back to
+     * {@link #createInsertQuery}.
+     * 
+     * @param entityMetadata
+     * @param entity
+     * @param cassandra_client
+     * @param rlHolders
+     * @param ttlColumns
+     *            TTL values for each columns
+     * @return true, if executed.
+     */
+    protected boolean executePreparedInsert(EntityMetadata entityMetadata, Object entity,
+            Cassandra.Client cassandra_client, List<RelationHolder> rlHolders, Object ttlColumns)
+            throws InvalidRequestException, UnavailableException, TimedOutException, SchemaDisagreementException,
+            TException
+    {
+        CQLTranslator translator = new CQLTranslator();
+        LinkedHashMap<String, Object> columnValues = translator.prepareColumnValues(entity, entityMetadata,
+                externalProperties);
+        for (RelationHolder rl : rlHolders)
+        {
+            columnValues.put(rl.getRelationName(), rl.getRelationValue());
+        }
+
+        StringBuilder columnNameBuilder = new StringBuilder();
+        StringBuilder bindMarkerBuilder = new StringBuilder();
+        for (String columnName : columnValues.keySet())
+        {
+            if (columnNameBuilder.length() > 0)
+            {
+                columnNameBuilder.append(",");
+                bindMarkerBuilder.append(",");
+            }
+            translator.appendColumnName(columnNameBuilder, columnName);
+            bindMarkerBuilder.append(CQLTranslator.BIND_MARKER);
+        }
+
+        String insert_Query = StringUtils.replace(CQLTranslator.INSERT_QUERY, CQLTranslator.COLUMN_FAMILY, translator
+                .ensureCase(new StringBuilder(), entityMetadata.getTableName(), false).toString());
+        insert_Query = StringUtils.replace(insert_Query, CQLTranslator.COLUMN_VALUES, bindMarkerBuilder.toString());
+        insert_Query = StringUtils.replace(insert_Query, CQLTranslator.COLUMNS, columnNameBuilder.toString());
+
+        List<Object> boundValues = new ArrayList<Object>(columnValues.values());
+        if (ttlColumns != null && ttlColumns instanceof Integer)
+        {
+            int ttl = ((Integer) ttlColumns).intValue();
+            if (ttl != 0)
+            {
+                // TTL is bound as well, so that a statement is cached per
+                // column set only and not per TTL value.
+                insert_Query = insert_Query + " USING TTL " + CQLTranslator.BIND_MARKER;
+                boundValues.add(ttl);
+            }
+        }
+
+        CqlPreparedResult statement = statementCache.get(cassandra_client, insert_Query);
+        if (statement == null)
+        {
+            return false;
+        }
+        List<ByteBuffer> values = PreparedStatementCache.bind(statement, boundValues);
+        if (values == null)
+        {
+            return false;
+        }
+
+        try
+        {
+            cassandra_client.execute_prepared_cql3_query(statement.getItemId(), values, consistencyLevel);
+        }
+        catch (InvalidRequestException e)
+        {
+            if (!PreparedStatementCache.isUnknownStatement(e))
+            {
+                throw e;
+            }
+            // Statement is not known to this node(e.g. on restart), so
+            // prepare it again and retry once.
+            log.warn("Prepared query {} is unknown to server, preparing it again.", insert_Query);
+            statement = statementCache.prepare(cassandra_client, insert_Query);
+            cassandra_client.execute_prepared_cql3_query(statement.getItemId(), values, consistencyLevel);
+        }
+        return true;
+    }
+
     /**
      * Return update query string for given entity intended for counter column
      * family.
@@ -1036,6 +1144,7 @@ public abstract class CassandraClientBase extends ClientBase implements ClientPr
     public void close()
     {
         clear();
+        statementCache.clear();
         setCqlVersion(CassandraConstants.CQL_VERSION_2_0);
         closed = true;
         externalProperties = null;
@@ -1410,7 +1519,8 @@ public abstract class CassandraClientBase extends ClientBase implements ClientPr
                         {
                             List<RelationHolder> relationHolders = getRelationHolders(node);
                             Map<ByteBuffer, Map<String, List<Mutation>>> mutationMap = new HashMap<ByteBuffer, Map<String, List<Mutation>>>();
-                            mutationMap = prepareMutation(metadata, entity, id, relationHolders, mutationMap);
+                            mutationMap = prepareMutation(metadata, entity, id, relationHolders, mutationMap,
+                                    getChangedColumns(node, metadata));
 
                             recordsExecuted += mutationMap.size();
                             if (!batchMutationMap.containsKey(metadata.getEntityClazz()))
@@ -1479,11 +1589,14 @@ public abstract class CassandraClientBase extends ClientBase implements ClientPr
      *            the relation holders
      * @param mutationMap
      *            the mutation map
+     * @param changedColumns
+     *            columns of changed attributes, null if all columns are to be
+     *            written.
      * @return the map
      */
     protected Map<ByteBuffer, Map<String, List<Mutation>>> prepareMutation(EntityMetadata entityMetadata,
             Object entity, Object id, List<RelationHolder> relationHolders,
-            Map<ByteBuffer, Map<String, List<Mutation>>> mutationMap)
+            Map<ByteBuffer, Map<String, List<Mutation>>> mutationMap, Set<String> changedColumns)
     {
 
         if (!isOpen())
@@ -1514,6 +1627,10 @@ public abstract class CassandraClientBase extends ClientBase implements ClientPr
         }
 
         addRelationsToThriftRow(entityMetadata, tf, relationHolders);
+        if (changedColumns != null && !entityMetadata.isCounterColumnType())
+        {
+            retainChangedColumns(tf, relationHolders, changedColumns);
+        }
 
         String columnFamily = entityMetadata.getTableName();
         // Create Insertion List
@@ -1575,6 +1692,12 @@ public abstract class CassandraClientBase extends ClientBase implements ClientPr
             }
         }
 
+        // nothing to write, e.g. merge changed non persistent fields only.
+        if (mutationList.isEmpty())
+        {
+            return mutationMap;
+        }
+
         // Create Mutation Map
         Map<String, List<Mutation>> columnFamilyValues = new HashMap<String, List<Mutation>>();
         columnFamilyValues.put(columnFamily, mutationList);
@@ -1584,6 +1707,56 @@ public abstract class CassandraClientBase extends ClientBase implements ClientPr
         return mutationMap;
     }
 
+    /**
+     * Retains columns of changed attributes and relations only in thrift row,
+     * so that merge of an entity writes what has changed.
+     * 
+     * @param tf
+     *            thrift row.
+     * @param relationHolders
+     *            the relation holders
+     * @param changedColumns
+     *            columns of changed attributes.
+     */
+    private void retainChangedColumns(ThriftRow tf, List<RelationHolder> relationHolders, Set<String> changedColumns)
+    {
+        Set<String> columnNames = new HashSet<String>(changedColumns);
+        if (relationHolders != null)
+        {
+            for (RelationHolder rh : relationHolders)
+            {
+                columnNames.add(rh.getRelationName());
+            }
+        }
+
+        List<Column> columns = new ArrayList<Column>();
+        if (tf.getColumns() != null)
+        {
+            for (Column column : tf.getColumns())
+            {
+                if (columnNames.contains(PropertyAccessorFactory.STRING.fromBytes(String.class, column.getName())))
+                {
+                    columns.add(column);
+                }
+            }
+        }
+        tf.setColumns(columns);
+
+        List<SuperColumn> superColumns = new ArrayList<SuperColumn>();
+        if (tf.getSuperColumns() != null)
+        {
+            for (SuperColumn superColumn : tf.getSuperColumns())
+            {
+                if (columnNames.contains(PropertyAccessorFactory.STRING.fromBytes(String.class,
+                        superColumn.getName())))
+                {
+                    superColumns.add(superColumn);
+                }
+            }
+        }
+        tf.setSuperColumns(superColumns);
+    }
+
     /**
      * Check on batch limit.
      */
@@ -1642,48 +1815,53 @@ public abstract class CassandraClientBase extends ClientBase implements ClientPr
     }
 
     /**
-     * Return the generated value of id.
+     * Return the generated value of id. Ids are allocated in blocks of
+     * allocation size by {@link HiLoIdAllocator}, counter is incremented only
+     * once per block.
      * 
      * @param descriptor
      * @param pu
      * @return
      */
-    public Long getGeneratedValue(TableGeneratorDiscriptor descriptor, String pu)
+    public Long getGeneratedValue(final TableGeneratorDiscriptor descriptor, final String pu)
     {
-        Cassandra.Client conn = getRawClient(pu, descriptor.getSchema());
+        return getIdAllocator().next(descriptor, new HiLoIdAllocator.BlockReserver()
+        {
+            @Override
+            public long reserve()
+            {
+                return reserveBlock(descriptor, pu);
+            }
+        });
+    }
+
+    /**
+     * Increments counter of table generator by one, i.e. reserves next block
+     * of ids. Increment and read are separate calls, concurrent reservations
+     * from other entity manager factories may read same value (see
+     * {@link HiLoIdAllocator}).
+     * 
+     * @param descriptor
+     * @param pu
+     * @return counter value after increment.
+     */
+    private long reserveBlock(TableGeneratorDiscriptor descriptor, String pu)
+    {
+        Object pooledConnection = getConection();
+        Cassandra.Client conn = getConnection(pooledConnection);
         try
         {
             conn.set_keyspace(descriptor.getSchema());
-            ColumnPath columnPath = new ColumnPath(descriptor.getTable());
-            columnPath.setColumn(descriptor.getValueColumnName().getBytes());
-            long latestCount = 0l;
+            ByteBuffer rowKey = ByteBuffer.wrap(descriptor.getPkColumnValue().getBytes());
 
-            try
-            {
-                latestCount = conn.get(ByteBuffer.wrap(descriptor.getPkColumnValue().getBytes()), columnPath,
-                        getConsistencyLevel()).counter_column.value;
-            }
-            catch (NotFoundException e)
-            {
-                log.warn("Counter value not found for {}, resetting it to zero.", descriptor.getPkColumnName());
-                latestCount = 0;
-            }
             ColumnParent columnParent = new ColumnParent(descriptor.getTable());
-
             CounterColumn counterColumn = new CounterColumn(
                     ByteBuffer.wrap(descriptor.getValueColumnName().getBytes()), 1);
+            conn.add(rowKey, columnParent, counterColumn, getConsistencyLevel());
 
-            conn.add(ByteBuffer.wrap(descriptor.getPkColumnValue().getBytes()), columnParent, counterColumn,
-                    getConsistencyLevel());
-
-            if (latestCount == 0)
-            {
-                return (long) descriptor.getInitialValue();
-            }
-            else
-            {
-                return (latestCount + 1) * descriptor.getAllocationSize();
-            }
+            ColumnPath columnPath = new ColumnPath(descriptor.getTable());
+            columnPath.setColumn(descriptor.getValueColumnName().getBytes());
+            return conn.get(rowKey, columnPath, getConsistencyLevel()).counter_column.value;
         }
         catch (UnavailableException e)
         {
@@ -1700,6 +1878,10 @@ public abstract class CassandraClientBase extends ClientBase implements ClientPr
             log.error("Error while using keyspace. Caused by: .", e);
             throw new KunderaException(e);
         }
+        finally
+        {
+            releaseConnection(pooledConnection);
+        }
     }
 
     /**
@@ -1839,6 +2021,13 @@ public abstract class CassandraClientBase extends ClientBase implements ClientPr
 
     protected abstract void releaseConnection(Object conn);
 
+    /**
+     * Returns allocator of table generated ids, shared per client factory.
+     * 
+     * @return id allocator.
+     */
+    protected abstract HiLoIdAllocator getIdAllocator();
+
     /**
      * Use CqlClient class for crud when cql enable.
      * 
@@ -1858,6 +2047,10 @@ public abstract class CassandraClientBase extends ClientBase implements ClientPr
             {
                 query = createUpdateQueryForCounter(entityMetadata, entity, conn, rlHolders);
             }
+            else if (executePreparedInsert(entityMetadata, entity, conn, rlHolders, ttlColumns))
+            {
+                return;
+            }
             else
             {
                 query = createInsertQuery(entityMetadata, entity, conn, rlHolders, ttlColumns);
@@ -1947,6 +2140,37 @@ public abstract class CassandraClientBase extends ClientBase implements ClientPr
             return CassandraClientBase.this.executeQuery(builder.toString(), metadata.getEntityClazz(), relationNames);
         }
 
+        /**
+         * Finds entities for given row ids with a single "IN" query.
+         * 
+         * @param metadata
+         * @param relationNames
+         * @param rowIds
+         * @return
+         */
+        public List<Object> findAll(EntityMetadata metadata, List<String> relationNames, Object... rowIds)
+        {
+            CQLTranslator translator = new CQLTranslator();
+            String select_Query = translator.SELECTALL_QUERY;
+            select_Query = StringUtils.replace(select_Query, CQLTranslator.COLUMN_FAMILY,
+                    translator.ensureCase(new StringBuilder(), metadata.getTableName(), false).toString());
+            StringBuilder builder = new StringBuilder(select_Query);
+            builder.append(CQLTranslator.ADD_WHERE_CLAUSE);
+            translator.ensureCase(builder, CassandraUtilities.getIdColumnName(metadata, getExternalProperties()),
+                    false);
+            builder.append(CQLTranslator.IN_CLAUSE);
+            builder.append(CQLTranslator.OPEN_BRACKET);
+            for (Object rowId : rowIds)
+            {
+                translator.appendValue(builder, ((AbstractAttribute) metadata.getIdAttribute()).getBindableJavaType(),
+                        rowId, false, false);
+                builder.append(CQLTranslator.COMMA_STR);
+            }
+            builder.delete(builder.lastIndexOf(CQLTranslator.COMMA_STR), builder.length());
+            builder.append(CQLTranslator.CLOSE_BRACKET);
+            return CassandraClientBase.this.executeQuery(builder.toString(), metadata.getEntityClazz(), relationNames);
+        }
+
         /**
          * Find List of objects based on value {@columnValue} of column
          * {@columnName}
@@ -92,4 +92,14 @@ public interface CassandraConstants
     public static final String SOCKET_TIMEOUT = "socket.timeout";
 
     public static final String MAX_WAIT = "max.wait";
+
+    // properties (or query hints) to scan token ring in parallel.
+
+    /** number of splits scanned concurrently, parallel scan is off if unset. */
+    public static final String PARALLEL_SCAN_THREADS = "parallel.scan.threads";
+
+    /** number of scanned rows held until consumed. */
+    public static final String PARALLEL_SCAN_QUEUE_SIZE = "parallel.scan.queue.size";
+
+    public static final int DEFAULT_PARALLEL_SCAN_QUEUE_SIZE = 10000;
 }
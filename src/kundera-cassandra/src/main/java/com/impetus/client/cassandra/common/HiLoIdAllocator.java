@@ -0,0 +1,145 @@
+/**
+ * Copyright 2013 Impetus Infotech.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.impetus.client.cassandra.common;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.impetus.kundera.metadata.model.TableGeneratorDiscriptor;
+
+/**
+ * Hi/lo allocator for table generated ids. Each increment of a generator's
+ * counter reserves a block of allocationSize ids, which are handed out from
+ * memory without locking. Only reservation of next block, once current one is
+ * exhausted, is serialized per generator.
+ *
+ * Block n, i.e. counter value after n-th increment, holds ids from
+ * initialValue + (n - 1) * allocationSize to initialValue + n * allocationSize
+ * - 1.
+ *
+ * Ids are unique only within a single entity manager factory (one allocator
+ * per client factory). Block reservation of Cassandra, an increment of a
+ * counter column followed by a read of it, is not atomic: entity manager
+ * factories in the same or other JVMs reserving a block of a generator at
+ * the same time may read the same counter value and so hand out the same
+ * ids.
+ */
+public class HiLoIdAllocator
+{
+    /**
+     * Reserves next block of a generator.
+     */
+    public interface BlockReserver
+    {
+        /**
+         * Increments counter of generator.
+         *
+         * @return counter value after increment.
+         */
+        long reserve();
+    }
+
+    /** generators by schema, table and pk column value. */
+    private final ConcurrentMap<String, Generator> generators = new ConcurrentHashMap<String, Generator>();
+
+    /**
+     * Returns next id of generator described by descriptor.
+     *
+     * @param descriptor
+     *            table generator descriptor.
+     * @param reserver
+     *            reserves next block, if current one is exhausted.
+     * @return next id.
+     */
+    public long next(TableGeneratorDiscriptor descriptor, BlockReserver reserver)
+    {
+        String key = descriptor.getSchema() + "." + descriptor.getTable() + "." + descriptor.getPkColumnValue();
+        Generator generator = generators.get(key);
+        if (generator == null)
+        {
+            Generator newGenerator = new Generator(descriptor.getInitialValue(), Math.max(
+                    descriptor.getAllocationSize(), 1));
+            generator = generators.putIfAbsent(key, newGenerator);
+            if (generator == null)
+            {
+                generator = newGenerator;
+            }
+        }
+        return generator.next(reserver);
+    }
+
+    /**
+     * Ids of a generator, current block is replaced once exhausted.
+     */
+    private static final class Generator
+    {
+        private final long initialValue;
+
+        private final int allocationSize;
+
+        private final AtomicReference<Block> block = new AtomicReference<Block>();
+
+        Generator(long initialValue, int allocationSize)
+        {
+            this.initialValue = initialValue;
+            this.allocationSize = allocationSize;
+        }
+
+        long next(BlockReserver reserver)
+        {
+            while (true)
+            {
+                Block current = block.get();
+                if (current != null)
+                {
+                    long id = current.next.getAndIncrement();
+                    if (id < current.end)
+                    {
+                        return id;
+                    }
+                }
+
+                synchronized (this)
+                {
+                    // block may have been replaced by another thread meanwhile.
+                    if (block.get() == current)
+                    {
+                        long start = initialValue + (reserver.reserve() - 1) * allocationSize;
+                        block.set(new Block(start, start + allocationSize));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Reserved ids, from next (inclusive) to end (exclusive).
+     */
+    private static final class Block
+    {
+        private final AtomicLong next;
+
+        private final long end;
+
+        Block(long start, long end)
+        {
+            this.next = new AtomicLong(start);
+            this.end = end;
+        }
+    }
+}
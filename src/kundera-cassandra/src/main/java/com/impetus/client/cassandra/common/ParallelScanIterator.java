@@ -0,0 +1,360 @@
+/**
+ * Copyright 2013 Impetus Infotech.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.impetus.client.cassandra.common;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.persistence.PersistenceException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.impetus.kundera.query.IResultIterator;
+import com.impetus.kundera.utils.KunderaThreadFactory;
+
+/**
+ * Iterates over rows of independent splits (e.g. token ranges of a column
+ * family), which are read concurrently by a bounded pool of threads. Read rows
+ * are handed over through a bounded queue, so a reader blocks once consumer
+ * falls behind and memory held by a scan stays flat, whatever number of rows
+ * is scanned. Order of rows across splits is not defined.
+ *
+ * Scan is started on first call of {@link #hasNext()} and its threads are
+ * released once all splits are read, on failure of a split or on
+ * {@link #close()}, which is to be called if iteration is abandoned midway.
+ * Scan of a consumer which takes no row for idle timeout, e.g. one dropped
+ * without close, is closed by its readers and fails on next call.
+ */
+public class ParallelScanIterator<E> implements IResultIterator<E>
+{
+    /**
+     * Reads a split page by page.
+     */
+    public interface SplitReader<E>
+    {
+        /**
+         * Reads next page of split.
+         *
+         * @return rows of next page, null or empty once split is exhausted.
+         * @throws Exception
+         *             on failure of read.
+         */
+        List<E> next() throws Exception;
+    }
+
+    /** the log used by this class. */
+    private static Logger log = LoggerFactory.getLogger(ParallelScanIterator.class);
+
+    /** marks end of scan in queue. */
+    private static final Object END = new Object();
+
+    /** wait of a blocked reader, before it checks whether scan is closed. */
+    private static final long OFFER_TIMEOUT_MILLIS = 500;
+
+    /** default wait for consumer to take a row, before scan is abandoned. */
+    private static final long DEFAULT_IDLE_TIMEOUT_MILLIS = 5 * 60 * 1000L;
+
+    private final List<? extends SplitReader<E>> splits;
+
+    private final int threads;
+
+    private final int maxRows;
+
+    private final long idleTimeoutMillis;
+
+    private final BlockingQueue<Object> queue;
+
+    private final AtomicReference<Exception> failure = new AtomicReference<Exception>();
+
+    private final AtomicInteger pendingSplits;
+
+    private ExecutorService executor;
+
+    private volatile boolean closed;
+
+    /** time of last row taken by consumer. */
+    private volatile long lastTaken;
+
+    private Object next;
+
+    private boolean done;
+
+    private int count;
+
+    /**
+     * @param splits
+     *            readers of splits to be scanned.
+     * @param threads
+     *            number of splits read concurrently.
+     * @param queueSize
+     *            number of read rows held until consumed.
+     * @param maxRows
+     *            maximum number of rows to be iterated, scan is closed once
+     *            reached.
+     */
+    public ParallelScanIterator(List<? extends SplitReader<E>> splits, int threads, int queueSize, int maxRows)
+    {
+        this(splits, threads, queueSize, maxRows, DEFAULT_IDLE_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * @param splits
+     *            readers of splits to be scanned.
+     * @param threads
+     *            number of splits read concurrently.
+     * @param queueSize
+     *            number of read rows held until consumed.
+     * @param maxRows
+     *            maximum number of rows to be iterated, scan is closed once
+     *            reached.
+     * @param idleTimeoutMillis
+     *            wait of readers on a full queue for consumer to take a row,
+     *            scan is abandoned once exceeded.
+     */
+    public ParallelScanIterator(List<? extends SplitReader<E>> splits, int threads, int queueSize, int maxRows,
+            long idleTimeoutMillis)
+    {
+        if (threads <= 0 || queueSize <= 0 || idleTimeoutMillis <= 0)
+        {
+            throw new IllegalArgumentException("Scan threads, queue size and idle timeout must be > 0.");
+        }
+        this.splits = splits;
+        this.threads = Math.min(threads, Math.max(splits.size(), 1));
+        this.queue = new ArrayBlockingQueue<Object>(queueSize);
+        this.pendingSplits = new AtomicInteger(splits.size());
+        this.maxRows = maxRows;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+    }
+
+    @Override
+    public boolean hasNext()
+    {
+        if (done)
+        {
+            return false;
+        }
+        if (count >= maxRows)
+        {
+            close();
+            return false;
+        }
+        if (next == null)
+        {
+            start();
+            try
+            {
+                // scan may be abandoned meanwhile, i.e. closed by a reader.
+                next = queue.poll(OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                while (next == null && !closed)
+                {
+                    next = queue.poll(OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                }
+                lastTaken = System.currentTimeMillis();
+            }
+            catch (InterruptedException e)
+            {
+                close();
+                Thread.currentThread().interrupt();
+                throw new PersistenceException("Interrupted while scrolling over results.", e);
+            }
+
+            if (next == null || next == END)
+            {
+                done = true;
+                next = null;
+                shutdown();
+                if (failure.get() != null)
+                {
+                    throw new PersistenceException("Error while scrolling over results.", failure.get());
+                }
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public E next()
+    {
+        if (!hasNext())
+        {
+            throw new NoSuchElementException("Nothing to scroll further.");
+        }
+        E row = (E) next;
+        next = null;
+        count++;
+        return row;
+    }
+
+    @Override
+    public List<E> next(int chunkSize)
+    {
+        List<E> chunk = new ArrayList<E>(chunkSize);
+        while (chunk.size() < chunkSize && hasNext())
+        {
+            chunk.add(next());
+        }
+        return chunk;
+    }
+
+    @Override
+    public void remove()
+    {
+        throw new UnsupportedOperationException("remove method is not supported over pagination");
+    }
+
+    /**
+     * Stops scan and releases its threads, rows not yet consumed are
+     * discarded.
+     */
+    public void close()
+    {
+        closed = true;
+        done = true;
+        next = null;
+        shutdown();
+        queue.clear();
+    }
+
+    /**
+     * Submits a read task per split, on first call.
+     */
+    private void start()
+    {
+        if (executor != null)
+        {
+            return;
+        }
+
+        if (splits.isEmpty())
+        {
+            queue.offer(END);
+            return;
+        }
+
+        lastTaken = System.currentTimeMillis();
+        executor = Executors.newFixedThreadPool(threads,
+                new KunderaThreadFactory(ParallelScanIterator.class.getName()));
+        for (final SplitReader<E> split : splits)
+        {
+            executor.execute(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    read(split);
+                }
+            });
+        }
+    }
+
+    /**
+     * Reads all pages of given split into queue, last finished split (or a
+     * failed one) marks end of scan.
+     */
+    private void read(SplitReader<E> split)
+    {
+        boolean end = false;
+        try
+        {
+            List<E> page;
+            while (!closed && failure.get() == null && (page = split.next()) != null && !page.isEmpty())
+            {
+                for (E row : page)
+                {
+                    if (row != null && !put(row))
+                    {
+                        return;
+                    }
+                }
+            }
+            end = pendingSplits.decrementAndGet() == 0;
+        }
+        catch (Exception e)
+        {
+            log.error("Error while reading split.", e);
+            end = failure.compareAndSet(null, e);
+        }
+
+        if (end)
+        {
+            put(END);
+        }
+    }
+
+    /**
+     * Puts given row into queue, waits while queue is full. Abandons scan once
+     * consumer has taken no row for idle timeout.
+     *
+     * @return false, if scan is closed meanwhile.
+     */
+    private boolean put(Object row)
+    {
+        try
+        {
+            while (!closed)
+            {
+                if (queue.offer(row, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS))
+                {
+                    return true;
+                }
+                if (System.currentTimeMillis() - lastTaken > idleTimeoutMillis)
+                {
+                    abandon();
+                }
+            }
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+
+    /**
+     * Closes scan on behalf of a consumer which stopped taking rows, consumer
+     * fails on its next call.
+     */
+    private void abandon()
+    {
+        if (failure.compareAndSet(null, new IllegalStateException("No row taken for " + idleTimeoutMillis
+                + " ms, scan is abandoned.")))
+        {
+            log.warn("No row taken for {} ms, abandoning scan.", idleTimeoutMillis);
+        }
+        closed = true;
+        shutdown();
+        queue.clear();
+    }
+
+    private void shutdown()
+    {
+        if (executor != null)
+        {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -804,7 +804,7 @@ public abstract class CassandraDataHandlerBase
         }
         else
         {
-            columnValue = PropertyAccessorHelper.getObject(m.getIdAttribute().getJavaType(), (byte[]) columnValue);
+            columnValue = PropertyAccessorHelper.getObject(m.getIdAttribute().getJavaType(), getBytes(columnValue));
             PropertyAccessorHelper.setId(entity, m, columnValue);
         }
     }
@@ -992,7 +992,9 @@ public abstract class CassandraDataHandlerBase
             throws InstantiationException, IllegalAccessException
     {
         String thriftColumnName = PropertyAccessorFactory.STRING.fromBytes(String.class, column.getName());
-        byte[] thriftColumnValue = column.getValue();
+
+        // decoded straight out of thrift buffer, see getBytes and getBuffer.
+        ByteBuffer thriftColumnValue = column.bufferForValue();
 
         String discriminatorColumn = ((AbstractManagedType) entityType).getDiscriminatorColumn();
 
@@ -1087,7 +1089,7 @@ public abstract class CassandraDataHandlerBase
                                 && thriftColumnName.equals(idColumnName))
                         {
                             setId(m, entity, thriftColumnValue, isCql3Enabled);
-                            PropertyAccessorHelper.setId(entity, m, (byte[]) thriftColumnValue);
+                            PropertyAccessorHelper.setId(entity, m, getBytes(thriftColumnValue));
                         }
                         if (isCql3Enabled && !m.getType().equals(Type.SUPER_COLUMN_FAMILY) && !m.isCounterColumnType())
                         {
@@ -1124,7 +1126,7 @@ public abstract class CassandraDataHandlerBase
                 else
                 {
                     value = PropertyAccessorHelper.getObject(relationMetadata.getIdAttribute().getJavaType(),
-                            (byte[]) thriftColumnValue);
+                            getBytes(thriftColumnValue));
                 }
                 relations.put(thriftColumnName, value);
 
@@ -1209,7 +1211,8 @@ public abstract class CassandraDataHandlerBase
                 }
                 else
                 {
-                    PropertyAccessorHelper.set(entity, (Field) attribute.getJavaMember(), (byte[]) thriftColumnValue);
+                    PropertyAccessorHelper.set(entity, (Field) attribute.getJavaMember(),
+                            getBuffer(thriftColumnValue));
                 }
             }
             catch (PropertyAccessException pae)
@@ -1235,31 +1238,32 @@ public abstract class CassandraDataHandlerBase
                         || ((AbstractAttribute) attribute).getBindableJavaType().isAssignableFrom(Character.class))
                 {
                     PropertyAccessorHelper.set(entity, (Field) attribute.getJavaMember(), new String(
-                            (byte[]) thriftColumnValue));
+                            getBytes(thriftColumnValue)));
                 }
                 else if (((AbstractAttribute) attribute).getBindableJavaType().isAssignableFrom(short.class)
                         || ((AbstractAttribute) attribute).getBindableJavaType().isAssignableFrom(Short.class))
                 {
                     IntegerAccessor accessor = new IntegerAccessor();
-                    int value = accessor.fromBytes(short.class, (byte[]) thriftColumnValue);
+                    int value = accessor.fromBytes(short.class, getBytes(thriftColumnValue));
                     PropertyAccessorHelper.set(entity, (Field) attribute.getJavaMember(), String.valueOf(value));
                 }
                 else if (((AbstractAttribute) attribute).getBindableJavaType().isAssignableFrom(byte.class)
                         || ((AbstractAttribute) attribute).getBindableJavaType().isAssignableFrom(Byte.class))
                 {
                     IntegerAccessor accessor = new IntegerAccessor();
-                    int value = accessor.fromBytes(byte.class, (byte[]) thriftColumnValue);
+                    int value = accessor.fromBytes(byte.class, getBytes(thriftColumnValue));
                     PropertyAccessorHelper.set(entity, (Field) attribute.getJavaMember(), String.valueOf(value));
                 }
                 else if (((AbstractAttribute) attribute).getBindableJavaType().isAssignableFrom(BigDecimal.class))
                 {
                     BigDecimalAccessor accessor = new BigDecimalAccessor();
-                    BigDecimal value = accessor.fromBytes(BigDecimal.class, (byte[]) thriftColumnValue);
+                    BigDecimal value = accessor.fromBytes(BigDecimal.class, getBytes(thriftColumnValue));
                     PropertyAccessorHelper.set(entity, (Field) attribute.getJavaMember(), String.valueOf(value));
                 }
                 else
                 {
-                    PropertyAccessorHelper.set(entity, (Field) attribute.getJavaMember(), (byte[]) thriftColumnValue);
+                    PropertyAccessorHelper.set(entity, (Field) attribute.getJavaMember(),
+                            getBuffer(thriftColumnValue));
                 }
             }
             catch (PropertyAccessException pae)
@@ -1284,7 +1288,7 @@ public abstract class CassandraDataHandlerBase
             {
 
                 Collection outputCollection = null;
-                ByteBuffer valueByteBuffer = ByteBuffer.wrap((byte[]) thriftColumnValue);
+                ByteBuffer valueByteBuffer = getBuffer(thriftColumnValue).duplicate();
                 Class<?> genericClass = PropertyAccessorHelper.getGenericClass((Field) attribute.getJavaMember());
                 Class<?> valueValidationClass = CassandraValidationClassMapper.getValidationClassInstance(genericClass,
                         true);
@@ -1309,7 +1313,7 @@ public abstract class CassandraDataHandlerBase
 
             else if (((Field) attribute.getJavaMember()).getType().isAssignableFrom(Map.class))
             {
-                ByteBuffer valueByteBuffer = ByteBuffer.wrap((byte[]) thriftColumnValue);
+                ByteBuffer valueByteBuffer = getBuffer(thriftColumnValue).duplicate();
                 List<Class<?>> mapGenericClasses = PropertyAccessorHelper.getGenericClasses((Field) attribute
                         .getJavaMember());
 
@@ -1398,6 +1402,32 @@ public abstract class CassandraDataHandlerBase
         return dataCollection;
     }
 
+    /**
+     * Returns column value as byte array, array backing a buffer is shared
+     * when it holds value alone.
+     * 
+     * @param columnValue
+     *            byte array or buffer.
+     * @return byte array.
+     */
+    private static byte[] getBytes(Object columnValue)
+    {
+        return columnValue instanceof ByteBuffer ? ByteBufferUtil.getArray((ByteBuffer) columnValue)
+                : (byte[]) columnValue;
+    }
+
+    /**
+     * Returns column value as buffer, byte arrays are wrapped.
+     * 
+     * @param columnValue
+     *            byte array or buffer.
+     * @return buffer.
+     */
+    private static ByteBuffer getBuffer(Object columnValue)
+    {
+        return columnValue instanceof ByteBuffer ? (ByteBuffer) columnValue : ByteBuffer.wrap((byte[]) columnValue);
+    }
+
     private Object getFieldValueViaCQL(Object thriftColumnValue, Attribute attribute)
     {
         PropertyAccessor<?> accessor = PropertyAccessorFactory.getPropertyAccessor((Field) attribute.getJavaMember());
@@ -1410,7 +1440,7 @@ public abstract class CassandraDataHandlerBase
             {
 
                 objValue = accessor.fromString(((AbstractAttribute) attribute).getBindableJavaType(), new String(
-                        (byte[]) thriftColumnValue));
+                        getBytes(thriftColumnValue)));
                 return objValue;
             }
             else if (((AbstractAttribute) attribute).getBindableJavaType().isAssignableFrom(short.class)
@@ -1418,7 +1448,7 @@ public abstract class CassandraDataHandlerBase
             {
                 // byte and short are treated as int data type with Kundera.
                 IntegerAccessor shortAccessor = new IntegerAccessor();
-                int value = shortAccessor.fromBytes(short.class, (byte[]) thriftColumnValue);
+                int value = shortAccessor.fromBytes(short.class, getBytes(thriftColumnValue));
                 objValue = accessor.fromString(((AbstractAttribute) attribute).getBindableJavaType(),
                         String.valueOf(value));
                 return objValue;
@@ -1427,7 +1457,7 @@ public abstract class CassandraDataHandlerBase
                     || ((AbstractAttribute) attribute).getBindableJavaType().isAssignableFrom(Byte.class))
             {
                 IntegerAccessor byteAccessor = new IntegerAccessor();
-                int value = byteAccessor.fromBytes(byte.class, (byte[]) thriftColumnValue);
+                int value = byteAccessor.fromBytes(byte.class, getBytes(thriftColumnValue));
                 objValue = accessor.fromString(((AbstractAttribute) attribute).getBindableJavaType(),
                         String.valueOf(value));
                 return objValue;
@@ -1435,14 +1465,14 @@ public abstract class CassandraDataHandlerBase
             else if (((AbstractAttribute) attribute).getBindableJavaType().isAssignableFrom(BigDecimal.class))
             {
                 BigDecimalAccessor bigDecimalAccessor = new BigDecimalAccessor();
-                BigDecimal value = bigDecimalAccessor.fromBytes(BigDecimal.class, (byte[]) thriftColumnValue);
+                BigDecimal value = bigDecimalAccessor.fromBytes(BigDecimal.class, getBytes(thriftColumnValue));
 
                 return value;
             }
             else
             {
                 objValue = accessor.fromBytes(((AbstractAttribute) attribute).getBindableJavaType(),
-                        (byte[]) thriftColumnValue);
+                        getBytes(thriftColumnValue));
                 return objValue;
             }
         }
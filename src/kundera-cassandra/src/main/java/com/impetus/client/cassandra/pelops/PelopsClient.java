@@ -57,6 +57,7 @@ import org.slf4j.LoggerFactory;
 
 import com.impetus.client.cassandra.CassandraClientBase;
 import com.impetus.client.cassandra.common.CassandraUtilities;
+import com.impetus.client.cassandra.common.HiLoIdAllocator;
 import com.impetus.client.cassandra.datahandler.CassandraDataHandler;
 import com.impetus.client.cassandra.index.InvertedIndexHandler;
 import com.impetus.client.cassandra.query.CassQuery;
@@ -212,10 +213,9 @@ public class PelopsClient extends CassandraClientBase implements Client<CassQuer
             }
             else
             {
-                RowDeletor rowDeletor = clientFactory.getRowDeletor(pool);
-                rowDeletor.deleteRow(metadata.getTableName(),
-                        CassandraUtilities.toBytes(pKey, metadata.getIdAttribute().getJavaType()),
-                        getConsistencyLevel());
+                Bytes rowKey = CassandraUtilities.toBytes(pKey, metadata.getIdAttribute().getJavaType());
+                RowDeletor rowDeletor = clientFactory.getRowDeletor(clientFactory.getPool(rowKey.getBytes(), pool));
+                rowDeletor.deleteRow(metadata.getTableName(), rowKey, getConsistencyLevel());
 
             }
         }
@@ -505,7 +505,9 @@ public class PelopsClient extends CassandraClientBase implements Client<CassQuer
                 throw new KunderaException(e);
             }
             addRelationsToThriftRow(metadata, tf, rlHolders);
-            Mutator mutator = clientFactory.getMutator(pool);
+            ByteBuffer rowKey = clientFactory.isTokenAware() ? CassandraUtilities.toBytes(tf.getId(),
+                    tf.getId().getClass()).getBytes() : null;
+            Mutator mutator = clientFactory.getMutator(clientFactory.getPool(rowKey, pool));
             if (metadata.isCounterColumnType())
             {
                 if (log.isInfoEnabled())
@@ -861,6 +863,12 @@ public class PelopsClient extends CassandraClientBase implements Client<CassQuer
         return getGeneratedValue(discriptor, getPersistenceUnit());
     }
 
+    @Override
+    protected HiLoIdAllocator getIdAllocator()
+    {
+        return clientFactory.getIdAllocator();
+    }
+
     Mutator getMutator()
     {
         return clientFactory.getMutator(pool);
@@ -871,6 +879,15 @@ public class PelopsClient extends CassandraClientBase implements Client<CassQuer
         return clientFactory.getSelector(pool);
     }
 
+    /**
+     * Returns selector over pool of a replica node for given row key, with
+     * token aware balancing policy.
+     */
+    Selector getSelector(ByteBuffer rowKey)
+    {
+        return clientFactory.getSelector(clientFactory.getPool(rowKey, pool));
+    }
+
     RowDeletor getRowDeletor()
     {
         return clientFactory.getRowDeletor(pool);
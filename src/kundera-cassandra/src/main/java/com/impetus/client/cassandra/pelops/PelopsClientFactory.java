@@ -17,6 +17,7 @@ package com.impetus.client.cassandra.pelops;
 
 import java.util.Collection;
 import java.util.Collections;
+import java.nio.ByteBuffer;
 import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
@@ -39,12 +40,14 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.common.collect.Lists;
+import com.impetus.client.cassandra.common.HiLoIdAllocator;
 import com.impetus.client.cassandra.config.CassandraPropertyReader;
 import com.impetus.client.cassandra.query.CassandraEntityReader;
 import com.impetus.client.cassandra.schemamanager.CassandraSchemaManager;
 import com.impetus.client.cassandra.service.CassandraHost;
 import com.impetus.client.cassandra.service.CassandraHostConfiguration;
 import com.impetus.client.cassandra.service.CassandraRetryService;
+import com.impetus.client.cassandra.service.TokenAwareBalancingPolicy;
 import com.impetus.kundera.Constants;
 import com.impetus.kundera.KunderaException;
 import com.impetus.kundera.PersistenceProperties;
@@ -69,6 +72,9 @@ public class PelopsClientFactory extends GenericClientFactory
 
     private HostConfiguration configuration;
 
+    /** allocates table generated ids, shared by all clients. */
+    private final HiLoIdAllocator idAllocator = new HiLoIdAllocator();
+
     @Override
     public void initialize(Map<String, Object> externalProperty)
     {
@@ -134,6 +140,18 @@ public class PelopsClientFactory extends GenericClientFactory
                 }
             }
         }
+        if (loadBalancingPolicy instanceof TokenAwareBalancingPolicy && !hostPools.isEmpty())
+        {
+            IPooledConnection conn = getConnection(getPoolUsingPolicy());
+            try
+            {
+                ((TokenAwareBalancingPolicy) loadBalancingPolicy).refreshRing(conn.getAPI(), keyspace);
+            }
+            finally
+            {
+                releaseConnection(conn);
+            }
+        }
         // TODO return a thrift pool
         return null;
     }
@@ -209,6 +227,9 @@ public class PelopsClientFactory extends GenericClientFactory
         case LEASTACTIVE:
             loadBalancingPolicy = new PelopsLeastActiveBalancingPolcy();
             break;
+        case TOKENAWARE:
+            loadBalancingPolicy = new TokenAwareBalancingPolicy(new PelopsLeastActiveBalancingPolcy());
+            break;
         default:
             loadBalancingPolicy = new RoundRobinBalancingPolicy();
             break;
@@ -229,6 +250,37 @@ public class PelopsClientFactory extends GenericClientFactory
         throw new KunderaException("All hosts are down. please check servers manully.");
     }
 
+    /**
+     * @return true, if token aware balancing policy is configured.
+     */
+    boolean isTokenAware()
+    {
+        return loadBalancingPolicy instanceof TokenAwareBalancingPolicy;
+    }
+
+    /**
+     * Returns pool of a replica node for given row key if token aware policy
+     * is configured, else given default pool.
+     * 
+     * @param rowKey
+     *            row key, may be null.
+     * @param defaultPool
+     *            pool of client.
+     * @return pool.
+     */
+    IThriftPool getPool(ByteBuffer rowKey, IThriftPool defaultPool)
+    {
+        if (rowKey != null && loadBalancingPolicy instanceof TokenAwareBalancingPolicy)
+        {
+            Object replicaPool = ((TokenAwareBalancingPolicy) loadBalancingPolicy).getPool(hostPools, rowKey);
+            if (replicaPool != null)
+            {
+                return (IThriftPool) replicaPool;
+            }
+        }
+        return defaultPool;
+    }
+
     IPooledConnection getConnection(IThriftPool pool)
     {
         IThriftPool iThriftPool = pool;
@@ -266,6 +318,11 @@ public class PelopsClientFactory extends GenericClientFactory
         throw new KunderaException("All hosts are down. please check servers manully.");
     }
 
+    HiLoIdAllocator getIdAllocator()
+    {
+        return idAllocator;
+    }
+
     Mutator getMutator(IThriftPool pool)
     {
         IThriftPool iThriftPool = pool;
@@ -17,6 +17,7 @@ package com.impetus.client.cassandra.pelops;
 
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -56,11 +57,11 @@ final class PelopsDataHandler extends CassandraDataHandlerBase implements Cassan
     public Object fromThriftRow(Class<?> clazz, EntityMetadata m, Object rowKey, List<String> relationNames,
             boolean isWrapReq, ConsistencyLevel consistencyLevel) throws Exception
     {
-        Selector selector = pelopsClient.getSelector();
-
         List<ByteBuffer> rowKeys = new ArrayList<ByteBuffer>(1);
         rowKeys.add(ByteBuffer.wrap(PropertyAccessorHelper.toBytes(rowKey, m.getIdAttribute().getJavaType())));
 
+        Selector selector = pelopsClient.getSelector(rowKeys.get(0));
+
         Map<ByteBuffer, List<ColumnOrSuperColumn>> thriftColumnOrSuperColumns = selector
                 .getColumnOrSuperColumnsFromRows(new ColumnParent(m.getTableName()), rowKeys,
                         Selector.newColumnsPredicateAll(true, 10000), consistencyLevel);
@@ -77,11 +78,52 @@ final class PelopsDataHandler extends CassandraDataHandlerBase implements Cassan
 
     /** Translation Methods */
 
+    /**
+     * Fetches all rows in a single multiget call.
+     */
     @Override
     public List<Object> fromThriftRow(Class<?> clazz, EntityMetadata m, List<String> relationNames, boolean isWrapReq,
             ConsistencyLevel consistencyLevel, Object... rowIds) throws Exception
     {
-        return super.fromThriftRow(clazz, m, relationNames, isWrapReq, consistencyLevel, rowIds);
+        List<Object> entities = new ArrayList<Object>();
+        if (rowIds == null || rowIds.length == 0)
+        {
+            return entities;
+        }
+
+        Selector selector = pelopsClient.getSelector();
+
+        List<ByteBuffer> rowKeys = new ArrayList<ByteBuffer>(rowIds.length);
+        for (Object rowKey : rowIds)
+        {
+            rowKeys.add(ByteBuffer.wrap(PropertyAccessorHelper.toBytes(rowKey, m.getIdAttribute().getJavaType())));
+        }
+
+        Map<ByteBuffer, List<ColumnOrSuperColumn>> rows = selector.getColumnOrSuperColumnsFromRows(new ColumnParent(
+                m.getTableName()), rowKeys, Selector.newColumnsPredicateAll(true, 10000), consistencyLevel);
+
+        for (int i = 0; i < rowIds.length; i++)
+        {
+            List<ColumnOrSuperColumn> columnOrSuperColumns = rows.get(rowKeys.get(i));
+
+            Map<ByteBuffer, List<ColumnOrSuperColumn>> thriftColumnOrSuperColumns = new HashMap<ByteBuffer, List<ColumnOrSuperColumn>>();
+            thriftColumnOrSuperColumns.put(rowKeys.get(i), columnOrSuperColumns != null ? columnOrSuperColumns
+                    : new ArrayList<ColumnOrSuperColumn>(0));
+
+            ThriftRow tr = new ThriftRow();
+            tr.setId(rowIds[i]);
+            tr.setColumnFamilyName(m.getTableName());
+
+            tr = thriftTranslator.translateToThriftRow(thriftColumnOrSuperColumns, m.isCounterColumnType(),
+                    m.getType(), tr);
+
+            Object e = populateEntity(tr, m, relationNames, isWrapReq);
+            if (e != null)
+            {
+                entities.add(e);
+            }
+        }
+        return entities;
     }
 
     @Override
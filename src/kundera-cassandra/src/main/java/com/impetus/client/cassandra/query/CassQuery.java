@@ -32,6 +32,7 @@ import javax.persistence.metamodel.EmbeddableType;
 import javax.persistence.metamodel.EntityType;
 import javax.persistence.metamodel.Metamodel;
 
+import org.apache.cassandra.thrift.Column;
 import org.apache.cassandra.thrift.IndexClause;
 import org.apache.cassandra.thrift.IndexExpression;
 import org.apache.cassandra.thrift.IndexOperator;
@@ -42,9 +43,12 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.impetus.client.cassandra.CassandraClientBase;
+import com.impetus.client.cassandra.common.CassandraConstants;
 import com.impetus.client.cassandra.common.CassandraUtilities;
+import com.impetus.client.cassandra.common.ParallelScanIterator;
 import com.impetus.client.cassandra.index.CassandraIndexHelper;
 import com.impetus.client.cassandra.thrift.CQLTranslator;
+import com.impetus.client.cassandra.thrift.ThriftClient;
 import com.impetus.kundera.Constants;
 import com.impetus.kundera.client.Client;
 import com.impetus.kundera.client.ClientBase;
@@ -61,6 +65,8 @@ import com.impetus.kundera.persistence.EntityReader;
 import com.impetus.kundera.persistence.PersistenceDelegator;
 import com.impetus.kundera.property.PropertyAccessorHelper;
 import com.impetus.kundera.query.KunderaQuery;
+import com.impetus.kundera.query.KunderaQuery.Aggregation;
+import com.impetus.kundera.query.KunderaQuery.Aggregation.Function;
 import com.impetus.kundera.query.KunderaQuery.FilterClause;
 import com.impetus.kundera.query.KunderaQuery.SortOrder;
 import com.impetus.kundera.query.KunderaQuery.SortOrdering;
@@ -89,6 +95,9 @@ public class CassQuery extends QueryImpl
 
     private boolean isSingleResult = false;
 
+    /** parallel scans opened by iterate, closed along with query. */
+    private final List<ParallelScanIterator<?>> scans = new ArrayList<ParallelScanIterator<?>>();
+
     /**
      * Instantiates a new cass query.
      * 
@@ -144,11 +153,22 @@ public class CassQuery extends QueryImpl
         }
         else
         {
+            int scanThreads = getParallelScanThreads(m, client);
             if (isNative)
             {
                 result = ((CassandraClientBase) client).executeQuery(query != null ? query : getJPAQuery(),
                         m.getEntityClazz(), null);
             }
+            else if (scanThreads > 0)
+            {
+                Iterator<Object> entities = ((ThriftClient) client).scan(m,
+                        getColumnList(m, getKunderaQuery().getProjection(), null), scanThreads,
+                        getParallelScanQueueSize(), isSingleResult ? 1 : this.maxResult);
+                while (entities.hasNext())
+                {
+                    result.add(entities.next());
+                }
+            }
             else
             {
                 if (MetadataUtils.useSecondryIndex(((ClientBase) client).getClientMetadata()))
@@ -168,12 +188,12 @@ public class CassQuery extends QueryImpl
                         {
                             result = ((CassandraClientBase) client).find(ixClause.get(isRowKeyQuery), m, false, null,
                                     isSingleResult ? 1 : this.maxResult,
-                                    getColumnList(m, getKunderaQuery().getResult(), null));
+                                    getColumnList(m, getKunderaQuery().getProjection(), null));
                         }
                         else
                         {
                             result = ((CassandraEntityReader) getReader()).handleFindByRange(m, client, result,
-                                    ixClause, isRowKeyQuery, getColumnList(m, getKunderaQuery().getResult(), null),
+                                    ixClause, isRowKeyQuery, getColumnList(m, getKunderaQuery().getProjection(), null),
                                     isSingleResult ? 1 : this.maxResult);
                         }
                     }
@@ -660,7 +680,7 @@ public class CassQuery extends QueryImpl
         StringBuilder builder = new StringBuilder();
 
         boolean isPresent = false;
-        List<String> columns = getColumnList(m, getKunderaQuery().getResult(), compoundKey);
+        List<String> columns = getColumnList(m, getKunderaQuery().getProjection(), compoundKey);
         String selectQuery = columns != null && !columns.isEmpty() ? CQLTranslator.SELECT_QUERY
                 : CQLTranslator.SELECTALL_QUERY;
 
@@ -848,24 +868,94 @@ public class CassQuery extends QueryImpl
     @Override
     public void close()
     {
-        // TODO Auto-generated method stub
-
+        // releases threads of scans abandoned midway.
+        for (ParallelScanIterator<?> scan : scans)
+        {
+            scan.close();
+        }
+        scans.clear();
     }
 
     @Override
     public Iterator iterate()
     {
+        return iterate(getFetchSize() != null ? getFetchSize() : this.maxResult);
+    }
+
+    @Override
+    protected Iterator iterate(int maxRows)
+    {
+        persistenceDelegeator.flushBeforeQuery();
+
         EntityMetadata m = getEntityMetadata();
         Client client = persistenceDelegeator.getClient(m);
         externalProperties = ((CassandraClientBase) client).getExternalProperties();
 
+        int scanThreads = getParallelScanThreads(m, client);
+        if (scanThreads > 0)
+        {
+            ParallelScanIterator<Object> scan = ((ThriftClient) client).scan(m,
+                    getColumnList(m, getKunderaQuery().getProjection(), null), scanThreads,
+                    getParallelScanQueueSize(), maxRows);
+            scans.add(scan);
+            return scan;
+        }
+
         if (!MetadataUtils.useSecondryIndex(((ClientBase) client).getClientMetadata()))
         {
             throw new UnsupportedOperationException("Scrolling over hbase is unsupported for lucene queries");
         }
 
-        return new ResultIterator(this, m, persistenceDelegeator.getClient(m), this.getReader(),
-                getFetchSize() != null ? getFetchSize() : this.maxResult);
+        return new ResultIterator(this, m, persistenceDelegeator.getClient(m), this.getReader(), maxRows);
+    }
+
+    /**
+     * Returns number of threads to scan token ring in parallel, as set by
+     * query hint or external property parallel.scan.threads. Returns 0, if not
+     * set or query can not be served by a range scan over thrift, i.e. is a
+     * native or cql3 query, has where clause or entity holds relations.
+     * 
+     * @param m
+     *            entity metadata.
+     * @param client
+     *            client.
+     * @return number of scan threads, 0 if parallel scan is not applicable.
+     */
+    private int getParallelScanThreads(EntityMetadata m, Client client)
+    {
+        Object threads = getParallelScanProperty(CassandraConstants.PARALLEL_SCAN_THREADS);
+        if (threads == null || !(client instanceof ThriftClient) || kunderaQuery.isNative()
+                || ((CassandraClientBase) client).isCql3Enabled(m)
+                || !getKunderaQuery().getFilterClauseQueue().isEmpty() || m.isRelationViaJoinTable()
+                || (m.getRelationNames() != null && !m.getRelationNames().isEmpty()))
+        {
+            return 0;
+        }
+        return Integer.parseInt(threads.toString());
+    }
+
+    /**
+     * @return number of scanned rows held until consumed.
+     */
+    private int getParallelScanQueueSize()
+    {
+        Object queueSize = getParallelScanProperty(CassandraConstants.PARALLEL_SCAN_QUEUE_SIZE);
+        return queueSize != null ? Integer.parseInt(queueSize.toString())
+                : CassandraConstants.DEFAULT_PARALLEL_SCAN_QUEUE_SIZE;
+    }
+
+    /**
+     * Returns value of given parallel scan property, query hint takes
+     * precedence over external property.
+     */
+    private Object getParallelScanProperty(String name)
+    {
+        Object value = getHints().get(name);
+        if (value == null && externalProperties != null)
+        {
+            value = externalProperties.get(name);
+        }
+        return value;
     }
 
     void setRelationalEntities(List enhanceEntities, Client client, EntityMetadata m)
@@ -873,9 +963,64 @@ public class CassQuery extends QueryImpl
         super.setRelationEntities(enhanceEntities, client, m);
     }
 
+    /**
+     * Computes COUNT of entities natively over CQL3 (i.e. SELECT COUNT(*)),
+     * other aggregates and groups are aggregated while iterating over matching
+     * entities.
+     */
+    @Override
+    protected List<Object> aggregate(EntityMetadata m, Client client)
+    {
+        boolean isCount = getKunderaQuery().getGroupings().isEmpty() && !kunderaQuery.isNative()
+                && ((CassandraClientBase) client).isCql3Enabled(m);
+        for (Aggregation aggregation : getKunderaQuery().getAggregations())
+        {
+            isCount = isCount && aggregation.getFunction() == Function.COUNT && aggregation.getProperty() == null;
+        }
+
+        if (!isCount)
+        {
+            return super.aggregate(m, client);
+        }
+
+        MetamodelImpl metaModel = (MetamodelImpl) KunderaMetadata.INSTANCE.getApplicationMetadata().getMetamodel(
+                m.getPersistenceUnit());
+
+        // count is limited by CQL limit clause as well, so all matching rows
+        // are counted irrespective of max results.
+        StringBuilder builder = new StringBuilder(onQueryOverCQL3(m, client, metaModel, null));
+        int limitStart = builder.lastIndexOf(CQLTranslator.LIMIT) + CQLTranslator.LIMIT.length();
+        int limitEnd = limitStart;
+        while (limitEnd < builder.length() && Character.isDigit(builder.charAt(limitEnd)))
+        {
+            limitEnd++;
+        }
+        builder.replace(limitStart, limitEnd, String.valueOf(Integer.MAX_VALUE));
+        String query = StringUtils.replaceOnce(builder.toString(), "SELECT * ", "SELECT COUNT(*) ");
+
+        List rows = ((CassandraClientBase) client).executeQuery(query, m.getEntityClazz(), null);
+        if (rows.isEmpty() || !(rows.get(0) instanceof Column))
+        {
+            return super.aggregate(m, client);
+        }
+
+        Long count = (Long) PropertyAccessorHelper.getObject(Long.class, ((Column) rows.get(0)).getValue());
+        Object[] row = new Object[getKunderaQuery().getAggregations().size()];
+        Arrays.fill(row, count);
+
+        List<Object> results = new ArrayList<Object>(1);
+        results.add(row.length == 1 ? row[0] : row);
+        return results;
+    }
+
     @Override
     public Object getSingleResult()
     {
+        if (kunderaQuery.isAggregated())
+        {
+            return super.getSingleResult();
+        }
+
         // to fetch a single result form database.
         isSingleResult = true;
         List results = getResultList();
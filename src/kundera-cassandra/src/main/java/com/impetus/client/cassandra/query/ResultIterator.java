@@ -283,7 +283,7 @@ class ResultIterator<E> implements IResultIterator<E>
 
                     results = ((CassandraClientBase) client).findByRange(minValue, maxVal, m,
                             m.getRelationNames() != null && !m.getRelationNames().isEmpty(), m.getRelationNames(),
-                            query.getColumnList(m, ((QueryImpl) query).getKunderaQuery().getResult(), null),
+                            query.getColumnList(m, ((QueryImpl) query).getKunderaQuery().getProjection(), null),
                             expressions, maxResult);
 
                     if (maxResult == 1)
@@ -0,0 +1,237 @@
+/*******************************************************************************
+ * * Copyright 2013 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.client.cassandra.service;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.cassandra.dht.IPartitioner;
+import org.apache.cassandra.dht.Token;
+import org.apache.cassandra.thrift.Cassandra;
+import org.apache.cassandra.thrift.TokenRange;
+import org.apache.cassandra.utils.FBUtilities;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.impetus.kundera.service.Host;
+import com.impetus.kundera.service.policy.LeastActiveBalancingPolicy;
+import com.impetus.kundera.service.policy.LoadBalancingPolicy;
+
+/**
+ * Token aware balancing policy, learns token ring of keyspace via
+ * describe_ring and returns pool of a replica node for a given row key, so
+ * that request lands on a node holding that row. Falls back to least active
+ * selection among replicas, and among all pools if row key is not known or ring
+ * could not be loaded.
+ */
+public class TokenAwareBalancingPolicy implements LoadBalancingPolicy
+{
+    /** the log used by this class. */
+    private static Logger log = LoggerFactory.getLogger(TokenAwareBalancingPolicy.class);
+
+    /** Wildcard rpc address, in that case listen address is used. */
+    private static final String ANY_ADDRESS = "0.0.0.0";
+
+    private final LeastActiveBalancingPolicy childPolicy;
+
+    /** Resolved ip address by configured host name. */
+    private final Map<String, String> addresses = new ConcurrentHashMap<String, String>();
+
+    private volatile Ring ring;
+
+    /**
+     * @param childPolicy
+     *            policy to select among replicas.
+     */
+    public TokenAwareBalancingPolicy(LeastActiveBalancingPolicy childPolicy)
+    {
+        this.childPolicy = childPolicy;
+    }
+
+    /**
+     * @return policy to select among replicas.
+     */
+    public LeastActiveBalancingPolicy getChildPolicy()
+    {
+        return childPolicy;
+    }
+
+    /**
+     * Returns pool using least active selection, as row key is not known.
+     */
+    @Override
+    public Object getPool(Collection<Object> pools)
+    {
+        return childPolicy.getPool(pools);
+    }
+
+    /**
+     * Returns least active pool among pools of replica nodes for given row
+     * key.
+     *
+     * @param hostPools
+     *            pools by host.
+     * @param rowKey
+     *            row key.
+     * @return replica pool or null, if ring is not known or no replica pool is
+     *         available.
+     */
+    public Object getPool(Map<? extends Host, Object> hostPools, ByteBuffer rowKey)
+    {
+        Set<String> replicas = getReplicas(rowKey);
+        if (replicas.isEmpty())
+        {
+            return null;
+        }
+
+        List<Object> replicaPools = new ArrayList<Object>(replicas.size());
+        for (Entry<? extends Host, Object> hostPool : hostPools.entrySet())
+        {
+            if (replicas.contains(getAddress(hostPool.getKey().getHost())))
+            {
+                replicaPools.add(hostPool.getValue());
+            }
+        }
+        return replicaPools.isEmpty() ? null : childPolicy.getPool(replicaPools);
+    }
+
+    /**
+     * Returns addresses of replica nodes for given row key.
+     *
+     * @param rowKey
+     *            row key.
+     * @return replica addresses, empty if ring is not known.
+     */
+    public Set<String> getReplicas(ByteBuffer rowKey)
+    {
+        Ring current = ring;
+        if (rowKey == null || current == null || current.replicas.isEmpty())
+        {
+            return Collections.emptySet();
+        }
+
+        // a range holds tokens (start, end], first range wraps around.
+        Token token = current.partitioner.getToken(rowKey);
+        Entry<Token, Set<String>> range = current.replicas.ceilingEntry(token);
+        return range != null ? range.getValue() : current.replicas.firstEntry().getValue();
+    }
+
+    /**
+     * Loads token ring of given keyspace over given connection.
+     *
+     * @param client
+     *            cassandra connection.
+     * @param keyspace
+     *            keyspace.
+     * @return true, if ring is loaded.
+     */
+    public boolean refreshRing(Cassandra.Client client, String keyspace)
+    {
+        try
+        {
+            IPartitioner partitioner = FBUtilities.newPartitioner(client.describe_partitioner());
+            setRing(partitioner, client.describe_ring(keyspace));
+            return true;
+        }
+        catch (Exception e)
+        {
+            log.warn("Could not load token ring of keyspace {}, falling back to least active policy, Caused by: {}.",
+                    keyspace, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Sets token ring.
+     *
+     * @param partitioner
+     *            partitioner of cluster.
+     * @param tokenRanges
+     *            token ranges as described by describe_ring.
+     */
+    public void setRing(IPartitioner partitioner, List<TokenRange> tokenRanges)
+    {
+        TreeMap<Token, Set<String>> replicas = new TreeMap<Token, Set<String>>();
+        for (TokenRange tokenRange : tokenRanges)
+        {
+            List<String> endpoints = tokenRange.getRpc_endpoints();
+            if (endpoints == null || endpoints.isEmpty() || endpoints.contains(ANY_ADDRESS))
+            {
+                endpoints = tokenRange.getEndpoints();
+            }
+            replicas.put(partitioner.getTokenFactory().fromString(tokenRange.getEnd_token()), new HashSet<String>(
+                    endpoints));
+        }
+
+        if (log.isInfoEnabled())
+        {
+            log.info("Loaded token ring of {} ranges.", replicas.size());
+        }
+        ring = new Ring(partitioner, replicas);
+    }
+
+    /**
+     * Returns ip address of given host.
+     *
+     * @param host
+     *            host name or address.
+     * @return ip address.
+     */
+    private String getAddress(String host)
+    {
+        String address = addresses.get(host);
+        if (address == null)
+        {
+            try
+            {
+                address = InetAddress.getByName(host).getHostAddress();
+            }
+            catch (UnknownHostException uhex)
+            {
+                address = host;
+            }
+            addresses.put(host, address);
+        }
+        return address;
+    }
+
+    /**
+     * Partitioner and replicas by range end token.
+     */
+    private static final class Ring
+    {
+        private final IPartitioner partitioner;
+
+        private final TreeMap<Token, Set<String>> replicas;
+
+        private Ring(IPartitioner partitioner, TreeMap<Token, Set<String>> replicas)
+        {
+            this.partitioner = partitioner;
+            this.replicas = replicas;
+        }
+    }
+}
@@ -26,6 +26,7 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -101,6 +102,10 @@ public final class CQLTranslator
 
     public static final String EQ_CLAUSE = "=";
 
+    public static final String IN_CLAUSE = " IN ";
+
+    public static final String OPEN_BRACKET = "(";
+
     public static final String WITH_CLAUSE = " WITH ";
 
     public static final String QUOTE_STR = "'";
@@ -135,6 +140,8 @@ public final class CQLTranslator
     
     public static final String SPACE_STRING = " ";
 
+    public static final String BIND_MARKER = "?";
+
     public CQLTranslator()
     {
 
@@ -194,6 +201,113 @@ public final class CQLTranslator
         return parsedColumnOrColumnValue;
     }
 
+    /**
+     * Prepares column names and their values for given entity, in same order
+     * as {@link #prepareColumnOrColumnValues}. Columns holding null value are
+     * skipped, collections are returned as empty instead.
+     * 
+     * @param record
+     *            entity.
+     * @param entityMetadata
+     *            entity meta data
+     * @param externalProperties
+     * @return Map containing column name as key and column value as value.
+     */
+    public LinkedHashMap<String, Object> prepareColumnValues(final Object record,
+            final EntityMetadata entityMetadata, Map<String, Object> externalProperties)
+    {
+        LinkedHashMap<String, Object> columnValues = new LinkedHashMap<String, Object>();
+        MetamodelImpl metaModel = (MetamodelImpl) KunderaMetadata.INSTANCE.getApplicationMetadata().getMetamodel(
+                entityMetadata.getPersistenceUnit());
+        EntityType entityType = metaModel.entity(entityMetadata.getEntityClazz());
+
+        Set<Attribute> attributes = entityType.getAttributes();
+        for (Attribute attribute : attributes)
+        {
+            Field field = (Field) attribute.getJavaMember();
+            if (metaModel.isEmbeddable(((AbstractAttribute) attribute).getBindableJavaType()))
+            {
+                if (field.getType().equals(entityMetadata.getIdAttribute().getBindableJavaType()))
+                {
+                    EmbeddableType compoundKey = metaModel.embeddable(field.getType());
+                    Object compoundKeyObj = PropertyAccessorHelper.getObject(record, field);
+                    for (Field compositeColumn : field.getType().getDeclaredFields())
+                    {
+                        if (!ReflectUtils.isTransientOrStatic(compositeColumn))
+                        {
+                            onColumnValue(columnValues,
+                                    ((AbstractAttribute) (compoundKey.getAttribute(compositeColumn.getName())))
+                                            .getJPAColumnName(), compoundKeyObj, compositeColumn);
+                        }
+                    }
+                }
+                else
+                {
+                    throw new PersistenceException(
+                            "Super columns are not supported via cql for compound/composite keys!");
+                }
+            }
+            else if (!ReflectUtils.isTransientOrStatic(field))
+            {
+                if (entityMetadata.getIdAttribute().getName().equals(attribute.getName()))
+                {
+                    onColumnValue(columnValues, CassandraUtilities.getIdColumnName(entityMetadata, externalProperties),
+                            record, field);
+                }
+                else if (!attribute.isAssociation())
+                {
+                    onColumnValue(columnValues, ((AbstractAttribute) attribute).getJPAColumnName(), record, field);
+                }
+            }
+        }
+
+        // on inherited columns.
+        String discrColumn = ((AbstractManagedType) entityType).getDiscriminatorColumn();
+        String discrValue = ((AbstractManagedType) entityType).getDiscriminatorValue();
+        if (discrColumn != null && discrValue != null)
+        {
+            columnValues.put(discrColumn, discrValue);
+        }
+        return columnValues;
+    }
+
+    /**
+     * Puts column value for given field, if present.
+     * 
+     * @param columnValues
+     *            column values.
+     * @param columnName
+     *            column name.
+     * @param record
+     *            value object.
+     * @param column
+     *            value column.
+     */
+    private void onColumnValue(Map<String, Object> columnValues, String columnName, Object record, Field column)
+    {
+        Object value = PropertyAccessorHelper.getObject(record, column);
+        if (value == null)
+        {
+            if (List.class.isAssignableFrom(column.getType()))
+            {
+                value = new ArrayList();
+            }
+            else if (Set.class.isAssignableFrom(column.getType()))
+            {
+                value = new HashSet();
+            }
+            else if (Map.class.isAssignableFrom(column.getType()))
+            {
+                value = new HashMap();
+            }
+        }
+
+        if (value != null)
+        {
+            columnValues.put(columnName, value);
+        }
+    }
+
     public static String getCQLType(String internalClazz)
     {
         return InternalToCQLMapper.getType(internalClazz);
@@ -0,0 +1,287 @@
+/*******************************************************************************
+ * * Copyright 2013 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.client.cassandra.thrift;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import org.apache.cassandra.db.marshal.AbstractType;
+import org.apache.cassandra.db.marshal.AsciiType;
+import org.apache.cassandra.db.marshal.Int32Type;
+import org.apache.cassandra.db.marshal.LongType;
+import org.apache.cassandra.db.marshal.TypeParser;
+import org.apache.cassandra.db.marshal.UTF8Type;
+import org.apache.cassandra.thrift.Cassandra;
+import org.apache.cassandra.thrift.Compression;
+import org.apache.cassandra.thrift.CqlPreparedResult;
+import org.apache.cassandra.thrift.InvalidRequestException;
+import org.apache.cassandra.utils.ByteBufferUtil;
+import org.apache.thrift.TException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Cache of CQL3 prepared statements, keyed by query string holding bind
+ * markers. Cached statements are executed with binary values bound via
+ * {@link #bind(CqlPreparedResult, Collection)}, so neither query string is
+ * rebuilt nor re-parsed by server for each request.
+ */
+public final class PreparedStatementCache
+{
+    /** the log used by this class. */
+    private static Logger log = LoggerFactory.getLogger(PreparedStatementCache.class);
+
+    /** Maximum number of statements held, least recently used are evicted. */
+    private static final int MAX_STATEMENTS = 500;
+
+    /** Default time a query rejected on prepare is not prepared again. */
+    private static final long DEFAULT_UNPREPARABLE_EXPIRY_MILLIS = 5 * 60 * 1000L;
+
+    /**
+     * Error raised by server(CassandraServer.execute_prepared_cql3_query) on
+     * execution of unknown statement id.
+     */
+    private static final Pattern UNKNOWN_STATEMENT = Pattern.compile("^Prepared query with ID -?\\d+ not found");
+
+    private final Map<String, CqlPreparedResult> statements = Collections
+            .synchronizedMap(new LinkedHashMap<String, CqlPreparedResult>(16, 0.75f, true)
+            {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CqlPreparedResult> eldest)
+                {
+                    return size() > MAX_STATEMENTS;
+                }
+            });
+
+    /**
+     * Queries rejected by server on prepare as invalid, with time of
+     * rejection. These are not prepared again until expiry.
+     */
+    private final Map<String, Long> unpreparable = Collections.synchronizedMap(new LinkedHashMap<String, Long>()
+    {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Long> eldest)
+        {
+            return size() > MAX_STATEMENTS;
+        }
+    });
+
+    private final long unpreparableExpiryMillis;
+
+    public PreparedStatementCache()
+    {
+        this(DEFAULT_UNPREPARABLE_EXPIRY_MILLIS);
+    }
+
+    /**
+     * @param unpreparableExpiryMillis
+     *            time a query rejected on prepare is not prepared again.
+     */
+    PreparedStatementCache(long unpreparableExpiryMillis)
+    {
+        this.unpreparableExpiryMillis = unpreparableExpiryMillis;
+    }
+
+    /**
+     * Returns prepared statement for given query, prepares it over given
+     * connection if not already cached. Returns null if server can not
+     * prepare given query(e.g. bind marker for TTL is not supported prior to
+     * Cassandra 2.0), in that case caller should fall back to plain query.
+     * Such query is not prepared again for a while. Other failures of prepare
+     * (e.g. timeout or unavailable node) are thrown and not remembered.
+     *
+     * @param conn
+     *            cassandra connection.
+     * @param cqlQuery
+     *            cql query with bind markers.
+     * @return prepared statement or null.
+     */
+    public CqlPreparedResult get(Cassandra.Client conn, String cqlQuery) throws TException
+    {
+        CqlPreparedResult statement = statements.get(cqlQuery);
+        if (statement == null && !isUnpreparable(cqlQuery))
+        {
+            try
+            {
+                statement = prepare(conn, cqlQuery);
+            }
+            catch (InvalidRequestException e)
+            {
+                log.warn("Can not prepare cql query {}, Caused by: {}.", cqlQuery, e.getWhy());
+                unpreparable.put(cqlQuery, System.currentTimeMillis());
+            }
+        }
+        return statement;
+    }
+
+    /**
+     * Returns true if given query was rejected on prepare and its rejection
+     * is not expired yet.
+     */
+    private boolean isUnpreparable(String cqlQuery)
+    {
+        Long rejected = unpreparable.get(cqlQuery);
+        if (rejected != null && System.currentTimeMillis() - rejected >= unpreparableExpiryMillis)
+        {
+            unpreparable.remove(cqlQuery);
+            return false;
+        }
+        return rejected != null;
+    }
+
+    /**
+     * Prepares given query over given connection and caches it, replacing
+     * previously cached statement (if any).
+     *
+     * @param conn
+     *            cassandra connection.
+     * @param cqlQuery
+     *            cql query with bind markers.
+     * @return prepared statement.
+     */
+    public CqlPreparedResult prepare(Cassandra.Client conn, String cqlQuery) throws InvalidRequestException,
+            TException
+    {
+        if (log.isInfoEnabled())
+        {
+            log.info("Preparing cql query {}.", cqlQuery);
+        }
+        CqlPreparedResult statement = conn.prepare_cql3_query(ByteBufferUtil.bytes(cqlQuery), Compression.NONE);
+        statements.put(cqlQuery, statement);
+        return statement;
+    }
+
+    /**
+     * Returns number of cached statements.
+     *
+     * @return size.
+     */
+    public int size()
+    {
+        return statements.size();
+    }
+
+    /**
+     * Clears all cached statements.
+     */
+    public void clear()
+    {
+        statements.clear();
+        unpreparable.clear();
+    }
+
+    /**
+     * Returns true if given error is raised on execution of a statement not
+     * known to server(e.g. server restarted or evicted it from its cache), in
+     * that case statement should be prepared again.
+     *
+     * @param e
+     *            error raised on execution of prepared statement.
+     * @return true, if statement is unknown to server.
+     */
+    public static boolean isUnknownStatement(InvalidRequestException e)
+    {
+        return e.getWhy() != null && UNKNOWN_STATEMENT.matcher(e.getWhy()).lookingAt();
+    }
+
+    /**
+     * Serializes values as per variable types of given prepared statement.
+     * Returns null if any of the value can not be bound, in that case caller
+     * should fall back to plain query.
+     *
+     * @param statement
+     *            prepared statement.
+     * @param values
+     *            values in order of bind markers.
+     * @return serialized values or null.
+     */
+    public static List<ByteBuffer> bind(CqlPreparedResult statement, Collection<Object> values)
+    {
+        List<String> variableTypes = statement.getVariable_types();
+        if (variableTypes == null || variableTypes.size() != values.size())
+        {
+            return null;
+        }
+
+        List<ByteBuffer> boundValues = new ArrayList<ByteBuffer>(values.size());
+        Iterator<String> types = variableTypes.iterator();
+        for (Object value : values)
+        {
+            String validator = types.next();
+            try
+            {
+                AbstractType type = TypeParser.parse(validator);
+                boundValues.add(type.decompose(toBindable(type, value)));
+            }
+            catch (Exception e)
+            {
+                if (log.isDebugEnabled())
+                {
+                    log.debug("Can not bind value {} as {}, Caused by: {}.", new Object[] { value, validator, e });
+                }
+                return null;
+            }
+        }
+        return boundValues;
+    }
+
+    /**
+     * Converts value to java type expected by given cassandra type, in the
+     * same way as it is rendered within plain cql query.
+     *
+     * @param type
+     *            cassandra type.
+     * @param value
+     *            value.
+     * @return converted value.
+     */
+    private static Object toBindable(AbstractType type, Object value)
+    {
+        if (value instanceof Enum)
+        {
+            return ((Enum) value).name();
+        }
+        else if (value instanceof byte[])
+        {
+            return ByteBuffer.wrap((byte[]) value);
+        }
+        else if (value instanceof Calendar)
+        {
+            return ((Calendar) value).getTime();
+        }
+        else if (type instanceof Int32Type && value instanceof Number)
+        {
+            return ((Number) value).intValue();
+        }
+        else if (type instanceof LongType && value instanceof Number)
+        {
+            return ((Number) value).longValue();
+        }
+        else if ((type instanceof UTF8Type || type instanceof AsciiType) && !(value instanceof String))
+        {
+            return value.toString();
+        }
+        return value;
+    }
+}
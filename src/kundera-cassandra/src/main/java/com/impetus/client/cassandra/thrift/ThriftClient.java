@@ -29,6 +29,7 @@ import javax.persistence.PersistenceException;
 
 import net.dataforte.cassandra.pool.ConnectionPool;
 
+import org.apache.cassandra.dht.IPartitioner;
 import org.apache.cassandra.thrift.Column;
 import org.apache.cassandra.thrift.ColumnOrSuperColumn;
 import org.apache.cassandra.thrift.ColumnParent;
@@ -47,7 +48,9 @@ import org.apache.cassandra.thrift.SlicePredicate;
 import org.apache.cassandra.thrift.SliceRange;
 import org.apache.cassandra.thrift.SuperColumn;
 import org.apache.cassandra.thrift.TimedOutException;
+import org.apache.cassandra.thrift.TokenRange;
 import org.apache.cassandra.thrift.UnavailableException;
+import org.apache.cassandra.utils.FBUtilities;
 import org.apache.thrift.TException;
 import org.scale7.cassandra.pelops.Bytes;
 import org.slf4j.Logger;
@@ -55,6 +58,9 @@ import org.slf4j.LoggerFactory;
 
 import com.impetus.client.cassandra.CassandraClientBase;
 import com.impetus.client.cassandra.common.CassandraUtilities;
+import com.impetus.client.cassandra.common.HiLoIdAllocator;
+import com.impetus.client.cassandra.common.ParallelScanIterator;
+import com.impetus.client.cassandra.common.ParallelScanIterator.SplitReader;
 import com.impetus.client.cassandra.datahandler.CassandraDataHandler;
 import com.impetus.client.cassandra.index.InvertedIndexHandler;
 import com.impetus.client.cassandra.query.CassQuery;
@@ -96,6 +102,15 @@ public class ThriftClient extends CassandraClientBase implements Client<CassQuer
     /** log for this class. */
     private static Logger log = LoggerFactory.getLogger(ThriftClient.class);
 
+    /** Number of rows per split of a parallel scan. */
+    private static final int KEYS_PER_SPLIT = 64 * 1024;
+
+    /** Number of rows fetched per request of a parallel scan. */
+    private static final int SCAN_PAGE_SIZE = 1000;
+
+    /** Wildcard rpc address, in that case listen address is used. */
+    private static final String ANY_ADDRESS = "0.0.0.0";
+
     /** The data handler. */
     private ThriftDataHandler dataHandler;
 
@@ -138,7 +153,18 @@ public class ThriftClient extends CassandraClientBase implements Client<CassQuer
     @Override
     protected void onPersist(EntityMetadata entityMetadata, Object entity, Object id, List<RelationHolder> rlHolders)
     {
-        Connection conn = getConection();
+        onPersist(entityMetadata, entity, id, rlHolders, null);
+    }
+
+    /**
+     * Persists given columns of a {@link Node} to database, CQL3 path writes
+     * complete row.
+     */
+    @Override
+    protected void onPersist(EntityMetadata entityMetadata, Object entity, Object id, List<RelationHolder> rlHolders,
+            Set<String> changedColumns)
+    {
+        Connection conn = getConection(getRowKey(entityMetadata, id));
         try
         {
 
@@ -153,9 +179,12 @@ public class ThriftClient extends CassandraClientBase implements Client<CassQuer
             else
             {
                 Map<ByteBuffer, Map<String, List<Mutation>>> mutationMap = new HashMap<ByteBuffer, Map<String, List<Mutation>>>();
-                prepareMutation(entityMetadata, entity, id, rlHolders, mutationMap);
+                prepareMutation(entityMetadata, entity, id, rlHolders, mutationMap, changedColumns);
                 // Write Mutation map to database
-                conn.getClient().batch_mutate(mutationMap, getConsistencyLevel());
+                if (!mutationMap.isEmpty())
+                {
+                    conn.getClient().batch_mutate(mutationMap, getConsistencyLevel());
+                }
 
                 mutationMap.clear();
                 mutationMap = null;
@@ -646,7 +675,7 @@ public class ThriftClient extends CassandraClientBase implements Client<CassQuer
         Connection conn = null;
         try
         {
-            conn = /* PelopsUtils.getCassandraConnection(pool) */getConection();
+            conn = /* PelopsUtils.getCassandraConnection(pool) */getConection(getRowKey(metadata, pKey));
             MetamodelImpl metaModel = (MetamodelImpl) KunderaMetadata.INSTANCE.getApplicationMetadata().getMetamodel(
                     metadata.getPersistenceUnit());
 
@@ -974,27 +1003,7 @@ public class ThriftClient extends CassandraClientBase implements Client<CassQuer
     public List findByRange(byte[] minVal, byte[] maxVal, EntityMetadata m, boolean isWrapReq, List<String> relations,
             List<String> columns, List<IndexExpression> conditions, int maxResults) throws Exception
     {
-        SlicePredicate slicePredicate = new SlicePredicate();
-
-        if (columns != null && !columns.isEmpty())
-        {
-            List asList = new ArrayList(32);
-            for (String colName : columns)
-            {
-                if (colName != null)
-                {
-                    asList.add(Bytes.fromUTF8(colName).getBytes());
-                }
-            }
-            slicePredicate.setColumn_names(asList);
-        }
-        else
-        {
-            SliceRange sliceRange = new SliceRange();
-            sliceRange.setStart(Bytes.EMPTY.getBytes());
-            sliceRange.setFinish(Bytes.EMPTY.getBytes());
-            slicePredicate.setSlice_range(sliceRange);
-        }
+        SlicePredicate slicePredicate = getSlicePredicate(columns);
 
         KeyRange keyRange = new KeyRange(maxResults);
         keyRange.setStart_key(minVal == null ? "".getBytes() : minVal);
@@ -1022,6 +1031,100 @@ public class ThriftClient extends CassandraClientBase implements Client<CassQuer
         return results;
     }
 
+    /**
+     * Returns iterator over all rows of entity's column family, which scans
+     * splits of token ring concurrently. Ring is split by describe_splits per
+     * token range, each split is read in pages over a connection of one of its
+     * replicas.
+     * 
+     * @param m
+     *            entity metadata.
+     * @param columns
+     *            columns to be fetched, all if null or empty.
+     * @param threads
+     *            number of splits scanned concurrently.
+     * @param queueSize
+     *            number of read entities held until consumed.
+     * @param maxRows
+     *            maximum number of entities to be iterated.
+     * @return iterator over entities.
+     */
+    public <E> ParallelScanIterator<E> scan(EntityMetadata m, List<String> columns, int threads, int queueSize,
+            int maxRows)
+    {
+        ColumnParent cp = new ColumnParent(m.getTableName());
+        SlicePredicate slicePredicate = getSlicePredicate(columns);
+        List<TokenRangeReader<E>> splits = new ArrayList<TokenRangeReader<E>>();
+
+        Connection conn = getConection();
+        try
+        {
+            IPartitioner partitioner = FBUtilities.newPartitioner(conn.getClient().describe_partitioner());
+            for (TokenRange tokenRange : conn.getClient().describe_ring(m.getSchema()))
+            {
+                List<String> endpoints = tokenRange.getRpc_endpoints();
+                if (endpoints == null || endpoints.isEmpty() || endpoints.contains(ANY_ADDRESS))
+                {
+                    endpoints = tokenRange.getEndpoints();
+                }
+
+                List<String> tokens = conn.getClient().describe_splits(m.getTableName(),
+                        tokenRange.getStart_token(), tokenRange.getEnd_token(), KEYS_PER_SPLIT);
+                for (int i = 1; i < tokens.size(); i++)
+                {
+                    splits.add(new TokenRangeReader<E>(m, cp, slicePredicate, partitioner, tokens.get(i - 1), tokens
+                            .get(i), endpoints));
+                }
+            }
+        }
+        catch (Exception e)
+        {
+            log.error("Error while splitting token ring of {}, Caused by: .", m.getTableName(), e);
+            throw new PersistenceException(e);
+        }
+        finally
+        {
+            releaseConnection(conn);
+        }
+
+        if (log.isInfoEnabled())
+        {
+            log.info("Scanning {} splits of {} with {} threads.", new Object[] { splits.size(), m.getTableName(),
+                    threads });
+        }
+        return new ParallelScanIterator<E>(splits, threads, queueSize, maxRows);
+    }
+
+    /**
+     * Returns slice predicate over given columns, or over all columns if none
+     * is given.
+     */
+    private SlicePredicate getSlicePredicate(List<String> columns)
+    {
+        SlicePredicate slicePredicate = new SlicePredicate();
+
+        if (columns != null && !columns.isEmpty())
+        {
+            List asList = new ArrayList(32);
+            for (String colName : columns)
+            {
+                if (colName != null)
+                {
+                    asList.add(Bytes.fromUTF8(colName).getBytes());
+                }
+            }
+            slicePredicate.setColumn_names(asList);
+        }
+        else
+        {
+            SliceRange sliceRange = new SliceRange();
+            sliceRange.setStart(Bytes.EMPTY.getBytes());
+            sliceRange.setFinish(Bytes.EMPTY.getBytes());
+            slicePredicate.setSlice_range(sliceRange);
+        }
+        return slicePredicate;
+    }
+
     @Override
     public List<SearchResult> searchInInvertedIndex(String columnFamilyName, EntityMetadata m,
             Map<Boolean, List<IndexClause>> indexClauseMap)
@@ -1046,6 +1149,46 @@ public class ThriftClient extends CassandraClientBase implements Client<CassQuer
         return connection;
     }
 
+    /**
+     * Returns connection of a replica node for given row key, with token aware
+     * balancing policy. Else connection of client's pool.
+     * 
+     * @param rowKey
+     *            row key, may be null.
+     * @return connection.
+     */
+    protected Connection getConection(ByteBuffer rowKey)
+    {
+        return clientFactory.getConnection(clientFactory.getPool(rowKey, pool));
+    }
+
+    /**
+     * Returns thrift row key for given id, null if not routed by token (i.e.
+     * token aware policy is not configured, or entity is cql3 or holds a
+     * composite key).
+     * 
+     * @param m
+     *            entity metadata.
+     * @param id
+     *            entity id.
+     * @return row key or null.
+     */
+    private ByteBuffer getRowKey(EntityMetadata m, Object id)
+    {
+        if (id == null || !clientFactory.isTokenAware() || isCql3Enabled(m))
+        {
+            return null;
+        }
+
+        MetamodelImpl metaModel = (MetamodelImpl) KunderaMetadata.INSTANCE.getApplicationMetadata().getMetamodel(
+                m.getPersistenceUnit());
+        if (metaModel.isEmbeddable(m.getIdAttribute().getBindableJavaType()))
+        {
+            return null;
+        }
+        return ByteBuffer.wrap(CassandraUtilities.toBytes(id, m.getIdAttribute().getJavaType()).toByteArray());
+    }
+
     protected void releaseConnection(Object conn)
     {
         clientFactory.releaseConnection(((Connection) conn).getPool(), ((Connection) conn).getClient());
@@ -1056,4 +1199,82 @@ public class ThriftClient extends CassandraClientBase implements Client<CassQuer
     {
         return getGeneratedValue(discriptor, getPersistenceUnit());
     }
+
+    @Override
+    protected HiLoIdAllocator getIdAllocator()
+    {
+        return clientFactory.getIdAllocator();
+    }
+
+    /**
+     * Reads token range (start, end] in pages of SCAN_PAGE_SIZE rows, next
+     * page starts after token of last read row.
+     */
+    private final class TokenRangeReader<E> implements SplitReader<E>
+    {
+        private final EntityMetadata m;
+
+        private final ColumnParent cp;
+
+        private final SlicePredicate slicePredicate;
+
+        private final IPartitioner partitioner;
+
+        private final String endToken;
+
+        private final List<String> endpoints;
+
+        private String startToken;
+
+        private boolean exhausted;
+
+        private TokenRangeReader(EntityMetadata m, ColumnParent cp, SlicePredicate slicePredicate,
+                IPartitioner partitioner, String startToken, String endToken, List<String> endpoints)
+        {
+            this.m = m;
+            this.cp = cp;
+            this.slicePredicate = slicePredicate;
+            this.partitioner = partitioner;
+            this.startToken = startToken;
+            this.endToken = endToken;
+            this.endpoints = endpoints;
+        }
+
+        @Override
+        public List<E> next() throws Exception
+        {
+            if (exhausted)
+            {
+                return null;
+            }
+
+            KeyRange keyRange = new KeyRange(SCAN_PAGE_SIZE);
+            keyRange.setStart_token(startToken);
+            keyRange.setEnd_token(endToken);
+
+            List<KeySlice> keys;
+            Connection conn = clientFactory.getConnection(clientFactory.getPool(endpoints, pool));
+            try
+            {
+                keys = conn.getClient().get_range_slices(cp, slicePredicate, keyRange, getConsistencyLevel());
+            }
+            finally
+            {
+                releaseConnection(conn);
+            }
+
+            if (keys == null || keys.size() < SCAN_PAGE_SIZE)
+            {
+                exhausted = true;
+            }
+            if (keys == null || keys.isEmpty())
+            {
+                return null;
+            }
+
+            byte[] lastKey = keys.get(keys.size() - 1).getKey();
+            startToken = partitioner.getTokenFactory().toString(partitioner.getToken(ByteBuffer.wrap(lastKey)));
+            return populateEntitiesFromKeySlices(m, false, null, keys, dataHandler);
+        }
+    }
 }
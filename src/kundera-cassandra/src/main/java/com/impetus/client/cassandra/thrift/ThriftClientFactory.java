@@ -15,12 +15,13 @@
  */
 package com.impetus.client.cassandra.thrift;
 
-import java.util.Collection;
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.Iterator;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Properties;
 
 import net.dataforte.cassandra.pool.ConnectionPool;
@@ -32,7 +33,7 @@ import org.apache.thrift.TException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.google.common.collect.Lists;
+import com.impetus.client.cassandra.common.HiLoIdAllocator;
 import com.impetus.client.cassandra.config.CassandraPropertyReader;
 import com.impetus.client.cassandra.pelops.PelopsClientFactory;
 import com.impetus.client.cassandra.pelops.PelopsUtils;
@@ -41,6 +42,7 @@ import com.impetus.client.cassandra.schemamanager.CassandraSchemaManager;
 import com.impetus.client.cassandra.service.CassandraHost;
 import com.impetus.client.cassandra.service.CassandraHostConfiguration;
 import com.impetus.client.cassandra.service.CassandraRetryService;
+import com.impetus.client.cassandra.service.TokenAwareBalancingPolicy;
 import com.impetus.kundera.Constants;
 import com.impetus.kundera.KunderaException;
 import com.impetus.kundera.PersistenceProperties;
@@ -69,6 +71,9 @@ public class ThriftClientFactory extends GenericClientFactory
 
     protected HostConfiguration configuration;
 
+    /** allocates table generated ids, shared by all clients. */
+    private final HiLoIdAllocator idAllocator = new HiLoIdAllocator();
+
     @Override
     public SchemaManager getSchemaManager(Map<String, Object> externalProperty)
     {
@@ -173,9 +178,40 @@ public class ThriftClientFactory extends GenericClientFactory
                 }
             }
         }
+
+        if (loadBalancingPolicy instanceof TokenAwareBalancingPolicy && !hostPools.isEmpty())
+        {
+            loadRing((TokenAwareBalancingPolicy) loadBalancingPolicy, keyspace);
+        }
         return null;
     }
 
+    /**
+     * Loads token ring of keyspace into token aware policy.
+     * 
+     * @param policy
+     *            token aware policy.
+     * @param keyspace
+     *            keyspace.
+     */
+    private void loadRing(TokenAwareBalancingPolicy policy, String keyspace)
+    {
+        ConnectionPool pool = getPoolUsingPolicy();
+        Connection conn = null;
+        try
+        {
+            conn = getConnection(pool);
+            policy.refreshRing(conn.getClient(), keyspace);
+        }
+        finally
+        {
+            if (conn != null)
+            {
+                releaseConnection(conn.getPool(), conn.getClient());
+            }
+        }
+    }
+
     @Override
     protected Client instantiateClient(String persistenceUnit)
     {
@@ -183,6 +219,11 @@ public class ThriftClientFactory extends GenericClientFactory
         return new ThriftClient(this, indexManager, reader, persistenceUnit, pool, externalProperties);
     }
 
+    HiLoIdAllocator getIdAllocator()
+    {
+        return idAllocator;
+    }
+
     /**
      * 
      * @return pool an the basis of LoadBalancing policy.
@@ -196,6 +237,71 @@ public class ThriftClientFactory extends GenericClientFactory
         throw new KunderaException("All hosts are down. please check servers manully.");
     }
 
+    /**
+     * @return true, if token aware balancing policy is configured.
+     */
+    boolean isTokenAware()
+    {
+        return loadBalancingPolicy instanceof TokenAwareBalancingPolicy;
+    }
+
+    /**
+     * Returns pool of a replica node for given row key if token aware policy
+     * is configured, else given default pool.
+     * 
+     * @param rowKey
+     *            row key, may be null.
+     * @param defaultPool
+     *            pool of client.
+     * @return pool.
+     */
+    ConnectionPool getPool(ByteBuffer rowKey, ConnectionPool defaultPool)
+    {
+        if (rowKey != null && loadBalancingPolicy instanceof TokenAwareBalancingPolicy)
+        {
+            Object replicaPool = ((TokenAwareBalancingPolicy) loadBalancingPolicy).getPool(hostPools, rowKey);
+            if (replicaPool != null)
+            {
+                return (ConnectionPool) replicaPool;
+            }
+        }
+        return defaultPool;
+    }
+
+    /**
+     * Returns pool of one of given replica nodes, selected by configured
+     * balancing policy. Else given default pool, if none of replicas is
+     * configured.
+     *
+     * @param endpoints
+     *            addresses of replica nodes, as described by describe_ring.
+     * @param defaultPool
+     *            pool of client.
+     * @return pool.
+     */
+    ConnectionPool getPool(List<String> endpoints, ConnectionPool defaultPool)
+    {
+        List<Object> replicaPools = new ArrayList<Object>();
+        for (Entry<Host, Object> hostPool : hostPools.entrySet())
+        {
+            String host = hostPool.getKey().getHost();
+            String address = host;
+            try
+            {
+                address = InetAddress.getByName(host).getHostAddress();
+            }
+            catch (UnknownHostException uhex)
+            {
+                // compare by configured host name.
+            }
+            if (endpoints.contains(host) || endpoints.contains(address))
+            {
+                replicaPools.add(hostPool.getValue());
+            }
+        }
+        return replicaPools.isEmpty() ? defaultPool : (ConnectionPool) loadBalancingPolicy.getPool(replicaPools);
+    }
+
     @Override
     public boolean isThreadSafe()
     {
@@ -233,14 +339,20 @@ public class ThriftClientFactory extends GenericClientFactory
                 loadBalancingPolicy = new RoundRobinBalancingPolicy();
                 break;
             case LEASTACTIVE:
-                loadBalancingPolicy = new ThriftLeastActiveBalancingPolcy();
+                loadBalancingPolicy = new LeastActiveBalancingPolicy();
+                break;
+            case TOKENAWARE:
+                loadBalancingPolicy = new TokenAwareBalancingPolicy(new LeastActiveBalancingPolicy());
                 break;
             default:
                 loadBalancingPolicy = new RoundRobinBalancingPolicy();
                 break;
             }
         }
-        loadBalancingPolicy = new RoundRobinBalancingPolicy();
+        else
+        {
+            loadBalancingPolicy = new RoundRobinBalancingPolicy();
+        }
     }
 
     Connection getConnection(ConnectionPool pool)
@@ -253,6 +365,7 @@ public class ThriftClientFactory extends GenericClientFactory
             {
                 success = true;
                 Cassandra.Client client = connectionPool.getConnection();
+                onAcquire(connectionPool);
 
                 if (logger.isDebugEnabled())
                 {
@@ -279,7 +392,45 @@ public class ThriftClientFactory extends GenericClientFactory
         if (pool != null && conn != null)
         {
             pool.release(conn);
+            onRelease(pool);
+        }
+    }
+
+    /**
+     * Marks a request in-flight on given pool, for least active selection.
+     */
+    private void onAcquire(ConnectionPool pool)
+    {
+        LeastActiveBalancingPolicy policy = getLeastActivePolicy();
+        if (policy != null)
+        {
+            policy.onAcquire(pool);
+        }
+    }
+
+    /**
+     * Marks a request on given pool as completed, for least active selection.
+     */
+    private void onRelease(ConnectionPool pool)
+    {
+        LeastActiveBalancingPolicy policy = getLeastActivePolicy();
+        if (policy != null)
+        {
+            policy.onRelease(pool);
+        }
+    }
+
+    private LeastActiveBalancingPolicy getLeastActivePolicy()
+    {
+        if (loadBalancingPolicy instanceof LeastActiveBalancingPolicy)
+        {
+            return (LeastActiveBalancingPolicy) loadBalancingPolicy;
+        }
+        else if (loadBalancingPolicy instanceof TokenAwareBalancingPolicy)
+        {
+            return ((TokenAwareBalancingPolicy) loadBalancingPolicy).getChildPolicy();
         }
+        return null;
     }
 
     /**
@@ -316,55 +467,6 @@ public class ThriftClientFactory extends GenericClientFactory
         }
     }
 
-    /**
-     * Extends LeastActiveBalancingPolicy class and provide own implementation
-     * in order to support least active balancing policy.
-     * 
-     * @author Kuldeep.Mishra
-     * 
-     */
-    private class ThriftLeastActiveBalancingPolcy extends LeastActiveBalancingPolicy
-    {
-
-        /**
-         * 
-         * @return pool object for host which has least active connections
-         *         determined by maxActive connection.
-         * 
-         */
-        @Override
-        public Object getPool(Collection<Object> pools)
-        {
-            List<Object> vals = Lists.newArrayList(pools);
-            Collections.shuffle(vals);
-            Collections.sort(vals, new ShufflingCompare());
-            Collections.reverse(vals);
-            Iterator<Object> iterator = vals.iterator();
-            Object concurrentConnectionPool = iterator.next();
-            return concurrentConnectionPool;
-        }
-
-        /**
-         * Compares two pool object on the basis of their maxActive connection.
-         * 
-         * @author Kuldeep Mishra
-         * 
-         */
-        private final class ShufflingCompare implements Comparator<Object>
-        {
-            public int compare(Object o1, Object o2)
-            {
-                PoolConfiguration props1 = ((ConnectionPool) o1).getPoolProperties();
-                PoolConfiguration props2 = ((ConnectionPool) o2).getPoolProperties();
-
-                int activeConnections1 = ((ConnectionPool) o1).getActive();
-                int activeConnections2 = ((ConnectionPool) o2).getActive();
-
-                return (props1.getMaxActive() - activeConnections1) - (props2.getMaxActive() - activeConnections2);
-            }
-        }
-    }
-
     /**
      * Connection class holds client and related pool.
      * 
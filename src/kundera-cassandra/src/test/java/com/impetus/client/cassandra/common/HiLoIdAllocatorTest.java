@@ -0,0 +1,123 @@
+/*******************************************************************************
+ * * Copyright 2013 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.client.cassandra.common;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import com.impetus.client.cassandra.common.HiLoIdAllocator.BlockReserver;
+import com.impetus.kundera.metadata.model.TableGeneratorDiscriptor;
+
+/**
+ * Junit for {@link HiLoIdAllocator}.
+ */
+public class HiLoIdAllocatorTest
+{
+    @Test
+    public void testNext()
+    {
+        HiLoIdAllocator allocator = new HiLoIdAllocator();
+        TableGeneratorDiscriptor descriptor = new TableGeneratorDiscriptor("KunderaExamples", "person");
+        CountingReserver reserver = new CountingReserver();
+
+        // default initial value 1 and allocation size 50.
+        for (long expected = 1; expected <= 120; expected++)
+        {
+            Assert.assertEquals(expected, allocator.next(descriptor, reserver));
+        }
+        Assert.assertEquals(3, reserver.counter.get());
+
+        // another generator has its own blocks.
+        CountingReserver otherReserver = new CountingReserver();
+        Assert.assertEquals(1, allocator.next(new TableGeneratorDiscriptor("KunderaExamples", "address"),
+                otherReserver));
+        Assert.assertEquals(1, otherReserver.counter.get());
+        Assert.assertEquals(121, allocator.next(descriptor, reserver));
+    }
+
+    @Test
+    public void testConcurrentNext() throws Exception
+    {
+        final HiLoIdAllocator allocator = new HiLoIdAllocator();
+        final TableGeneratorDiscriptor descriptor = new TableGeneratorDiscriptor("KunderaExamples", "person");
+        final CountingReserver reserver = new CountingReserver();
+        final int threads = 8;
+        final int idsPerThread = 5000;
+
+        final Set<Long> generated = Collections.newSetFromMap(new ConcurrentHashMap<Long, Boolean>());
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try
+        {
+            List<Future<Boolean>> futures = new ArrayList<Future<Boolean>>();
+            for (int i = 0; i < threads; i++)
+            {
+                futures.add(executor.submit(new Callable<Boolean>()
+                {
+                    @Override
+                    public Boolean call()
+                    {
+                        for (int j = 0; j < idsPerThread; j++)
+                        {
+                            if (!generated.add(allocator.next(descriptor, reserver)))
+                            {
+                                return false;
+                            }
+                        }
+                        return true;
+                    }
+                }));
+            }
+            for (Future<Boolean> future : futures)
+            {
+                Assert.assertTrue(future.get());
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+
+        // ids are unique and no block is wasted.
+        Assert.assertEquals(threads * idsPerThread, generated.size());
+        Assert.assertEquals(threads * idsPerThread / 50, reserver.counter.get());
+    }
+
+    /**
+     * Reserver over an in memory counter.
+     */
+    private static class CountingReserver implements BlockReserver
+    {
+        private final AtomicLong counter = new AtomicLong();
+
+        @Override
+        public long reserve()
+        {
+            return counter.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,195 @@
+/*******************************************************************************
+ * * Copyright 2013 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.client.cassandra.common;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.persistence.PersistenceException;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import com.impetus.client.cassandra.common.ParallelScanIterator.SplitReader;
+
+/**
+ * Junit for {@link ParallelScanIterator}.
+ */
+public class ParallelScanIteratorTest
+{
+    @Test
+    public void testScan()
+    {
+        List<PagedReader> splits = new ArrayList<PagedReader>();
+        for (int i = 0; i < 20; i++)
+        {
+            splits.add(new PagedReader(i * 1000, 1000, 7, null));
+        }
+
+        // queue much smaller than scanned rows.
+        ParallelScanIterator<Integer> iterator = new ParallelScanIterator<Integer>(splits, 4, 16, Integer.MAX_VALUE);
+        Set<Integer> rows = new HashSet<Integer>();
+        while (iterator.hasNext())
+        {
+            Assert.assertTrue(rows.add(iterator.next()));
+        }
+        Assert.assertEquals(20000, rows.size());
+        Assert.assertFalse(iterator.hasNext());
+        Assert.assertTrue(iterator.next(10).isEmpty());
+    }
+
+    @Test
+    public void testMaxRows()
+    {
+        List<PagedReader> splits = new ArrayList<PagedReader>();
+        for (int i = 0; i < 5; i++)
+        {
+            splits.add(new PagedReader(i * 1000, 1000, 10, null));
+        }
+
+        ParallelScanIterator<Integer> iterator = new ParallelScanIterator<Integer>(splits, 2, 8, 25);
+        Assert.assertEquals(20, iterator.next(20).size());
+        Assert.assertEquals(5, iterator.next(20).size());
+        Assert.assertFalse(iterator.hasNext());
+
+        // readers stop once scan is closed.
+        int read = 0;
+        for (PagedReader split : splits)
+        {
+            read += split.pages.get();
+        }
+        Assert.assertTrue(read < 500);
+    }
+
+    @Test
+    public void testEmptyScan()
+    {
+        ParallelScanIterator<Integer> iterator = new ParallelScanIterator<Integer>(new ArrayList<PagedReader>(), 4,
+                16, Integer.MAX_VALUE);
+        Assert.assertFalse(iterator.hasNext());
+    }
+
+    @Test
+    public void testFailedSplit()
+    {
+        List<PagedReader> splits = new ArrayList<PagedReader>();
+        splits.add(new PagedReader(0, 1000, 10, null));
+        splits.add(new PagedReader(1000, 1000, 10, 500));
+
+        ParallelScanIterator<Integer> iterator = new ParallelScanIterator<Integer>(splits, 2, 16, Integer.MAX_VALUE);
+        try
+        {
+            while (iterator.hasNext())
+            {
+                iterator.next();
+            }
+            Assert.fail("Should have failed on read of second split.");
+        }
+        catch (PersistenceException pex)
+        {
+            Assert.assertEquals("split failed", pex.getCause().getMessage());
+        }
+    }
+
+    @Test
+    public void testAbandonedScan() throws Exception
+    {
+        List<PagedReader> splits = new ArrayList<PagedReader>();
+        for (int i = 0; i < 4; i++)
+        {
+            splits.add(new PagedReader(i * 1000, 1000, 10, null));
+        }
+
+        // consumer stops taking rows without close.
+        ParallelScanIterator<Integer> iterator = new ParallelScanIterator<Integer>(splits, 2, 8, Integer.MAX_VALUE,
+                100);
+        Assert.assertEquals(5, iterator.next(5).size());
+        Thread.sleep(1500);
+
+        // readers stop once idle timeout is exceeded.
+        int read = 0;
+        for (PagedReader split : splits)
+        {
+            read += split.pages.get();
+        }
+        Thread.sleep(1000);
+        int readLater = 0;
+        for (PagedReader split : splits)
+        {
+            readLater += split.pages.get();
+        }
+        Assert.assertEquals(read, readLater);
+        Assert.assertTrue(read < 400);
+
+        try
+        {
+            while (iterator.hasNext())
+            {
+                iterator.next();
+            }
+            Assert.fail("Should have failed on abandoned scan.");
+        }
+        catch (PersistenceException pex)
+        {
+            Assert.assertTrue(pex.getCause().getMessage().contains("abandoned"));
+        }
+    }
+
+    /**
+     * Reads rows from start to start + size in pages, fails once given row is
+     * reached.
+     */
+    private static class PagedReader implements SplitReader<Integer>
+    {
+        private final int end;
+
+        private final int pageSize;
+
+        private final Integer failAt;
+
+        private final AtomicInteger pages = new AtomicInteger();
+
+        private int next;
+
+        PagedReader(int start, int size, int pageSize, Integer failAt)
+        {
+            this.next = start;
+            this.end = start + size;
+            this.pageSize = pageSize;
+            this.failAt = failAt;
+        }
+
+        @Override
+        public List<Integer> next() throws Exception
+        {
+            pages.incrementAndGet();
+            List<Integer> page = new ArrayList<Integer>(pageSize);
+            while (next < end && page.size() < pageSize)
+            {
+                if (failAt != null && next - (end - 1000) == failAt)
+                {
+                    throw new IllegalStateException("split failed");
+                }
+                page.add(next++);
+            }
+            return page;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/*******************************************************************************
+ * * Copyright 2013 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.client.cassandra.service;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import junit.framework.Assert;
+
+import org.apache.cassandra.dht.ByteOrderedPartitioner;
+import org.apache.cassandra.thrift.TokenRange;
+import org.apache.cassandra.utils.ByteBufferUtil;
+import org.junit.Test;
+
+import com.impetus.kundera.service.policy.LeastActiveBalancingPolicy;
+
+/**
+ * Junit for {@link TokenAwareBalancingPolicy}, over a stubbed ring
+ * description.
+ */
+public class TokenAwareBalancingPolicyTest
+{
+    private static final String NODE1 = "127.0.0.1";
+
+    private static final String NODE2 = "127.0.0.2";
+
+    private static final String NODE3 = "127.0.0.3";
+
+    @Test
+    public void testGetPool()
+    {
+        Map<CassandraHost, Object> hostPools = new HashMap<CassandraHost, Object>();
+        Object pool1 = new Object();
+        Object pool2 = new Object();
+        Object pool3 = new Object();
+        hostPools.put(new CassandraHost(NODE1, 9160), pool1);
+        hostPools.put(new CassandraHost(NODE2, 9160), pool2);
+        hostPools.put(new CassandraHost(NODE3, 9160), pool3);
+
+        LeastActiveBalancingPolicy childPolicy = new LeastActiveBalancingPolicy();
+        TokenAwareBalancingPolicy policy = new TokenAwareBalancingPolicy(childPolicy);
+
+        // ring is not known yet.
+        Assert.assertNull(policy.getPool(hostPools, key("a")));
+        Assert.assertNotNull(policy.getPool(new ArrayList<Object>(hostPools.values())));
+
+        // ranges (7a, 6a] on node1, (6a, 73] on node2 and node3.
+        List<TokenRange> ring = new ArrayList<TokenRange>();
+        ring.add(range("7a", "6a", NODE1));
+        ring.add(range("6a", "73", NODE2, NODE3));
+        policy.setRing(new ByteOrderedPartitioner(), ring);
+
+        // 'a' is 0x61.
+        Assert.assertEquals(pool1, policy.getPool(hostPools, key("a")));
+
+        // 'z' is 0x7a, wraps around to first range.
+        Assert.assertEquals(pool1, policy.getPool(hostPools, key("z")));
+
+        // 'm' is 0x6d, least active among replicas.
+        childPolicy.onAcquire(pool2);
+        for (int i = 0; i < 5; i++)
+        {
+            Assert.assertEquals(pool3, policy.getPool(hostPools, key("m")));
+        }
+        Assert.assertEquals(2, policy.getReplicas(key("m")).size());
+
+        // replica pool is not available.
+        hostPools.remove(new CassandraHost(NODE1, 9160));
+        Assert.assertNull(policy.getPool(hostPools, key("a")));
+    }
+
+    private ByteBuffer key(String key)
+    {
+        return ByteBufferUtil.bytes(key);
+    }
+
+    private TokenRange range(String startToken, String endToken, String... endpoints)
+    {
+        return new TokenRange(startToken, endToken, Arrays.asList(endpoints));
+    }
+}
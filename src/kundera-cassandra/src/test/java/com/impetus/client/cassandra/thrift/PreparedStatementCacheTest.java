@@ -0,0 +1,149 @@
+/*******************************************************************************
+ * * Copyright 2013 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.client.cassandra.thrift;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import junit.framework.Assert;
+
+import org.apache.cassandra.db.marshal.Int32Type;
+import org.apache.cassandra.db.marshal.LongType;
+import org.apache.cassandra.db.marshal.UTF8Type;
+import org.apache.cassandra.thrift.Cassandra;
+import org.apache.cassandra.thrift.Compression;
+import org.apache.cassandra.thrift.CqlPreparedResult;
+import org.apache.cassandra.thrift.InvalidRequestException;
+import org.apache.thrift.TException;
+import org.apache.thrift.transport.TTransportException;
+import org.junit.Test;
+
+/**
+ * Junit for binding values with {@link PreparedStatementCache}.
+ */
+public class PreparedStatementCacheTest
+{
+    private enum Day
+    {
+        MONDAY;
+    }
+
+    @Test
+    public void testBind()
+    {
+        CqlPreparedResult statement = prepare(Int32Type.class.getName(), LongType.class.getName(),
+                UTF8Type.class.getName(), UTF8Type.class.getName());
+
+        List<Object> values = new ArrayList<Object>();
+        values.add((short) 5);
+        values.add(7);
+        values.add(Day.MONDAY);
+        values.add('c');
+
+        List<ByteBuffer> boundValues = PreparedStatementCache.bind(statement, values);
+        Assert.assertNotNull(boundValues);
+        Assert.assertEquals(4, boundValues.size());
+        Assert.assertEquals(5, Int32Type.instance.compose(boundValues.get(0)).intValue());
+        Assert.assertEquals(7l, LongType.instance.compose(boundValues.get(1)).longValue());
+        Assert.assertEquals("MONDAY", UTF8Type.instance.compose(boundValues.get(2)));
+        Assert.assertEquals("c", UTF8Type.instance.compose(boundValues.get(3)));
+    }
+
+    @Test
+    public void testBindFailure()
+    {
+        CqlPreparedResult statement = prepare(LongType.class.getName());
+
+        // value count mismatch.
+        Assert.assertNull(PreparedStatementCache.bind(statement, Arrays.asList(new Object[] { 1l, 2l })));
+
+        // value can not be bound as long.
+        Assert.assertNull(PreparedStatementCache.bind(statement, Arrays.asList(new Object[] { "text" })));
+    }
+
+    @Test
+    public void testUnknownStatement()
+    {
+        Assert.assertTrue(PreparedStatementCache.isUnknownStatement(new InvalidRequestException(
+                "Prepared query with ID 1 not found (either the query was not prepared on this host (maybe the host has been restarted?) or you have prepared too many queries and it has been evicted from the internal cache)")));
+        Assert.assertFalse(PreparedStatementCache.isUnknownStatement(new InvalidRequestException(
+                "Expected 8 or 0 byte long (4)")));
+        Assert.assertFalse(PreparedStatementCache.isUnknownStatement(new InvalidRequestException(
+                "Keyspace KunderaExamples not found")));
+    }
+
+    @Test
+    public void testUnpreparable() throws Exception
+    {
+        PreparedStatementCache cache = new PreparedStatementCache(200);
+        FailingClient conn = new FailingClient(new InvalidRequestException("line 1:57 no viable alternative"));
+
+        // invalid query is not prepared again until expiry.
+        Assert.assertNull(cache.get(conn, "INSERT INTO t (a) VALUES (?) USING TTL ?"));
+        Assert.assertNull(cache.get(conn, "INSERT INTO t (a) VALUES (?) USING TTL ?"));
+        Assert.assertEquals(1, conn.prepared);
+        Thread.sleep(300);
+        Assert.assertNull(cache.get(conn, "INSERT INTO t (a) VALUES (?) USING TTL ?"));
+        Assert.assertEquals(2, conn.prepared);
+
+        // transient failure is thrown and not remembered.
+        conn = new FailingClient(new TTransportException("timed out"));
+        for (int i = 1; i <= 2; i++)
+        {
+            try
+            {
+                cache.get(conn, "INSERT INTO t (b) VALUES (?)");
+                Assert.fail("Should have failed on prepare.");
+            }
+            catch (TTransportException ttex)
+            {
+                Assert.assertEquals(i, conn.prepared);
+            }
+        }
+    }
+
+    /**
+     * Client failing each prepare with given error.
+     */
+    private static class FailingClient extends Cassandra.Client
+    {
+        private final TException failure;
+
+        private int prepared;
+
+        FailingClient(TException failure)
+        {
+            super(null);
+            this.failure = failure;
+        }
+
+        @Override
+        public CqlPreparedResult prepare_cql3_query(ByteBuffer query, Compression compression) throws TException
+        {
+            prepared++;
+            throw failure;
+        }
+    }
+
+    private CqlPreparedResult prepare(String... variableTypes)
+    {
+        CqlPreparedResult statement = new CqlPreparedResult(1, variableTypes.length);
+        statement.setVariable_types(Arrays.asList(variableTypes));
+        return statement;
+    }
+}
@@ -70,6 +70,19 @@ public interface PersistenceProperties
      */
     public static final String KUNDERA_INDEX_HOME_DIR = "index.home.dir";
 
+    /**
+     * Option to enable near-real-time lucene indexing(true/false). In this
+     * mode searches are served by readers opened over index writer and
+     * commits to index home directory are done in background.
+     */
+    public static final String KUNDERA_INDEX_NRT = "index.nrt";
+
+    /** Interval(in milliseconds) for background commit of near-real-time lucene indexes. */
+    public static final String KUNDERA_INDEX_COMMIT_INTERVAL = "index.commit.interval";
+
+    /** Lucene directory type for near-real-time indexing, "fs"(default) or "mmap". */
+    public static final String KUNDERA_INDEX_DIRECTORY_TYPE = "index.directory.type";
+
     /** Option to create schema. */
     public static final String KUNDERA_DDL_AUTO_PREPARE = "kundera.ddl.auto.prepare";
 
@@ -90,4 +103,38 @@ public interface PersistenceProperties
     public static final String KUNDERA_TRANSACTION_RESOURCE = "kundera.transaction.resource.class";
 
     public static final String KUNDERA_INDEXER_CLASS = "kundera.indexer.class";
+
+    /**
+     * Snapshot strategy for entities returned by find, "copy"(default) returns
+     * a deep copy of managed entity on each find, "state" returns managed
+     * entity itself and detects changes against its last loaded or flushed
+     * state.
+     */
+    public static final String KUNDERA_SNAPSHOT_STRATEGY = "kundera.snapshot.strategy";
+
+    /**
+     * Maximum number of keys fetched in one go while loading eager unary
+     * associations of query results, 0 disables batched loading.
+     */
+    public static final String KUNDERA_BATCH_FETCH_SIZE = "kundera.batch.fetch.size";
+
+    /**
+     * Number of association levels loaded in batches for query results,
+     * defaults to 1.
+     */
+    public static final String KUNDERA_BATCH_FETCH_DEPTH = "kundera.batch.fetch.depth";
+
+    /**
+     * Number of threads running asynchronous operations of an entity manager
+     * factory, defaults to 10.
+     */
+    public static final String KUNDERA_ASYNC_POOL_SIZE = "kundera.async.pool.size";
+
+    /**
+     * Number of asynchronous operations queued until a thread is available,
+     * defaults to 1000. Operations submitted once queue is full, or after
+     * entity manager factory is closed, complete exceptionally with a
+     * RejectedExecutionException.
+     */
+    public static final String KUNDERA_ASYNC_QUEUE_SIZE = "kundera.async.queue.size";
 }
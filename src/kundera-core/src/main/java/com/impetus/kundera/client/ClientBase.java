@@ -17,8 +17,13 @@ package com.impetus.kundera.client;
 
 import java.lang.reflect.Field;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+
+import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.EntityType;
 
 import com.impetus.kundera.db.RelationHolder;
 import com.impetus.kundera.graph.Node;
@@ -29,8 +34,11 @@ import com.impetus.kundera.metadata.KunderaMetadataManager;
 import com.impetus.kundera.metadata.MetadataUtils;
 import com.impetus.kundera.metadata.model.ClientMetadata;
 import com.impetus.kundera.metadata.model.EntityMetadata;
+import com.impetus.kundera.metadata.model.KunderaMetadata;
+import com.impetus.kundera.metadata.model.MetamodelImpl;
 import com.impetus.kundera.metadata.model.Relation;
 import com.impetus.kundera.metadata.model.Relation.ForeignKey;
+import com.impetus.kundera.metadata.model.attributes.AbstractAttribute;
 import com.impetus.kundera.property.PropertyAccessorHelper;
 
 /**
@@ -85,12 +93,63 @@ public abstract class ClientBase
         EntityMetadata metadata = KunderaMetadataManager.getEntityMetadata(node.getDataClass());
         isUpdate = node.isUpdate();
         List<RelationHolder> relationHolders = getRelationHolders(node);
-        /* id = */onPersist(metadata, entity, id, relationHolders);
+        /* id = */onPersist(metadata, entity, id, relationHolders, getChangedColumns(node, metadata));
         id = PropertyAccessorHelper.getId(entity, metadata);
         node.setEntityId(id);
         indexNode(node, metadata);
     }
 
+    /**
+     * Returns column names of node's changed attributes, provided node is an
+     * update whose changes are known and are on basic attributes only.
+     * Associations are left out, as relation holders are always written.
+     * 
+     * @param node
+     *            node to be persisted.
+     * @param metadata
+     *            entity metadata.
+     * @return changed column names, null if all columns are to be written.
+     */
+    protected Set<String> getChangedColumns(Node node, EntityMetadata metadata)
+    {
+        Set<String> changedAttributes = node.getChangedAttributes();
+        if (!node.isUpdate() || changedAttributes == null)
+        {
+            return null;
+        }
+
+        MetamodelImpl metaModel = (MetamodelImpl) KunderaMetadata.INSTANCE.getApplicationMetadata().getMetamodel(
+                metadata.getPersistenceUnit());
+        EntityType entityType = metaModel.entity(metadata.getEntityClazz());
+
+        Set<String> columns = new HashSet<String>();
+        for (String attributeName : changedAttributes)
+        {
+            Attribute attribute;
+            try
+            {
+                attribute = entityType.getAttribute(attributeName);
+            }
+            catch (IllegalArgumentException iaex)
+            {
+                // not a persistent attribute.
+                continue;
+            }
+
+            if (attribute.isAssociation())
+            {
+                continue;
+            }
+            if (attribute.isCollection()
+                    || metaModel.isEmbeddable(((AbstractAttribute) attribute).getBindableJavaType()))
+            {
+                return null;
+            }
+            columns.add(((AbstractAttribute) attribute).getJPAColumnName());
+        }
+        return columns;
+    }
+
     /**
      * @param node
      * @return
@@ -221,6 +280,29 @@ public abstract class ClientBase
     protected abstract void onPersist(EntityMetadata entityMetadata, Object entity, Object id,
             List<RelationHolder> rlHolders);
 
+    /**
+     * Persists given columns of entity only, clients capable of partial
+     * writes need to override this method. Columns are passed along(rather
+     * than held by client), as client is shared across entity managers.
+     * 
+     * @param entityMetadata
+     *            entity metadata.
+     * @param entity
+     *            entity object.
+     * @param id
+     *            entity id.
+     * @param rlHolders
+     *            relation holders.
+     * @param changedColumns
+     *            columns of changed attributes, null if all columns are to be
+     *            written.
+     */
+    protected void onPersist(EntityMetadata entityMetadata, Object entity, Object id,
+            List<RelationHolder> rlHolders, Set<String> changedColumns)
+    {
+        onPersist(entityMetadata, entity, id, rlHolders);
+    }
+
 
     public ClientMetadata getClientMetadata()
     {
@@ -15,8 +15,11 @@
  */
 package com.impetus.kundera.graph;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import javax.persistence.PostLoad;
 import javax.persistence.PostPersist;
@@ -41,6 +44,10 @@ import com.impetus.kundera.metadata.model.Relation.ForeignKey;
 import com.impetus.kundera.persistence.PersistenceDelegator;
 import com.impetus.kundera.persistence.context.PersistenceCache;
 import com.impetus.kundera.persistence.event.EntityEventDispatcher;
+import com.impetus.kundera.property.EntityAccessor;
+import com.impetus.kundera.property.PropertyAccessor;
+import com.impetus.kundera.property.PropertyAccessorFactory;
+import com.impetus.kundera.property.accessor.ObjectAccessor;
 import com.impetus.kundera.utils.ObjectUtils;
 
 /**
@@ -99,6 +106,12 @@ public class Node implements NodeStateContext
 
     private Node originalNode;
 
+    // State of entity as last read from or written to database.
+    private Object snapshot;
+
+    // Names of attributes changed since last flush, null if not known.
+    private Set<String> changedAttributes;
+
     private boolean isProcessed;
 
     private EntityEventDispatcher eventDispatcher = new EntityEventDispatcher();
@@ -371,6 +384,10 @@ public class Node implements NodeStateContext
     public void setDirty(boolean dirty)
     {
         this.dirty = dirty;
+        if (!dirty)
+        {
+            this.changedAttributes = null;
+        }
     }
 
     /**
@@ -613,6 +630,111 @@ public class Node implements NodeStateContext
         this.originalNode = originalNode;
     }
 
+    /**
+     * Returns state of entity as last read from or written to database. Clients
+     * may compare it with node data to write changed attributes only.
+     * 
+     * @return the snapshot, null if not known.
+     */
+    public Object getSnapshot()
+    {
+        return snapshot;
+    }
+
+    /**
+     * @param snapshot
+     *            the snapshot to set
+     */
+    public void setSnapshot(Object snapshot)
+    {
+        this.snapshot = snapshot;
+    }
+
+    /**
+     * Captures flushed state of node data as snapshot, once node is written to
+     * database, so that later changes are detected against last flushed state
+     * rather than load time state. Only changed attributes are copied onto
+     * snapshot, whole data is copied if changes are not known, snapshot is
+     * still shared with original node or a changed attribute is not of a basic
+     * type. Must be called before node is marked as not dirty. No-op if
+     * snapshot is not tracked for node.
+     */
+    public void refreshSnapshot()
+    {
+        if (snapshot == null || getData() == null)
+        {
+            return;
+        }
+        boolean shared = originalNode != null && snapshot == originalNode.getData();
+        if (changedAttributes == null || shared || !copyChangedAttributes())
+        {
+            snapshot = ObjectUtils.deepCopy(getData());
+        }
+    }
+
+    /**
+     * Copies values of changed attributes from node data onto snapshot.
+     * 
+     * @return false if snapshot is left untouched, as a changed attribute is
+     *         not of a basic type (e.g. an embeddable, collection or relation).
+     */
+    private boolean copyChangedAttributes()
+    {
+        if (!snapshot.getClass().equals(getData().getClass()))
+        {
+            return false;
+        }
+        EntityMetadata metadata = KunderaMetadataManager.getEntityMetadata(getData().getClass());
+        EntityAccessor accessor = metadata != null ? metadata.getEntityAccessor() : null;
+        if (accessor == null)
+        {
+            return false;
+        }
+
+        List<Integer> indexes = new ArrayList<Integer>(changedAttributes.size());
+        for (int i = 0; i < accessor.size(); i++)
+        {
+            if (changedAttributes.contains(accessor.getField(i).getName()))
+            {
+                if (PropertyAccessorFactory.getPropertyAccessor(accessor.getField(i)) instanceof ObjectAccessor)
+                {
+                    return false;
+                }
+                indexes.add(i);
+            }
+        }
+
+        for (int index : indexes)
+        {
+            PropertyAccessor<?> propertyAccessor = PropertyAccessorFactory.getPropertyAccessor(accessor
+                    .getField(index));
+            accessor.set(snapshot, index, propertyAccessor.getCopy(accessor.get(getData(), index)));
+        }
+        return true;
+    }
+
+    /**
+     * Returns names of attributes changed since node was last read or flushed,
+     * if node is dirty due to merge of a known entity. Clients may write
+     * columns of these attributes only.
+     * 
+     * @return changed attribute names, null if all attributes are to be
+     *         written.
+     */
+    public Set<String> getChangedAttributes()
+    {
+        return changedAttributes;
+    }
+
+    /**
+     * @param changedAttributes
+     *            the changedAttributes to set
+     */
+    public void setChangedAttributes(Set<String> changedAttributes)
+    {
+        this.changedAttributes = changedAttributes;
+    }
+
     /**
      * @return the isProcessed
      */
@@ -666,6 +788,12 @@ public class Node implements NodeStateContext
     {
         EntityMetadata metadata = KunderaMetadataManager.getEntityMetadata(this.getDataClass());
 
+        // Skip dispatch for entities without any listener.
+        if (metadata != null && metadata.getCallbackMethodsMap().isEmpty())
+        {
+            return;
+        }
+
         if (isUpdate)
         {
             onPreEvent(metadata, EntityEvent.UPDATE);
@@ -684,6 +812,11 @@ public class Node implements NodeStateContext
     {
         EntityMetadata metadata = KunderaMetadataManager.getEntityMetadata(this.getDataClass());
 
+        if (metadata != null && metadata.getCallbackMethodsMap().isEmpty())
+        {
+            return;
+        }
+
         if (isUpdate)
         {
             onPostEvent(metadata, EntityEvent.UPDATE);
@@ -16,8 +16,10 @@
 package com.impetus.kundera.graph;
 
 import java.lang.reflect.Field;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 
@@ -37,11 +39,11 @@ import com.impetus.kundera.persistence.IdGenerator;
 import com.impetus.kundera.persistence.PersistenceDelegator;
 import com.impetus.kundera.persistence.PersistenceValidator;
 import com.impetus.kundera.persistence.context.PersistenceCache;
+import com.impetus.kundera.property.EntityAccessor;
 import com.impetus.kundera.property.PropertyAccessorHelper;
 import com.impetus.kundera.proxy.KunderaProxy;
 import com.impetus.kundera.proxy.ProxyHelper;
 import com.impetus.kundera.proxy.collection.ProxyCollection;
-import com.impetus.kundera.utils.DeepEquals;
 
 /**
  * Responsible for generating {@link ObjectGraph} of nodes from a given entity
@@ -151,8 +153,22 @@ public class ObjectGraphBuilder
             // Determine whether this node is dirty based on comparison between
             // Node data and entity data
             // If dirty, set the entity data into node and mark it as dirty
-            if (!DeepEquals.deepEquals(node.getData(), entity))
+            Set<String> changedAttributes = getChangedAttributes(node, entity, entityMetadata);
+            if (changedAttributes == null || !changedAttributes.isEmpty())
             {
+                // changes add up till node is flushed, unless not known.
+                if (!node.isDirty())
+                {
+                    node.setChangedAttributes(changedAttributes);
+                }
+                else if (changedAttributes == null || node.getChangedAttributes() == null)
+                {
+                    node.setChangedAttributes(null);
+                }
+                else
+                {
+                    node.getChangedAttributes().addAll(changedAttributes);
+                }
                 node.setData(entity);
                 node.setDirty(true);
             }
@@ -230,6 +246,44 @@ public class ObjectGraphBuilder
         return node;
     }
 
+    /**
+     * Returns names of attributes in which entity differs from node data,
+     * compared field by field via entity's generated accessor. If managed
+     * entity itself is passed back(e.g. returned by find with "state" snapshot
+     * strategy or by merge), it is compared with snapshot, i.e. its state as
+     * last loaded or flushed.
+     * 
+     * @param node
+     *            node in persistence cache
+     * @param entity
+     *            entity object
+     * @param entityMetadata
+     *            entity metadata
+     * @return changed attribute names, empty if not dirty and null if dirty
+     *         but changes are not known(i.e. no snapshot available).
+     */
+    private Set<String> getChangedAttributes(Node node, Object entity, EntityMetadata entityMetadata)
+    {
+        Object original = node.getData() == entity ? node.getSnapshot() : node.getData();
+        if (original == null || !original.getClass().equals(entity.getClass()))
+        {
+            return null;
+        }
+
+        EntityAccessor accessor = entityMetadata.getEntityAccessor();
+        if (accessor == null)
+        {
+            return null;
+        }
+        BitSet changedFields = accessor.getChangedFields(original, entity);
+        Set<String> changedAttributes = new HashSet<String>();
+        for (int i = changedFields.nextSetBit(0); i >= 0; i = changedFields.nextSetBit(i + 1))
+        {
+            changedAttributes.add(accessor.getField(i).getName());
+        }
+        return changedAttributes;
+    }
+
     private NodeState getChildNodeState(EntityMetadata metadata, Object childObj)
     {
         Object childId = PropertyAccessorHelper.getId(childObj, metadata);
@@ -47,6 +47,9 @@ public class IndexManager
     /** The indexer. */
     private Indexer indexer;
 
+    /** Whether indexer is released. */
+    private boolean released;
+
     /**
      * The Constructor.
      * 
@@ -391,4 +394,18 @@ public class IndexManager
             indexer.close();
         }
     }
+
+    /**
+     * Releases indexer, called once client factory is destroyed. Lucene
+     * indexer shared by persistence units is shut down once released by all
+     * of them.
+     */
+    public synchronized void shutdown() throws IndexingException
+    {
+        if (!released && indexer instanceof LuceneIndexer)
+        {
+            released = true;
+            LuceneIndexer.release();
+        }
+    }
 }
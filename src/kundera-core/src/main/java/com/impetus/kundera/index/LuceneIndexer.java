@@ -22,6 +22,9 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import javax.persistence.metamodel.EmbeddableType;
 import javax.persistence.metamodel.EntityType;
@@ -37,15 +40,19 @@ import org.apache.lucene.queryparser.classic.QueryParser;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherFactory;
+import org.apache.lucene.search.SearcherManager;
 import org.apache.lucene.search.TopDocs;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.FSDirectory;
 import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.MMapDirectory;
 import org.apache.lucene.store.RAMDirectory;
 import org.apache.lucene.util.Version;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.impetus.kundera.Constants;
 import com.impetus.kundera.cache.ElementCollectionCacheManager;
 import com.impetus.kundera.metadata.model.EntityMetadata;
@@ -56,7 +63,11 @@ import com.impetus.kundera.property.PropertyAccessException;
 import com.impetus.kundera.property.PropertyAccessorHelper;
 
 /**
- * Provides indexing functionality using lucene library.
+ * Provides indexing functionality using lucene library. By default indexes are
+ * held in a {@link RAMDirectory} and copied to file system on commit. In
+ * near-real-time mode, writer works directly on file system(or memory mapped)
+ * directory, searches are served by readers refreshed from writer and commits
+ * happen in background.
  * 
  * @author amresh.singh
  */
@@ -82,11 +93,26 @@ public class LuceneIndexer extends DocumentIndexer
     private static LuceneIndexer indexer;
 
     /** The ready for commit. */
-    private static boolean readyForCommit;
+    private static volatile boolean readyForCommit;
 
     /** The lucene dir path. */
     private static String luceneDirPath;
 
+    /** Near-real-time searcher manager, null if nrt mode is not enabled. */
+    private static SearcherManager searcherManager;
+
+    /** Background committer for near-real-time mode. */
+    private static ScheduledExecutorService commitScheduler;
+
+    /** Number of index managers sharing single instance. */
+    private static int references;
+
+    /** Background commit interval of single instance, in nrt mode. */
+    private static long nrtCommitInterval;
+
+    /** Whether single instance uses memory mapped directory, in nrt mode. */
+    private static boolean nrtMemoryMapped;
+
     /**
      * Instantiates a new lucene indexer.
      * 
@@ -118,16 +144,7 @@ public class LuceneIndexer extends DocumentIndexer
              */
             // isInitialized
             /* writer */
-            IndexWriterConfig indexWriterConfig = new IndexWriterConfig(Version.LUCENE_34, analyzer);
-            LogDocMergePolicy logDocMergePolicy = new LogDocMergePolicy();
-            logDocMergePolicy.setMergeFactor(1000);
-            indexWriterConfig.setMergePolicy(logDocMergePolicy);
-            w = new IndexWriter(index, indexWriterConfig);
-            /* reader = */
-            // w.setMergePolicy(new LogDocMergePolicy());
-            // w.setMergeFactor(1);
-            // w.setMergeFactor(1000);
-            w.getConfig().setRAMBufferSizeMB(32);
+            w = createIndexWriter();
         }
         catch (Exception e)
         {
@@ -136,6 +153,59 @@ public class LuceneIndexer extends DocumentIndexer
         }
     }
 
+    /**
+     * Instantiates a new near-real-time lucene indexer.
+     * 
+     * @param analyzer
+     *            the analyzer
+     * @param lucDirPath
+     *            the luc dir path
+     * @param commitInterval
+     *            background commit interval in milliseconds, commit happens
+     *            only on close if not positive.
+     * @param memoryMapped
+     *            whether to use memory mapped directory.
+     */
+    private LuceneIndexer(Analyzer analyzer, String lucDirPath, long commitInterval, boolean memoryMapped)
+    {
+        super(analyzer);
+        try
+        {
+            luceneDirPath = lucDirPath;
+            index = memoryMapped ? new MMapDirectory(getIndexDirectory()) : FSDirectory.open(getIndexDirectory());
+            w = createIndexWriter();
+            searcherManager = new SearcherManager(w, true, new SearcherFactory());
+            isInitialized = true;
+
+            if (commitInterval > 0)
+            {
+                commitScheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                        .setNameFormat("kundera-lucene-commit-%d").setDaemon(true).build());
+                commitScheduler.scheduleWithFixedDelay(new Runnable()
+                {
+                    @Override
+                    public void run()
+                    {
+                        try
+                        {
+                            commitNearRealTime();
+                        }
+                        catch (LuceneIndexingException e)
+                        {
+                            // keep scheduler alive, next run will retry.
+                            log.warn("Background commit of lucene indexes failed, Caused by: ", e);
+                        }
+                    }
+                }, commitInterval, commitInterval, TimeUnit.MILLISECONDS);
+            }
+        }
+        catch (Exception e)
+        {
+            log.error("Error while instantiating near-real-time LuceneIndexer, Caused by :.", e);
+            throw new LuceneIndexingException(e);
+        }
+    }
+
     /**
      * Gets the single instance of LuceneIndexer.
      * 
@@ -153,9 +223,141 @@ public class LuceneIndexer extends DocumentIndexer
             indexer = new LuceneIndexer(analyzer, lucDirPath);
 
         }
+        else if (indexer != null && indexer.isNearRealTime())
+        {
+            throw new LuceneIndexingException(
+                    "Lucene indexer is already running in near-real-time mode, all persistence units must use same index.nrt setting.");
+        }
+        if (indexer != null)
+        {
+            references++;
+        }
         return indexer;
     }
 
+    /**
+     * Gets the single instance of LuceneIndexer running in near-real-time
+     * mode.
+     * 
+     * @param analyzer
+     *            the analyzer
+     * @param lucDirPath
+     *            the luc dir path
+     * @param commitInterval
+     *            background commit interval in milliseconds
+     * @param memoryMapped
+     *            whether to use memory mapped directory
+     * @return single instance of LuceneIndexer
+     */
+    public static synchronized LuceneIndexer getInstance(Analyzer analyzer, String lucDirPath, long commitInterval,
+            boolean memoryMapped)
+    {
+        if (indexer == null && lucDirPath != null)
+        {
+            indexer = new LuceneIndexer(analyzer, lucDirPath, commitInterval, memoryMapped);
+            nrtCommitInterval = commitInterval;
+            nrtMemoryMapped = memoryMapped;
+        }
+        else if (indexer != null
+                && (!indexer.isNearRealTime() || nrtCommitInterval != commitInterval || nrtMemoryMapped != memoryMapped))
+        {
+            throw new LuceneIndexingException(
+                    "Lucene indexer is already running with different settings, all persistence units must use same index.nrt, index.commit.interval and index.directory.type.");
+        }
+        if (indexer != null)
+        {
+            references++;
+        }
+        return indexer;
+    }
+
+    /**
+     * Releases single instance, held by an index manager. Once released by
+     * all of them, pending changes are committed and instance is shut down.
+     */
+    public static synchronized void release()
+    {
+        if (references > 0 && --references == 0)
+        {
+            shutdown();
+        }
+    }
+
+    /**
+     * Commits and closes index writer, stops background commits and discards
+     * single instance. Next call to getInstance creates a fresh indexer over
+     * index directory.
+     */
+    static synchronized void shutdown()
+    {
+        if (indexer != null)
+        {
+            indexer.close();
+        }
+        try
+        {
+            if (commitScheduler != null)
+            {
+                commitScheduler.shutdownNow();
+            }
+            if (searcherManager != null)
+            {
+                searcherManager.close();
+            }
+            if (w != null)
+            {
+                w.close();
+            }
+        }
+        catch (IOException e)
+        {
+            log.error("Error while shutting down LuceneIndexer, Caused by: ", e);
+            throw new LuceneIndexingException(e);
+        }
+        finally
+        {
+            commitScheduler = null;
+            searcherManager = null;
+            w = null;
+            reader = null;
+            isInitialized = false;
+            readyForCommit = false;
+            indexer = null;
+            references = 0;
+        }
+    }
+
+    /**
+     * Returns true, if indexer is running in near-real-time mode.
+     * 
+     * @return true, if near-real-time mode is enabled.
+     */
+    public boolean isNearRealTime()
+    {
+        return searcherManager != null;
+    }
+
+    /**
+     * Creates index writer over index directory.
+     * 
+     * @return index writer
+     * @throws IOException
+     */
+    private IndexWriter createIndexWriter() throws IOException
+    {
+        IndexWriterConfig indexWriterConfig = new IndexWriterConfig(Version.LUCENE_34, analyzer);
+        LogDocMergePolicy logDocMergePolicy = new LogDocMergePolicy();
+        logDocMergePolicy.setMergeFactor(1000);
+        indexWriterConfig.setMergePolicy(logDocMergePolicy);
+        IndexWriter writer = new IndexWriter(index, indexWriterConfig);
+        /* reader = */
+        // w.setMergePolicy(new LogDocMergePolicy());
+        // w.setMergeFactor(1);
+        // w.setMergeFactor(1000);
+        writer.getConfig().setRAMBufferSizeMB(32);
+        return writer;
+    }
+
     /**
      * Added for HBase support.
      * 
@@ -251,18 +453,18 @@ public class LuceneIndexer extends DocumentIndexer
             Query q = qp.parse(luceneQuery);
             
             w.deleteDocuments(q);
+
+            if (isNearRealTime())
+            {
+                // deletes are visible to next refreshed searcher, commit
+                // happens in background.
+                readyForCommit = true;
+                return;
+            }
+
             w.commit();
             w.close();
-            IndexWriterConfig indexWriterConfig = new IndexWriterConfig(Version.LUCENE_34, analyzer);
-            LogDocMergePolicy logDocMergePolicy = new LogDocMergePolicy();
-            logDocMergePolicy.setMergeFactor(1000);
-            indexWriterConfig.setMergePolicy(logDocMergePolicy);
-            w = new IndexWriter(index, indexWriterConfig);
-            /* reader = */
-            // w.setMergePolicy(new LogDocMergePolicy());
-            // w.setMergeFactor(1);
-            // w.setMergeFactor(1000);
-            w.getConfig().setRAMBufferSizeMB(32);
+            w = createIndexWriter();
             // flushInternal();
         }
         catch (Exception e)
@@ -276,8 +478,6 @@ public class LuceneIndexer extends DocumentIndexer
     @Override
     public final Map<String, Object> search(String luceneQuery, int start, int count, boolean fetchRelation)
     {
-
-        reader = getIndexReader();
         if (Constants.INVALID == count)
         {
             count = 100;
@@ -289,12 +489,7 @@ public class LuceneIndexer extends DocumentIndexer
         // Set<String> entityIds = new HashSet<String>();
         Map<String, Object> indexCol = new HashMap<String, Object>();
 
-        if (reader == null)
-        {
-            throw new LuceneIndexingException("Index reader is not initialized!");
-        }
-
-        IndexSearcher searcher = new IndexSearcher(reader);
+        IndexSearcher searcher = acquireSearcher();
         QueryParser qp = new QueryParser(Version.LUCENE_34, DEFAULT_SEARCHABLE_FIELD, new StandardAnalyzer(
                 Version.LUCENE_34));
 
@@ -328,11 +523,70 @@ public class LuceneIndexer extends DocumentIndexer
             log.error("Error while parsing Lucene Query {} ", luceneQuery, e);
             throw new LuceneIndexingException(e);
         }
+        finally
+        {
+            releaseSearcher(searcher);
+        }
 
-        reader = null;
         return indexCol;
     }
 
+    /**
+     * Acquires index searcher. In near-real-time mode searcher is refreshed
+     * from writer(only if there are pending changes) and taken from searcher
+     * manager, else a new searcher over flushed index reader is returned.
+     * 
+     * @return index searcher
+     */
+    private IndexSearcher acquireSearcher()
+    {
+        if (isNearRealTime())
+        {
+            try
+            {
+                searcherManager.maybeRefresh();
+                return searcherManager.acquire();
+            }
+            catch (IOException e)
+            {
+                log.error("Error while refreshing near-real-time searcher, Caused by: ", e);
+                throw new LuceneIndexingException(e);
+            }
+        }
+
+        reader = getIndexReader();
+        if (reader == null)
+        {
+            throw new LuceneIndexingException("Index reader is not initialized!");
+        }
+        return new IndexSearcher(reader);
+    }
+
+    /**
+     * Releases index searcher acquired via {@link #acquireSearcher()}.
+     * 
+     * @param searcher
+     *            index searcher
+     */
+    private void releaseSearcher(IndexSearcher searcher)
+    {
+        if (isNearRealTime())
+        {
+            try
+            {
+                searcherManager.release(searcher);
+            }
+            catch (IOException e)
+            {
+                log.warn("Error while releasing near-real-time searcher, Caused by: ", e);
+            }
+        }
+        else
+        {
+            reader = null;
+        }
+    }
+
     /**
      * Indexes document in file system using lucene.
      * 
@@ -387,11 +641,38 @@ public class LuceneIndexer extends DocumentIndexer
         }
     }
 
+    /**
+     * Commits pending near-real-time changes to index directory.
+     */
+    private void commitNearRealTime()
+    {
+        try
+        {
+            if (w != null && readyForCommit)
+            {
+                readyForCommit = false;
+                w.commit();
+            }
+        }
+        catch (Exception e)
+        {
+            readyForCommit = true;
+            log.error("Error while committing near-real-time Lucene Indexes, Caused by: ", e);
+            throw new LuceneIndexingException("Error while committing near-real-time Lucene Indexes", e);
+        }
+    }
+
     /**
      * Close of transaction.
      */
     public void close()
     {
+        if (isNearRealTime())
+        {
+            commitNearRealTime();
+            return;
+        }
+
         try
         {
             if (w != null && readyForCommit)
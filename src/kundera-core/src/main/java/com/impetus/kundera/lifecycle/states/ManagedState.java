@@ -156,6 +156,8 @@ public class ManagedState extends NodeState
             // One time set as required for rollback.
             Object original = ((Node) nodeStateContext).clone();
             ((Node) nodeStateContext).setOriginalNode((Node) original);
+            // Original copy is never modified, so share it as snapshot.
+            ((Node) nodeStateContext).setSnapshot(((Node) original).getData());
         }
 
         // No state change, Node to remain in Managed state
@@ -184,7 +186,9 @@ public class ManagedState extends NodeState
 
         // logNodeEvent("FLUSHED", this, nodeStateContext.getNodeId());
 
-        // Since node is flushed, mark it as NOT dirty
+        // Since node is flushed, refresh its snapshot with changed attributes
+        // and mark it as NOT dirty
+        ((Node) nodeStateContext).refreshSnapshot();
         nodeStateContext.setDirty(false);
 
     }
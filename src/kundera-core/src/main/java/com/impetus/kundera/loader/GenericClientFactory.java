@@ -54,6 +54,9 @@ public abstract class GenericClientFactory implements ClientFactory, ClientLifeC
     /** The logger. */
     private static Logger logger = LoggerFactory.getLogger(GenericClientFactory.class);
 
+    /** Default background commit interval(in milliseconds) for near-real-time lucene indexing. */
+    private static final long DEFAULT_INDEX_COMMIT_INTERVAL = 5000;
+
     /** The client. */
     private Client client;
 
@@ -151,8 +154,24 @@ public abstract class GenericClientFactory implements ClientFactory, ClientLifeC
             clientMetadata.setLuceneIndexDir(luceneDirectoryPath);
 
             // Set Index Manager
-            indexManager = new IndexManager(LuceneIndexer.getInstance(new StandardAnalyzer(Version.LUCENE_CURRENT),
-                    luceneDirectoryPath));
+            if (Boolean.parseBoolean(getIndexProperty(puProperties, PersistenceProperties.KUNDERA_INDEX_NRT)))
+            {
+                String commitInterval = getIndexProperty(puProperties,
+                        PersistenceProperties.KUNDERA_INDEX_COMMIT_INTERVAL);
+                String directoryType = getIndexProperty(puProperties,
+                        PersistenceProperties.KUNDERA_INDEX_DIRECTORY_TYPE);
+
+                long interval = StringUtils.isNotEmpty(commitInterval) && StringUtils.isNumeric(commitInterval) ? Long
+                        .parseLong(commitInterval) : DEFAULT_INDEX_COMMIT_INTERVAL;
+
+                indexManager = new IndexManager(LuceneIndexer.getInstance(new StandardAnalyzer(
+                        Version.LUCENE_CURRENT), luceneDirectoryPath, interval, "mmap".equalsIgnoreCase(directoryType)));
+            }
+            else
+            {
+                indexManager = new IndexManager(LuceneIndexer.getInstance(new StandardAnalyzer(
+                        Version.LUCENE_CURRENT), luceneDirectoryPath));
+            }
         }
         else if (indexerClass != null)
         {
@@ -179,6 +198,27 @@ public abstract class GenericClientFactory implements ClientFactory, ClientLifeC
 //        }
     }
 
+    /**
+     * Returns index related property, external properties take precedence
+     * over persistence.xml.
+     * 
+     * @param puProperties
+     *            external properties
+     * @param propertyName
+     *            property name
+     * @return property value
+     */
+    private String getIndexProperty(Map<String, Object> puProperties, String propertyName)
+    {
+        String value = puProperties != null ? (String) puProperties.get(propertyName) : null;
+        if (value == null)
+        {
+            value = KunderaMetadata.INSTANCE.getApplicationMetadata().getPersistenceUnitMetadata(persistenceUnit)
+                    .getProperty(propertyName);
+        }
+        return value;
+    }
+
     /**
      * Initialize client.
      * 
@@ -309,6 +349,17 @@ public abstract class GenericClientFactory implements ClientFactory, ClientLifeC
     }
 
     protected abstract void initializeLoadBalancer(String loadBalancingPolicyName);
+
+    /**
+     * Releases index manager, to be called once factory is destroyed.
+     */
+    public void releaseIndexManager()
+    {
+        if (indexManager != null)
+        {
+            indexManager.shutdown();
+        }
+    }
     
     public ClientMetadata getClientMetadata()
     {
@@ -317,7 +368,7 @@ public abstract class GenericClientFactory implements ClientFactory, ClientLifeC
 
     protected enum LoadBalancer
     {
-        ROUNDROBIN, LEASTACTIVE;
+        ROUNDROBIN, LEASTACTIVE, TOKENAWARE;
 
         public static LoadBalancer getValue(String loadBalancename)
         {
@@ -329,6 +380,10 @@ public abstract class GenericClientFactory implements ClientFactory, ClientLifeC
             {
                 return LEASTACTIVE;
             }
+            else if (loadBalancename != null && loadBalancename.equalsIgnoreCase(TOKENAWARE.name()))
+            {
+                return TOKENAWARE;
+            }
             else
             {
                 logger.info("Using default load balancer {} . " + ROUNDROBIN.name());
@@ -43,6 +43,7 @@ import com.impetus.kundera.metadata.processor.TableProcessor;
 import com.impetus.kundera.metadata.validator.EntityValidator;
 import com.impetus.kundera.metadata.validator.EntityValidatorImpl;
 import com.impetus.kundera.metadata.validator.InvalidEntityDefinitionException;
+import com.impetus.kundera.property.EntityAccessor;
 
 /**
  * Concrete implementation of IMetadataManager.
@@ -150,6 +151,10 @@ public class MetadataBuilder
             }
         }
 
+        if (metadata != null)
+        {
+            metadata.setEntityAccessor(EntityAccessor.getInstance(clazz));
+        }
         return metadata;
     }
 
@@ -36,6 +36,7 @@ import com.impetus.kundera.metadata.MetadataUtils;
 import com.impetus.kundera.metadata.model.attributes.AbstractAttribute;
 import com.impetus.kundera.metadata.model.type.AbstractManagedType;
 import com.impetus.kundera.persistence.event.CallbackMethod;
+import com.impetus.kundera.property.EntityAccessor;
 
 /**
  * Holds metadata for entities.
@@ -119,6 +120,9 @@ public final class EntityMetadata
 
     private EntityType entityType;
 
+    /** Generated accessor for entity fields. */
+    private EntityAccessor entityAccessor;
+
     /**
      * The Enum Type.
      */
@@ -743,6 +747,27 @@ public final class EntityMetadata
         jpaColumnMapping.put(jpaColumnName, fieldName);
     }
 
+    /**
+     * Gets the generated accessor for entity fields.
+     * 
+     * @return the entityAccessor
+     */
+    public EntityAccessor getEntityAccessor()
+    {
+        return entityAccessor;
+    }
+
+    /**
+     * Sets the generated accessor for entity fields.
+     * 
+     * @param entityAccessor
+     *            the entityAccessor to set
+     */
+    public void setEntityAccessor(EntityAccessor entityAccessor)
+    {
+        this.entityAccessor = entityAccessor;
+    }
+
     public String getFieldName(String jpaColumnName)
     {
 //        if(jpaColumnName.equals(((AbstractAttribute)this.getIdAttribute()).getJPAColumnName()))
@@ -18,7 +18,11 @@ package com.impetus.kundera.persistence;
 import java.lang.reflect.Field;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -30,10 +34,14 @@ import org.slf4j.LoggerFactory;
 
 import com.impetus.kundera.client.Client;
 import com.impetus.kundera.client.ClientBase;
+import com.impetus.kundera.PersistenceProperties;
 import com.impetus.kundera.client.EnhanceEntity;
+import com.impetus.kundera.graph.Node;
+import com.impetus.kundera.graph.ObjectGraphUtils;
 import com.impetus.kundera.metadata.KunderaMetadataManager;
 import com.impetus.kundera.metadata.MetadataUtils;
 import com.impetus.kundera.metadata.model.EntityMetadata;
+import com.impetus.kundera.metadata.model.PersistenceUnitMetadata;
 import com.impetus.kundera.metadata.model.Relation;
 import com.impetus.kundera.metadata.model.Relation.ForeignKey;
 import com.impetus.kundera.persistence.context.PersistenceCacheManager;
@@ -41,6 +49,7 @@ import com.impetus.kundera.property.PropertyAccessException;
 import com.impetus.kundera.property.PropertyAccessorHelper;
 import com.impetus.kundera.proxy.ProxyHelper;
 import com.impetus.kundera.utils.KunderaCoreUtils;
+import com.impetus.kundera.utils.ObjectUtils;
 
 /**
  * The Class AbstractEntityReader.
@@ -58,6 +67,15 @@ public class AbstractEntityReader
 
     private AssociationBuilder associationBuilder;
 
+    /** Default number of keys fetched in one go for batched associations. */
+    private static final int DEFAULT_BATCH_FETCH_SIZE = 100;
+
+    /** Relation entities fetched in batches, by target entity class and id. */
+    private Map<Class<?>, Map<Object, Object>> prefetchedRelations;
+
+    /** Prefetched relation entities already handed over to an owner. */
+    private Set<Object> servedRelations;
+
     /**
      * Retrieves an entity from ID
      * 
@@ -361,9 +379,12 @@ public class AbstractEntityReader
 
         if ((relationValue != null && relation.isUnary()) || (relation.isJoinedByPrimaryKey()))
         {
-            // Call it
-            Object relationEntity = pd.getClient(targetEntityMetadata).find(relation.getTargetEntity(),
-                    relationValue != null ? relationValue : entityId);
+            Object relationKey = relationValue != null ? relationValue : entityId;
+            Object relationEntity = getPrefetchedRelation(relation.getTargetEntity(), relationKey);
+            if (relationEntity == null)
+            {
+                relationEntity = pd.getClient(targetEntityMetadata).find(relation.getTargetEntity(), relationKey);
+            }
             if (relationEntity != null)
             {
                 relationalEntities.add(relationEntity);
@@ -408,6 +429,252 @@ public class AbstractEntityReader
 
     }
 
+    /**
+     * Recursively fetches associated entities for given list of enhance
+     * entities. Eager unary associations of all entities are loaded first,
+     * with one multi key fetch per target entity class (in batches of
+     * "kundera.batch.fetch.size" keys and up to "kundera.batch.fetch.depth"
+     * levels), rather than one find per entity.
+     * 
+     * @param enhanceEntities
+     *            enhance entities.
+     * @param m
+     *            entity metadata.
+     * @param pd
+     *            persistence delegator.
+     * @param lazilyLoaded
+     *            true if invoked over lazily fetched objects.
+     * @return list of populated entities.
+     */
+    public List<Object> recursivelyFindEntities(List<EnhanceEntity> enhanceEntities, EntityMetadata m,
+            PersistenceDelegator pd, boolean lazilyLoaded)
+    {
+        List<Object> result = new ArrayList<Object>(enhanceEntities.size());
+        try
+        {
+            if (enhanceEntities.size() > 1)
+            {
+                prefetchRelations(enhanceEntities, m, pd, lazilyLoaded, getBatchFetchDepth(m));
+            }
+            for (EnhanceEntity e : enhanceEntities)
+            {
+                result.add(handleAssociation(e.getEntity(), e.getRelations(), m, pd, lazilyLoaded));
+            }
+        }
+        finally
+        {
+            prefetchedRelations = null;
+            servedRelations = null;
+        }
+        return result;
+    }
+
+    /**
+     * Collects keys of eager unary associations held by given entities and
+     * fetches them in batches, per target entity class. Targets without any
+     * association of their own are served from persistence context, if held
+     * there and not dirty.
+     * 
+     * @param entities
+     *            entities, wrapped in enhance entity or not.
+     * @param m
+     *            entity metadata.
+     * @param pd
+     *            persistence delegator.
+     * @param lazilyLoaded
+     *            true if invoked over lazily fetched objects.
+     * @param depth
+     *            number of association levels to prefetch.
+     */
+    private void prefetchRelations(Collection<?> entities, EntityMetadata m, PersistenceDelegator pd,
+            boolean lazilyLoaded, int depth)
+    {
+        int batchSize = getBatchFetchSize(m);
+        if (depth < 1 || batchSize < 1 || m.getRelations().isEmpty())
+        {
+            return;
+        }
+
+        Map<Class<?>, Set<Object>> relationKeys = new HashMap<Class<?>, Set<Object>>();
+        for (Relation relation : m.getRelations())
+        {
+            if (!relation.isUnary() || (!lazilyLoaded && relation.getFetchType().equals(FetchType.LAZY)))
+            {
+                continue;
+            }
+
+            for (Object e : entities)
+            {
+                Map<String, Object> relationsMap = getPersistedRelations(e);
+                Object relationKey = relationsMap != null ? relationsMap.get(relation.getJoinColumnName()) : null;
+                if (relationKey == null && relation.isJoinedByPrimaryKey())
+                {
+                    relationKey = getId(getEntity(e), m);
+                }
+
+                if (relationKey != null && getPrefetchedRelations(relation.getTargetEntity()).get(relationKey) == null)
+                {
+                    Set<Object> keys = relationKeys.get(relation.getTargetEntity());
+                    if (keys == null)
+                    {
+                        keys = new LinkedHashSet<Object>();
+                        relationKeys.put(relation.getTargetEntity(), keys);
+                    }
+                    keys.add(relationKey);
+                }
+            }
+        }
+
+        for (Map.Entry<Class<?>, Set<Object>> entry : relationKeys.entrySet())
+        {
+            Class<?> targetClass = entry.getKey();
+            EntityMetadata targetMetadata = KunderaMetadataManager.getEntityMetadata(targetClass);
+            Map<Object, Object> fetched = getPrefetchedRelations(targetClass);
+            boolean holdsRelations = !targetMetadata.getRelations().isEmpty();
+
+            List<Object> misses = new ArrayList<Object>(entry.getValue().size());
+            for (Object key : entry.getValue())
+            {
+                Node node = holdsRelations ? null : pd.getPersistenceCache().getMainCache()
+                        .getNodeFromCache(ObjectGraphUtils.getNodeId(key, targetClass));
+                if (node != null && !node.isDirty() && node.getData() != null)
+                {
+                    fetched.put(key, ObjectUtils.deepCopy(node.getData()));
+                }
+                else
+                {
+                    misses.add(key);
+                }
+            }
+
+            Client client = pd.getClient(targetMetadata);
+            List<Object> loaded = new ArrayList<Object>(misses.size());
+            for (int i = 0; i < misses.size(); i += batchSize)
+            {
+                List<Object> keys = misses.subList(i, Math.min(i + batchSize, misses.size()));
+                List results = client.findAll(targetClass, null, keys.toArray());
+                if (results != null)
+                {
+                    for (Object r : results)
+                    {
+                        if (r != null)
+                        {
+                            fetched.put(getId(getEntity(r), targetMetadata), r);
+                            loaded.add(r);
+                        }
+                    }
+                }
+            }
+
+            if (log.isDebugEnabled())
+            {
+                log.debug("Prefetched {} of {} {} entities in batches of {}.", new Object[] { loaded.size(),
+                        misses.size(), targetClass.getSimpleName(), batchSize });
+            }
+
+            if (holdsRelations && !loaded.isEmpty())
+            {
+                prefetchRelations(loaded, targetMetadata, pd, lazilyLoaded, depth - 1);
+            }
+        }
+    }
+
+    /**
+     * Returns prefetched entities of given class, by id.
+     * 
+     * @param targetClass
+     *            entity class.
+     * @return prefetched entities.
+     */
+    private Map<Object, Object> getPrefetchedRelations(Class<?> targetClass)
+    {
+        if (prefetchedRelations == null)
+        {
+            prefetchedRelations = new HashMap<Class<?>, Map<Object, Object>>();
+        }
+        Map<Object, Object> entities = prefetchedRelations.get(targetClass);
+        if (entities == null)
+        {
+            entities = new HashMap<Object, Object>();
+            prefetchedRelations.put(targetClass, entities);
+        }
+        return entities;
+    }
+
+    /**
+     * Returns prefetched relation entity for given key, or null if it has not
+     * been prefetched. An entity referred by more than one owner is handed over
+     * as a copy after first time, so that each owner holds its own instance as
+     * it would with find.
+     * 
+     * @param targetClass
+     *            relation entity class.
+     * @param key
+     *            relation key.
+     * @return relation entity or null.
+     */
+    private Object getPrefetchedRelation(Class<?> targetClass, Object key)
+    {
+        Map<Object, Object> entities = prefetchedRelations != null ? prefetchedRelations.get(targetClass) : null;
+        Object relationEntity = entities != null ? entities.get(key) : null;
+        if (relationEntity != null)
+        {
+            if (servedRelations == null)
+            {
+                servedRelations = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+            }
+            if (!servedRelations.add(relationEntity))
+            {
+                Object copy = ObjectUtils.deepCopy(getEntity(relationEntity));
+                relationEntity = relationEntity instanceof EnhanceEntity ? new EnhanceEntity(copy,
+                        ((EnhanceEntity) relationEntity).getEntityId(), getPersistedRelations(relationEntity)) : copy;
+            }
+        }
+        return relationEntity;
+    }
+
+    /**
+     * Returns configured batch fetch size for persistence unit of given
+     * entity.
+     * 
+     * @param m
+     *            entity metadata.
+     * @return batch fetch size.
+     */
+    public static int getBatchFetchSize(EntityMetadata m)
+    {
+        return getIntProperty(m, PersistenceProperties.KUNDERA_BATCH_FETCH_SIZE, DEFAULT_BATCH_FETCH_SIZE);
+    }
+
+    /**
+     * Returns configured batch fetch depth for persistence unit of given
+     * entity.
+     * 
+     * @param m
+     *            entity metadata.
+     * @return batch fetch depth.
+     */
+    private static int getBatchFetchDepth(EntityMetadata m)
+    {
+        return getIntProperty(m, PersistenceProperties.KUNDERA_BATCH_FETCH_DEPTH, 1);
+    }
+
+    private static int getIntProperty(EntityMetadata m, String property, int defaultValue)
+    {
+        PersistenceUnitMetadata puMetadata = KunderaMetadataManager.getPersistenceUnitMetadata(m
+                .getPersistenceUnit());
+        String value = puMetadata != null ? puMetadata.getProperty(property) : null;
+        try
+        {
+            return value != null ? Integer.parseInt(value.trim()) : defaultValue;
+        }
+        catch (NumberFormatException nfex)
+        {
+            log.warn("Invalid value {} for {}, using {}.", new Object[] { value, property, defaultValue });
+            return defaultValue;
+        }
+    }
+
     /**
      * Returns wrapped relations.
      * 
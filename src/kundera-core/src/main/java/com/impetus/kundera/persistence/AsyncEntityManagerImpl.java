@@ -0,0 +1,168 @@
+/*******************************************************************************
+ * * Copyright 2013 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.kundera.persistence;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.impetus.kundera.metadata.KunderaMetadataManager;
+import com.impetus.kundera.persistence.api.KunderaAsyncEntityManager;
+import com.impetus.kundera.property.PropertyAccessorHelper;
+
+/**
+ * Implementation of {@link KunderaAsyncEntityManager}. Entity manager is not
+ * thread safe, so each operation creates an entity manager of its own (with
+ * properties of entity manager it is unwrapped from), runs on it and closes
+ * it.
+ */
+class AsyncEntityManagerImpl implements KunderaAsyncEntityManager
+{
+    private final EntityManagerFactoryImpl factory;
+
+    private final Map<String, Object> properties;
+
+    private final ListeningExecutorService executor;
+
+    /**
+     * @param factory
+     *            entity manager factory.
+     * @param properties
+     *            properties of entity manager, may be null.
+     */
+    AsyncEntityManagerImpl(EntityManagerFactoryImpl factory, Map<String, Object> properties)
+    {
+        this.factory = factory;
+        this.properties = properties;
+        this.executor = factory.getAsyncExecutor();
+    }
+
+    @Override
+    public <T> ListenableFuture<T> findAsync(final Class<T> entityClass, final Object primaryKey)
+    {
+        return submit(new Operation<T>()
+        {
+            @Override
+            T execute(EntityManager em)
+            {
+                return em.find(entityClass, primaryKey);
+            }
+        });
+    }
+
+    @Override
+    public <T> ListenableFuture<T> persistAsync(final T entity)
+    {
+        return submit(new Operation<T>()
+        {
+            @Override
+            T execute(EntityManager em)
+            {
+                em.persist(entity);
+                return entity;
+            }
+        });
+    }
+
+    @Override
+    public ListenableFuture<Void> removeAsync(final Object entity)
+    {
+        return submit(new Operation<Void>()
+        {
+            @Override
+            Void execute(EntityManager em)
+            {
+                // given entity is detached, remove it as managed by this
+                // entity manager.
+                Object id = PropertyAccessorHelper.getId(entity,
+                        KunderaMetadataManager.getEntityMetadata(entity.getClass()));
+                Object managed = em.find(entity.getClass(), id);
+                if (managed != null)
+                {
+                    em.remove(managed);
+                }
+                return null;
+            }
+        });
+    }
+
+    @Override
+    public <T> ListenableFuture<List<T>> getResultListAsync(final String jpaQuery,
+            final Map<String, Object> parameters, final int maxResults)
+    {
+        return submit(new Operation<List<T>>()
+        {
+            @Override
+            List<T> execute(EntityManager em)
+            {
+                Query query = em.createQuery(jpaQuery);
+                if (parameters != null)
+                {
+                    for (Map.Entry<String, Object> parameter : parameters.entrySet())
+                    {
+                        query.setParameter(parameter.getKey(), parameter.getValue());
+                    }
+                }
+                query.setMaxResults(maxResults);
+                return query.getResultList();
+            }
+        });
+    }
+
+    private <T> ListenableFuture<T> submit(final Operation<T> operation)
+    {
+        try
+        {
+            return executor.submit(new Callable<T>()
+            {
+                @Override
+                public T call() throws Exception
+                {
+                    EntityManager em = properties != null ? factory.createEntityManager(properties) : factory
+                            .createEntityManager();
+                    try
+                    {
+                        return operation.execute(em);
+                    }
+                    finally
+                    {
+                        em.close();
+                    }
+                }
+            });
+        }
+        catch (RejectedExecutionException e)
+        {
+            // queue is full or factory is closed.
+            return Futures.immediateFailedFuture(e);
+        }
+    }
+
+    /**
+     * Operation over an entity manager.
+     */
+    private abstract static class Operation<T>
+    {
+        abstract T execute(EntityManager em);
+    }
+}
@@ -19,7 +19,10 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import javax.persistence.Cache;
 import javax.persistence.EntityManager;
@@ -34,6 +37,8 @@ import org.apache.commons.lang.NotImplementedException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
 import com.impetus.kundera.Constants;
 import com.impetus.kundera.KunderaPersistenceUnitUtil;
 import com.impetus.kundera.PersistenceProperties;
@@ -45,7 +50,11 @@ import com.impetus.kundera.client.ClientResolverException;
 import com.impetus.kundera.configure.ClientMetadataBuilder;
 import com.impetus.kundera.loader.ClientFactory;
 import com.impetus.kundera.loader.ClientLifeCycleManager;
+import com.impetus.kundera.loader.GenericClientFactory;
 import com.impetus.kundera.metadata.KunderaMetadataManager;
+import com.impetus.kundera.metadata.model.PersistenceUnitMetadata;
+import com.impetus.kundera.query.QueryResolver;
+import com.impetus.kundera.utils.KunderaThreadFactory;
 
 /**
  * Implementation class for {@link EntityManagerFactory}
@@ -87,6 +96,15 @@ public class EntityManagerFactoryImpl implements EntityManagerFactory
     /** ClientFactory map holds one clientfactory for one persistence unit */
     private Map<String, ClientFactory> clientFactories = new ConcurrentHashMap<String, ClientFactory>();
 
+    /** Query resolver, shares parsed queries across entity managers. */
+    private final QueryResolver queryResolver = new QueryResolver();
+
+    /** Runs asynchronous operations, created on first use. */
+    private ListeningExecutorService asyncExecutor;
+
+    /** Wait for pending asynchronous operations on close. */
+    private static final long ASYNC_SHUTDOWN_TIMEOUT_SECONDS = 30;
+
     /**
      * Use this if you want to construct this directly.
      * 
@@ -161,6 +179,8 @@ public class EntityManagerFactoryImpl implements EntityManagerFactory
     {
         if (isOpen())
         {
+            // pending asynchronous operations finish over open clients.
+            shutdownAsyncExecutor();
             closed = true;
 
             // Shut cache provider down
@@ -171,9 +191,18 @@ public class EntityManagerFactoryImpl implements EntityManagerFactory
 
             for (String pu : persistenceUnits)
             {
-                ((ClientLifeCycleManager) clientFactories.get(pu)).destroy();
+                ClientFactory clientFactory = clientFactories.get(pu);
+                ((ClientLifeCycleManager) clientFactory).destroy();
+                if (clientFactory instanceof GenericClientFactory)
+                {
+                    ((GenericClientFactory) clientFactory).releaseIndexManager();
+                }
 //                KunderaMetadata.INSTANCE.unloadKunderaMetadata(pu);
             }
+            synchronized (this)
+            {
+                asyncExecutor = null;
+            }
             this.persistenceUnits = null;
             this.properties = null;
             clientFactories.clear();
@@ -400,6 +429,97 @@ public class EntityManagerFactoryImpl implements EntityManagerFactory
         return persistenceUnits;
     }
 
+    /**
+     * Gets the query resolver.
+     * 
+     * @return the query resolver
+     */
+    QueryResolver getQueryResolver()
+    {
+        return queryResolver;
+    }
+
+    /**
+     * Stops accepting asynchronous operations and waits for pending ones,
+     * interrupts them if they do not finish in time.
+     */
+    private void shutdownAsyncExecutor()
+    {
+        ListeningExecutorService executor;
+        synchronized (this)
+        {
+            executor = asyncExecutor;
+            if (executor == null)
+            {
+                return;
+            }
+            executor.shutdown();
+        }
+        try
+        {
+            if (!executor.awaitTermination(ASYNC_SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS))
+            {
+                logger.warn("Asynchronous operations did not finish within {} seconds, interrupting them.",
+                        ASYNC_SHUTDOWN_TIMEOUT_SECONDS);
+                executor.shutdownNow();
+            }
+        }
+        catch (InterruptedException e)
+        {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Returns bounded executor of asynchronous operations, sized by
+     * kundera.async.pool.size and kundera.async.queue.size. Operations are
+     * rejected once its queue is full.
+     * 
+     * @return executor of asynchronous operations.
+     */
+    synchronized ListeningExecutorService getAsyncExecutor()
+    {
+        if (!isOpen())
+        {
+            throw new IllegalStateException("entity manager factory has been closed");
+        }
+        if (asyncExecutor == null)
+        {
+            int poolSize = getIntProperty(PersistenceProperties.KUNDERA_ASYNC_POOL_SIZE, 10);
+            int queueSize = getIntProperty(PersistenceProperties.KUNDERA_ASYNC_QUEUE_SIZE, 1000);
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<Runnable>(queueSize), new KunderaThreadFactory(
+                            EntityManagerFactoryImpl.class.getName()));
+            executor.allowCoreThreadTimeOut(true);
+            asyncExecutor = MoreExecutors.listeningDecorator(executor);
+        }
+        return asyncExecutor;
+    }
+
+    /**
+     * Returns value of given property, factory property takes precedence over
+     * property of (first) persistence unit.
+     */
+    private int getIntProperty(String property, int defaultValue)
+    {
+        Object value = properties.get(property);
+        if (value == null)
+        {
+            PersistenceUnitMetadata puMetadata = KunderaMetadataManager.getPersistenceUnitMetadata(persistenceUnits[0]);
+            value = puMetadata != null ? puMetadata.getProperty(property) : null;
+        }
+        try
+        {
+            return value != null ? Integer.parseInt(value.toString().trim()) : defaultValue;
+        }
+        catch (NumberFormatException nfex)
+        {
+            logger.warn("Invalid value {} for {}, using {}.", new Object[] { value, property, defaultValue });
+            return defaultValue;
+        }
+    }
+
     ClientFactory getClientFactory(final String pu)
     {
         ClientFactory clientFactory = clientFactories.get(pu);
@@ -49,6 +49,7 @@ import com.impetus.kundera.client.ClientResolverException;
 import com.impetus.kundera.loader.ClientFactory;
 import com.impetus.kundera.metadata.model.ApplicationMetadata;
 import com.impetus.kundera.metadata.model.KunderaMetadata;
+import com.impetus.kundera.persistence.api.KunderaAsyncEntityManager;
 import com.impetus.kundera.persistence.context.PersistenceCache;
 import com.impetus.kundera.persistence.jta.KunderaJTAUserTransaction;
 import com.impetus.kundera.query.KunderaTypedQuery;
@@ -130,6 +131,7 @@ public class EntityManagerImpl implements EntityManager, ResourceManager
         this.persistenceCache.setPersistenceContextType(persistenceContextType);
 
         this.persistenceDelegator = new PersistenceDelegator(this.persistenceCache);
+        this.persistenceDelegator.setQueryResolver(((EntityManagerFactoryImpl) this.factory).getQueryResolver());
 
         for (String pu : ((EntityManagerFactoryImpl) this.factory).getPersistenceUnits())
         {
@@ -749,6 +751,10 @@ public class EntityManagerImpl implements EntityManager, ResourceManager
     public <T> T unwrap(Class<T> paramClass)
     {
         checkClosed();
+        if (KunderaAsyncEntityManager.class.equals(paramClass))
+        {
+            return paramClass.cast(new AsyncEntityManagerImpl((EntityManagerFactoryImpl) factory, properties));
+        }
         throw new NotImplementedException("unwrap currently not supported by Kundera");
     }
 
@@ -73,6 +73,23 @@ public interface EntityReader
     Object recursivelyFindEntities(Object entity, Map<String, Object> relationsMap, EntityMetadata m,
             PersistenceDelegator pd, boolean lazilyLoaded);
 
+    /**
+     * Returns populated entities along with all relational values, loading
+     * eager unary relations of all entities in batches.
+     * 
+     * @param enhanceEntities
+     *            enhance entities
+     * @param m
+     *            entity meta data
+     * @param pd
+     *            persistence delegator.
+     * @param lazilyLoaded
+     *            true if invoked over lazily fetched objects.
+     * @return populated entities.
+     */
+    List<Object> recursivelyFindEntities(List<EnhanceEntity> enhanceEntities, EntityMetadata m,
+            PersistenceDelegator pd, boolean lazilyLoaded);
+
     /**
      * Find by id.
      * 
@@ -75,6 +75,7 @@ public class KunderaEntityTransaction implements EntityTransaction
     {
         if (!getRollbackOnly())
         {
+            ((EntityManagerImpl) entityManager).getPersistenceDelegator().prepareCommit();
             onTransaction(TxAction.COMMIT);
             ((EntityManagerImpl) entityManager).getPersistenceDelegator().commit();
         }
@@ -18,9 +18,11 @@ package com.impetus.kundera.persistence;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -37,6 +39,7 @@ import com.impetus.kundera.PersistenceProperties;
 import com.impetus.kundera.client.Client;
 import com.impetus.kundera.client.ClientPropertiesSetter;
 import com.impetus.kundera.client.ClientResolverException;
+import com.impetus.kundera.client.EnhanceEntity;
 import com.impetus.kundera.graph.Node;
 import com.impetus.kundera.graph.ObjectGraph;
 import com.impetus.kundera.graph.ObjectGraphBuilder;
@@ -48,6 +51,7 @@ import com.impetus.kundera.metadata.KunderaMetadataManager;
 import com.impetus.kundera.metadata.MetadataUtils;
 import com.impetus.kundera.metadata.model.EntityMetadata;
 import com.impetus.kundera.metadata.model.KunderaMetadata;
+import com.impetus.kundera.metadata.model.MetamodelImpl;
 import com.impetus.kundera.metadata.model.PersistenceUnitMetadata;
 import com.impetus.kundera.metadata.model.attributes.AbstractAttribute;
 import com.impetus.kundera.persistence.api.Batcher;
@@ -58,6 +62,8 @@ import com.impetus.kundera.persistence.context.PersistenceCache;
 import com.impetus.kundera.persistence.context.jointable.JoinTableData;
 import com.impetus.kundera.persistence.context.jointable.JoinTableData.OPERATION;
 import com.impetus.kundera.persistence.event.EntityEventDispatcher;
+import com.impetus.kundera.property.PropertyAccessorHelper;
+import com.impetus.kundera.proxy.LazyInitializer;
 import com.impetus.kundera.proxy.LazyInitializerFactory;
 import com.impetus.kundera.query.QueryResolver;
 import com.impetus.kundera.utils.ObjectUtils;
@@ -100,6 +106,14 @@ public final class PersistenceDelegator
 
     private Coordinator coordinator;
 
+    private QueryResolver queryResolver = new QueryResolver();
+
+    /** Persistence units configured with "state" snapshot strategy. */
+    private Map<String, Boolean> managedFinds = new HashMap<String, Boolean>();
+
+    /** Uninitialized proxies tied to this persistence context, by entity class. */
+    private final Map<Class<?>, Set<LazyInitializer>> uninitializedProxies = new HashMap<Class<?>, Set<LazyInitializer>>();
+
     /**
      * Instantiates a new persistence delegator.
      * 
@@ -229,8 +243,17 @@ public final class PersistenceDelegator
         MainCache mainCache = (MainCache) getPersistenceCache().getMainCache();
         Node node = mainCache.getNodeFromCache(nodeId);
 
+        // In deferred flush mode, a dirty node is queued for flush and holds
+        // latest state of entity.
+        if (node != null && node.isDirty() && isDeferredFlush())
+        {
+            if (node.isInState(RemovedState.class))
+            {
+                return null;
+            }
+        }
         // if node is not in persistence cache or is dirty, fetch from database
-        if (node == null || node.isDirty())
+        else if (node == null || node.isDirty())
         {
             node = new Node(nodeId, entityClass, new ManagedState(), getPersistenceCache(), primaryKey);
             node.setClient(getClient(entityMetadata));
@@ -254,10 +277,7 @@ public final class PersistenceDelegator
         }
         else
         {
-            E e = (E) ObjectUtils.deepCopy(nodeData);
-            
-            onSetProxyOwners(entityMetadata,e);
-            return e;
+            return onFoundEntity(entityMetadata, nodeData);
         }
 
     }
@@ -272,7 +292,6 @@ public final class PersistenceDelegator
      * @see {@link PersistenceDelegator#find(Class, Object)}
      * @return List of found entities
      */
-    // TODO Is it possible to pass all primary keys directly to database client.
     public <E> List<E> find(Class<E> entityClass, Object... primaryKeys)
     {
         List<E> entities = new ArrayList<E>();
@@ -281,15 +300,177 @@ public final class PersistenceDelegator
             return entities;
         }
         Set pKeys = new HashSet(Arrays.asList(primaryKeys));
+
+        EntityMetadata entityMetadata = getMetadata(entityClass);
+
+        // Entities holding relations are found one by one, as their
+        // associations are resolved recursively by entity reader.
+        if (!isMultiGetSupported(entityMetadata))
+        {
+            for (Object primaryKey : pKeys)
+            {
+                E e = find(entityClass, primaryKey);
+                if (e != null)
+                    entities.add(e);
+            }
+            return entities;
+        }
+
+        // Serve keys held by persistence context and collect misses, to be
+        // fetched from database in one go.
+        MainCache mainCache = (MainCache) getPersistenceCache().getMainCache();
+        List<Object> misses = new ArrayList<Object>();
         for (Object primaryKey : pKeys)
         {
-            E e = find(entityClass, primaryKey);
-            if (e != null)
+            if (primaryKey == null)
+            {
+                throw new IllegalArgumentException("PrimaryKey value must not be null for object you want to find.");
+            }
+
+            Node node = mainCache.getNodeFromCache(ObjectGraphUtils.getNodeId(primaryKey, entityClass));
+            if (node == null || (node.isDirty() && !isDeferredFlush()))
+            {
+                misses.add(primaryKey);
+            }
+            else
+            {
+                E e = find(entityClass, primaryKey);
+                if (e != null)
+                    entities.add(e);
+            }
+        }
+
+        if (!misses.isEmpty())
+        {
+            for (Object entity : loadAll(entityClass, entityMetadata, misses))
+            {
+                E e = onFoundEntity(entityMetadata, entity);
                 entities.add(e);
+            }
         }
         return entities;
     }
 
+    /**
+     * Loads entities for given primary keys into persistence cache with a
+     * single multi key fetch, skipping keys already held there. Does nothing if
+     * entities of given class can not be fetched in one go.
+     * 
+     * @param entityClass
+     *            entity class
+     * @param primaryKeys
+     *            primary keys
+     */
+    public void prefetch(Class<?> entityClass, Collection<?> primaryKeys)
+    {
+        EntityMetadata entityMetadata = getMetadata(entityClass);
+        if (primaryKeys == null || primaryKeys.isEmpty() || !isMultiGetSupported(entityMetadata))
+        {
+            return;
+        }
+
+        MainCache mainCache = (MainCache) getPersistenceCache().getMainCache();
+        List<Object> misses = new ArrayList<Object>();
+        for (Object primaryKey : primaryKeys)
+        {
+            Node node = primaryKey != null ? mainCache.getNodeFromCache(ObjectGraphUtils.getNodeId(primaryKey,
+                    entityClass)) : null;
+            if (primaryKey != null && (node == null || (node.isDirty() && !isDeferredFlush())))
+            {
+                misses.add(primaryKey);
+            }
+        }
+
+        if (!misses.isEmpty())
+        {
+            loadAll(entityClass, entityMetadata, misses);
+        }
+    }
+
+    /**
+     * Fetches entities for given primary keys from database with a single
+     * {@link Client#findAll(Class, String[], Object...)} call and adds them
+     * into persistence cache.
+     * 
+     * @param entityClass
+     *            entity class
+     * @param entityMetadata
+     *            entity metadata
+     * @param primaryKeys
+     *            primary keys not found in persistence cache
+     * @return list of found (managed) entities
+     */
+    private List<Object> loadAll(Class<?> entityClass, EntityMetadata entityMetadata, List<Object> primaryKeys)
+    {
+        List<Object> entities = new ArrayList<Object>();
+        Client client = getClient(entityMetadata);
+
+        List results = null;
+        try
+        {
+            lock.readLock().lock();
+            results = client.findAll(entityClass, null, primaryKeys.toArray());
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
+
+        if (results == null)
+        {
+            return entities;
+        }
+
+        MainCache mainCache = (MainCache) getPersistenceCache().getMainCache();
+        for (Object result : results)
+        {
+            Object entity = result instanceof EnhanceEntity ? ((EnhanceEntity) result).getEntity() : result;
+            if (entity == null)
+            {
+                continue;
+            }
+
+            Object id = PropertyAccessorHelper.getId(entity, entityMetadata);
+            Node node = new Node(ObjectGraphUtils.getNodeId(id, entityClass), entityClass, new ManagedState(),
+                    getPersistenceCache(), id);
+            node.setClient(client);
+            node.setPersistenceDelegator(this);
+
+            // Same as ManagedState#handleFind, node is fresh and hence NOT
+            // dirty.
+            node.setData(entity);
+            mainCache.processNodeMapping(node);
+            node.setDirty(false);
+            Node original = node.clone();
+            node.setOriginalNode(original);
+            node.setSnapshot(original.getData());
+
+            entities.add(entity);
+        }
+        return entities;
+    }
+
+    /**
+     * Returns true if entities of given metadata can be fetched by a single
+     * multi-get call, i.e. entity holds no relation and a non-composite id.
+     * 
+     * @param entityMetadata
+     *            entity metadata
+     * @return true, if multi-get is supported.
+     */
+    private boolean isMultiGetSupported(EntityMetadata entityMetadata)
+    {
+        if ((entityMetadata.getRelationNames() != null && !entityMetadata.getRelationNames().isEmpty())
+                || entityMetadata.isRelationViaJoinTable())
+        {
+            return false;
+        }
+
+        MetamodelImpl metaModel = (MetamodelImpl) KunderaMetadata.INSTANCE.getApplicationMetadata().getMetamodel(
+                entityMetadata.getPersistenceUnit());
+        return !metaModel.isEmbeddable(entityMetadata.getIdAttribute().getBindableJavaType());
+    }
+
     /**
      * Retrieves {@link List} of entities for a given {@link Map} of embedded
      * column values. Purpose of this method is to provide functionality of
@@ -373,6 +554,17 @@ public final class PersistenceDelegator
      */
     private void flush()
     {
+        // In deferred mode, nodes are kept in flush stack until commit,
+        // explicit flush or query execution.
+        if (isDeferredFlush())
+        {
+            if (enableFlush)
+            {
+                flushDeferred();
+            }
+            return;
+        }
+
         // Get flush stack from Flush Manager
         Deque<Node> fs = flushManager.getFlushStack();
 
@@ -397,20 +589,9 @@ public final class PersistenceDelegator
                     EntityMetadata metadata = getMetadata(node.getDataClass());
                     node.setClient(getClient(metadata));
 
-                    // if batch size is defined.
-                    if ((node.getClient() instanceof Batcher) && ((Batcher) (node.getClient())).getBatchSize() > 0)
+                    if (flushNode(node, metadata))
                     {
                         isBatch = true;
-                        ((Batcher) (node.getClient())).addBatch(node);
-                    }
-                    else if (isTransactionInProgress
-                            && MetadataUtils.defaultTransactionSupported(metadata.getPersistenceUnit()))
-                    {
-                        onSynchronization(node, metadata);
-                    }
-                    else
-                    {
-                        node.flush();
                     }
                 }
 
@@ -427,6 +608,155 @@ public final class PersistenceDelegator
         }
     }
 
+    /**
+     * Flushes given node, adds it to batch if batch size is defined for its
+     * client, hands it over to transaction resource if running within
+     * transaction, else writes it.
+     * 
+     * @param node
+     *            managed or removed node.
+     * @param metadata
+     *            entity metadata.
+     * @return true, if node is added to batch.
+     */
+    private boolean flushNode(Node node, EntityMetadata metadata)
+    {
+        // if batch size is defined.
+        if ((node.getClient() instanceof Batcher) && ((Batcher) (node.getClient())).getBatchSize() > 0)
+        {
+            ((Batcher) (node.getClient())).addBatch(node);
+            return true;
+        }
+        else if (isTransactionInProgress && MetadataUtils.defaultTransactionSupported(metadata.getPersistenceUnit()))
+        {
+            onSynchronization(node, metadata);
+        }
+        else
+        {
+            node.flush();
+        }
+        return false;
+    }
+
+    /**
+     * Flushes nodes queued in deferred flush mode. Multiple operations on same
+     * node are coalesced into a single write of its latest state, each node
+     * is then flushed as in AUTO flush mode. Batches are executed on explicit
+     * flush, commit or query execution.
+     */
+    private void flushDeferred()
+    {
+        Deque<Node> fs = flushManager.getFlushStack();
+
+        if (log.isDebugEnabled())
+        {
+            log.debug("Flushing deferred flush stack to database(s) (showing stack objects from top to bottom):\n"
+                    + fs);
+        }
+
+        Set<Node> flushedNodes = new HashSet<Node>();
+        Map<Client, List<Node>> batches = new HashMap<Client, List<Node>>();
+        while (fs != null && !fs.isEmpty())
+        {
+            Node node = fs.pop();
+
+            // node data is already the latest state, skip repeated
+            // occurrences.
+            if (!flushedNodes.add(node))
+            {
+                continue;
+            }
+
+            if (node.isInState(ManagedState.class) || node.isInState(RemovedState.class))
+            {
+                EntityMetadata metadata = getMetadata(node.getDataClass());
+                Client client = getClient(metadata);
+                node.setClient(client);
+
+                if (flushNode(node, metadata))
+                {
+                    List<Node> batch = batches.get(client);
+                    if (batch == null)
+                    {
+                        batch = new ArrayList<Node>();
+                        batches.put(client, batch);
+                    }
+                    batch.add(node);
+                }
+            }
+        }
+
+        // before commit, batches are executed by commit itself.
+        if (enableFlush)
+        {
+            for (Client client : batches.keySet())
+            {
+                ((Batcher) client).executeBatch();
+                ((Batcher) client).clear();
+
+                for (Node node : batches.get(client))
+                {
+                    if (node.isInState(RemovedState.class))
+                    {
+                        getPersistenceCache().getMainCache().removeNodeFromCache(node);
+                    }
+                    else
+                    {
+                        // before changed attributes are reset.
+                        node.refreshSnapshot();
+                    }
+                    node.setDirty(false);
+                }
+            }
+        }
+
+        flushJoinTableData();
+    }
+
+    /**
+     * Hands nodes queued in deferred flush mode over to transaction resources
+     * (or writes them, if transaction is not supported by persistence unit),
+     * before resources are committed.
+     */
+    void prepareCommit()
+    {
+        if (isDeferredFlush() && !flushManager.getFlushStack().isEmpty())
+        {
+            try
+            {
+                lock.writeLock().lock();
+                flushDeferred();
+            }
+            finally
+            {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Flushes nodes queued in deferred flush mode before query execution, so
+     * that query results are consistent with operations performed on this
+     * persistence context. Does nothing in AUTO flush mode.
+     */
+    public void flushBeforeQuery()
+    {
+        if (isDeferredFlush() && !flushManager.getFlushStack().isEmpty())
+        {
+            try
+            {
+                lock.writeLock().lock();
+                enableFlush = true;
+                flushDeferred();
+            }
+            finally
+            {
+                enableFlush = false;
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
     public <E> E merge(E e)
     {
         if (log.isDebugEnabled())
@@ -545,7 +875,7 @@ public final class PersistenceDelegator
     
     private Query getQueryInstance(String jpaQuery, boolean isNative, Class mappedClass)
     {
-        Query query = new QueryResolver().getQueryImplementation(jpaQuery, this,mappedClass,isNative);
+        Query query = queryResolver.getQueryImplementation(jpaQuery, this,mappedClass,isNative);
         return query;
     }
     /**
@@ -587,6 +917,11 @@ public final class PersistenceDelegator
 
     private void onClearProxy()
     {
+        synchronized (uninitializedProxies)
+        {
+            uninitializedProxies.clear();
+        }
+
         if (KunderaMetadata.INSTANCE.getCoreMetadata() != null)
         {
             LazyInitializerFactory lazyInitializerrFactory = KunderaMetadata.INSTANCE.getCoreMetadata()
@@ -599,6 +934,47 @@ public final class PersistenceDelegator
         }
     }
 
+    /**
+     * Returns entity to be handed over to application for a found node data.
+     * With "state" snapshot strategy it is managed entity itself(changes are
+     * detected against snapshot of its last loaded or flushed state),
+     * otherwise a deep copy of it.
+     * 
+     * @param m
+     *            entity metadata
+     * @param nodeData
+     *            managed entity
+     * @return entity
+     */
+    private <E> E onFoundEntity(final EntityMetadata m, Object nodeData)
+    {
+        E e = (E) (isManagedFind(m.getPersistenceUnit()) ? nodeData : ObjectUtils.deepCopy(nodeData));
+        onSetProxyOwners(m, e);
+        return e;
+    }
+
+    /**
+     * Returns true if given persistence unit is configured with "state"
+     * snapshot strategy.
+     * 
+     * @param pu
+     *            persistence unit
+     * @return true, if find returns managed entities.
+     */
+    private boolean isManagedFind(String pu)
+    {
+        Boolean managedFind = managedFinds.get(pu);
+        if (managedFind == null)
+        {
+            PersistenceUnitMetadata puMetadata = KunderaMetadataManager.getPersistenceUnitMetadata(pu);
+            String strategy = puMetadata != null ? puMetadata
+                    .getProperty(PersistenceProperties.KUNDERA_SNAPSHOT_STRATEGY) : null;
+            managedFind = "state".equalsIgnoreCase(strategy);
+            managedFinds.put(pu, managedFind);
+        }
+        return managedFind;
+    }
+
     private void onSetProxyOwners(final EntityMetadata m,Object e)
     {
         if (KunderaMetadata.INSTANCE.getCoreMetadata() != null)
@@ -681,16 +1057,36 @@ public final class PersistenceDelegator
         return metadata;
     }
 
+    /**
+     * @param queryResolver
+     *            the queryResolver to set
+     */
+    void setQueryResolver(QueryResolver queryResolver)
+    {
+        this.queryResolver = queryResolver;
+    }
+
     /**
      * @param flushMode
      *            the flushMode to set
      */
     void setFlushMode(FlushModeType flushMode)
     {
-        // TODO keeping it open for future releases current not using any where.
         this.flushMode = flushMode;
     }
 
+    /**
+     * Returns true, if flush mode is COMMIT. In this mode persist, merge and
+     * remove only queue dirty nodes into flush stack which are flushed
+     * together on commit, on explicit em.flush() or before query execution.
+     * 
+     * @return true, if flush is deferred.
+     */
+    private boolean isDeferredFlush()
+    {
+        return FlushModeType.COMMIT.equals(flushMode);
+    }
+
     /**
      * @return the isTransactionInProgress
      */
@@ -717,6 +1113,10 @@ public final class PersistenceDelegator
     void commit()
     {
         enableFlush = true;
+        if (isDeferredFlush())
+        {
+            flush();
+        }
         execute();
         flushManager.commit();
         flushManager.clearFlushStack();
@@ -870,6 +1270,30 @@ public final class PersistenceDelegator
         return (!isTransactionInProgress && flushMode.equals(FlushModeType.AUTO)) || enableFlush;
     }
 
+    /**
+     * Returns uninitialized proxies of given entity class tied to this
+     * persistence context. Callers are to synchronize on returned set.
+     * 
+     * @param persistentClass
+     *            entity class.
+     * @param create
+     *            creates an empty set if none.
+     * @return uninitialized proxies or null.
+     */
+    public Set<LazyInitializer> getUninitializedProxies(Class<?> persistentClass, boolean create)
+    {
+        synchronized (uninitializedProxies)
+        {
+            Set<LazyInitializer> lazyInitializers = uninitializedProxies.get(persistentClass);
+            if (lazyInitializers == null && create)
+            {
+                lazyInitializers = new LinkedHashSet<LazyInitializer>();
+                uninitializedProxies.put(persistentClass, lazyInitializers);
+            }
+            return lazyInitializers;
+        }
+    }
+
     /**
      * Returns transaction coordinator.
      * 
@@ -933,6 +1357,11 @@ public final class PersistenceDelegator
                 .getPersistenceUnit());
         if (enableFlush)
         {
+            // node may not be synchronized yet, if its flush was deferred.
+            if (isDeferredFlush())
+            {
+                resource.syncNode(node);
+            }
             resource.onFlush();
         }
         else
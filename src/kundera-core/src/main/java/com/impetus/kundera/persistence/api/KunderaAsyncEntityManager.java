@@ -0,0 +1,80 @@
+/*******************************************************************************
+ * * Copyright 2013 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.kundera.persistence.api;
+
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.util.concurrent.ListenableFuture;
+
+/**
+ * Asynchronous entity operations, obtained via
+ * {@code entityManager.unwrap(KunderaAsyncEntityManager.class)}. Each
+ * operation runs on a bounded executor of entity manager factory within an
+ * entity manager of its own, so independent operations (e.g. over different
+ * data stores) overlap. Entities handed out by returned futures are detached.
+ * Failure of an operation is reported via its future. An operation submitted
+ * while the executor's queue (kundera.async.queue.size) is full, or after
+ * the factory is closed, is not run: its future fails with a
+ * {@link java.util.concurrent.RejectedExecutionException}, the caller is never
+ * blocked.
+ */
+public interface KunderaAsyncEntityManager
+{
+    /**
+     * Finds entity by primary key.
+     * 
+     * @param entityClass
+     *            entity class.
+     * @param primaryKey
+     *            primary key.
+     * @return future of found entity, holds null if not found.
+     */
+    <T> ListenableFuture<T> findAsync(Class<T> entityClass, Object primaryKey);
+
+    /**
+     * Persists given entity. Given instance itself is persisted on a worker
+     * thread, which sets its generated id (if any), so caller must not read or
+     * modify it until returned future is done.
+     * 
+     * @param entity
+     *            entity to be persisted.
+     * @return future of persisted entity.
+     */
+    <T> ListenableFuture<T> persistAsync(T entity);
+
+    /**
+     * Removes given entity.
+     * 
+     * @param entity
+     *            entity to be removed.
+     * @return future completed once entity is removed.
+     */
+    ListenableFuture<Void> removeAsync(Object entity);
+
+    /**
+     * Executes given JPA query.
+     * 
+     * @param jpaQuery
+     *            JPA query.
+     * @param parameters
+     *            named parameters of query, may be null.
+     * @param maxResults
+     *            maximum number of results.
+     * @return future of query results.
+     */
+    <T> ListenableFuture<List<T>> getResultListAsync(String jpaQuery, Map<String, Object> parameters, int maxResults);
+}
@@ -0,0 +1,120 @@
+/*******************************************************************************
+ * * Copyright 2013 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.kundera.persistence.event;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+import net.sf.cglib.reflect.FastClass;
+import net.sf.cglib.reflect.FastMethod;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Invokes a callback method through cglib generated {@link FastMethod}, if
+ * method is public and accepts expected number of arguments, else via
+ * reflection.
+ */
+final class CallbackInvoker
+{
+    /** the log used by this class. */
+    private static Logger log = LoggerFactory.getLogger(CallbackInvoker.class);
+
+    private final Method method;
+
+    private final FastMethod fastMethod;
+
+    /**
+     * Instantiates a new callback invoker.
+     * 
+     * @param method
+     *            callback method
+     * @param argCount
+     *            number of arguments callback is invoked with
+     */
+    CallbackInvoker(Method method, int argCount)
+    {
+        this.method = method;
+        this.fastMethod = getFastMethod(method, argCount);
+        if (fastMethod == null && !method.isAccessible())
+        {
+            method.setAccessible(true);
+        }
+    }
+
+    /**
+     * Invokes callback method on given target.
+     * 
+     * @param target
+     *            entity or entity listener instance
+     * @param args
+     *            arguments
+     * @throws EventListenerException
+     *             if invocation fails.
+     */
+    void invoke(Object target, Object... args) throws EventListenerException
+    {
+        try
+        {
+            if (fastMethod != null)
+            {
+                fastMethod.invoke(target, args);
+            }
+            else
+            {
+                method.invoke(target, args);
+            }
+        }
+        catch (IllegalArgumentException e)
+        {
+            throw new EventListenerException(e);
+        }
+        catch (ClassCastException e)
+        {
+            throw new EventListenerException(e);
+        }
+        catch (IllegalAccessException e)
+        {
+            throw new EventListenerException(e);
+        }
+        catch (InvocationTargetException e)
+        {
+            throw new EventListenerException(e);
+        }
+    }
+
+    private static FastMethod getFastMethod(Method method, int argCount)
+    {
+        if (Modifier.isPublic(method.getModifiers()) && Modifier.isPublic(method.getDeclaringClass().getModifiers())
+                && method.getParameterTypes().length == argCount)
+        {
+            try
+            {
+                return FastClass.create(method.getDeclaringClass()).getMethod(method);
+            }
+            catch (Throwable t)
+            {
+                if (log.isDebugEnabled())
+                {
+                    log.debug("Callback {} will be invoked via reflection, Caused by: {}.", method, t.getMessage());
+                }
+            }
+        }
+        return null;
+    }
+}
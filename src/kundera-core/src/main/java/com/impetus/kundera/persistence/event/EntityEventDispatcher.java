@@ -54,10 +54,16 @@ public class EntityEventDispatcher
 
         if (null != callBackMethods && !callBackMethods.isEmpty())
         {
-            log.debug("Callback >> " + event.getSimpleName() + " on " + metadata.getEntityClazz().getName());
+            if (log.isDebugEnabled())
+            {
+                log.debug("Callback >> " + event.getSimpleName() + " on " + metadata.getEntityClazz().getName());
+            }
             for (CallbackMethod callback : callBackMethods)
             {
-                log.debug("Firing >> " + callback);
+                if (log.isDebugEnabled())
+                {
+                    log.debug("Firing >> " + callback);
+                }
 
                 callback.invoke(entity);
 
@@ -15,7 +15,6 @@
  ******************************************************************************/
 package com.impetus.kundera.persistence.event;
 
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 
 /**
@@ -32,6 +31,12 @@ public final class ExternalCallbackMethod implements CallbackMethod
     /** The method. */
     private Method method;
 
+    /** The invoker. */
+    private final CallbackInvoker invoker;
+
+    /** Listener instance, created once as entity listeners are state-less. */
+    private volatile Object listener;
+
     /**
      * Instantiates a new external callback method.
      * 
@@ -44,32 +49,39 @@ public final class ExternalCallbackMethod implements CallbackMethod
     {
         this.clazz = clazz;
         this.method = method;
+        this.invoker = new CallbackInvoker(method, 1);
     }
 
     public void invoke(Object entity) throws EventListenerException
     {
-        if (!method.isAccessible())
-            method.setAccessible(true);
-        try
-        {
-            method.invoke(clazz.newInstance(), new Object[] { entity });
-        }
-        catch (IllegalArgumentException e)
-        {
-            throw new EventListenerException(e);
-        }
-        catch (IllegalAccessException e)
-        {
-            throw new EventListenerException(e);
-        }
-        catch (InvocationTargetException e)
-        {
-            throw new EventListenerException(e);
-        }
-        catch (InstantiationException e)
+        invoker.invoke(getListener(), entity);
+    }
+
+    /**
+     * Returns listener instance, instantiates it on first invocation.
+     * 
+     * @return listener instance
+     */
+    private Object getListener()
+    {
+        Object instance = listener;
+        if (instance == null)
         {
-            throw new EventListenerException(e);
+            try
+            {
+                instance = clazz.newInstance();
+            }
+            catch (IllegalAccessException e)
+            {
+                throw new EventListenerException(e);
+            }
+            catch (InstantiationException e)
+            {
+                throw new EventListenerException(e);
+            }
+            listener = instance;
         }
+        return instance;
     }
 
     @Override
@@ -15,7 +15,6 @@
  ******************************************************************************/
 package com.impetus.kundera.persistence.event;
 
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 
 import com.impetus.kundera.metadata.model.EntityMetadata;
@@ -34,6 +33,9 @@ public final class InternalCallbackMethod implements CallbackMethod
     /** The method. */
     private Method method;
 
+    /** The invoker. */
+    private final CallbackInvoker invoker;
+
     /**
      * Instantiates a new internal callback method.
      * 
@@ -46,6 +48,7 @@ public final class InternalCallbackMethod implements CallbackMethod
     {
         this.entityMetadata = entityMetadata;
         this.method = method;
+        this.invoker = new CallbackInvoker(method, 0);
     }
 
     /*
@@ -60,24 +63,7 @@ public final class InternalCallbackMethod implements CallbackMethod
      */
     public void invoke(Object entity) throws EventListenerException
     {
-        if (!method.isAccessible())
-            method.setAccessible(true);
-        try
-        {
-            method.invoke(entity, new Object[] {});
-        }
-        catch (IllegalArgumentException e)
-        {
-            throw new EventListenerException(e);
-        }
-        catch (IllegalAccessException e)
-        {
-            throw new EventListenerException(e);
-        }
-        catch (InvocationTargetException e)
-        {
-            throw new EventListenerException(e);
-        }
+        invoker.invoke(entity);
     }
 
     @Override
@@ -0,0 +1,85 @@
+/*******************************************************************************
+ * * Copyright 2013 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.kundera.property;
+
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+
+/**
+ * Codec over a {@link PropertyAccessor} without a codec of its own. Bytes are
+ * copied out of buffer unless it wraps an exactly sized array.
+ */
+final class AccessorCodec<T> implements PropertyCodec<T>
+{
+    private final PropertyAccessor<T> accessor;
+
+    AccessorCodec(PropertyAccessor<T> accessor)
+    {
+        this.accessor = accessor;
+    }
+
+    @Override
+    public T decode(Class<?> targetClass, ByteBuffer buffer)
+    {
+        return accessor.fromBytes(targetClass, toArray(buffer));
+    }
+
+    @Override
+    public void decode(Object target, Field field, ByteBuffer buffer)
+    {
+        PropertyAccessorHelper.set(target, field, decode(field.getType(), buffer));
+    }
+
+    @Override
+    public int size(Object value)
+    {
+        byte[] bytes = accessor.toBytes(value);
+        return bytes != null ? bytes.length : 0;
+    }
+
+    @Override
+    public void encode(Object value, ByteBuffer buffer)
+    {
+        byte[] bytes = accessor.toBytes(value);
+        if (bytes != null)
+        {
+            buffer.put(bytes);
+        }
+    }
+
+    /**
+     * Returns remaining bytes of buffer as an array.
+     * 
+     * @param buffer
+     *            buffer.
+     * @return byte array, null if buffer is null.
+     */
+    static byte[] toArray(ByteBuffer buffer)
+    {
+        if (buffer == null)
+        {
+            return null;
+        }
+        if (buffer.hasArray() && buffer.arrayOffset() == 0 && buffer.position() == 0
+                && buffer.remaining() == buffer.array().length)
+        {
+            return buffer.array();
+        }
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.duplicate().get(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,479 @@
+/*******************************************************************************
+ * * Copyright 2013 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.kundera.property;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javassist.ClassClassPath;
+import javassist.ClassPool;
+import javassist.CtClass;
+import javassist.CtMethod;
+import javassist.bytecode.BadBytecode;
+import javassist.bytecode.CodeAttribute;
+import javassist.bytecode.CodeIterator;
+import javassist.bytecode.ConstPool;
+import javassist.bytecode.Opcode;
+import net.sf.cglib.reflect.FastClass;
+
+import org.apache.commons.lang.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.impetus.kundera.metadata.model.ApplicationMetadata;
+import com.impetus.kundera.metadata.model.EntityMetadata;
+import com.impetus.kundera.metadata.model.KunderaMetadata;
+import com.impetus.kundera.metadata.model.MetamodelImpl;
+import com.impetus.kundera.proxy.ProxyHelper;
+import com.impetus.kundera.utils.DeepEquals;
+
+/**
+ * Generated accessor of an entity class, built once at metadata build time
+ * and held by entity metadata. Provides indexed get/set over entity fields.
+ * <p>
+ * A field is accessed through cglib generated {@link FastClass} over its
+ * getter/setter, provided that both of them are plain field accessors (i.e.
+ * bytecode of getter only reads the field and of setter only writes it), so
+ * that semantics of field access are retained. Rest of the fields are
+ * accessed via reflection.
+ */
+public final class EntityAccessor
+{
+    /** the log used by this class. */
+    private static Logger log = LoggerFactory.getLogger(EntityAccessor.class);
+
+    private static final Object[] NO_ARGS = new Object[0];
+
+    private final Class<?> entityClazz;
+
+    private final Field[] fields;
+
+    private final Map<Field, Integer> indexes;
+
+    private final FastClass fastClass;
+
+    /** fast class method index of getter per field, -1 if not available. */
+    private final int[] getters;
+
+    /** fast class method index of setter per field, -1 if not available. */
+    private final int[] setters;
+
+    private EntityAccessor(Class<?> entityClazz, Field[] fields, FastClass fastClass, int[] getters, int[] setters)
+    {
+        this.entityClazz = entityClazz;
+        this.fields = fields;
+        this.fastClass = fastClass;
+        this.getters = getters;
+        this.setters = setters;
+        this.indexes = new HashMap<Field, Integer>(fields.length);
+        for (int i = 0; i < fields.length; i++)
+        {
+            indexes.put(fields[i], i);
+        }
+    }
+
+    /**
+     * Builds accessor for given entity class. Accessor is not cached here, it
+     * is held by entity metadata and goes along with it.
+     *
+     * @param entityClazz
+     *            entity class.
+     * @return entity accessor.
+     */
+    public static EntityAccessor getInstance(Class<?> entityClazz)
+    {
+        return build(entityClazz);
+    }
+
+    /**
+     * Returns accessor held by metadata of given entity's class, null if
+     * entity's class is not a mapped entity(e.g. an embeddable).
+     *
+     * @param entity
+     *            entity.
+     * @return entity accessor or null.
+     */
+    static EntityAccessor getAccessor(Object entity)
+    {
+        if (entity == null)
+        {
+            return null;
+        }
+        ApplicationMetadata appMetadata = KunderaMetadata.INSTANCE.getApplicationMetadata();
+        List<String> persistenceUnits = appMetadata.getMappedPersistenceUnit(entity.getClass());
+        if (persistenceUnits != null)
+        {
+            for (String pu : persistenceUnits)
+            {
+                MetamodelImpl metamodel = (MetamodelImpl) appMetadata.getMetamodel(pu);
+                EntityMetadata m = metamodel != null ? metamodel.getEntityMetadata(entity.getClass()) : null;
+                if (m != null)
+                {
+                    return m.getEntityAccessor();
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns index of given field, -1 if field does not belong to entity.
+     *
+     * @param field
+     *            field.
+     * @return index.
+     */
+    public int getIndex(Field field)
+    {
+        Integer index = indexes.get(field);
+        return index != null ? index : -1;
+    }
+
+    /**
+     * Returns number of fields.
+     *
+     * @return number of fields.
+     */
+    public int size()
+    {
+        return fields.length;
+    }
+
+    /**
+     * Returns field at given index.
+     *
+     * @param index
+     *            field index.
+     * @return field.
+     */
+    public Field getField(int index)
+    {
+        return fields[index];
+    }
+
+    /**
+     * Returns true, if field at given index is accessed via generated code.
+     *
+     * @param index
+     *            field index.
+     * @return true, if generated.
+     */
+    public boolean isGenerated(int index)
+    {
+        return getters[index] >= 0 && setters[index] >= 0;
+    }
+
+    /**
+     * Gets value of field at given index.
+     *
+     * @param entity
+     *            entity.
+     * @param index
+     *            field index.
+     * @return field value.
+     */
+    public Object get(Object entity, int index)
+    {
+        if (getters[index] < 0)
+        {
+            return PropertyAccessorHelper.getObjectViaReflection(entity, fields[index]);
+        }
+
+        try
+        {
+            return fastClass.invoke(getters[index], entity, NO_ARGS);
+        }
+        catch (InvocationTargetException e)
+        {
+            throw new PropertyAccessException(e);
+        }
+    }
+
+    /**
+     * Sets value of field at given index.
+     *
+     * @param entity
+     *            entity.
+     * @param index
+     *            field index.
+     * @param value
+     *            field value.
+     */
+    public void set(Object entity, int index, Object value)
+    {
+        if (setters[index] < 0)
+        {
+            PropertyAccessorHelper.setViaReflection(entity, fields[index], value);
+            return;
+        }
+
+        if (value == null && fields[index].getType().isPrimitive())
+        {
+            throw new PropertyAccessException(new IllegalArgumentException("Can not set primitive field "
+                    + fields[index] + " to null value"));
+        }
+
+        try
+        {
+            fastClass.invoke(setters[index], entity, new Object[] { value });
+        }
+        catch (InvocationTargetException e)
+        {
+            throw new PropertyAccessException(e);
+        }
+        catch (ClassCastException e)
+        {
+            throw new PropertyAccessException(e);
+        }
+    }
+
+    /**
+     * Returns indexes of fields whose values differ between original and
+     * entity, both instances of entity class. Values are read through
+     * generated getters and compared field by field, so cost of a single
+     * changed field does not depend on the rest of entity. Transient fields and
+     * lazily loaded collections of original are skipped, same as
+     * {@link DeepEquals}.
+     *
+     * @param original
+     *            original state of entity.
+     * @param entity
+     *            entity.
+     * @return changed field indexes.
+     */
+    public BitSet getChangedFields(Object original, Object entity)
+    {
+        BitSet changed = new BitSet(fields.length);
+        for (int i = 0; i < fields.length; i++)
+        {
+            if (Modifier.isTransient(fields[i].getModifiers()) || fields[i].getName().startsWith("this$"))
+            {
+                continue;
+            }
+            Object originalValue = get(original, i);
+            if (originalValue != null && ProxyHelper.isProxyCollection(originalValue))
+            {
+                continue;
+            }
+            if (!DeepEquals.deepEquals(originalValue, get(entity, i)))
+            {
+                changed.set(i);
+            }
+        }
+        return changed;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "EntityAccessor [" + entityClazz.getName() + "]";
+    }
+
+    /**
+     * Builds accessor for given entity class.
+     *
+     * @param entityClazz
+     *            entity class.
+     * @return entity accessor.
+     */
+    private static EntityAccessor build(Class<?> entityClazz)
+    {
+        List<Field> fieldList = new ArrayList<Field>();
+        for (Class<?> clazz = entityClazz; clazz != null && !clazz.equals(Object.class); clazz = clazz
+                .getSuperclass())
+        {
+            for (Field field : clazz.getDeclaredFields())
+            {
+                if (!Modifier.isStatic(field.getModifiers()))
+                {
+                    fieldList.add(field);
+                }
+            }
+        }
+
+        Field[] fields = fieldList.toArray(new Field[fieldList.size()]);
+        int[] getters = new int[fields.length];
+        int[] setters = new int[fields.length];
+        FastClass fastClass = null;
+
+        ClassPool pool = new ClassPool(true);
+        pool.insertClassPath(new ClassClassPath(entityClazz));
+        for (int i = 0; i < fields.length; i++)
+        {
+            getters[i] = -1;
+            setters[i] = -1;
+            try
+            {
+                Method getter = getGetter(entityClazz, fields[i]);
+                Method setter = getSetter(entityClazz, fields[i]);
+                if (getter != null && setter != null && isPlainGetter(pool, getter, fields[i])
+                        && isPlainSetter(pool, setter, fields[i]))
+                {
+                    if (fastClass == null)
+                    {
+                        fastClass = FastClass.create(entityClazz);
+                    }
+                    getters[i] = fastClass.getIndex(getter.getName(), getter.getParameterTypes());
+                    setters[i] = fastClass.getIndex(setter.getName(), setter.getParameterTypes());
+                }
+            }
+            catch (Throwable t)
+            {
+                // fall back to reflection.
+                getters[i] = -1;
+                setters[i] = -1;
+                if (log.isDebugEnabled())
+                {
+                    log.debug("Field {} will be accessed via reflection, Caused by: {}.", fields[i], t.getMessage());
+                }
+            }
+        }
+        return new EntityAccessor(entityClazz, fields, fastClass, getters, setters);
+    }
+
+    private static Method getGetter(Class<?> entityClazz, Field field)
+    {
+        String property = StringUtils.capitalize(field.getName());
+        Method getter = getMethod(entityClazz, "get" + property);
+        if (getter == null && (field.getType().equals(boolean.class) || field.getType().equals(Boolean.class)))
+        {
+            getter = getMethod(entityClazz, "is" + property);
+        }
+        return getter != null && getter.getReturnType().equals(field.getType()) ? getter : null;
+    }
+
+    private static Method getSetter(Class<?> entityClazz, Field field)
+    {
+        return getMethod(entityClazz, "set" + StringUtils.capitalize(field.getName()), field.getType());
+    }
+
+    private static Method getMethod(Class<?> entityClazz, String name, Class<?>... parameterTypes)
+    {
+        try
+        {
+            return entityClazz.getMethod(name, parameterTypes);
+        }
+        catch (NoSuchMethodException e)
+        {
+            return null;
+        }
+    }
+
+    /**
+     * Returns true, if getter does nothing but returns the field value.
+     */
+    private static boolean isPlainGetter(ClassPool pool, Method getter, Field field) throws Exception
+    {
+        CodeIterator iterator = getCode(pool, getter, field);
+        if (iterator == null)
+        {
+            return false;
+        }
+        ConstPool constPool = iterator.get().getConstPool();
+        return isOpcode(iterator, Opcode.ALOAD_0) && isFieldAccess(iterator, constPool, Opcode.GETFIELD, field)
+                && isReturn(iterator, false) && !iterator.hasNext();
+    }
+
+    /**
+     * Returns true, if setter does nothing but sets the field value.
+     */
+    private static boolean isPlainSetter(ClassPool pool, Method setter, Field field) throws Exception
+    {
+        CodeIterator iterator = getCode(pool, setter, field);
+        if (iterator == null)
+        {
+            return false;
+        }
+        ConstPool constPool = iterator.get().getConstPool();
+        return isOpcode(iterator, Opcode.ALOAD_0) && isLoadFirstArgument(iterator)
+                && isFieldAccess(iterator, constPool, Opcode.PUTFIELD, field) && isReturn(iterator, true)
+                && !iterator.hasNext();
+    }
+
+    private static CodeIterator getCode(ClassPool pool, Method method, Field field) throws Exception
+    {
+        // Plain accessor must be declared along with the field.
+        if (!method.getDeclaringClass().equals(field.getDeclaringClass()))
+        {
+            return null;
+        }
+
+        CtClass ctClass = pool.get(method.getDeclaringClass().getName());
+        CtClass[] parameterTypes = new CtClass[method.getParameterTypes().length];
+        for (int i = 0; i < parameterTypes.length; i++)
+        {
+            parameterTypes[i] = pool.get(method.getParameterTypes()[i].getName());
+        }
+        CtMethod ctMethod = ctClass.getDeclaredMethod(method.getName(), parameterTypes);
+        CodeAttribute code = ctMethod.getMethodInfo().getCodeAttribute();
+        return code != null ? code.iterator() : null;
+    }
+
+    private static boolean isOpcode(CodeIterator iterator, int opcode) throws BadBytecode
+    {
+        return iterator.hasNext() && iterator.byteAt(iterator.next()) == opcode;
+    }
+
+    private static boolean isLoadFirstArgument(CodeIterator iterator) throws BadBytecode
+    {
+        if (!iterator.hasNext())
+        {
+            return false;
+        }
+        int opcode = iterator.byteAt(iterator.next());
+        return opcode == Opcode.ALOAD_1 || opcode == Opcode.ILOAD_1 || opcode == Opcode.LLOAD_1
+                || opcode == Opcode.FLOAD_1 || opcode == Opcode.DLOAD_1;
+    }
+
+    private static boolean isFieldAccess(CodeIterator iterator, ConstPool constPool, int opcode, Field field)
+            throws BadBytecode
+    {
+        if (!iterator.hasNext())
+        {
+            return false;
+        }
+        int index = iterator.next();
+        if (iterator.byteAt(index) != opcode)
+        {
+            return false;
+        }
+        int fieldRef = iterator.u16bitAt(index + 1);
+        return field.getName().equals(constPool.getFieldrefName(fieldRef))
+                && field.getDeclaringClass().getName().equals(constPool.getFieldrefClassName(fieldRef));
+    }
+
+    private static boolean isReturn(CodeIterator iterator, boolean isVoid) throws BadBytecode
+    {
+        if (!iterator.hasNext())
+        {
+            return false;
+        }
+        int opcode = iterator.byteAt(iterator.next());
+        if (isVoid)
+        {
+            return opcode == Opcode.RETURN;
+        }
+        return opcode == Opcode.ARETURN || opcode == Opcode.IRETURN || opcode == Opcode.LRETURN
+                || opcode == Opcode.FRETURN || opcode == Opcode.DRETURN;
+    }
+}
@@ -181,6 +181,7 @@ public class PropertyAccessorFactory
     public static void add(Class<?> key, PropertyAccessor<?> value)
     {
         map.put(key, value);
+        PropertyCodecFactory.evict(key);
     }
 
 }
@@ -19,6 +19,7 @@ import java.lang.reflect.Array;
 import java.lang.reflect.Field;
 import java.lang.reflect.GenericArrayType;
 import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
@@ -56,7 +57,128 @@ public class PropertyAccessorHelper
     {
         PropertyAccessor<?> accessor = PropertyAccessorFactory.getPropertyAccessor(field);
         Object value = accessor.fromBytes(field.getType(), bytes);
-        set(target, field, value);
+        // empty value leaves primitive field untouched.
+        if (value != null || !field.getType().isPrimitive())
+        {
+            set(target, field, value);
+        }
+    }
+
+    /**
+     * Decodes remaining bytes of a buffer onto a field, without copying them
+     * into an intermediate byte-array where field's codec allows.
+     * 
+     * @param target
+     *            the target
+     * @param field
+     *            the field
+     * @param buffer
+     *            the buffer
+     * 
+     * @throws PropertyAccessException
+     *             the property access exception
+     */
+    public static void set(Object target, Field field, ByteBuffer buffer)
+    {
+        PropertyCodecFactory.getPropertyCodec(field).decode(target, field, buffer);
+    }
+
+    /**
+     * Sets a long onto a primitive field, without boxing.
+     * 
+     * @param target
+     *            the target
+     * @param field
+     *            the field
+     * @param value
+     *            the value
+     * 
+     * @throws PropertyAccessException
+     *             the property access exception
+     */
+    public static void setLong(Object target, Field field, long value)
+    {
+        makeAccessible(field);
+        try
+        {
+            field.setLong(target, value);
+        }
+        catch (IllegalArgumentException iarg)
+        {
+            throw new PropertyAccessException(iarg);
+        }
+        catch (IllegalAccessException iacc)
+        {
+            throw new PropertyAccessException(iacc);
+        }
+    }
+
+    /**
+     * Sets an int onto a primitive field, without boxing.
+     * 
+     * @param target
+     *            the target
+     * @param field
+     *            the field
+     * @param value
+     *            the value
+     * 
+     * @throws PropertyAccessException
+     *             the property access exception
+     */
+    public static void setInt(Object target, Field field, int value)
+    {
+        makeAccessible(field);
+        try
+        {
+            field.setInt(target, value);
+        }
+        catch (IllegalArgumentException iarg)
+        {
+            throw new PropertyAccessException(iarg);
+        }
+        catch (IllegalAccessException iacc)
+        {
+            throw new PropertyAccessException(iacc);
+        }
+    }
+
+    /**
+     * Sets a double onto a primitive field, without boxing.
+     * 
+     * @param target
+     *            the target
+     * @param field
+     *            the field
+     * @param value
+     *            the value
+     * 
+     * @throws PropertyAccessException
+     *             the property access exception
+     */
+    public static void setDouble(Object target, Field field, double value)
+    {
+        makeAccessible(field);
+        try
+        {
+            field.setDouble(target, value);
+        }
+        catch (IllegalArgumentException iarg)
+        {
+            throw new PropertyAccessException(iarg);
+        }
+        catch (IllegalAccessException iacc)
+        {
+            throw new PropertyAccessException(iacc);
+        }
+    }
+
+    private static void makeAccessible(Field field)
+    {
+        if (!field.isAccessible())
+        {
+            field.setAccessible(true);
+        }
     }
 
     /**
@@ -94,7 +216,33 @@ public class PropertyAccessorHelper
      */
     public static void set(Object target, Field field, Object value)
     {
+        EntityAccessor accessor = EntityAccessor.getAccessor(target);
+        int index = accessor != null ? accessor.getIndex(field) : -1;
+        if (index >= 0)
+        {
+            accessor.set(target, index, value);
+        }
+        else
+        {
+            setViaReflection(target, field, value);
+        }
+    }
 
+    /**
+     * Sets an object onto a field via reflection.
+     * 
+     * @param target
+     *            the target
+     * @param field
+     *            the field
+     * @param value
+     *            the value
+     * 
+     * @throws PropertyAccessException
+     *             the property access exception
+     */
+    static void setViaReflection(Object target, Field field, Object value)
+    {
         if (!field.isAccessible())
         {
             field.setAccessible(true);
@@ -128,7 +276,26 @@ public class PropertyAccessorHelper
      */
     public static Object getObject(Object from, Field field)
     {
+        EntityAccessor accessor = EntityAccessor.getAccessor(from);
+        int index = accessor != null ? accessor.getIndex(field) : -1;
+        return index >= 0 ? accessor.get(from, index) : getObjectViaReflection(from, field);
+    }
 
+    /**
+     * Gets object from field via reflection.
+     * 
+     * @param from
+     *            the from
+     * @param field
+     *            the field
+     * 
+     * @return the object
+     * 
+     * @throws PropertyAccessException
+     *             the property access exception
+     */
+    static Object getObjectViaReflection(Object from, Field field)
+    {
         if (!field.isAccessible())
         {
             field.setAccessible(true);
@@ -540,6 +707,11 @@ public class PropertyAccessorHelper
         return PropertyAccessorFactory.getPropertyAccessor(clazz).fromBytes(clazz, b);
     }
 
+    public static Object getObject(Class clazz, ByteBuffer buffer)
+    {
+        return PropertyCodecFactory.getPropertyCodec(clazz).decode(clazz, buffer);
+    }
+
     public static final Collection getCollectionInstance(Field collectionField)
     {
         if (collectionField != null)
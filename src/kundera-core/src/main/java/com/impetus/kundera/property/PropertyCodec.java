@@ -0,0 +1,77 @@
+/*******************************************************************************
+ * * Copyright 2013 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.kundera.property;
+
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+
+/**
+ * Reads and writes property values directly from/to {@link ByteBuffer}s,
+ * without intermediate byte arrays. Codecs of fixed length types also set
+ * decoded values onto primitive fields without boxing.
+ * 
+ * Decoding reads remaining bytes of buffer, i.e. from its position to its
+ * limit, using absolute gets. Position of buffer is left untouched, so a buffer
+ * backing a whole row/response can be shared across columns.
+ * 
+ * @param <T>
+ *            type of property.
+ */
+public interface PropertyCodec<T>
+{
+    /**
+     * Decodes remaining bytes of buffer.
+     * 
+     * @param targetClass
+     *            class of property.
+     * @param buffer
+     *            buffer holding value.
+     * @return decoded value, null if buffer is null.
+     */
+    T decode(Class<?> targetClass, ByteBuffer buffer);
+
+    /**
+     * Decodes remaining bytes of buffer and sets value onto field.
+     * 
+     * @param target
+     *            target object.
+     * @param field
+     *            field to set.
+     * @param buffer
+     *            buffer holding value.
+     */
+    void decode(Object target, Field field, ByteBuffer buffer);
+
+    /**
+     * Returns number of bytes value encodes to.
+     * 
+     * @param value
+     *            value to encode.
+     * @return encoded size.
+     */
+    int size(Object value);
+
+    /**
+     * Encodes value at current position of buffer, advancing it by
+     * {@link #size(Object)} bytes.
+     * 
+     * @param value
+     *            value to encode, not null.
+     * @param buffer
+     *            buffer to write to.
+     */
+    void encode(Object value, ByteBuffer buffer);
+}
@@ -0,0 +1,95 @@
+/*******************************************************************************
+ * * Copyright 2013 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.kundera.property;
+
+import java.lang.reflect.Field;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Factory for {@link PropertyCodec}s. Accessors implementing
+ * {@link PropertyCodec} are used as codecs of their own type, remaining ones
+ * are wrapped into a codec copying bytes in and out of buffers.
+ */
+public class PropertyCodecFactory
+{
+    /** Codecs by property class. */
+    private static final Map<Class<?>, PropertyCodec<?>> codecs = new ConcurrentHashMap<Class<?>, PropertyCodec<?>>();
+
+    private PropertyCodecFactory()
+    {
+    }
+
+    /**
+     * Gets codec of a class.
+     * 
+     * @param clazz
+     *            property class.
+     * @return codec.
+     */
+    public static PropertyCodec<?> getPropertyCodec(Class<?> clazz)
+    {
+        PropertyCodec<?> codec = codecs.get(clazz);
+        if (codec == null)
+        {
+            PropertyAccessor<?> accessor = PropertyAccessorFactory.getPropertyAccessor(clazz);
+            codec = accessor instanceof PropertyCodec ? (PropertyCodec<?>) accessor : newAccessorCodec(accessor);
+            codecs.put(clazz, codec);
+        }
+        return codec;
+    }
+
+    /**
+     * Gets codec of a field.
+     * 
+     * @param field
+     *            field.
+     * @return codec.
+     */
+    public static PropertyCodec<?> getPropertyCodec(Field field)
+    {
+        return getPropertyCodec(field.getType());
+    }
+
+    /**
+     * Adds codec of a class, overriding one derived from its accessor.
+     * 
+     * @param clazz
+     *            property class.
+     * @param codec
+     *            codec.
+     */
+    public static void add(Class<?> clazz, PropertyCodec<?> codec)
+    {
+        codecs.put(clazz, codec);
+    }
+
+    /**
+     * Evicts cached codec of a class, called once its accessor is replaced.
+     * 
+     * @param clazz
+     *            property class.
+     */
+    static void evict(Class<?> clazz)
+    {
+        codecs.remove(clazz);
+    }
+
+    private static <T> PropertyCodec<T> newAccessorCodec(PropertyAccessor<T> accessor)
+    {
+        return new AccessorCodec<T>(accessor);
+    }
+}
@@ -15,15 +15,20 @@
  ******************************************************************************/
 package com.impetus.kundera.property.accessor;
 
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+
 import com.impetus.kundera.property.PropertyAccessException;
 import com.impetus.kundera.property.PropertyAccessor;
+import com.impetus.kundera.property.PropertyAccessorHelper;
+import com.impetus.kundera.property.PropertyCodec;
 
 /**
  * The Class DoubleAccessor.
  * 
  * @author Amresh Singh
  */
-public class DoubleAccessor implements PropertyAccessor<Double>
+public class DoubleAccessor implements PropertyAccessor<Double>, PropertyCodec<Double>
 {
 
     /*
@@ -34,9 +39,11 @@ public class DoubleAccessor implements PropertyAccessor<Double>
     @Override
     public Double fromBytes(Class targetClass, byte[] data)
     {
-        if (data == null || data.length != 8)
-            return (double) 0x0;
-
+        if (data == null || data.length == 0)
+        {
+            return null;
+        }
+        checkLength(data.length);
         return Double.longBitsToDouble(toLong(data));
     }
 
@@ -133,4 +140,96 @@ public class DoubleAccessor implements PropertyAccessor<Double>
     {
         return Double.MAX_VALUE;
     }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see
+     * com.impetus.kundera.property.PropertyCodec#decode(java.lang.Class,
+     * java.nio.ByteBuffer)
+     */
+    @Override
+    public Double decode(Class<?> targetClass, ByteBuffer buffer)
+    {
+        if (buffer == null || !buffer.hasRemaining())
+        {
+            return null;
+        }
+        return toDouble(buffer);
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see
+     * com.impetus.kundera.property.PropertyCodec#decode(java.lang.Object,
+     * java.lang.reflect.Field, java.nio.ByteBuffer)
+     */
+    @Override
+    public void decode(Object target, Field field, ByteBuffer buffer)
+    {
+        if (field.getType().isPrimitive())
+        {
+            // empty value leaves primitive field untouched.
+            if (buffer != null && buffer.hasRemaining())
+            {
+                PropertyAccessorHelper.setDouble(target, field, toDouble(buffer));
+            }
+        }
+        else
+        {
+            PropertyAccessorHelper.set(target, field, decode(field.getType(), buffer));
+        }
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see com.impetus.kundera.property.PropertyCodec#size(java.lang.Object)
+     */
+    @Override
+    public int size(Object value)
+    {
+        return value != null ? 8 : 0;
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see
+     * com.impetus.kundera.property.PropertyCodec#encode(java.lang.Object,
+     * java.nio.ByteBuffer)
+     */
+    @Override
+    public void encode(Object value, ByteBuffer buffer)
+    {
+        buffer.putLong(Double.doubleToRawLongBits((Double) value));
+    }
+
+    /**
+     * Reads double from remaining bytes of buffer, same as
+     * {@link #fromBytes(Class, byte[])}.
+     * 
+     * @param buffer
+     *            the buffer
+     * @return the double
+     */
+    private double toDouble(ByteBuffer buffer)
+    {
+        checkLength(buffer.remaining());
+        return Double.longBitsToDouble(buffer.getLong(buffer.position()));
+    }
+
+    /**
+     * Fails on serialized value of other than 8 bytes, e.g. a column written
+     * as another type.
+     */
+    private void checkLength(int length)
+    {
+        if (length != 8)
+        {
+            throw new PropertyAccessException("Invalid length of double value, expected 8 bytes but found " + length
+                    + ".");
+        }
+    }
 }
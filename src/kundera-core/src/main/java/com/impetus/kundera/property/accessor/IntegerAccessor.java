@@ -15,15 +15,20 @@
  ******************************************************************************/
 package com.impetus.kundera.property.accessor;
 
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+
 import com.impetus.kundera.property.PropertyAccessException;
 import com.impetus.kundera.property.PropertyAccessor;
+import com.impetus.kundera.property.PropertyAccessorHelper;
+import com.impetus.kundera.property.PropertyCodec;
 
 /**
  * The Class IntegerAccessor.
  * 
  * @author animesh.kumar
  */
-public class IntegerAccessor implements PropertyAccessor<Integer>
+public class IntegerAccessor implements PropertyAccessor<Integer>, PropertyCodec<Integer>
 {
 
     /* @see com.impetus.kundera.property.PropertyAccessor#fromBytes(byte[]) */
@@ -35,10 +40,11 @@ public class IntegerAccessor implements PropertyAccessor<Integer>
     @Override
     public final Integer fromBytes(Class targetClass, byte[] b)
     {
-        if (b == null)
+        if (b == null || b.length == 0)
         {
             return null;
         }
+        checkLength(b.length);
         return ((b[0] << 24) + ((b[1] & 0xFF) << 16) + ((b[2] & 0xFF) << 8) + (b[3] & 0xFF));
     }
 
@@ -107,4 +113,84 @@ public class IntegerAccessor implements PropertyAccessor<Integer>
     {
         return Integer.MAX_VALUE;
     }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see
+     * com.impetus.kundera.property.PropertyCodec#decode(java.lang.Class,
+     * java.nio.ByteBuffer)
+     */
+    @Override
+    public Integer decode(Class<?> targetClass, ByteBuffer buffer)
+    {
+        if (buffer == null || !buffer.hasRemaining())
+        {
+            return null;
+        }
+        checkLength(buffer.remaining());
+        return buffer.getInt(buffer.position());
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see
+     * com.impetus.kundera.property.PropertyCodec#decode(java.lang.Object,
+     * java.lang.reflect.Field, java.nio.ByteBuffer)
+     */
+    @Override
+    public void decode(Object target, Field field, ByteBuffer buffer)
+    {
+        if (field.getType().isPrimitive())
+        {
+            // empty value leaves primitive field untouched.
+            if (buffer != null && buffer.hasRemaining())
+            {
+                checkLength(buffer.remaining());
+                PropertyAccessorHelper.setInt(target, field, buffer.getInt(buffer.position()));
+            }
+        }
+        else
+        {
+            PropertyAccessorHelper.set(target, field, decode(field.getType(), buffer));
+        }
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see com.impetus.kundera.property.PropertyCodec#size(java.lang.Object)
+     */
+    @Override
+    public int size(Object value)
+    {
+        return value != null ? 4 : 0;
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see
+     * com.impetus.kundera.property.PropertyCodec#encode(java.lang.Object,
+     * java.nio.ByteBuffer)
+     */
+    @Override
+    public void encode(Object value, ByteBuffer buffer)
+    {
+        buffer.putInt((Integer) value);
+    }
+
+    /**
+     * Fails on serialized value of other than 4 bytes, e.g. a column written
+     * as another type.
+     */
+    private void checkLength(int length)
+    {
+        if (length != 4)
+        {
+            throw new PropertyAccessException("Invalid length of int value, expected 4 bytes but found " + length
+                    + ".");
+        }
+    }
 }
@@ -15,17 +15,20 @@
  ******************************************************************************/
 package com.impetus.kundera.property.accessor;
 
+import java.lang.reflect.Field;
 import java.nio.ByteBuffer;
 
 import com.impetus.kundera.property.PropertyAccessException;
 import com.impetus.kundera.property.PropertyAccessor;
+import com.impetus.kundera.property.PropertyAccessorHelper;
+import com.impetus.kundera.property.PropertyCodec;
 
 /**
  * The Class LongAccessor.
  * 
  * @author animesh.kumar
  */
-public class LongAccessor implements PropertyAccessor<Long>
+public class LongAccessor implements PropertyAccessor<Long>, PropertyCodec<Long>
 {
 
     /*
@@ -36,11 +39,12 @@ public class LongAccessor implements PropertyAccessor<Long>
     @Override
     public final Long fromBytes(Class targetClass, byte[] bytes)
     {
-        if (bytes == null || bytes.length != 8)
+        if (bytes == null || bytes.length == 0)
         {
             return null;
         }
-        return (ByteBuffer.wrap(bytes).getLong());
+        checkLength(bytes.length);
+        return toLong(bytes);
     }
 
     /*
@@ -54,10 +58,9 @@ public class LongAccessor implements PropertyAccessor<Long>
     {
         if (object != null)
         {
-            Long l = (Long) object;
-            ByteBuffer buffer = ByteBuffer.allocate(8);
-            buffer.putLong(l);
-            return buffer.array();
+            long l = (Long) object;
+            return new byte[] { (byte) (l >>> 56), (byte) (l >>> 48), (byte) (l >>> 40), (byte) (l >>> 32),
+                    (byte) (l >>> 24), (byte) (l >>> 16), (byte) (l >>> 8), (byte) l };
         }
         return null;
     }
@@ -109,4 +112,91 @@ public class LongAccessor implements PropertyAccessor<Long>
     {
         return Long.MAX_VALUE;
     }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see
+     * com.impetus.kundera.property.PropertyCodec#decode(java.lang.Class,
+     * java.nio.ByteBuffer)
+     */
+    @Override
+    public Long decode(Class<?> targetClass, ByteBuffer buffer)
+    {
+        if (buffer == null || !buffer.hasRemaining())
+        {
+            return null;
+        }
+        checkLength(buffer.remaining());
+        return buffer.getLong(buffer.position());
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see
+     * com.impetus.kundera.property.PropertyCodec#decode(java.lang.Object,
+     * java.lang.reflect.Field, java.nio.ByteBuffer)
+     */
+    @Override
+    public void decode(Object target, Field field, ByteBuffer buffer)
+    {
+        if (field.getType().isPrimitive())
+        {
+            // empty value leaves primitive field untouched.
+            if (buffer != null && buffer.hasRemaining())
+            {
+                checkLength(buffer.remaining());
+                PropertyAccessorHelper.setLong(target, field, buffer.getLong(buffer.position()));
+            }
+        }
+        else
+        {
+            PropertyAccessorHelper.set(target, field, decode(field.getType(), buffer));
+        }
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see com.impetus.kundera.property.PropertyCodec#size(java.lang.Object)
+     */
+    @Override
+    public int size(Object value)
+    {
+        return value != null ? 8 : 0;
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see
+     * com.impetus.kundera.property.PropertyCodec#encode(java.lang.Object,
+     * java.nio.ByteBuffer)
+     */
+    @Override
+    public void encode(Object value, ByteBuffer buffer)
+    {
+        buffer.putLong((Long) value);
+    }
+
+    /**
+     * Fails on serialized value of other than 8 bytes, e.g. a column written
+     * as another type.
+     */
+    private void checkLength(int length)
+    {
+        if (length != 8)
+        {
+            throw new PropertyAccessException("Invalid length of long value, expected 8 bytes but found " + length
+                    + ".");
+        }
+    }
+
+    private long toLong(byte[] b)
+    {
+        return (long) (b[0] & 0xFF) << 56 | (long) (b[1] & 0xFF) << 48 | (long) (b[2] & 0xFF) << 40
+                | (long) (b[3] & 0xFF) << 32 | (long) (b[4] & 0xFF) << 24 | (long) (b[5] & 0xFF) << 16
+                | (long) (b[6] & 0xFF) << 8 | (long) (b[7] & 0xFF);
+    }
 }
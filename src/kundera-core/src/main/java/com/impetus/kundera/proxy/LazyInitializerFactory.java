@@ -72,4 +72,14 @@ public interface LazyInitializerFactory
      */
     <E> void setProxyOwners(EntityMetadata entityMetadata, E e);
 
+    /**
+     * Loads target of given proxy initializer into persistence context along
+     * with targets of other uninitialized proxies of same entity class, tied
+     * to same persistence context, in one go.
+     * 
+     * @param lazyInitializer
+     *            initializer of proxy being initialized.
+     */
+    void loadSiblings(LazyInitializer lazyInitializer);
+
 }
@@ -37,6 +37,7 @@ import com.impetus.kundera.property.PropertyAccessorHelper;
 import com.impetus.kundera.proxy.KunderaProxy;
 import com.impetus.kundera.proxy.LazyInitializationException;
 import com.impetus.kundera.proxy.LazyInitializer;
+import com.impetus.kundera.proxy.LazyInitializerFactory;
 
 /**
  * A <tt>LazyInitializer</tt> implemented using the CGLIB bytecode generation
@@ -84,6 +85,9 @@ public final class CglibLazyInitializer implements LazyInitializer, InvocationHa
     /** The persistenceDelegator. */
     private transient PersistenceDelegator persistenceDelegator;
 
+    /** Factory tracking this proxy, to load its siblings in batch. */
+    private transient LazyInitializerFactory factory;
+
     /** The Constant FINALIZE_FILTER. */
     private static final CallbackFilter FINALIZE_FILTER = new CallbackFilter()
     {
@@ -394,6 +398,13 @@ public final class CglibLazyInitializer implements LazyInitializer, InvocationHa
                 if (log.isDebugEnabled())
                     log.debug("Proxy >> Initialization >> " + persistentClass.getName() + "_" + id);
 
+                // load uninitialized siblings along, so that they are served
+                // from persistence context when touched.
+                if (factory != null)
+                {
+                    factory.loadSiblings(this);
+                }
+
                 // TODO: consider not calling em.find from here. Not sure 'why',
                 // but something
                 // doesn't feel right.
@@ -492,4 +503,13 @@ public final class CglibLazyInitializer implements LazyInitializer, InvocationHa
         return owner;
     }
 
+    /**
+     * @param factory
+     *            factory tracking this proxy.
+     */
+    void setLazyInitializerFactory(LazyInitializerFactory factory)
+    {
+        this.factory = factory;
+    }
+
 }
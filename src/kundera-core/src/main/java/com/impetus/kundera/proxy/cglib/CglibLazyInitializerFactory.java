@@ -31,16 +31,26 @@
 package com.impetus.kundera.proxy.cglib;
 
 import java.lang.reflect.Method;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import javax.persistence.Entity;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.impetus.kundera.metadata.KunderaMetadataManager;
 import com.impetus.kundera.metadata.model.EntityMetadata;
 import com.impetus.kundera.metadata.model.Relation;
+import com.impetus.kundera.persistence.AbstractEntityReader;
 import com.impetus.kundera.persistence.PersistenceDelegator;
 import com.impetus.kundera.property.PropertyAccessorHelper;
 import com.impetus.kundera.proxy.KunderaProxy;
+import com.impetus.kundera.proxy.LazyInitializer;
 import com.impetus.kundera.proxy.LazyInitializerFactory;
 
 /**
@@ -51,6 +61,9 @@ import com.impetus.kundera.proxy.LazyInitializerFactory;
 public class CglibLazyInitializerFactory implements LazyInitializerFactory
 {
 
+    /** The log. */
+    private static final Logger log = LoggerFactory.getLogger(CglibLazyInitializerFactory.class);
+
     Map<String, KunderaProxy> proxies = new HashMap<String, KunderaProxy>();
 
     @Override
@@ -61,9 +74,61 @@ public class CglibLazyInitializerFactory implements LazyInitializerFactory
                 new Class[] { KunderaProxy.class }, getIdentifierMethod, setIdentifierMethod, id, pd);
         proxies.put(entityName, kunderaProxy);
 
+        if (pd != null && id != null)
+        {
+            CglibLazyInitializer lazyInitializer = (CglibLazyInitializer) kunderaProxy.getKunderaLazyInitializer();
+            lazyInitializer.setLazyInitializerFactory(this);
+            Set<LazyInitializer> uninitialized = pd.getUninitializedProxies(persistentClass, true);
+            synchronized (uninitialized)
+            {
+                uninitialized.add(lazyInitializer);
+            }
+        }
+
         return kunderaProxy;
     }
 
+    @Override
+    public void loadSiblings(LazyInitializer lazyInitializer)
+    {
+        PersistenceDelegator pd = lazyInitializer.getPersistenceDelegator();
+        Class<?> persistentClass = lazyInitializer.getPersistentClass();
+        Set<LazyInitializer> siblings = pd != null ? pd.getUninitializedProxies(persistentClass, false) : null;
+        if (siblings == null)
+        {
+            return;
+        }
+        int batchSize = getBatchFetchSize(persistentClass);
+
+        List<Object> keys = new ArrayList<Object>();
+        keys.add(lazyInitializer.getIdentifier());
+        synchronized (siblings)
+        {
+            siblings.remove(lazyInitializer);
+
+            Iterator<LazyInitializer> iter = siblings.iterator();
+            while (iter.hasNext() && keys.size() < batchSize)
+            {
+                LazyInitializer sibling = iter.next();
+                iter.remove();
+                if (sibling.isUninitialized() && sibling.getIdentifier() != null
+                        && sibling.getPersistenceDelegator() == pd && !keys.contains(sibling.getIdentifier()))
+                {
+                    keys.add(sibling.getIdentifier());
+                }
+            }
+        }
+
+        if (keys.size() > 1)
+        {
+            if (log.isDebugEnabled())
+            {
+                log.debug("Loading {} proxies of {} in one go.", keys.size(), persistentClass.getName());
+            }
+            pd.prefetch(persistentClass, keys);
+        }
+    }
+
     @Override
     public KunderaProxy getProxy(String entityName)
     {
@@ -80,6 +145,20 @@ public class CglibLazyInitializerFactory implements LazyInitializerFactory
         }
         proxies.clear();
     }
+
+    /**
+     * Returns maximum number of proxies of given entity class to be loaded in
+     * one go.
+     * 
+     * @param persistentClass
+     *            entity class.
+     * @return batch size.
+     */
+    private int getBatchFetchSize(Class<?> persistentClass)
+    {
+        EntityMetadata m = KunderaMetadataManager.getEntityMetadata(persistentClass);
+        return m != null ? AbstractEntityReader.getBatchFetchSize(m) : 1;
+    }
     
  
     @Override
@@ -0,0 +1,399 @@
+/*******************************************************************************
+ * * Copyright 2013 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.kundera.query;
+
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.EntityType;
+
+import com.impetus.kundera.client.EnhanceEntity;
+import com.impetus.kundera.metadata.model.EntityMetadata;
+import com.impetus.kundera.metadata.model.KunderaMetadata;
+import com.impetus.kundera.metadata.model.MetamodelImpl;
+import com.impetus.kundera.property.PropertyAccessorHelper;
+import com.impetus.kundera.query.KunderaQuery.Aggregation;
+import com.impetus.kundera.query.KunderaQuery.Aggregation.Function;
+
+/**
+ * Evaluates aggregate functions and group by clause of a query over entities
+ * added one by one, e.g. while iterating over query results. Only one
+ * accumulator per group is held in memory, never the entities themselves.
+ *
+ * Results follow JPA typing: COUNT is a Long, AVG a Double, SUM a Long for
+ * integral fields (BigInteger, BigDecimal or Double otherwise) and MIN/MAX
+ * are of field's type. Each result row is a single value if query selects one
+ * expression, an Object[] otherwise.
+ */
+public class Aggregator
+{
+    private final List<Aggregation> aggregations;
+
+    /** Field of each select expression, null for entity itself. */
+    private final Field[] fields;
+
+    /** Grouped fields. */
+    private final Field[] groupFields;
+
+    /** Position of each grouped select expression within group key. */
+    private final int[] groupPositions;
+
+    private final Map<List<Object>, Accumulator[]> groups = new LinkedHashMap<List<Object>, Accumulator[]>();
+
+    /**
+     * Instantiates a new aggregator.
+     *
+     * @param kunderaQuery
+     *            parsed aggregate query.
+     * @param m
+     *            entity metadata.
+     */
+    public Aggregator(KunderaQuery kunderaQuery, EntityMetadata m)
+    {
+        this.aggregations = kunderaQuery.getAggregations();
+        List<String> groupings = kunderaQuery.getGroupings();
+
+        MetamodelImpl metaModel = (MetamodelImpl) KunderaMetadata.INSTANCE.getApplicationMetadata().getMetamodel(
+                m.getPersistenceUnit());
+        EntityType entityType = metaModel.entity(m.getEntityClazz());
+
+        groupFields = new Field[groupings.size()];
+        for (int i = 0; i < groupFields.length; i++)
+        {
+            groupFields[i] = getField(entityType, groupings.get(i));
+        }
+
+        fields = new Field[aggregations.size()];
+        groupPositions = new int[aggregations.size()];
+        for (int i = 0; i < fields.length; i++)
+        {
+            Aggregation aggregation = aggregations.get(i);
+            fields[i] = aggregation.getProperty() != null ? getField(entityType, aggregation.getProperty()) : null;
+            groupPositions[i] = aggregation.isAggregate() ? -1 : groupings.indexOf(aggregation.getProperty());
+            if (!aggregation.isAggregate() && groupPositions[i] < 0)
+            {
+                throw new QueryHandlerException("Field " + aggregation.getProperty()
+                        + " must either be aggregated or appear in group by clause");
+            }
+        }
+    }
+
+    /**
+     * Adds an entity to its group.
+     *
+     * @param entity
+     *            entity (or enhanced entity).
+     */
+    public void add(Object entity)
+    {
+        if (entity instanceof EnhanceEntity)
+        {
+            entity = ((EnhanceEntity) entity).getEntity();
+        }
+
+        List<Object> key = new ArrayList<Object>(groupFields.length);
+        for (Field field : groupFields)
+        {
+            key.add(PropertyAccessorHelper.getObject(entity, field));
+        }
+
+        Accumulator[] accumulators = groups.get(key);
+        if (accumulators == null)
+        {
+            accumulators = newAccumulators();
+            groups.put(key, accumulators);
+        }
+
+        for (int i = 0; i < fields.length; i++)
+        {
+            if (accumulators[i] != null)
+            {
+                accumulators[i].add(fields[i] != null ? PropertyAccessorHelper.getObject(entity, fields[i]) : entity);
+            }
+        }
+    }
+
+    /**
+     * Returns a result row per group, in order of first appearance.
+     *
+     * @return result rows.
+     */
+    public List<Object> getResults()
+    {
+        // aggregates without group by always yield a row, e.g. COUNT is 0.
+        if (groups.isEmpty() && groupFields.length == 0)
+        {
+            groups.put(new ArrayList<Object>(0), newAccumulators());
+        }
+
+        List<Object> results = new ArrayList<Object>(groups.size());
+        for (Map.Entry<List<Object>, Accumulator[]> group : groups.entrySet())
+        {
+            Object[] row = new Object[fields.length];
+            for (int i = 0; i < row.length; i++)
+            {
+                row[i] = groupPositions[i] >= 0 ? group.getKey().get(groupPositions[i]) : group.getValue()[i]
+                        .getResult();
+            }
+            results.add(row.length == 1 ? row[0] : row);
+        }
+        return results;
+    }
+
+    /**
+     * Returns result of an aggregate function computed natively by datastore,
+     * typed as JPA expects it for given field type.
+     *
+     * @param function
+     *            aggregate function.
+     * @param fieldType
+     *            type of aggregated field, null for entity.
+     * @param value
+     *            computed value, null if there was nothing to aggregate.
+     * @return typed result.
+     */
+    public static Object getResult(Function function, Class<?> fieldType, Number value)
+    {
+        if (function == Function.COUNT)
+        {
+            return value != null ? value.longValue() : 0L;
+        }
+        if (value == null)
+        {
+            return null;
+        }
+        switch (function)
+        {
+        case AVG:
+            return value.doubleValue();
+        case SUM:
+            if (isIntegral(fieldType))
+            {
+                return value.longValue();
+            }
+            if (BigInteger.class.isAssignableFrom(fieldType))
+            {
+                return new BigDecimal(value.toString()).toBigInteger();
+            }
+            if (BigDecimal.class.isAssignableFrom(fieldType))
+            {
+                return new BigDecimal(value.toString());
+            }
+            return value.doubleValue();
+        default:
+            return toType(fieldType, value);
+        }
+    }
+
+    /**
+     * Returns true if field type is numeric, i.e. SUM and AVG are applicable.
+     *
+     * @param fieldType
+     *            field type.
+     * @return true, if numeric.
+     */
+    public static boolean isNumeric(Class<?> fieldType)
+    {
+        return Number.class.isAssignableFrom(fieldType) || isIntegral(fieldType) || fieldType.equals(float.class)
+                || fieldType.equals(double.class);
+    }
+
+    private static boolean isIntegral(Class<?> type)
+    {
+        return Arrays.<Class<?>> asList(int.class, Integer.class, long.class, Long.class, short.class, Short.class,
+                byte.class, Byte.class).contains(type);
+    }
+
+    /**
+     * Converts a number to given numeric field type.
+     *
+     * @param type
+     *            field type.
+     * @param value
+     *            number.
+     * @return converted number, a Double if type is not known.
+     */
+    public static Object toType(Class<?> type, Number value)
+    {
+        if (type.equals(int.class) || type.equals(Integer.class))
+        {
+            return value.intValue();
+        }
+        if (type.equals(long.class) || type.equals(Long.class))
+        {
+            return value.longValue();
+        }
+        if (type.equals(short.class) || type.equals(Short.class))
+        {
+            return value.shortValue();
+        }
+        if (type.equals(byte.class) || type.equals(Byte.class))
+        {
+            return value.byteValue();
+        }
+        if (type.equals(float.class) || type.equals(Float.class))
+        {
+            return value.floatValue();
+        }
+        if (type.equals(BigInteger.class))
+        {
+            return new BigDecimal(value.toString()).toBigInteger();
+        }
+        if (type.equals(BigDecimal.class))
+        {
+            return new BigDecimal(value.toString());
+        }
+        return value.doubleValue();
+    }
+
+    private Accumulator[] newAccumulators()
+    {
+        Accumulator[] accumulators = new Accumulator[fields.length];
+        for (int i = 0; i < accumulators.length; i++)
+        {
+            Aggregation aggregation = aggregations.get(i);
+            if (aggregation.isAggregate())
+            {
+                accumulators[i] = new Accumulator(aggregation.getFunction(), fields[i] != null ? fields[i].getType()
+                        : null);
+            }
+        }
+        return accumulators;
+    }
+
+    private static Field getField(EntityType entityType, String property)
+    {
+        try
+        {
+            Attribute attribute = entityType.getAttribute(property.trim());
+            return (Field) attribute.getJavaMember();
+        }
+        catch (IllegalArgumentException iaex)
+        {
+            throw new QueryHandlerException("Invalid field " + property + " for "
+                    + entityType.getJavaType().getSimpleName() + " in aggregate query");
+        }
+    }
+
+    /**
+     * Accumulated state of an aggregate function within a group.
+     */
+    private static final class Accumulator
+    {
+        private final Function function;
+
+        private final Class<?> type;
+
+        private long count;
+
+        private long longSum;
+
+        private double doubleSum;
+
+        private BigDecimal decimalSum;
+
+        private Comparable extreme;
+
+        Accumulator(Function function, Class<?> type)
+        {
+            this.function = function;
+            this.type = type;
+        }
+
+        void add(Object value)
+        {
+            // null values are not aggregated.
+            if (value == null)
+            {
+                return;
+            }
+            count++;
+
+            switch (function)
+            {
+            case SUM:
+            case AVG:
+                if (!(value instanceof Number))
+                {
+                    throw new QueryHandlerException(function + " is applicable to numeric fields only, found "
+                            + value.getClass().getSimpleName());
+                }
+                Number number = (Number) value;
+                if (number instanceof BigDecimal || number instanceof BigInteger)
+                {
+                    BigDecimal decimal = new BigDecimal(number.toString());
+                    decimalSum = decimalSum != null ? decimalSum.add(decimal) : decimal;
+                }
+                else if (isIntegral(number.getClass()))
+                {
+                    longSum += number.longValue();
+                }
+                else
+                {
+                    doubleSum += number.doubleValue();
+                }
+                break;
+            case MIN:
+            case MAX:
+                Comparable comparable = (Comparable) value;
+                if (extreme == null || (function == Function.MIN ? comparable.compareTo(extreme) < 0 : comparable
+                        .compareTo(extreme) > 0))
+                {
+                    extreme = comparable;
+                }
+                break;
+            default:
+                break;
+            }
+        }
+
+        Object getResult()
+        {
+            switch (function)
+            {
+            case COUNT:
+                return count;
+            case MIN:
+            case MAX:
+                return extreme;
+            default:
+                if (count == 0)
+                {
+                    return null;
+                }
+                if (decimalSum != null)
+                {
+                    BigDecimal sum = decimalSum.add(new BigDecimal(longSum)).add(new BigDecimal(doubleSum));
+                    return function == Function.AVG ? sum.doubleValue() / count : Aggregator.getResult(function,
+                            type, sum);
+                }
+                double sum = longSum + doubleSum;
+                if (function == Function.AVG)
+                {
+                    return sum / count;
+                }
+                return isIntegral(type) ? (Object) longSum : Aggregator.getResult(function, type, sum);
+            }
+        }
+    }
+}
@@ -19,6 +19,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -114,6 +115,12 @@ public class KunderaQuery
 
     boolean isNativeQuery;
 
+    /** Select expressions of an aggregate query, in order of select clause. */
+    private List<Aggregation> aggregations = new ArrayList<Aggregation>();
+
+    /** Fields of group by clause. */
+    private List<String> groupings = new ArrayList<String>();
+
     /**
      * Instantiates a new kundera query.
      * 
@@ -132,6 +139,70 @@ public class KunderaQuery
      */
     public void setGrouping(String groupingClause)
     {
+        StringTokenizer tokenizer = new StringTokenizer(groupingClause, ",");
+        while (tokenizer.hasMoreTokens())
+        {
+            String property = tokenizer.nextToken().trim();
+            if (!property.isEmpty())
+            {
+                // strip entity alias, if any.
+                groupings.add(property.indexOf(".") > 0 ? property.substring(property.indexOf(".") + 1) : property);
+            }
+        }
+    }
+
+    /**
+     * Returns fields of group by clause.
+     * 
+     * @return group by fields, empty if query is not grouped.
+     */
+    public List<String> getGroupings()
+    {
+        return groupings;
+    }
+
+    /**
+     * Adds select expression of an aggregate query.
+     * 
+     * @param aggregation
+     *            aggregate function or grouped field.
+     */
+    void addAggregation(Aggregation aggregation)
+    {
+        aggregations.add(aggregation);
+    }
+
+    /**
+     * Returns select expressions of an aggregate query, in order of select
+     * clause.
+     * 
+     * @return aggregate functions and grouped fields.
+     */
+    public List<Aggregation> getAggregations()
+    {
+        return aggregations;
+    }
+
+    /**
+     * Returns true, if query selects aggregate functions or grouped fields
+     * instead of entities.
+     * 
+     * @return true, if query is an aggregate query.
+     */
+    public boolean isAggregated()
+    {
+        if (isDeleteUpdate || isNativeQuery)
+        {
+            return false;
+        }
+        for (Aggregation aggregation : aggregations)
+        {
+            if (aggregation.isAggregate())
+            {
+                return true;
+            }
+        }
+        return !groupings.isEmpty() && !aggregations.isEmpty();
     }
 
     /**
@@ -219,6 +290,31 @@ public class KunderaQuery
         return result;
     }
 
+    /**
+     * Returns fields to be fetched for result, i.e. selected fields along with
+     * group by fields not selected, as entities can not be grouped without
+     * these.
+     * 
+     * @return the result with group by fields.
+     */
+    public String[] getProjection()
+    {
+        if (result == null || result.length <= 1 || groupings.isEmpty())
+        {
+            return result;
+        }
+
+        List<String> projection = new ArrayList<String>(Arrays.asList(result));
+        for (String grouping : groupings)
+        {
+            if (!projection.subList(1, projection.size()).contains(grouping))
+            {
+                projection.add(grouping);
+            }
+        }
+        return projection.toArray(new String[projection.size()]);
+    }
+
     /**
      * Method to check if required result is to get complete entity or a select
      * scalar value.
@@ -940,6 +1036,79 @@ public class KunderaQuery
         return super.clone();
     }
 
+    /**
+     * Returns a copy of this parsed query, sharing parsed clauses with it but
+     * holding its own filter and update clauses, so that parameters bound on
+     * copy are not visible to this query.
+     * 
+     * @return copy of query.
+     */
+    KunderaQuery copy()
+    {
+        KunderaQuery query = new KunderaQuery();
+        query.result = result;
+        query.from = from;
+        query.filter = filter;
+        query.ordering = ordering;
+        query.entityName = entityName;
+        query.entityAlias = entityAlias;
+        query.entityClass = entityClass;
+        query.sortOrders = sortOrders;
+        query.persistenceUnit = persistenceUnit;
+        query.isDeleteUpdate = isDeleteUpdate;
+        query.isNativeQuery = isNativeQuery;
+        query.aggregations = aggregations;
+        query.groupings = groupings;
+
+        Map<Object, Object> clauses = new IdentityHashMap<Object, Object>();
+        for (Object clause : filtersQueue)
+        {
+            if (clause instanceof FilterClause)
+            {
+                FilterClause filterClause = (FilterClause) clause;
+                FilterClause copied = query.new FilterClause(filterClause.property, filterClause.condition, null);
+                copied.value = filterClause.value;
+                clauses.put(filterClause, copied);
+                query.filtersQueue.add(copied);
+            }
+            else
+            {
+                query.filtersQueue.add(clause);
+            }
+        }
+
+        for (UpdateClause updateClause : updateClauseQueue)
+        {
+            UpdateClause copied = query.new UpdateClause(updateClause.property, null);
+            copied.value = updateClause.value;
+            clauses.put(updateClause, copied);
+            query.updateClauseQueue.add(copied);
+        }
+
+        if (typedParameter != null)
+        {
+            query.typedParameter = query.new TypedParameter(typedParameter.getType());
+            query.typedParameter.jpaParameters.addAll(typedParameter.jpaParameters);
+            if (typedParameter.getParameters() != null)
+            {
+                for (Map.Entry<String, FilterClause> parameter : typedParameter.getParameters().entrySet())
+                {
+                    query.typedParameter.addParameters(parameter.getKey(),
+                            (FilterClause) clauses.get(parameter.getValue()));
+                }
+            }
+            if (typedParameter.getUpdateParameters() != null)
+            {
+                for (Map.Entry<String, UpdateClause> parameter : typedParameter.getUpdateParameters().entrySet())
+                {
+                    query.typedParameter.addParameters(parameter.getKey(),
+                            (UpdateClause) clauses.get(parameter.getValue()));
+                }
+            }
+        }
+        return query;
+    }
+
     /* @see java.lang.Object#toString() */
     /*
      * (non-Javadoc)
@@ -1054,6 +1223,71 @@ public class KunderaQuery
         }
     }
 
+    /**
+     * Select expression of an aggregate query, either an aggregate function or
+     * a grouped field.
+     */
+    public static final class Aggregation
+    {
+        /**
+         * Supported aggregate functions.
+         */
+        public enum Function
+        {
+            COUNT, SUM, MIN, MAX, AVG;
+        }
+
+        /** The function, null for a grouped field. */
+        private final Function function;
+
+        /** The field name, null for entity itself (e.g. COUNT(p)). */
+        private final String property;
+
+        /**
+         * Instantiates a new aggregation.
+         * 
+         * @param function
+         *            the function, null for a grouped field.
+         * @param property
+         *            the field name, null for entity.
+         */
+        public Aggregation(Function function, String property)
+        {
+            this.function = function;
+            this.property = property;
+        }
+
+        /**
+         * @return the function, null for a grouped field.
+         */
+        public Function getFunction()
+        {
+            return function;
+        }
+
+        /**
+         * @return the field name, null for entity.
+         */
+        public String getProperty()
+        {
+            return property;
+        }
+
+        /**
+         * @return true, if it is an aggregate function.
+         */
+        public boolean isAggregate()
+        {
+            return function != null;
+        }
+
+        @Override
+        public String toString()
+        {
+            return function != null ? function + "(" + (property != null ? property : "*") + ")" : property;
+        }
+    }
+
     /**
      * Containing SortOrder.
      */
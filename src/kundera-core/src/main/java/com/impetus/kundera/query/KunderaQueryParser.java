@@ -16,6 +16,11 @@
 package com.impetus.kundera.query;
 
 import java.util.StringTokenizer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.impetus.kundera.query.KunderaQuery.Aggregation;
+import com.impetus.kundera.query.KunderaQuery.Aggregation.Function;
 
 /**
  * Parser for handling JPQL Single-String queries. Takes a JPQLQuery and the
@@ -37,6 +42,9 @@ import java.util.StringTokenizer;
  */
 public class KunderaQueryParser
 {
+    /** Aggregate function of select clause, e.g. SUM(p.age). */
+    private static final Pattern AGGREGATE_PATTERN = Pattern.compile(
+            "\\s*(COUNT|SUM|MIN|MAX|AVG)\\s*\\(\\s*(DISTINCT\\s+)?([^)\\s]+)\\s*\\)\\s*", Pattern.CASE_INSENSITIVE);
 
     /** The JPQL query to populate. */
     private KunderaQuery query;
@@ -234,6 +242,19 @@ public class KunderaQueryParser
                 while (stringTokenizer.hasMoreTokens())
                 {
                     String property = stringTokenizer.nextToken();
+                    Function function = null;
+                    Matcher matcher = AGGREGATE_PATTERN.matcher(property);
+                    if (matcher.matches())
+                    {
+                        if (matcher.group(2) != null)
+                        {
+                            throw new JPQLParseException("DISTINCT within aggregate function is not supported: "
+                                    + property);
+                        }
+                        function = Function.valueOf(matcher.group(1).toUpperCase());
+                        property = matcher.group(3);
+                    }
+
                     if (property.indexOf(".") > 0)
                     {
                         result[0] = property.substring(0, property.indexOf("."));
@@ -248,6 +269,17 @@ public class KunderaQueryParser
                             throw new JPQLParseException("Bad query format");
                         }
                         result[++count] = fieldName;
+                        query.addAggregation(new Aggregation(function, fieldName));
+                    }
+                    else if (function != null)
+                    {
+                        // aggregate over entity itself, e.g. COUNT(p).
+                        if (result[0] != null && !result[0].equals(property.trim()))
+                        {
+                            throw new JPQLParseException("Bad query format");
+                        }
+                        result[0] = property.trim();
+                        query.addAggregation(new Aggregation(function, null));
                     }
                     else
                     {
@@ -374,14 +406,8 @@ public class KunderaQueryParser
             {
                 throw new JPQLParseException("keyword without value: HAVING");
             }
-            if (groupingClause != null)
-            {
-                groupingClause = groupingClause.trim() + content;
-            }
-            else
-            {
-                groupingClause = content;
-            }
+            // groups are not filtered, so reject rather than ignore it.
+            throw new JPQLParseException("HAVING clause is not supported: " + content.trim());
         }
 
         /**
@@ -88,6 +88,8 @@ public class LuceneQuery extends QueryImpl
         if (log.isDebugEnabled())
             log.debug("Lucene Query: " + q);
 
+        persistenceDelegeator.flushBeforeQuery();
+
         EntityMetadata m = kunderaQuery.getEntityMetadata();
         Client client = persistenceDelegeator.getClient(m);
 
@@ -133,6 +133,7 @@ public abstract class QueryImpl<E> implements Query, com.impetus.kundera.query.Q
     @Override
     public int executeUpdate()
     {
+        persistenceDelegeator.flushBeforeQuery();
         return onExecuteUpdate();
     }
 
@@ -143,9 +144,16 @@ public abstract class QueryImpl<E> implements Query, com.impetus.kundera.query.Q
             log.info("On getResultList() executing query: " + query);
         List results = new ArrayList();
 
+        persistenceDelegeator.flushBeforeQuery();
+
         EntityMetadata m = getEntityMetadata();
         Client client = persistenceDelegeator.getClient(m);
 
+        if (kunderaQuery.isAggregated())
+        {
+            return aggregate(m, client);
+        }
+
         handlePostEvent(m);
         
         if (!m.isRelationViaJoinTable() && (m.getRelationNames() == null || (m.getRelationNames().isEmpty())))
@@ -173,6 +181,65 @@ public abstract class QueryImpl<E> implements Query, com.impetus.kundera.query.Q
         return results != null ? results : new ArrayList();
     }
 
+    /**
+     * Evaluates aggregate functions and group by clause of query. By default,
+     * all matching entities are streamed through an {@link Aggregator} via
+     * {@link #iterate(int)}, so that only an accumulator per group is held in
+     * memory, max results limits aggregated rows only. Datastores computing
+     * aggregates natively override it, on others aggregation fails if
+     * iteration is not supported, as populated entities are limited by max
+     * results.
+     * 
+     * @param m
+     *            entity metadata.
+     * @param client
+     *            client.
+     * @return aggregated result rows.
+     */
+    protected List<Object> aggregate(EntityMetadata m, Client client)
+    {
+        Aggregator aggregator = new Aggregator(kunderaQuery, m);
+
+        Iterator<?> iterator = null;
+        try
+        {
+            // all matching entities are aggregated.
+            iterator = iterate(Integer.MAX_VALUE);
+        }
+        catch (UnsupportedOperationException uoex)
+        {
+            log.error("Error while aggregating query {}, Caused by: {}.", getJPAQuery(), uoex.getMessage());
+            throw new UnsupportedOperationException("Aggregate functions and group by clause are unsupported for "
+                    + "this datastore, as it neither evaluates them natively nor supports iteration, query: "
+                    + getJPAQuery(), uoex);
+        }
+
+        if (iterator != null)
+        {
+            while (iterator.hasNext())
+            {
+                aggregator.add(iterator.next());
+            }
+        }
+
+        List<Object> results = aggregator.getResults();
+        return results.size() > maxResult ? new ArrayList<Object>(results.subList(0, maxResult)) : results;
+    }
+
+    /**
+     * Returns iterator over matching entities, which scrolls over given
+     * number of entities at most, irrespective of max results and fetch size
+     * of query. Datastores supporting iteration override it.
+     * 
+     * @param maxRows
+     *            maximum number of entities to scroll over.
+     * @return iterator over matching entities.
+     */
+    protected Iterator iterate(int maxRows)
+    {
+        throw new UnsupportedOperationException("Scrolling over entities is unsupported for this datastore");
+    }
+
     protected void handlePostEvent(EntityMetadata m)
     {
         if(!kunderaQuery.isDeleteUpdate())
@@ -188,25 +255,21 @@ public abstract class QueryImpl<E> implements Query, com.impetus.kundera.query.Q
         // if it contain a relation means it is a child
         // if it does not then it means it is a parent.
         List<Object> result = null;
-        if (enhanceEntities != null)
+        if (enhanceEntities != null && !enhanceEntities.isEmpty())
         {
+            List<EnhanceEntity> ees = new ArrayList<EnhanceEntity>(enhanceEntities.size());
             for (Object e : enhanceEntities)
             {
-                if (result == null)
-                {
-                    result = new ArrayList<Object>(enhanceEntities.size());
-                }
-
                 if (!(e instanceof EnhanceEntity))
                 {
                     e = new EnhanceEntity(e, PropertyAccessorHelper.getId(e, m), null);
                 }
-
-                EnhanceEntity ee = (EnhanceEntity) e;
-
-                result.add(getReader().recursivelyFindEntities(ee.getEntity(), ee.getRelations(), m,
-                        persistenceDelegeator,false));
+                ees.add((EnhanceEntity) e);
             }
+
+            // Single reader, so that relations of all entities are loaded in
+            // batches.
+            result = getReader().recursivelyFindEntities(ees, m, persistenceDelegeator, false);
         }
 
         return result;
@@ -509,41 +572,46 @@ public abstract class QueryImpl<E> implements Query, com.impetus.kundera.query.Q
             else
             {
                 EntityMetadata entityMetadata = getEntityMetadata();
+                DefaultEntityType entityType = (DefaultEntityType) KunderaMetadata.INSTANCE.getApplicationMetadata()
+                        .getMetamodel(entityMetadata.getPersistenceUnit()).entity(entityMetadata.getEntityClazz());
+
+                // Resolve updated fields once, all of them are set on a row
+                // before it is merged.
+                List<UpdateClause> updateClauses = new ArrayList<UpdateClause>(kunderaQuery.getUpdateClauseQueue());
+                Field[] fields = new Field[updateClauses.size()];
+                for (int i = 0; i < fields.length; i++)
+                {
+                    String columnName = updateClauses.get(i).getProperty();
+                    try
+                    {
+                        // That will always be attribute name.
+                        Attribute attribute = entityType.getAttribute(columnName);
+                        fields[i] = (Field) attribute.getJavaMember();
+                    }
+                    catch (IllegalArgumentException iax)
+                    {
+                        log.error("Invalid column name: " + columnName + " for class : "
+                                + entityMetadata.getEntityClazz());
+                        throw new QueryHandlerException("Error while executing query: " + iax);
+                    }
+                }
+
                 for (Object result : results)
                 {
-                    for (UpdateClause c : kunderaQuery.getUpdateClauseQueue())
+                    for (int i = 0; i < fields.length; i++)
                     {
-                        String columnName = c.getProperty();
-                        try
+                        Object value = updateClauses.get(i).getValue();
+                        // String overload converts value to field type.
+                        if (value instanceof String)
                         {
-
-                            DefaultEntityType entityType = (DefaultEntityType) KunderaMetadata.INSTANCE
-                                    .getApplicationMetadata().getMetamodel(entityMetadata.getPersistenceUnit())
-                                    .entity(entityMetadata.getEntityClazz());
-
-                            // That will always be attribute name.
-
-                            Attribute attribute = entityType.getAttribute(columnName);
-
-                            // TODO : catch column name.
-                            
-                            if(c.getValue() instanceof String)
-                            {
-                                PropertyAccessorHelper.set(result, (Field) attribute.getJavaMember(), c.getValue().toString());                                
-                            }
-                            else
-                            {
-                                PropertyAccessorHelper.set(result, (Field) attribute.getJavaMember(), c.getValue());
-                            }
-                            persistenceDelegeator.merge(result);
+                            PropertyAccessorHelper.set(result, fields[i], value.toString());
                         }
-                        catch (IllegalArgumentException iax)
+                        else
                         {
-                            log.error("Invalid column name: " + columnName + " for class : "
-                                    + entityMetadata.getEntityClazz());
-                            throw new QueryHandlerException("Error while executing query: " + iax);
+                            PropertyAccessorHelper.set(result, fields[i], value);
                         }
                     }
+                    persistenceDelegeator.merge(result);
                 }
             }
         }
@@ -560,6 +628,11 @@ public abstract class QueryImpl<E> implements Query, com.impetus.kundera.query.Q
     @Override
     public Object getSingleResult()
     {
+        // e.g. SELECT COUNT(p) FROM Person p
+        if (kunderaQuery != null && kunderaQuery.isAggregated() && kunderaQuery.getGroupings().isEmpty())
+        {
+            return getResultList().get(0);
+        }
         throw new UnsupportedOperationException("getSingleResult is unsupported by Kundera");
     }
 
@@ -18,6 +18,9 @@ package com.impetus.kundera.query;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import javax.persistence.Query;
 
@@ -42,6 +45,20 @@ public class QueryResolver
     /** The log. */
     private static Logger log = LoggerFactory.getLogger(QueryResolver.class);
 
+    /** Maximum number of parsed queries held, least recently used are evicted. */
+    private static final int MAX_PARSED_QUERIES = 1000;
+
+    /** Parsed queries keyed by query string, each execution works on a copy. */
+    private final Map<String, KunderaQuery> parsedQueries = Collections
+            .synchronizedMap(new LinkedHashMap<String, KunderaQuery>(16, 0.75f, true)
+            {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, KunderaQuery> eldest)
+                {
+                    return size() > MAX_PARSED_QUERIES;
+                }
+            });
+
     /**
      * Gets the query implementation.
      * 
@@ -60,7 +77,7 @@ public class QueryResolver
         {
             throw new QueryHandlerException("Query String should not be null ");
         }
-        KunderaQuery kunderaQuery = new KunderaQuery();
+        KunderaQuery kunderaQuery = null;
         ApplicationMetadata appMetadata = KunderaMetadata.INSTANCE.getApplicationMetadata();
         String mappedQuery = appMetadata.getQuery(jpaQuery);
 
@@ -74,12 +91,7 @@ public class QueryResolver
         // In case of named native query
         if (!isNative)
         {
-            KunderaQueryParser parser = new KunderaQueryParser(kunderaQuery, mappedQuery != null ? mappedQuery
-                    : jpaQuery);
-
-            parser.parse();
-
-            kunderaQuery.postParsingInit();
+            kunderaQuery = getParsedQuery(mappedQuery != null ? mappedQuery : jpaQuery).copy();
             // pu = kunderaQuery.getPersistenceUnit();
             m = kunderaQuery.getEntityMetadata();
         }
@@ -94,6 +106,7 @@ public class QueryResolver
 
             // pu = appMetadata.getMappedPersistenceUnit(mappedClass).get(0);
             
+            kunderaQuery = new KunderaQuery();
             kunderaQuery.isNativeQuery = true;
             m = KunderaMetadataManager.getEntityMetadata(mappedClass);
 
@@ -134,6 +147,30 @@ public class QueryResolver
 
     }
 
+    /**
+     * Returns parsed query for given query string, parses and caches it if not
+     * already parsed. Returned query must not be executed, but a copy of it.
+     * 
+     * @param queryString
+     *            jpa query
+     * @return parsed query
+     */
+    KunderaQuery getParsedQuery(String queryString)
+    {
+        KunderaQuery parsedQuery = parsedQueries.get(queryString);
+        if (parsedQuery == null)
+        {
+            parsedQuery = new KunderaQuery();
+            KunderaQueryParser parser = new KunderaQueryParser(parsedQuery, queryString);
+
+            parser.parse();
+
+            parsedQuery.postParsingInit();
+            parsedQueries.put(queryString, parsedQuery);
+        }
+        return parsedQuery;
+    }
+
     /**
      * Gets the query instance.
      * 
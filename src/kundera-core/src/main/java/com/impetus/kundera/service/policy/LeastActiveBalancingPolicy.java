@@ -16,22 +16,112 @@
 package com.impetus.kundera.service.policy;
 
 import java.util.Collection;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.common.collect.Iterables;
 
 /**
- * Abstract class leastActiveBalancingPolicy, all client factory will have a class which will extends it
- * in order to support least active load.
- * balancing policy.
+ * LeastActiveBalancingPolicy returns pool having least number of in-flight
+ * requests. Client factories notify policy via {@link #onAcquire(Object)} and
+ * {@link #onRelease(Object)} as and when a connection of a pool is borrowed and
+ * returned. Ties are broken in round robin fashion. Client factories may extend
+ * it to rely on statistics maintained by underlying pool instead.
  * 
  * @author Kuldeep.Mishra
  * 
  */
-public abstract class LeastActiveBalancingPolicy implements LoadBalancingPolicy
+public class LeastActiveBalancingPolicy implements LoadBalancingPolicy
 {
+    /** In-flight requests per pool. */
+    private final ConcurrentMap<Object, AtomicInteger> activeRequests = new ConcurrentHashMap<Object, AtomicInteger>();
+
+    /** Start offset for next scan, to break ties. */
+    private final AtomicInteger counter = new AtomicInteger();
 
     /**
      * @return pool object for host which has least active connections.
      * 
      */
     @Override
-    public abstract Object getPool(Collection<Object> pools);
+    public Object getPool(Collection<Object> pools)
+    {
+        int size = pools.size();
+        if (size == 1)
+        {
+            return pools.iterator().next();
+        }
+
+        int start = (counter.getAndIncrement() & Integer.MAX_VALUE) % size;
+        Iterator<Object> iter = Iterables.concat(Iterables.skip(pools, start), Iterables.limit(pools, start))
+                .iterator();
+
+        Object leastActivePool = null;
+        int leastActive = Integer.MAX_VALUE;
+        while (iter.hasNext())
+        {
+            Object pool = iter.next();
+            int active = getActive(pool);
+            if (active < leastActive)
+            {
+                leastActivePool = pool;
+                leastActive = active;
+            }
+        }
+        return leastActivePool;
+    }
+
+    /**
+     * Marks a request in-flight on given pool.
+     * 
+     * @param pool
+     *            pool a connection is borrowed from.
+     */
+    public void onAcquire(Object pool)
+    {
+        if (pool != null)
+        {
+            AtomicInteger active = activeRequests.get(pool);
+            if (active == null)
+            {
+                AtomicInteger newActive = new AtomicInteger();
+                active = activeRequests.putIfAbsent(pool, newActive);
+                if (active == null)
+                {
+                    active = newActive;
+                }
+            }
+            active.incrementAndGet();
+        }
+    }
+
+    /**
+     * Marks a request on given pool as completed.
+     * 
+     * @param pool
+     *            pool a connection is returned to.
+     */
+    public void onRelease(Object pool)
+    {
+        AtomicInteger active = pool != null ? activeRequests.get(pool) : null;
+        if (active != null && active.decrementAndGet() < 0)
+        {
+            active.set(0);
+        }
+    }
+
+    /**
+     * Returns number of in-flight requests on given pool.
+     * 
+     * @param pool
+     *            pool.
+     * @return in-flight requests.
+     */
+    public int getActive(Object pool)
+    {
+        AtomicInteger active = activeRequests.get(pool);
+        return active != null ? active.get() : 0;
+    }
 }
@@ -0,0 +1,121 @@
+/*******************************************************************************
+ * * Copyright 2013 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.kundera.index;
+
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+
+import junit.framework.Assert;
+
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.util.Version;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.impetus.kundera.metadata.KunderaMetadataManager;
+import com.impetus.kundera.metadata.model.EntityMetadata;
+import com.impetus.kundera.query.Person;
+import com.impetus.kundera.query.Person.Day;
+import com.impetus.kundera.utils.LuceneCleanupUtilities;
+
+/**
+ * Interleaved index/search throughput of default and near-real-time mode of
+ * {@link LuceneIndexer}. Only run with benchmark profile (mvn test
+ * -Pbenchmark), timings are logged.
+ */
+public class LuceneIndexerNRTBenchmark
+{
+    private static Logger log = LoggerFactory.getLogger(LuceneIndexerNRTBenchmark.class);
+
+    private static final String LUCENE_DIR_PATH = "./lucene";
+
+    private static final int WARMUP_ROUNDS = 200;
+
+    private static final int ROUNDS = 2000;
+
+    private EntityManagerFactory emf;
+
+    @Before
+    public void setup()
+    {
+        emf = Persistence.createEntityManagerFactory("patest");
+        LuceneIndexer.shutdown();
+        LuceneCleanupUtilities.cleanDir(LUCENE_DIR_PATH);
+    }
+
+    @Test
+    public void benchmarkInterleavedIndexSearch()
+    {
+        LuceneIndexer indexer = LuceneIndexer.getInstance(new StandardAnalyzer(Version.LUCENE_34), LUCENE_DIR_PATH);
+        Assert.assertFalse(indexer.isNearRealTime());
+        runInterleaved(indexer, 0, WARMUP_ROUNDS);
+        long defaultTime = runInterleaved(indexer, WARMUP_ROUNDS, ROUNDS);
+
+        LuceneIndexer.shutdown();
+        LuceneCleanupUtilities.cleanDir(LUCENE_DIR_PATH);
+
+        indexer = LuceneIndexer.getInstance(new StandardAnalyzer(Version.LUCENE_34), LUCENE_DIR_PATH, 1000, false);
+        Assert.assertTrue(indexer.isNearRealTime());
+        runInterleaved(indexer, 0, WARMUP_ROUNDS);
+        long nrtTime = runInterleaved(indexer, WARMUP_ROUNDS, ROUNDS);
+
+        log.info("Interleaved index/search of {} entities, default mode: {} ms, near-real-time mode: {} ms",
+                new Object[] { ROUNDS, defaultTime, nrtTime });
+    }
+
+    @After
+    public void tearDown()
+    {
+        LuceneIndexer.shutdown();
+        LuceneCleanupUtilities.cleanDir(LUCENE_DIR_PATH);
+        emf.close();
+    }
+
+    /**
+     * Indexes given number of entities, searches each one right after it is
+     * indexed.
+     * 
+     * @return elapsed time in milliseconds.
+     */
+    private long runInterleaved(LuceneIndexer indexer, int from, int rounds)
+    {
+        EntityMetadata metadata = KunderaMetadataManager.getEntityMetadata(Person.class);
+        long start = System.nanoTime();
+        for (int i = from; i < from + rounds; i++)
+        {
+            indexer.index(metadata, preparePerson("p" + i, i));
+            Assert.assertEquals(1, indexer.search(getQuery(i), 0, 10, false).size());
+        }
+        return (System.nanoTime() - start) / 1000000;
+    }
+
+    private Person preparePerson(String id, int age)
+    {
+        Person p = new Person();
+        p.setAge(age);
+        p.setDay(Day.TUESDAY);
+        p.setPersonId(id);
+        return p;
+    }
+
+    private String getQuery(int age)
+    {
+        return "+Person.AGE:" + age + " AND +entity.class:com.impetus.kundera.query.Person";
+    }
+}
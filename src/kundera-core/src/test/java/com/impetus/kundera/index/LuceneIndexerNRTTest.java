@@ -0,0 +1,165 @@
+/*******************************************************************************
+ * * Copyright 2013 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.kundera.index;
+
+import java.util.Map;
+
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+
+import junit.framework.Assert;
+
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.util.Version;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.impetus.kundera.metadata.KunderaMetadataManager;
+import com.impetus.kundera.metadata.model.EntityMetadata;
+import com.impetus.kundera.query.Person;
+import com.impetus.kundera.query.Person.Day;
+import com.impetus.kundera.utils.LuceneCleanupUtilities;
+
+/**
+ * Junit for near-real-time mode of {@link LuceneIndexer}.
+ */
+public class LuceneIndexerNRTTest
+{
+    private static final String LUCENE_DIR_PATH = "./lucene";
+
+    private static final int ROUNDS = 200;
+
+    private EntityManagerFactory emf;
+
+    @Before
+    public void setup()
+    {
+        emf = Persistence.createEntityManagerFactory("patest");
+        LuceneIndexer.shutdown();
+        LuceneCleanupUtilities.cleanDir(LUCENE_DIR_PATH);
+    }
+
+    @Test
+    public void testNearRealTimeSearch()
+    {
+        LuceneIndexer indexer = LuceneIndexer.getInstance(new StandardAnalyzer(Version.LUCENE_34), LUCENE_DIR_PATH,
+                0, false);
+        Assert.assertTrue(indexer.isNearRealTime());
+
+        EntityMetadata metadata = KunderaMetadataManager.getEntityMetadata(Person.class);
+        indexer.index(metadata, preparePerson("p1", 32));
+
+        // visible without commit.
+        Map<String, Object> results = indexer.search(getQuery(32), 0, 10, false);
+        Assert.assertEquals(1, results.size());
+
+        indexer.unindex(metadata, "p1");
+        results = indexer.search(getQuery(32), 0, 10, false);
+        Assert.assertTrue(results.isEmpty());
+
+        indexer.index(metadata, preparePerson("p2", 33));
+        indexer.close();
+
+        // committed changes must survive restart.
+        LuceneIndexer.shutdown();
+        indexer = LuceneIndexer.getInstance(new StandardAnalyzer(Version.LUCENE_34), LUCENE_DIR_PATH, 0, true);
+        results = indexer.search(getQuery(33), 0, 10, false);
+        Assert.assertEquals(1, results.size());
+    }
+
+    @Test
+    public void testInterleavedIndexSearch()
+    {
+        LuceneIndexer indexer = LuceneIndexer.getInstance(new StandardAnalyzer(Version.LUCENE_34), LUCENE_DIR_PATH);
+        Assert.assertFalse(indexer.isNearRealTime());
+        runInterleaved(indexer);
+
+        LuceneIndexer.shutdown();
+        LuceneCleanupUtilities.cleanDir(LUCENE_DIR_PATH);
+
+        indexer = LuceneIndexer.getInstance(new StandardAnalyzer(Version.LUCENE_34), LUCENE_DIR_PATH, 1000, false);
+        Assert.assertTrue(indexer.isNearRealTime());
+        runInterleaved(indexer);
+    }
+
+    @Test
+    public void testConflictingSettings()
+    {
+        LuceneIndexer indexer = LuceneIndexer.getInstance(new StandardAnalyzer(Version.LUCENE_34), LUCENE_DIR_PATH,
+                1000, false);
+        Assert.assertSame(indexer, LuceneIndexer.getInstance(new StandardAnalyzer(Version.LUCENE_34),
+                LUCENE_DIR_PATH, 1000, false));
+
+        try
+        {
+            LuceneIndexer.getInstance(new StandardAnalyzer(Version.LUCENE_34), LUCENE_DIR_PATH, 5000, false);
+            Assert.fail("Should have failed on different commit interval.");
+        }
+        catch (LuceneIndexingException liex)
+        {
+            Assert.assertTrue(liex.getMessage().contains("different settings"));
+        }
+        try
+        {
+            LuceneIndexer.getInstance(new StandardAnalyzer(Version.LUCENE_34), LUCENE_DIR_PATH);
+            Assert.fail("Should have failed on default mode.");
+        }
+        catch (LuceneIndexingException liex)
+        {
+            Assert.assertTrue(liex.getMessage().contains("near-real-time"));
+        }
+
+        // shut down once released by both holders.
+        LuceneIndexer.release();
+        Assert.assertTrue(indexer.isNearRealTime());
+        LuceneIndexer.release();
+        Assert.assertNotSame(indexer, LuceneIndexer.getInstance(new StandardAnalyzer(Version.LUCENE_34),
+                LUCENE_DIR_PATH, 1000, false));
+    }
+
+    @After
+    public void tearDown()
+    {
+        LuceneIndexer.shutdown();
+        LuceneCleanupUtilities.cleanDir(LUCENE_DIR_PATH);
+        emf.close();
+    }
+
+    private void runInterleaved(LuceneIndexer indexer)
+    {
+        EntityMetadata metadata = KunderaMetadataManager.getEntityMetadata(Person.class);
+        for (int i = 0; i < ROUNDS; i++)
+        {
+            indexer.index(metadata, preparePerson("p" + i, i));
+            Assert.assertEquals(1, indexer.search(getQuery(i), 0, 10, false).size());
+        }
+    }
+
+    private Person preparePerson(String id, int age)
+    {
+        Person p = new Person();
+        p.setAge(age);
+        p.setDay(Day.TUESDAY);
+        p.setPersonId(id);
+        return p;
+    }
+
+    private String getQuery(int age)
+    {
+        return "+Person.AGE:" + age + " AND +entity.class:com.impetus.kundera.query.Person";
+    }
+}
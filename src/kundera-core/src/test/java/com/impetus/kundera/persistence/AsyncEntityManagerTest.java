@@ -0,0 +1,140 @@
+/*******************************************************************************
+ * * Copyright 2013 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.kundera.persistence;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+
+import junit.framework.Assert;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.impetus.kundera.entity.PersonnelDTO;
+import com.impetus.kundera.metadata.model.KunderaMetadata;
+import com.impetus.kundera.persistence.api.KunderaAsyncEntityManager;
+
+/**
+ * Junit for {@link KunderaAsyncEntityManager}.
+ */
+public class AsyncEntityManagerTest
+{
+    private EntityManagerFactory emf;
+
+    private EntityManager em;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        KunderaMetadata.INSTANCE.setApplicationMetadata(null);
+        emf = Persistence.createEntityManagerFactory("kunderatest");
+        em = emf.createEntityManager();
+    }
+
+    @After
+    public void tearDown() throws Exception
+    {
+        em.close();
+        emf.close();
+    }
+
+    @Test
+    public void testCrud() throws Exception
+    {
+        KunderaAsyncEntityManager asyncEm = em.unwrap(KunderaAsyncEntityManager.class);
+
+        // test client's store is not thread safe for writes, so persist one
+        // by one.
+        PersonnelDTO jon = new PersonnelDTO("a1", "Jon", "Snow");
+        Assert.assertSame(jon, asyncEm.persistAsync(jon).get());
+        asyncEm.persistAsync(new PersonnelDTO("a2", "Arya", "Stark")).get();
+        asyncEm.persistAsync(new PersonnelDTO("a3", "Sansa", "Stark")).get();
+
+        // fan out finds.
+        ListenableFuture<List<PersonnelDTO>> found = Futures.allAsList(asyncEm.findAsync(PersonnelDTO.class, "a1"),
+                asyncEm.findAsync(PersonnelDTO.class, "a2"), asyncEm.findAsync(PersonnelDTO.class, "a3"));
+        Assert.assertEquals("Jon", found.get().get(0).getFirstName());
+        Assert.assertEquals("Arya", found.get().get(1).getFirstName());
+        Assert.assertEquals("Sansa", found.get().get(2).getFirstName());
+
+        // found entity is detached, may be removed as well.
+        asyncEm.removeAsync(found.get().get(0)).get();
+        Assert.assertNull(asyncEm.findAsync(PersonnelDTO.class, "a1").get());
+        Assert.assertNull(em.find(PersonnelDTO.class, "a1"));
+
+        asyncEm.removeAsync(new PersonnelDTO("a2", null, null)).get();
+        asyncEm.removeAsync(new PersonnelDTO("a3", null, null)).get();
+        Assert.assertNull(em.find(PersonnelDTO.class, "a3"));
+    }
+
+    @Test
+    public void testFailure() throws Exception
+    {
+        KunderaAsyncEntityManager asyncEm = em.unwrap(KunderaAsyncEntityManager.class);
+        try
+        {
+            // id is missing.
+            asyncEm.persistAsync(new PersonnelDTO()).get();
+            Assert.fail("Should have failed on persist of invalid entity.");
+        }
+        catch (ExecutionException eex)
+        {
+            Assert.assertNotNull(eex.getCause());
+        }
+    }
+
+    @Test
+    public void testRejected() throws Exception
+    {
+        KunderaAsyncEntityManager asyncEm = em.unwrap(KunderaAsyncEntityManager.class);
+        ((EntityManagerFactoryImpl) emf).getAsyncExecutor().shutdown();
+
+        // rejected operation fails its future instead of running on caller.
+        ListenableFuture<PersonnelDTO> future = asyncEm.persistAsync(new PersonnelDTO("a4", "Bran", "Stark"));
+        try
+        {
+            future.get();
+            Assert.fail("Should have failed on rejected persist.");
+        }
+        catch (ExecutionException eex)
+        {
+            Assert.assertTrue(eex.getCause() instanceof RejectedExecutionException);
+        }
+        Assert.assertNull(em.find(PersonnelDTO.class, "a4"));
+    }
+
+    @Test
+    public void testUnsupportedUnwrap()
+    {
+        try
+        {
+            em.unwrap(EntityManager.class);
+            Assert.fail("Should have failed on unwrap of unsupported class.");
+        }
+        catch (RuntimeException rex)
+        {
+            Assert.assertTrue(rex.getMessage().contains("unwrap"));
+        }
+    }
+}
@@ -16,8 +16,10 @@
 
 package com.impetus.kundera.persistence;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -32,6 +34,7 @@ import org.junit.Before;
 import org.junit.Test;
 
 import com.impetus.kundera.CoreTestUtilities;
+import com.impetus.kundera.client.EnhanceEntity;
 import com.impetus.kundera.metadata.KunderaMetadataManager;
 import com.impetus.kundera.metadata.model.EntityMetadata;
 import com.impetus.kundera.metadata.model.KunderaMetadata;
@@ -318,6 +321,52 @@ public class EntityReaderTest
     }
 
 
+    @Test
+    public void testBatchedManyToOne()
+    {
+        AddressUM1 address1 = new AddressUM1();
+        address1.setAddressId("addr1");
+        address1.setStreet("street1");
+
+        AddressUM1 address2 = new AddressUM1();
+        address2.setAddressId("addr2");
+        address2.setStreet("street2");
+
+        List<EnhanceEntity> enhanceEntities = new ArrayList<EnhanceEntity>();
+        for (int i = 1; i <= 3; i++)
+        {
+            PersonUM1 person = new PersonUM1();
+            person.setPersonId("person" + i);
+            person.setPersonName("vivek");
+            person.setAddress(i < 3 ? address1 : address2);
+            em.persist(person);
+
+            Map<String, Object> relationMap = new HashMap<String, Object>();
+            relationMap.put("ADDRESS_ID", person.getAddress().getAddressId());
+            person.setAddress(null);
+            enhanceEntities.add(new EnhanceEntity(person, person.getPersonId(), relationMap));
+        }
+
+        PersistenceDelegator delegator = CoreTestUtilities.getDelegator(em);
+        EntityMetadata metadata = KunderaMetadataManager.getEntityMetadata(PersonUM1.class);
+
+        List<Object> results = new CoreTestEntityReader().recursivelyFindEntities(enhanceEntities, metadata,
+                delegator, true);
+
+        Assert.assertEquals(3, results.size());
+        PersonUM1 person1 = (PersonUM1) results.get(0);
+        PersonUM1 person2 = (PersonUM1) results.get(1);
+        PersonUM1 person3 = (PersonUM1) results.get(2);
+
+        Assert.assertEquals("addr1", person1.getAddress().getAddressId());
+        Assert.assertEquals("addr1", person2.getAddress().getAddressId());
+        Assert.assertEquals("street2", person3.getAddress().getStreet());
+        Assert.assertFalse(ProxyHelper.isKunderaProxy(person1.getAddress()));
+
+        // each owner holds its own instance, as with find.
+        Assert.assertNotSame(person1.getAddress(), person2.getAddress());
+    }
+
     @Test
     public void testBiManyToOne() throws NoSuchFieldException, SecurityException, IllegalArgumentException,
             IllegalAccessException
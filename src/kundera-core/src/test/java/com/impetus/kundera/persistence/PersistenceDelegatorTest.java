@@ -15,12 +15,16 @@
  ******************************************************************************/
 package com.impetus.kundera.persistence;
 
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Properties;
 
 import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
+import javax.persistence.FlushModeType;
 import javax.persistence.Persistence;
 
 import junit.framework.Assert;
@@ -33,10 +37,13 @@ import org.junit.BeforeClass;
 import org.junit.Test;
 
 import com.impetus.kundera.KunderaException;
+import com.impetus.kundera.PersistenceProperties;
 import com.impetus.kundera.client.Client;
 import com.impetus.kundera.client.CoreTestClient;
 import com.impetus.kundera.configure.CoreEntityAddressUni1To1;
 import com.impetus.kundera.entity.PersonnelDTO;
+import com.impetus.kundera.graph.Node;
+import com.impetus.kundera.graph.ObjectGraphUtils;
 import com.impetus.kundera.metadata.KunderaMetadataManager;
 import com.impetus.kundera.metadata.entities.AssociationEntity;
 import com.impetus.kundera.metadata.entities.OToOOwnerEntity;
@@ -184,6 +191,76 @@ public class PersistenceDelegatorTest
         List<PersonnelDTO> persons = pd.find(PersonnelDTO.class, new String[] { "111", "222", "333" });
         Assert.assertNotNull(persons);
         Assert.assertEquals(3, persons.size());
+
+        // fetched in one go from database, missing key is skipped.
+        em.clear();
+        persons = pd.find(PersonnelDTO.class, new String[] { "111", "222", "333", "999" });
+        Assert.assertEquals(3, persons.size());
+        Assert.assertNotNull(pd.getPersistenceCache().getMainCache()
+                .getNodeFromCache(ObjectGraphUtils.getNodeId("222", PersonnelDTO.class)));
+    }
+
+    @Test
+    public void testFindWithStateSnapshot()
+    {
+        // strategy is read once per delegator, so restoring PU property in
+        // finally keeps it scoped to this entity manager.
+        Properties properties = KunderaMetadataManager.getPersistenceUnitMetadata("kunderatest").getProperties();
+        String strategy = properties.getProperty(PersistenceProperties.KUNDERA_SNAPSHOT_STRATEGY);
+        EntityManager entityManager = null;
+        try
+        {
+            properties.setProperty(PersistenceProperties.KUNDERA_SNAPSHOT_STRATEGY, "state");
+            entityManager = emf.createEntityManager();
+
+            PersonnelDTO dto = new PersonnelDTO();
+            dto.setPersonId("444");
+            dto.setFirstName("vivek");
+            entityManager.persist(dto);
+            entityManager.clear();
+
+            // managed entity itself is returned on each find.
+            PersonnelDTO found = entityManager.find(PersonnelDTO.class, "444");
+            Assert.assertNotNull(found);
+            Assert.assertSame(found, entityManager.find(PersonnelDTO.class, "444"));
+
+            PersistenceDelegator pd = ((EntityManagerImpl) entityManager).getPersistenceDelegator();
+            Node node = pd.getPersistenceCache().getMainCache()
+                    .getNodeFromCache(ObjectGraphUtils.getNodeId("444", PersonnelDTO.class));
+            Assert.assertSame(found, node.getData());
+
+            // in place change is detected against snapshot, which is
+            // refreshed once change is flushed.
+            found.setFirstName("kuldeep");
+            entityManager.merge(found);
+            Assert.assertEquals("kuldeep", ((PersonnelDTO) node.getSnapshot()).getFirstName());
+            Assert.assertEquals("kuldeep", entityManager.find(PersonnelDTO.class, "444").getFirstName());
+
+            // reverting to load time value is a change as well, only changed
+            // attribute is copied onto snapshot.
+            Object snapshot = node.getSnapshot();
+            found.setFirstName("vivek");
+            entityManager.merge(found);
+            Assert.assertSame(snapshot, node.getSnapshot());
+            Assert.assertEquals("vivek", ((PersonnelDTO) snapshot).getFirstName());
+            Client client = pd.getClient(KunderaMetadataManager.getEntityMetadata(PersonnelDTO.class));
+            Assert.assertEquals("vivek", ((PersonnelDTO) client.find(PersonnelDTO.class, "444")).getFirstName());
+        }
+        finally
+        {
+            if (strategy != null)
+            {
+                properties.setProperty(PersistenceProperties.KUNDERA_SNAPSHOT_STRATEGY, strategy);
+            }
+            else
+            {
+                properties.remove(PersistenceProperties.KUNDERA_SNAPSHOT_STRATEGY);
+            }
+            if (entityManager != null)
+            {
+                entityManager.close();
+            }
+        }
     }
 
     @Test
@@ -412,6 +489,117 @@ public class PersistenceDelegatorTest
 
     }
 
+    @Test
+    public void testMergeTracksChangedAttributes()
+    {
+        em.setFlushMode(FlushModeType.COMMIT);
+        PersistenceDelegator pd = ((EntityManagerImpl) em).getPersistenceDelegator();
+        Client client = pd.getClient(KunderaMetadataManager.getEntityMetadata(PersonnelDTO.class));
+
+        PersonnelDTO dto = new PersonnelDTO();
+        dto.setPersonId("555");
+        dto.setFirstName("Jon");
+        em.persist(dto);
+        em.flush();
+
+        PersonnelDTO found = em.find(PersonnelDTO.class, "555");
+        Node node = pd.getPersistenceCache().getMainCache()
+                .getNodeFromCache(ObjectGraphUtils.getNodeId("555", PersonnelDTO.class));
+        Assert.assertFalse(node.isDirty());
+
+        // unchanged entity is not dirty.
+        em.merge(found);
+        Assert.assertFalse(node.isDirty());
+
+        found.setLastName("Snow");
+        em.merge(found);
+        Assert.assertTrue(node.isDirty());
+        Assert.assertEquals(new HashSet<String>(Arrays.asList("lastName")), node.getChangedAttributes());
+
+        // changes add up till flush.
+        found.setFirstName("Aegon");
+        em.merge(found);
+        Assert.assertEquals(new HashSet<String>(Arrays.asList("firstName", "lastName")),
+                node.getChangedAttributes());
+
+        em.flush();
+        Assert.assertNull(node.getChangedAttributes());
+        found = (PersonnelDTO) client.find(PersonnelDTO.class, "555");
+        Assert.assertEquals("Aegon", found.getFirstName());
+        Assert.assertEquals("Snow", found.getLastName());
+
+        em.remove(em.find(PersonnelDTO.class, "555"));
+        em.flush();
+        em.setFlushMode(FlushModeType.AUTO);
+    }
+
+    @Test
+    public void testDeferredFlush()
+    {
+        em.setFlushMode(FlushModeType.COMMIT);
+        PersistenceDelegator pd = ((EntityManagerImpl) em).getPersistenceDelegator();
+        Client client = pd.getClient(KunderaMetadataManager.getEntityMetadata(PersonnelDTO.class));
+
+        PersonnelDTO dto = new PersonnelDTO();
+        dto.setPersonId("444");
+        dto.setFirstName("Jon");
+        em.persist(dto);
+
+        dto.setLastName("Snow");
+        em.merge(dto);
+
+        // nothing written yet, but found from persistence context.
+        Assert.assertNull(client.find(PersonnelDTO.class, "444"));
+        PersonnelDTO found = em.find(PersonnelDTO.class, "444");
+        Assert.assertNotNull(found);
+        Assert.assertEquals("Snow", found.getLastName());
+
+        em.flush();
+        found = (PersonnelDTO) client.find(PersonnelDTO.class, "444");
+        Assert.assertNotNull(found);
+        Assert.assertEquals("Jon", found.getFirstName());
+        Assert.assertEquals("Snow", found.getLastName());
+
+        em.remove(em.find(PersonnelDTO.class, "444"));
+        Assert.assertNotNull(client.find(PersonnelDTO.class, "444"));
+        Assert.assertNull(em.find(PersonnelDTO.class, "444"));
+
+        em.flush();
+        Assert.assertNull(client.find(PersonnelDTO.class, "444"));
+        em.setFlushMode(FlushModeType.AUTO);
+    }
+
+    @Test
+    public void testDeferredFlushInTransaction()
+    {
+        em.setFlushMode(FlushModeType.COMMIT);
+        PersistenceDelegator pd = ((EntityManagerImpl) em).getPersistenceDelegator();
+        Client client = pd.getClient(KunderaMetadataManager.getEntityMetadata(PersonnelDTO.class));
+
+        em.getTransaction().begin();
+        PersonnelDTO dto = new PersonnelDTO();
+        dto.setPersonId("446");
+        dto.setFirstName("Jon");
+        em.persist(dto);
+        Assert.assertNull(client.find(PersonnelDTO.class, "446"));
+
+        // queued node is written through transaction resource on commit.
+        em.getTransaction().commit();
+        PersonnelDTO found = (PersonnelDTO) client.find(PersonnelDTO.class, "446");
+        Assert.assertNotNull(found);
+        Assert.assertEquals("Jon", found.getFirstName());
+
+        em.getTransaction().begin();
+        em.remove(em.find(PersonnelDTO.class, "446"));
+        em.getTransaction().rollback();
+        Assert.assertNotNull(client.find(PersonnelDTO.class, "446"));
+
+        em.remove(em.find(PersonnelDTO.class, "446"));
+        em.flush();
+        Assert.assertNull(client.find(PersonnelDTO.class, "446"));
+        em.setFlushMode(FlushModeType.AUTO);
+    }
+
     @Test
     public void testEntityState()
     {
@@ -108,6 +108,33 @@ public class EntityEventDispatcherTest
         }
     }
 
+    /**
+     * Listener is instantiated once and public as well as private callbacks
+     * are invoked.
+     */
+    @Test
+    public void testExternalCallbackListenerInstance() throws NoSuchMethodException, SecurityException
+    {
+        CountingListener.instances = 0;
+        ExternalCallbackMethod publicCallback = new ExternalCallbackMethod(CountingListener.class,
+                CountingListener.class.getDeclaredMethod("onPublicEvent", PersonEventDispatch.class));
+        ExternalCallbackMethod privateCallback = new ExternalCallbackMethod(CountingListener.class,
+                CountingListener.class.getDeclaredMethod("onPrivateEvent", PersonEventDispatch.class));
+
+        PersonEventDispatch person = new PersonEventDispatch("1", "John", "Smith");
+        for (int i = 0; i < 3; i++)
+        {
+            publicCallback.invoke(person);
+        }
+        Assert.assertEquals("John3", person.getFirstName());
+        privateCallback.invoke(person);
+        privateCallback.invoke(person);
+        Assert.assertEquals("Smith2", person.getLastName());
+
+        // one instance per callback method.
+        Assert.assertEquals(2, CountingListener.instances);
+    }
+
     /**
      * Test method for
      * {@link com.impetus.kundera.persistence.event.EntityEventDispatcher#fireEventListeners(com.impetus.kundera.metadata.model.EntityMetadata, java.lang.Object, java.lang.Class)}
@@ -143,4 +170,25 @@ public class EntityEventDispatcherTest
         }
     }
 
+    public static class CountingListener
+    {
+        private static int instances;
+
+        private int count;
+
+        public CountingListener()
+        {
+            instances++;
+        }
+
+        public void onPublicEvent(PersonEventDispatch person)
+        {
+            person.setFirstName("John" + (++count));
+        }
+
+        private void onPrivateEvent(PersonEventDispatch person)
+        {
+            person.setLastName("Smith" + (++count));
+        }
+    }
 }
@@ -0,0 +1,66 @@
+/*******************************************************************************
+ * * Copyright 2013 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.kundera.property;
+
+import java.lang.reflect.Field;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.impetus.kundera.property.EntityAccessorTest.AccessorEntity;
+
+/**
+ * Compares generated and reflective field access of {@link EntityAccessor}.
+ * Only run with benchmark profile (mvn test -Pbenchmark), timings are logged.
+ */
+public class EntityAccessorBenchmark
+{
+    private static Logger log = LoggerFactory.getLogger(EntityAccessorBenchmark.class);
+
+    private static final int ROUNDS = 1000000;
+
+    @Test
+    public void benchmarkAccess() throws Exception
+    {
+        Field field = AccessorEntity.class.getDeclaredField("name");
+        AccessorEntity entity = new AccessorEntity();
+
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < ROUNDS; i++)
+        {
+            PropertyAccessorHelper.setViaReflection(entity, field, "name");
+            PropertyAccessorHelper.getObjectViaReflection(entity, field);
+        }
+        long reflectionTime = System.currentTimeMillis() - start;
+
+        EntityAccessor accessor = EntityAccessor.getInstance(AccessorEntity.class);
+        int index = accessor.getIndex(field);
+        start = System.currentTimeMillis();
+        for (int i = 0; i < ROUNDS; i++)
+        {
+            accessor.set(entity, index, "name");
+            accessor.get(entity, index);
+        }
+        long generatedTime = System.currentTimeMillis() - start;
+
+        log.info("{} field get/set, reflection: {} ms, generated accessor: {} ms", new Object[] { ROUNDS,
+                reflectionTime, generatedTime });
+        Assert.assertEquals("name", entity.getName());
+    }
+}
@@ -0,0 +1,135 @@
+/*******************************************************************************
+ * * Copyright 2013 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.kundera.property;
+
+import java.util.BitSet;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+/**
+ * Junit for {@link EntityAccessor}.
+ */
+public class EntityAccessorTest
+{
+    @Test
+    public void testGetAndSet() throws Exception
+    {
+        EntityAccessor accessor = EntityAccessor.getInstance(AccessorEntity.class);
+        // not a mapped entity, so accessed via reflection by helper.
+        Assert.assertNull(EntityAccessor.getAccessor(new AccessorEntity()));
+
+        int nameIndex = accessor.getIndex(AccessorEntity.class.getDeclaredField("name"));
+        int ageIndex = accessor.getIndex(AccessorEntity.class.getDeclaredField("age"));
+        int cityIndex = accessor.getIndex(AccessorEntity.class.getDeclaredField("city"));
+        int codeIndex = accessor.getIndex(AccessorEntity.class.getDeclaredField("code"));
+
+        // plain getter/setter are generated.
+        Assert.assertTrue(accessor.isGenerated(nameIndex));
+        Assert.assertTrue(accessor.isGenerated(ageIndex));
+
+        // setter with logic and field without accessors are reflective.
+        Assert.assertFalse(accessor.isGenerated(cityIndex));
+        Assert.assertFalse(accessor.isGenerated(codeIndex));
+
+        AccessorEntity entity = new AccessorEntity();
+        accessor.set(entity, nameIndex, "kuldeep");
+        accessor.set(entity, ageIndex, 32);
+        accessor.set(entity, cityIndex, " noida ");
+        accessor.set(entity, codeIndex, "c1");
+
+        Assert.assertEquals("kuldeep", accessor.get(entity, nameIndex));
+        Assert.assertEquals(32, accessor.get(entity, ageIndex));
+        // reflective access bypasses setter logic.
+        Assert.assertEquals(" noida ", accessor.get(entity, cityIndex));
+        Assert.assertEquals("c1", accessor.get(entity, codeIndex));
+
+        Assert.assertEquals(-1, accessor.getIndex(EntityAccessorTest.class.getDeclaredField("ROUNDS")));
+
+        try
+        {
+            accessor.set(entity, ageIndex, null);
+            Assert.fail("Should have gone to catch block!");
+        }
+        catch (PropertyAccessException paex)
+        {
+            Assert.assertNotNull(paex.getMessage());
+        }
+    }
+
+    @Test
+    public void testGetChangedFields() throws Exception
+    {
+        EntityAccessor accessor = EntityAccessor.getInstance(AccessorEntity.class);
+        AccessorEntity original = new AccessorEntity();
+        original.setName("kuldeep");
+        original.setAge(32);
+        AccessorEntity entity = new AccessorEntity();
+        entity.setName("kuldeep");
+        entity.setAge(32);
+
+        Assert.assertTrue(accessor.getChangedFields(original, entity).isEmpty());
+
+        entity.setAge(33);
+        entity.setCity("noida");
+        BitSet changed = accessor.getChangedFields(original, entity);
+        Assert.assertEquals(2, changed.cardinality());
+        Assert.assertTrue(changed.get(accessor.getIndex(AccessorEntity.class.getDeclaredField("age"))));
+        Assert.assertTrue(changed.get(accessor.getIndex(AccessorEntity.class.getDeclaredField("city"))));
+    }
+
+    public static class AccessorEntity
+    {
+        private String name;
+
+        private int age;
+
+        private String city;
+
+        private String code;
+
+        public String getName()
+        {
+            return name;
+        }
+
+        public void setName(String name)
+        {
+            this.name = name;
+        }
+
+        public int getAge()
+        {
+            return age;
+        }
+
+        public void setAge(int age)
+        {
+            this.age = age;
+        }
+
+        public String getCity()
+        {
+            return city;
+        }
+
+        public void setCity(String city)
+        {
+            this.city = city != null ? city.trim() : null;
+        }
+    }
+}
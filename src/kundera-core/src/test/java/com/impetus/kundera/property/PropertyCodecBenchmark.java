@@ -0,0 +1,118 @@
+/*******************************************************************************
+ * * Copyright 2013 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.kundera.property;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.impetus.kundera.property.PropertyCodecTest.CodecEntity;
+
+/**
+ * Compares decoding via byte arrays and via buffers, per accessor, in time and
+ * allocated bytes. Only run with benchmark profile (mvn test -Pbenchmark),
+ * timings are logged.
+ */
+public class PropertyCodecBenchmark
+{
+    private static Logger log = LoggerFactory.getLogger(PropertyCodecBenchmark.class);
+
+    private static final int ROUNDS = 1000000;
+
+    @Test
+    public void benchmarkLong() throws Exception
+    {
+        ByteBuffer buffer = ByteBuffer.allocate(16);
+        buffer.putLong(8, 49L);
+        compare(PropertyCodecTest.field("primitiveLong"), PropertyCodecTest.slice(buffer, 8, 16));
+    }
+
+    @Test
+    public void benchmarkInteger() throws Exception
+    {
+        ByteBuffer buffer = ByteBuffer.allocate(16);
+        buffer.putInt(8, 32);
+        compare(PropertyCodecTest.field("primitiveInt"), PropertyCodecTest.slice(buffer, 8, 12));
+    }
+
+    @Test
+    public void benchmarkDouble() throws Exception
+    {
+        ByteBuffer buffer = ByteBuffer.allocate(16);
+        buffer.putLong(8, Double.doubleToRawLongBits(4.5));
+        compare(PropertyCodecTest.field("primitiveDouble"), PropertyCodecTest.slice(buffer, 8, 16));
+    }
+
+    /**
+     * Decodes value ROUNDS times via a copied byte array, as done for thrift
+     * and hbase values before, and via buffer.
+     */
+    private void compare(Field field, ByteBuffer value) throws Exception
+    {
+        CodecEntity entity = new CodecEntity();
+
+        long allocated = allocatedBytes();
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < ROUNDS; i++)
+        {
+            byte[] bytes = new byte[value.remaining()];
+            value.duplicate().get(bytes);
+            PropertyAccessorHelper.set(entity, field, bytes);
+        }
+        long arrayTime = System.currentTimeMillis() - start;
+        long arrayAllocated = allocatedBytes() - allocated;
+        Object arrayValue = field.get(entity);
+
+        allocated = allocatedBytes();
+        start = System.currentTimeMillis();
+        for (int i = 0; i < ROUNDS; i++)
+        {
+            PropertyAccessorHelper.set(entity, field, value);
+        }
+        long bufferTime = System.currentTimeMillis() - start;
+        long bufferAllocated = allocatedBytes() - allocated;
+
+        log.info("{} {} decodes, byte array: {} ms {} bytes, buffer: {} ms {} bytes", new Object[] { ROUNDS,
+                field.getType(), arrayTime, arrayAllocated, bufferTime, bufferAllocated });
+        Assert.assertEquals(arrayValue, field.get(entity));
+    }
+
+    /**
+     * Returns bytes allocated by current thread, where jvm tells; -1 otherwise.
+     */
+    private static long allocatedBytes()
+    {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        try
+        {
+            Method method = bean.getClass().getMethod("getThreadAllocatedBytes", long.class);
+            method.setAccessible(true);
+            return (Long) method.invoke(bean, Thread.currentThread().getId());
+        }
+        catch (Exception e)
+        {
+            return -1;
+        }
+    }
+}
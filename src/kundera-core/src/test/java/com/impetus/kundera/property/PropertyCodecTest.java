@@ -0,0 +1,206 @@
+/*******************************************************************************
+ * * Copyright 2013 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.kundera.property;
+
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import com.impetus.kundera.property.accessor.DoubleAccessor;
+import com.impetus.kundera.property.accessor.IntegerAccessor;
+import com.impetus.kundera.property.accessor.LongAccessor;
+import com.impetus.kundera.property.accessor.StringAccessor;
+
+/**
+ * Junit for {@link PropertyCodec}s.
+ */
+public class PropertyCodecTest
+{
+    @Test
+    public void testGetPropertyCodec()
+    {
+        Assert.assertTrue(PropertyCodecFactory.getPropertyCodec(Long.class) instanceof LongAccessor);
+        Assert.assertTrue(PropertyCodecFactory.getPropertyCodec(long.class) instanceof LongAccessor);
+        Assert.assertTrue(PropertyCodecFactory.getPropertyCodec(int.class) instanceof IntegerAccessor);
+        Assert.assertTrue(PropertyCodecFactory.getPropertyCodec(Double.class) instanceof DoubleAccessor);
+
+        // accessors without codec are wrapped.
+        PropertyCodec<?> codec = PropertyCodecFactory.getPropertyCodec(String.class);
+        Assert.assertTrue(codec instanceof AccessorCodec);
+        Assert.assertSame(codec, PropertyCodecFactory.getPropertyCodec(String.class));
+
+        // replacing accessor evicts derived codec.
+        PropertyAccessor<?> accessor = PropertyAccessorFactory.getPropertyAccessor(String.class);
+        try
+        {
+            PropertyAccessorFactory.add(String.class, new StringAccessor());
+            Assert.assertNotSame(codec, PropertyCodecFactory.getPropertyCodec(String.class));
+        }
+        finally
+        {
+            PropertyAccessorFactory.add(String.class, accessor);
+        }
+    }
+
+    @Test
+    public void testDecode() throws Exception
+    {
+        // values at an offset of a larger buffer, as handed out by drivers.
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        buffer.put((byte) 1);
+        int longOffset = buffer.position();
+        buffer.putLong(49L);
+        int intOffset = buffer.position();
+        buffer.putInt(32);
+        int doubleOffset = buffer.position();
+        buffer.putLong(Double.doubleToRawLongBits(4.5));
+        int stringOffset = buffer.position();
+        buffer.put("kuldeep".getBytes("UTF-8"));
+        int end = buffer.position();
+
+        CodecEntity entity = new CodecEntity();
+        PropertyAccessorHelper.set(entity, field("primitiveLong"), slice(buffer, longOffset, intOffset));
+        PropertyAccessorHelper.set(entity, field("wrapperLong"), slice(buffer, longOffset, intOffset));
+        PropertyAccessorHelper.set(entity, field("primitiveInt"), slice(buffer, intOffset, doubleOffset));
+        PropertyAccessorHelper.set(entity, field("wrapperInt"), slice(buffer, intOffset, doubleOffset));
+        PropertyAccessorHelper.set(entity, field("primitiveDouble"), slice(buffer, doubleOffset, stringOffset));
+        PropertyAccessorHelper.set(entity, field("wrapperDouble"), slice(buffer, doubleOffset, stringOffset));
+        PropertyAccessorHelper.set(entity, field("name"), slice(buffer, stringOffset, end));
+
+        Assert.assertEquals(49L, entity.primitiveLong);
+        Assert.assertEquals(Long.valueOf(49L), entity.wrapperLong);
+        Assert.assertEquals(32, entity.primitiveInt);
+        Assert.assertEquals(Integer.valueOf(32), entity.wrapperInt);
+        Assert.assertEquals(4.5, entity.primitiveDouble);
+        Assert.assertEquals(Double.valueOf(4.5), entity.wrapperDouble);
+        Assert.assertEquals("kuldeep", entity.name);
+
+        // position is left untouched.
+        ByteBuffer value = slice(buffer, longOffset, intOffset);
+        Assert.assertEquals(49L, PropertyAccessorHelper.getObject(Long.class, value));
+        Assert.assertEquals(longOffset, value.position());
+
+        // same as decoding a byte array.
+        Assert.assertNull(PropertyAccessorHelper.getObject(Long.class, ByteBuffer.wrap(new byte[] {})));
+        Assert.assertNull(PropertyAccessorHelper.getObject(Long.class, (ByteBuffer) null));
+        Assert.assertNull(PropertyAccessorHelper.getObject(Double.class, ByteBuffer.wrap(new byte[] {})));
+        Assert.assertNull(PropertyAccessorHelper.getObject(Integer.class, ByteBuffer.wrap(new byte[] {})));
+
+        // empty values leave primitive fields untouched and null wrappers.
+        String[] fields = new String[] { "primitiveLong", "wrapperLong", "primitiveInt", "wrapperInt",
+                "primitiveDouble", "wrapperDouble" };
+        for (String name : fields)
+        {
+            PropertyAccessorHelper.set(entity, field(name), ByteBuffer.allocate(0));
+            PropertyAccessorHelper.set(entity, field(name), new byte[0]);
+        }
+        Assert.assertEquals(49L, entity.primitiveLong);
+        Assert.assertNull(entity.wrapperLong);
+        Assert.assertEquals(32, entity.primitiveInt);
+        Assert.assertNull(entity.wrapperInt);
+        Assert.assertEquals(4.5, entity.primitiveDouble);
+        Assert.assertNull(entity.wrapperDouble);
+
+        // values of other than fixed width fail, same as decoding a byte array.
+        for (String name : fields)
+        {
+            try
+            {
+                PropertyAccessorHelper.set(entity, field(name), ByteBuffer.allocate(2));
+                Assert.fail("Should have failed on 2 bytes for " + name + ".");
+            }
+            catch (PropertyAccessException paex)
+            {
+                Assert.assertTrue(paex.getMessage().contains("found 2"));
+            }
+            try
+            {
+                PropertyAccessorHelper.set(entity, field(name), new byte[2]);
+                Assert.fail("Should have failed on 2 bytes for " + name + ".");
+            }
+            catch (PropertyAccessException paex)
+            {
+                Assert.assertTrue(paex.getMessage().contains("found 2"));
+            }
+        }
+    }
+
+    @Test
+    public void testEncode()
+    {
+        Object[] values = new Object[] { 49L, 32, 4.5, "kuldeep" };
+        int size = 0;
+        for (Object value : values)
+        {
+            size += PropertyCodecFactory.getPropertyCodec(value.getClass()).size(value);
+        }
+        Assert.assertEquals(8 + 4 + 8 + 7, size);
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        for (Object value : values)
+        {
+            PropertyCodecFactory.getPropertyCodec(value.getClass()).encode(value, buffer);
+        }
+        Assert.assertFalse(buffer.hasRemaining());
+
+        // encoded same as accessor's bytes.
+        int offset = 0;
+        for (Object value : values)
+        {
+            byte[] bytes = PropertyAccessorHelper.getBytes(value);
+            for (int i = 0; i < bytes.length; i++)
+            {
+                Assert.assertEquals(bytes[i], buffer.get(offset + i));
+            }
+            offset += bytes.length;
+        }
+    }
+
+    static ByteBuffer slice(ByteBuffer buffer, int from, int to)
+    {
+        ByteBuffer value = buffer.duplicate();
+        value.limit(to);
+        value.position(from);
+        return value;
+    }
+
+    static Field field(String name) throws NoSuchFieldException
+    {
+        Field field = CodecEntity.class.getDeclaredField(name);
+        field.setAccessible(true);
+        return field;
+    }
+
+    static class CodecEntity
+    {
+        private long primitiveLong;
+
+        private Long wrapperLong;
+
+        private int primitiveInt;
+
+        private Integer wrapperInt;
+
+        private double primitiveDouble;
+
+        private Double wrapperDouble;
+
+        private String name;
+    }
+}
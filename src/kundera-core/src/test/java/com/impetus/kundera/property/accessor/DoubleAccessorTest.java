@@ -15,12 +15,15 @@
  ******************************************************************************/
 package com.impetus.kundera.property.accessor;
 
+import java.nio.ByteBuffer;
+
 import junit.framework.Assert;
 
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import com.impetus.kundera.property.PropertyAccessException;
 import com.impetus.kundera.property.PropertyAccessor;
 
 /**
@@ -55,7 +58,8 @@ public class DoubleAccessorTest
     @Test
     public void testFromBytes()
     {
-        Assert.assertEquals(0.0, accessor.fromBytes(Double.class, null));
+        Assert.assertNull(accessor.fromBytes(Double.class, null));
+        Assert.assertNull(accessor.fromBytes(Double.class, new byte[0]));
         
         Double d1 = new Double(4.555);
         byte[] b = accessor.toBytes(d1);
@@ -136,4 +140,39 @@ public class DoubleAccessorTest
 
     }
 
+    @Test
+    public void testDecode()
+    {
+        DoubleAccessor codec = new DoubleAccessor();
+        ByteBuffer buffer = ByteBuffer.allocate(12);
+        buffer.putLong(4, Double.doubleToRawLongBits(4.5));
+        buffer.position(4);
+
+        Assert.assertEquals(4.5, codec.decode(Double.class, buffer));
+        Assert.assertEquals(4, buffer.position());
+        Assert.assertNull(codec.decode(Double.class, null));
+        Assert.assertNull(codec.decode(Double.class, ByteBuffer.allocate(0)));
+        try
+        {
+            codec.decode(Double.class, ByteBuffer.allocate(4));
+            Assert.fail("Should have failed on 4 bytes.");
+        }
+        catch (PropertyAccessException paex)
+        {
+            Assert.assertTrue(paex.getMessage().contains("found 4"));
+        }
+        try
+        {
+            accessor.fromBytes(Double.class, new byte[4]);
+            Assert.fail("Should have failed on 4 bytes.");
+        }
+        catch (PropertyAccessException paex)
+        {
+            Assert.assertTrue(paex.getMessage().contains("found 4"));
+        }
+
+        ByteBuffer encoded = ByteBuffer.allocate(codec.size(4.5));
+        codec.encode(4.5, encoded);
+        Assert.assertEquals(4.5, accessor.fromBytes(Double.class, encoded.array()));
+    }
 }
@@ -15,12 +15,15 @@
  ******************************************************************************/
 package com.impetus.kundera.property.accessor;
 
+import java.nio.ByteBuffer;
+
 import junit.framework.Assert;
 
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import com.impetus.kundera.property.PropertyAccessException;
 import com.impetus.kundera.property.PropertyAccessor;
 
 /**
@@ -136,4 +139,40 @@ public class IntegerAccessorTest
         Assert.assertNotNull(o);        
     }
 
+    @Test
+    public void testDecode()
+    {
+        IntegerAccessor codec = new IntegerAccessor();
+        ByteBuffer buffer = ByteBuffer.allocate(8);
+        buffer.putInt(4, 32);
+        buffer.position(4);
+
+        Assert.assertEquals(Integer.valueOf(32), codec.decode(Integer.class, buffer));
+        Assert.assertEquals(4, buffer.position());
+        Assert.assertNull(codec.decode(Integer.class, null));
+        Assert.assertNull(codec.decode(Integer.class, ByteBuffer.allocate(0)));
+        Assert.assertNull(accessor.fromBytes(Integer.class, new byte[0]));
+        try
+        {
+            codec.decode(Integer.class, ByteBuffer.allocate(8));
+            Assert.fail("Should have failed on 8 bytes.");
+        }
+        catch (PropertyAccessException paex)
+        {
+            Assert.assertTrue(paex.getMessage().contains("found 8"));
+        }
+        try
+        {
+            accessor.fromBytes(Integer.class, new byte[2]);
+            Assert.fail("Should have failed on 2 bytes.");
+        }
+        catch (PropertyAccessException paex)
+        {
+            Assert.assertTrue(paex.getMessage().contains("found 2"));
+        }
+
+        ByteBuffer encoded = ByteBuffer.allocate(codec.size(32));
+        codec.encode(32, encoded);
+        Assert.assertEquals(Integer.valueOf(32), accessor.fromBytes(Integer.class, encoded.array()));
+    }
 }
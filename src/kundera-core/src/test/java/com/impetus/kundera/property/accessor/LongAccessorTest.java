@@ -15,12 +15,15 @@
  ******************************************************************************/
 package com.impetus.kundera.property.accessor;
 
+import java.nio.ByteBuffer;
+
 import junit.framework.Assert;
 
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import com.impetus.kundera.property.PropertyAccessException;
 import com.impetus.kundera.property.PropertyAccessor;
 
 /**
@@ -118,4 +121,38 @@ public class LongAccessorTest
         Assert.assertNotNull(o);
     }
 
+    @Test
+    public void testDecode()
+    {
+        LongAccessor codec = new LongAccessor();
+        ByteBuffer buffer = ByteBuffer.allocate(12);
+        buffer.putLong(4, 49L);
+        buffer.position(4);
+
+        Assert.assertEquals(Long.valueOf(49L), codec.decode(Long.class, buffer));
+        Assert.assertEquals(4, buffer.position());
+        Assert.assertNull(codec.decode(Long.class, ByteBuffer.allocate(0)));
+        try
+        {
+            codec.decode(Long.class, ByteBuffer.allocate(4));
+            Assert.fail("Should have failed on 4 bytes.");
+        }
+        catch (PropertyAccessException paex)
+        {
+            Assert.assertTrue(paex.getMessage().contains("found 4"));
+        }
+        try
+        {
+            accessor.fromBytes(Long.class, new byte[4]);
+            Assert.fail("Should have failed on 4 bytes.");
+        }
+        catch (PropertyAccessException paex)
+        {
+            Assert.assertTrue(paex.getMessage().contains("found 4"));
+        }
+
+        ByteBuffer encoded = ByteBuffer.allocate(codec.size(49L));
+        codec.encode(49L, encoded);
+        Assert.assertEquals(Long.valueOf(49L), accessor.fromBytes(Long.class, encoded.array()));
+    }
 }
@@ -26,8 +26,12 @@ import org.junit.AfterClass;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import com.impetus.kundera.CoreTestUtilities;
 import com.impetus.kundera.entity.PersonnelDTO;
+import com.impetus.kundera.graph.ObjectGraphUtils;
 import com.impetus.kundera.metadata.model.KunderaMetadata;
+import com.impetus.kundera.persistence.PersistenceDelegator;
+import com.impetus.kundera.persistence.context.CacheBase;
 import com.impetus.kundera.proxy.KunderaProxy;
 import com.impetus.kundera.proxy.LazyInitializer;
 import com.impetus.kundera.proxy.LazyInitializerFactory;
@@ -89,4 +93,38 @@ public class CglibLazyInitializerFactoryTest
 
     }
 
+    /**
+     * Test method for
+     * {@link com.impetus.kundera.proxy.cglib.CglibLazyInitializerFactory#loadSiblings(LazyInitializer)}
+     * .
+     */
+    @Test
+    public void testLoadSiblings() throws Exception
+    {
+        for (int i = 1; i <= 3; i++)
+        {
+            em.persist(new PersonnelDTO("sibling" + i, "vivek", "mishra"));
+        }
+        em.clear();
+
+        PersistenceDelegator pd = CoreTestUtilities.getDelegator(em);
+        LazyInitializerFactory factory = KunderaMetadata.INSTANCE.getCoreMetadata().getLazyInitializerFactory();
+        KunderaProxy proxy1 = factory.getProxy("owner1#personnel", PersonnelDTO.class, null, null, "sibling1", pd);
+        KunderaProxy proxy2 = factory.getProxy("owner2#personnel", PersonnelDTO.class, null, null, "sibling2", pd);
+        factory.getProxy("owner3#personnel", PersonnelDTO.class, null, null, "sibling3", pd);
+
+        CacheBase mainCache = pd.getPersistenceCache().getMainCache();
+        Assert.assertNull(mainCache.getNodeFromCache(ObjectGraphUtils.getNodeId("sibling2", PersonnelDTO.class)));
+
+        PersonnelDTO person = (PersonnelDTO) proxy1.getKunderaLazyInitializer().getImplementation();
+        Assert.assertEquals("sibling1", person.getPersonId());
+
+        // siblings are loaded along, while proxies are still uninitialized.
+        Assert.assertNotNull(mainCache.getNodeFromCache(ObjectGraphUtils.getNodeId("sibling2", PersonnelDTO.class)));
+        Assert.assertNotNull(mainCache.getNodeFromCache(ObjectGraphUtils.getNodeId("sibling3", PersonnelDTO.class)));
+        Assert.assertTrue(proxy2.getKunderaLazyInitializer().isUninitialized());
+        Assert.assertEquals("sibling2",
+                ((PersonnelDTO) proxy2.getKunderaLazyInitializer().getImplementation()).getPersonId());
+    }
+
 }
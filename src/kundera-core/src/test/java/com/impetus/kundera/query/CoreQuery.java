@@ -21,6 +21,9 @@ import java.util.List;
 import java.util.Set;
 
 import com.impetus.kundera.client.Client;
+import com.impetus.kundera.client.DummyDatabase;
+import com.impetus.kundera.client.DummySchema;
+import com.impetus.kundera.client.DummyTable;
 import com.impetus.kundera.metadata.model.EntityMetadata;
 import com.impetus.kundera.persistence.EntityReader;
 import com.impetus.kundera.persistence.PersistenceDelegator;
@@ -123,6 +126,33 @@ public class CoreQuery<E> extends QueryImpl<E>
     {
         return null;
     }
+
+    @Override
+    protected Iterator iterate(int maxRows)
+    {
+        // Find by id, if filtered. Else scrolls over all records of table.
+        EntityMetadata m = getEntityMetadata();
+        if (!getKunderaQuery().getFilterClauseQueue().isEmpty())
+        {
+            return populateEntities(m, persistenceDelegeator.getClient(m)).iterator();
+        }
+
+        List results = new ArrayList();
+        DummySchema schema = DummyDatabase.INSTANCE.getSchema(m.getSchema());
+        DummyTable table = schema != null ? schema.getTable(m.getTableName()) : null;
+        if (table != null)
+        {
+            for (Object record : table.getRecords().values())
+            {
+                if (results.size() >= maxRows)
+                {
+                    break;
+                }
+                results.add(record);
+            }
+        }
+        return results.iterator();
+    }
     
     protected String[] getColumns(final String[] columns, final EntityMetadata m)
     {
@@ -357,6 +357,36 @@ public class KunderaQueryTest
     }
 
 
+    @Test
+    public void testParsedQueryCopy()
+    {
+        String query = "Update Person p set p.age= ?1 where p.personName = ?2";
+        QueryResolver resolver = new QueryResolver();
+        KunderaQuery parsedQuery = resolver.getParsedQuery(query);
+
+        // parsed once per query string.
+        Assert.assertSame(parsedQuery, resolver.getParsedQuery(query));
+
+        KunderaQuery first = parsedQuery.copy();
+        KunderaQuery second = parsedQuery.copy();
+        first.setParameter(1, 33);
+        first.setParameter(2, "vivek");
+        second.setParameter(1, 34);
+        second.setParameter(2, "kuldeep");
+
+        // each copy holds its own bindings.
+        Assert.assertEquals("vivek", first.getClauseValue("?2"));
+        Assert.assertEquals("kuldeep", second.getClauseValue("?2"));
+        Assert.assertEquals(33, first.getUpdateClauseQueue().peek().getValue());
+        Assert.assertEquals(34, second.getUpdateClauseQueue().peek().getValue());
+        Assert.assertEquals("?2", parsedQuery.getClauseValue("?2"));
+        Assert.assertEquals("?1", parsedQuery.getUpdateClauseQueue().peek().getValue());
+
+        Assert.assertEquals(parsedQuery.getEntityClass(), first.getEntityClass());
+        Assert.assertEquals(2, first.getParameters().size());
+        Assert.assertTrue(first.isDeleteUpdate());
+    }
+
     @Test
     public void testUpdateClause()
     {
@@ -126,6 +126,26 @@ public class PersonTest
         assertUpdation(em, "Person", Person.class, "vivek", "newvivek", "personName");
     }
 
+    @Test
+    public void testBulkUpdation() throws Exception
+    {
+        Object p1 = prepareData("1", 10);
+        Object p2 = prepareData("2", 20);
+        em.persist(p1);
+        em.persist(p2);
+        em.clear();
+
+        // all set clauses are applied on a row before it is merged.
+        Query q = em.createQuery("Update Person p set p.personName=Amresh,p.age=25 where p.personId = 1");
+        Assert.assertEquals(1, q.executeUpdate());
+
+        em.clear();
+        Person p = findById(Person.class, "1", em);
+        Assert.assertNotNull(p);
+        Assert.assertEquals("Amresh", p.getPersonName());
+        Assert.assertEquals(new Integer(25), p.getAge());
+    }
+
     @Test
     public void testDeletion() throws Exception
     {
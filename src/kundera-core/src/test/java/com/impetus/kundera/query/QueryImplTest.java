@@ -15,9 +15,11 @@
  */
 package com.impetus.kundera.query;
 
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
 
@@ -419,6 +421,123 @@ public class QueryImplTest
 
     }
 
+    @Test
+    public void testAggregateQuery()
+    {
+        Person p1 = new Person();
+        p1.setAge(98);
+        p1.setPersonId("1");
+        p1.setDay(Day.SATURDAY);
+        em.persist(p1);
+        em.clear();
+
+        PersistenceDelegator delegator = CoreTestUtilities.getDelegator(em);
+
+        String query = "Select count(p), sum(p.age), max(p.age), avg(p.age) from Person p where p.personId = :personId";
+        KunderaQuery kunderaQuery = parseQuery(query);
+        Assert.assertTrue(kunderaQuery.isAggregated());
+        Assert.assertEquals(4, kunderaQuery.getAggregations().size());
+        Assert.assertNull(kunderaQuery.getAggregations().get(0).getProperty());
+        Assert.assertEquals("age", kunderaQuery.getAggregations().get(1).getProperty());
+
+        CoreQuery queryObj = new CoreQuery(query, kunderaQuery, delegator);
+        queryObj.setParameter("personId", "1");
+        List results = queryObj.getResultList();
+        Assert.assertEquals(1, results.size());
+        Object[] row = (Object[]) results.get(0);
+        Assert.assertEquals(1L, row[0]);
+        Assert.assertEquals(98L, row[1]);
+        Assert.assertEquals(98, row[2]);
+        Assert.assertEquals(98.0, row[3]);
+
+        query = "Select count(p) from Person p where p.personId = :personId";
+        queryObj = new CoreQuery(query, parseQuery(query), delegator);
+        queryObj.setParameter("personId", "1");
+        Assert.assertEquals(1L, queryObj.getSingleResult());
+
+        query = "Select p.day, count(p) from Person p where p.personId = :personId GROUP BY p.day";
+        kunderaQuery = parseQuery(query);
+        Assert.assertEquals(1, kunderaQuery.getGroupings().size());
+        Assert.assertEquals("day", kunderaQuery.getGroupings().get(0));
+
+        queryObj = new CoreQuery(query, kunderaQuery, delegator);
+        queryObj.setParameter("personId", "1");
+        queryObj.setMaxResults(5);
+        results = queryObj.getResultList();
+        Assert.assertEquals(1, results.size());
+        row = (Object[]) results.get(0);
+        Assert.assertEquals(Day.SATURDAY, row[0]);
+        Assert.assertEquals(1L, row[1]);
+        Assert.assertEquals(5, queryObj.getMaxResults());
+
+        // group by field is fetched, even if not selected.
+        kunderaQuery = parseQuery("Select sum(p.age) from Person p GROUP BY p.day");
+        Assert.assertEquals(Arrays.asList("p", "age"), Arrays.asList(kunderaQuery.getResult()));
+        Assert.assertEquals(Arrays.asList("p", "age", "day"), Arrays.asList(kunderaQuery.getProjection()));
+
+        // entities are still returned, if nothing is aggregated.
+        Assert.assertFalse(parseQuery("Select p from Person p GROUP BY personId").isAggregated());
+    }
+
+    @Test
+    public void testAggregateOverMaxResults()
+    {
+        int rows = 150;
+        long sum = 0;
+        for (int i = 0; i < rows; i++)
+        {
+            Person p = new Person();
+            p.setAge(i);
+            p.setPersonId("" + i);
+            p.setDay(i % 2 == 0 ? Day.SATURDAY : Day.SUNDAY);
+            em.persist(p);
+            sum += i;
+        }
+        em.clear();
+
+        PersistenceDelegator delegator = CoreTestUtilities.getDelegator(em);
+
+        // all rows are aggregated, irrespective of max results.
+        String query = "Select count(p), sum(p.age), max(p.age) from Person p";
+        CoreQuery queryObj = new CoreQuery(query, parseQuery(query), delegator);
+        Assert.assertEquals(100, queryObj.getMaxResults());
+        List results = queryObj.getResultList();
+        Assert.assertEquals(1, results.size());
+        Object[] row = (Object[]) results.get(0);
+        Assert.assertEquals((long) rows, row[0]);
+        Assert.assertEquals(sum, row[1]);
+        Assert.assertEquals(rows - 1, row[2]);
+
+        query = "Select p.day, count(p) from Person p GROUP BY p.day";
+        queryObj = new CoreQuery(query, parseQuery(query), delegator);
+        results = queryObj.getResultList();
+        Assert.assertEquals(2, results.size());
+        for (Object result : results)
+        {
+            Assert.assertEquals((long) rows / 2, ((Object[]) result)[1]);
+        }
+
+        // aggregation fails, if neither evaluated natively nor iterated.
+        query = "Select count(p) from Person p";
+        queryObj = new CoreQuery(query, parseQuery(query), delegator)
+        {
+            @Override
+            protected Iterator iterate(int maxRows)
+            {
+                throw new UnsupportedOperationException("Scrolling over entities is unsupported for this datastore");
+            }
+        };
+        try
+        {
+            queryObj.getResultList();
+            Assert.fail("Should have failed, as iteration is not supported.");
+        }
+        catch (UnsupportedOperationException uoex)
+        {
+            Assert.assertTrue(uoex.getMessage().startsWith("Aggregate functions and group by clause are unsupported"));
+        }
+    }
+
     private KunderaQuery parseQuery(final String query)
     {
         KunderaQuery kunderaQuery = new KunderaQuery();
@@ -612,8 +731,15 @@ public class QueryImplTest
             queryStr = "Select p from Person p where p.personId = :personId GROUP BY personId HAVING 1";
             kunderaQuery = new KunderaQuery();
             queryParser = new KunderaQueryParser(kunderaQuery, queryStr);
-            queryParser.parse();
-            kunderaQuery.postParsingInit();
+            try
+            {
+                queryParser.parse();
+                Assert.fail("HAVING clause should be rejected, as it is not evaluated.");
+            }
+            catch (JPQLParseException jpqlpe)
+            {
+                Assert.assertTrue(jpqlpe.getMessage().contains("HAVING"));
+            }
             
             queryStr = "Select p from Person p where p.personId = :personId GROUP BY personId ORDER BY personName";
             kunderaQuery = new KunderaQuery();
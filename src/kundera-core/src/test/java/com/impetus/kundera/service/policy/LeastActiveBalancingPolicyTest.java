@@ -0,0 +1,82 @@
+/*******************************************************************************
+ * * Copyright 2013 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.kundera.service.policy;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+/**
+ * To test least active algo.
+ */
+public class LeastActiveBalancingPolicyTest
+{
+
+    /**
+     * Test method for
+     * {@link com.impetus.kundera.service.policy.LeastActiveBalancingPolicy#getPool(java.util.Collection)}
+     * .
+     */
+    @Test
+    public void testGetPool()
+    {
+        List<Object> pools = new ArrayList<Object>();
+        Object o1 = new Object();
+        Object o2 = new Object();
+        Object o3 = new Object();
+        pools.add(o1);
+        pools.add(o2);
+        pools.add(o3);
+
+        LeastActiveBalancingPolicy balancingPolicy = new LeastActiveBalancingPolicy();
+
+        // no request in-flight, ties are broken in round robin fashion.
+        Set<Object> selected = new HashSet<Object>();
+        for (int i = 0; i < 3; i++)
+        {
+            selected.add(balancingPolicy.getPool(pools));
+        }
+        Assert.assertEquals(3, selected.size());
+
+        balancingPolicy.onAcquire(o1);
+        balancingPolicy.onAcquire(o1);
+        balancingPolicy.onAcquire(o2);
+        Assert.assertEquals(2, balancingPolicy.getActive(o1));
+
+        for (int i = 0; i < 10; i++)
+        {
+            Assert.assertEquals(o3, balancingPolicy.getPool(pools));
+        }
+
+        balancingPolicy.onAcquire(o3);
+        balancingPolicy.onAcquire(o3);
+        for (int i = 0; i < 10; i++)
+        {
+            Assert.assertEquals(o2, balancingPolicy.getPool(pools));
+        }
+
+        balancingPolicy.onRelease(o1);
+        balancingPolicy.onRelease(o1);
+        balancingPolicy.onRelease(o1);
+        Assert.assertEquals(0, balancingPolicy.getActive(o1));
+        Assert.assertEquals(o1, balancingPolicy.getPool(pools));
+    }
+}
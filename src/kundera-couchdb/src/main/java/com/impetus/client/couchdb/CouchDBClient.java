@@ -9,9 +9,11 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -19,6 +21,7 @@ import java.util.UUID;
 
 import javax.naming.OperationNotSupportedException;
 
+import org.apache.http.Header;
 import org.apache.http.HttpHost;
 import org.apache.http.HttpResponse;
 import org.apache.http.HttpStatus;
@@ -26,6 +29,7 @@ import org.apache.http.client.ClientProtocolException;
 import org.apache.http.client.HttpClient;
 import org.apache.http.client.methods.HttpDelete;
 import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpHead;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.client.methods.HttpPut;
 import org.apache.http.entity.StringEntity;
@@ -36,6 +40,9 @@ import com.google.gson.Gson;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 import com.impetus.client.couchdb.CouchDBDesignDocument.MapReduce;
 import com.impetus.kundera.Constants;
 import com.impetus.kundera.KunderaException;
@@ -78,6 +85,23 @@ public class CouchDBClient extends ClientBase implements Client<CouchDBQuery>, B
     /** The reader. */
     private EntityReader reader;
 
+    /** Maximum number of document revisions held in revision cache. */
+    private static final int MAX_CACHED_REVISIONS = 10000;
+
+    /**
+     * Latest known revision per document (database/_id), updates and deletes
+     * of a known document do not need to read it first.
+     */
+    private final Map<String, String> revisions = Collections.synchronizedMap(new LinkedHashMap<String, String>(
+            16, 0.75f, true)
+    {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, String> eldest)
+        {
+            return size() > MAX_CACHED_REVISIONS;
+        }
+    });
+
     public CouchDBClient(HttpClient client, HttpHost httpHost, EntityReader reader, String persistenceUnit,
             Map<String, Object> externalProperties, ClientMetadata clientMetadata)
     {
@@ -116,6 +140,7 @@ public class CouchDBClient extends ClientBase implements Client<CouchDBQuery>, B
             {
                 return null;
             }
+            cacheRevision(entityMetadata.getSchema(), jsonObject);
 
             return CouchDBObjectMapper.getEntityFromJson(entityClass, entityMetadata, jsonObject,
                     entityMetadata.getRelationNames());
@@ -137,9 +162,67 @@ public class CouchDBClient extends ClientBase implements Client<CouchDBQuery>, B
     public <E> List<E> findAll(Class<E> entityClass, String[] columnsToSelect, Object... keys)
     {
         List results = new ArrayList();
-        for (Object key : keys)
+        if (keys == null || keys.length == 0)
+        {
+            return results;
+        }
+
+        // fetches all documents in a single request.
+        EntityMetadata entityMetadata = KunderaMetadataManager.getEntityMetadata(entityClass);
+        String idColumnName = ((AbstractAttribute) entityMetadata.getIdAttribute()).getJPAColumnName();
+        HttpResponse response = null;
+        try
+        {
+            JsonArray ids = new JsonArray();
+            for (Object key : keys)
+            {
+                if (key instanceof JsonElement)
+                {
+                    key = ((JsonElement) key).getAsString();
+                }
+                ids.add(new JsonPrimitive(entityMetadata.getTableName() + key));
+            }
+            JsonObject body = new JsonObject();
+            body.add("keys", ids);
+
+            URI uri = new URI(CouchDBConstants.PROTOCOL, null, httpHost.getHostName(), httpHost.getPort(),
+                    CouchDBConstants.URL_SAPRATOR + entityMetadata.getSchema().toLowerCase()
+                            + CouchDBConstants.URL_SAPRATOR + "_all_docs", "include_docs=true", null);
+            HttpPost post = new HttpPost(uri);
+            post.addHeader("Accept", "application/json");
+            StringEntity stringEntity = new StringEntity(body.toString(), Constants.CHARSET_UTF8);
+            stringEntity.setContentType("application/json");
+            post.setEntity(stringEntity);
+            response = httpClient.execute(httpHost, post, CouchDBUtils.getContext(httpHost));
+
+            JsonReader reader = new JsonReader(new InputStreamReader(response.getEntity().getContent()));
+            if (!beginRows(reader))
+            {
+                return results;
+            }
+
+            JsonObject row;
+            while ((row = nextRow(reader)) != null)
+            {
+                // rows of missing or deleted documents have no document.
+                JsonElement document = row.get("doc");
+                if (document != null && document.isJsonObject()
+                        && document.getAsJsonObject().get(idColumnName) != null)
+                {
+                    cacheRevision(entityMetadata.getSchema(), document.getAsJsonObject());
+                    results.add(CouchDBObjectMapper.getEntityFromJson(entityClass, entityMetadata,
+                            document.getAsJsonObject(), entityMetadata.getRelationNames()));
+                }
+            }
+        }
+        catch (Exception e)
+        {
+            log.error("Error while finding objects, Caused by: .", e);
+            throw new KunderaException(e);
+        }
+        finally
         {
-            results.add(find(entityClass, key));
+            closeContent(response);
         }
         return results;
     }
@@ -160,26 +243,24 @@ public class CouchDBClient extends ClientBase implements Client<CouchDBQuery>, B
     public void delete(Object entity, Object pKey)
     {
         HttpResponse response = null;
-        URI uri = null;
         try
         {
             EntityMetadata entityMetadata = KunderaMetadataManager.getEntityMetadata(entity.getClass());
-            HttpGet get;
-            Reader reader;
-            uri = new URI(CouchDBConstants.PROTOCOL, null, httpHost.getHostName(), httpHost.getPort(),
-                    CouchDBConstants.URL_SAPRATOR + entityMetadata.getSchema().toLowerCase()
-                            + CouchDBConstants.URL_SAPRATOR + entityMetadata.getTableName() + pKey, null, null);
-            get = new HttpGet(uri);
-            get.addHeader("Accept", "application/json");
-            response = httpClient.execute(get);
+            String schemaName = entityMetadata.getSchema();
+            String _id = entityMetadata.getTableName() + pKey;
 
-            reader = new InputStreamReader(response.getEntity().getContent());
-            JsonObject json = gson.fromJson(reader, JsonObject.class);
-            closeContent(response);
-            if (!(response.getStatusLine().getStatusCode() == HttpStatus.SC_NOT_FOUND))
+            // deletes by known revision, reads latest revision only if it is
+            // not known or has changed meanwhile.
+            String rev = revisions.get(getRevisionKey(schemaName, _id));
+            if (rev != null && onDelete(schemaName, _id, rev) != HttpStatus.SC_CONFLICT)
             {
-                onDelete(entityMetadata.getSchema(), entityMetadata.getTableName() + pKey, response, json);
+                return;
+            }
 
+            rev = getRevision(schemaName, _id);
+            if (rev != null)
+            {
+                onDelete(schemaName, _id, rev);
             }
         }
         catch (Exception e)
@@ -252,7 +333,7 @@ public class CouchDBClient extends ClientBase implements Client<CouchDBQuery>, B
         HttpResponse response = null;
         try
         {
-            String q = "key=" + appendQuotes(pKeyColumnValue);
+            String q = "key=" + appendQuotes(pKeyColumnValue) + "&include_docs=true";
             uri = new URI(CouchDBConstants.PROTOCOL, null, httpHost.getHostName(), httpHost.getPort(),
                     CouchDBConstants.URL_SAPRATOR + schemaName.toLowerCase() + CouchDBConstants.URL_SAPRATOR
                             + "_design/" + tableName + "/_view/" + pKeyColumnName, q, null);
@@ -260,21 +341,16 @@ public class CouchDBClient extends ClientBase implements Client<CouchDBQuery>, B
             get.addHeader("Accept", "application/json");
             response = httpClient.execute(get);
 
-            InputStream content = response.getEntity().getContent();
-            Reader reader = new InputStreamReader(content);
-            JsonObject json = gson.fromJson(reader, JsonObject.class);
-
-            JsonElement jsonElement = json.get("rows");
-
-            if (jsonElement == null)
+            JsonReader reader = new JsonReader(new InputStreamReader(response.getEntity().getContent()));
+            if (!beginRows(reader))
             {
                 return foreignKeys;
             }
 
-            JsonArray array = jsonElement.getAsJsonArray();
-            for (JsonElement element : array)
+            JsonObject document;
+            while ((document = nextDocument(reader)) != null)
             {
-                JsonElement value = element.getAsJsonObject().get("value").getAsJsonObject().get(inverseJoinColumnName);
+                JsonElement value = document.get(inverseJoinColumnName);
                 if (value != null)
                 {
                     foreignKeys.add((E) PropertyAccessorHelper.fromSourceToTargetClass(columnJavaType, String.class,
@@ -303,7 +379,7 @@ public class CouchDBClient extends ClientBase implements Client<CouchDBQuery>, B
         EntityMetadata m = KunderaMetadataManager.getEntityMetadata(entityClazz);
         try
         {
-            String q = "key=" + appendQuotes(columnValue);
+            String q = "key=" + appendQuotes(columnValue) + "&include_docs=true";
             URI uri = new URI(CouchDBConstants.PROTOCOL, null, httpHost.getHostName(), httpHost.getPort(),
                     CouchDBConstants.URL_SAPRATOR + schemaName.toLowerCase() + CouchDBConstants.URL_SAPRATOR
                             + "_design/" + tableName + "/_view/" + columnName, q, null);
@@ -311,19 +387,16 @@ public class CouchDBClient extends ClientBase implements Client<CouchDBQuery>, B
             get.addHeader("Accept", "application/json");
             response = httpClient.execute(get);
 
-            InputStream content = response.getEntity().getContent();
-            Reader reader = new InputStreamReader(content);
-            JsonObject json = gson.fromJson(reader, JsonObject.class);
-
-            JsonElement jsonElement = json.get("rows");
-            if (jsonElement == null)
+            JsonReader reader = new JsonReader(new InputStreamReader(response.getEntity().getContent()));
+            if (!beginRows(reader))
             {
                 return foreignKeys.toArray();
             }
-            JsonArray array = jsonElement.getAsJsonArray();
-            for (JsonElement element : array)
+
+            JsonObject document;
+            while ((document = nextDocument(reader)) != null)
             {
-                JsonElement value = element.getAsJsonObject().get("value").getAsJsonObject().get(pKeyName);
+                JsonElement value = document.get(pKeyName);
                 if (value != null)
                 {
                     foreignKeys.add(PropertyAccessorHelper.fromSourceToTargetClass(m.getIdAttribute()
@@ -350,7 +423,7 @@ public class CouchDBClient extends ClientBase implements Client<CouchDBQuery>, B
         HttpResponse response = null;
         try
         {
-            String q = "key=" + appendQuotes(columnValue);
+            String q = "key=" + appendQuotes(columnValue) + "&include_docs=true";
             uri = new URI(CouchDBConstants.PROTOCOL, null, httpHost.getHostName(), httpHost.getPort(),
                     CouchDBConstants.URL_SAPRATOR + schemaName.toLowerCase() + CouchDBConstants.URL_SAPRATOR
                             + "_design/" + tableName + "/_view/" + columnName, q, null);
@@ -358,23 +431,24 @@ public class CouchDBClient extends ClientBase implements Client<CouchDBQuery>, B
             get.addHeader("Accept", "application/json");
             response = httpClient.execute(get);
 
-            InputStream content = response.getEntity().getContent();
-            Reader reader = new InputStreamReader(content);
-
-            JsonObject json = gson.fromJson(reader, JsonObject.class);
-
-            JsonElement jsonElement = json.get("rows");
+            // deletes all documents in a single bulk request.
+            List<JsonObject> deletions = new ArrayList<JsonObject>();
+            JsonReader reader = new JsonReader(new InputStreamReader(response.getEntity().getContent()));
+            if (beginRows(reader))
+            {
+                JsonObject document;
+                while ((document = nextDocument(reader)) != null)
+                {
+                    deletions.add(getDeletion(document.get("_id").getAsString(), document.get("_rev")
+                            .getAsString()));
+                }
+            }
 
             closeContent(response);
 
-            JsonArray array = jsonElement.getAsJsonArray();
-            for (JsonElement element : array)
+            if (!deletions.isEmpty())
             {
-                JsonObject jsonObject = element.getAsJsonObject().get("value").getAsJsonObject();
-
-                JsonElement pkey = jsonObject.get("_id");
-
-                onDelete(schemaName, pkey.getAsString(), response, jsonObject);
+                onBulkErrors(executeBulk(schemaName, deletions));
             }
         }
         catch (Exception e)
@@ -388,26 +462,181 @@ public class CouchDBClient extends ClientBase implements Client<CouchDBQuery>, B
         }
     }
 
-    private void onDelete(String schemaName, Object pKey, HttpResponse response, JsonObject jsonObject)
-            throws URISyntaxException, IOException, ClientProtocolException
+    /**
+     * Deletes given revision of a document.
+     * 
+     * @return http status code, e.g. conflict if revision is not the latest.
+     */
+    private int onDelete(String schemaName, String _id, String rev) throws URISyntaxException, IOException,
+            ClientProtocolException
     {
-        URI uri;
-        String q;
-        JsonElement rev = jsonObject.get("_rev");
+        String q = "rev=" + rev;
 
-        StringBuilder builder = new StringBuilder();
-        builder.append("rev=");
-        builder.append(rev.getAsString());
-        q = builder.toString();
-
-        uri = new URI(CouchDBConstants.PROTOCOL, null, httpHost.getHostName(), httpHost.getPort(),
-                CouchDBConstants.URL_SAPRATOR + schemaName.toLowerCase() + CouchDBConstants.URL_SAPRATOR + pKey, q,
+        URI uri = new URI(CouchDBConstants.PROTOCOL, null, httpHost.getHostName(), httpHost.getPort(),
+                CouchDBConstants.URL_SAPRATOR + schemaName.toLowerCase() + CouchDBConstants.URL_SAPRATOR + _id, q,
                 null);
 
         HttpDelete delete = new HttpDelete(uri);
 
-        response = httpClient.execute(delete);
-        closeContent(response);
+        HttpResponse response = null;
+        try
+        {
+            response = httpClient.execute(httpHost, delete, CouchDBUtils.getContext(httpHost));
+            revisions.remove(getRevisionKey(schemaName, _id));
+            return response.getStatusLine().getStatusCode();
+        }
+        finally
+        {
+            closeContent(response);
+        }
+    }
+
+    /**
+     * Reads latest revision of a document, without its content.
+     * 
+     * @return revision, null if document does not exist.
+     */
+    private String getRevision(String schemaName, String _id) throws URISyntaxException, IOException,
+            ClientProtocolException
+    {
+        URI uri = new URI(CouchDBConstants.PROTOCOL, null, httpHost.getHostName(), httpHost.getPort(),
+                CouchDBConstants.URL_SAPRATOR + schemaName.toLowerCase() + CouchDBConstants.URL_SAPRATOR + _id, null,
+                null);
+        HttpHead head = new HttpHead(uri);
+        HttpResponse response = null;
+        try
+        {
+            response = httpClient.execute(httpHost, head, CouchDBUtils.getContext(httpHost));
+            Header etag = response.getFirstHeader("ETag");
+            if (response.getStatusLine().getStatusCode() != HttpStatus.SC_OK || etag == null)
+            {
+                return null;
+            }
+            // etag is quoted revision.
+            String rev = etag.getValue().replace("\"", "");
+            revisions.put(getRevisionKey(schemaName, _id), rev);
+            return rev;
+        }
+        finally
+        {
+            if (response != null && response.getEntity() != null)
+            {
+                closeContent(response);
+            }
+        }
+    }
+
+    private String getRevisionKey(String schemaName, String _id)
+    {
+        return schemaName.toLowerCase() + CouchDBConstants.URL_SAPRATOR + _id;
+    }
+
+    /**
+     * Caches revision of a document read from database.
+     */
+    private void cacheRevision(String schemaName, JsonObject document)
+    {
+        JsonElement _id = document.get("_id");
+        JsonElement rev = document.get("_rev");
+        if (_id != null && rev != null)
+        {
+            revisions.put(getRevisionKey(schemaName, _id.getAsString()), rev.getAsString());
+        }
+    }
+
+    private JsonObject getDeletion(String _id, String rev)
+    {
+        JsonObject deletion = new JsonObject();
+        deletion.addProperty("_id", _id);
+        deletion.addProperty("_rev", rev);
+        deletion.addProperty("_deleted", true);
+        return deletion;
+    }
+
+    /**
+     * Saves or deletes documents in a single request and caches their new
+     * revisions. Each document is saved on its own (no "all_or_nothing"), so a
+     * stale revision fails with a conflict instead of forking the document.
+     * 
+     * @return error status per id of document which is not saved.
+     */
+    private Map<String, JsonObject> executeBulk(String schemaName, List<JsonObject> documents)
+            throws URISyntaxException, IOException, ClientProtocolException
+    {
+        URI uri = new URI(CouchDBConstants.PROTOCOL, null, httpHost.getHostName(), httpHost.getPort(),
+                CouchDBConstants.URL_SAPRATOR + schemaName.toLowerCase() + CouchDBConstants.URL_SAPRATOR
+                        + "_bulk_docs", null, null);
+
+        HttpPost post = new HttpPost(uri);
+        JsonObject body = new JsonObject();
+        body.add("docs", gson.toJsonTree(documents));
+        StringEntity entity = new StringEntity(body.toString(), Constants.CHARSET_UTF8);
+        entity.setContentType("application/json");
+        post.setEntity(entity);
+
+        HttpResponse response = null;
+        try
+        {
+            response = httpClient.execute(httpHost, post, CouchDBUtils.getContext(httpHost));
+            JsonElement results = gson.fromJson(new InputStreamReader(response.getEntity().getContent()),
+                    JsonElement.class);
+            if (results == null || !results.isJsonArray())
+            {
+                log.error("Error while executing bulk request, Caused by: {}.", results);
+                throw new KunderaException("Error while executing bulk request, Caused by: " + results);
+            }
+
+            Map<String, JsonObject> errors = new LinkedHashMap<String, JsonObject>();
+            Set<String> deleted = new HashSet<String>();
+            for (JsonObject document : documents)
+            {
+                if (document.has("_deleted"))
+                {
+                    deleted.add(document.get("_id").getAsString());
+                }
+            }
+            for (JsonElement result : results.getAsJsonArray())
+            {
+                JsonObject status = result.getAsJsonObject();
+                String _id = status.get("id").getAsString();
+                if (status.has("error"))
+                {
+                    revisions.remove(getRevisionKey(schemaName, _id));
+                    errors.put(_id, status);
+                }
+                else if (deleted.contains(_id))
+                {
+                    revisions.remove(getRevisionKey(schemaName, _id));
+                }
+                else
+                {
+                    revisions.put(getRevisionKey(schemaName, _id), status.get("rev").getAsString());
+                }
+            }
+            return errors;
+        }
+        finally
+        {
+            closeContent(response);
+        }
+    }
+
+    /**
+     * Fails with errors of documents not saved by a bulk request, if any.
+     */
+    private void onBulkErrors(Map<String, JsonObject> errors)
+    {
+        if (!errors.isEmpty())
+        {
+            StringBuilder message = new StringBuilder("Error while saving documents");
+            for (Map.Entry<String, JsonObject> error : errors.entrySet())
+            {
+                message.append(" ").append(error.getKey()).append(": ").append(error.getValue().get("error"))
+                        .append(" (").append(error.getValue().get("reason")).append(")");
+            }
+            log.error(message.toString());
+            throw new KunderaException(message.toString());
+        }
     }
 
     @Override
@@ -419,10 +648,7 @@ public class CouchDBClient extends ClientBase implements Client<CouchDBQuery>, B
         List<Object> resultSet = new ArrayList<Object>();
         if (ids != null)
         {
-            for (Object id : new HashSet(Arrays.asList(ids)))
-            {
-                resultSet.add(find(entityClazz, id));
-            }
+            resultSet.addAll(findAll(entityClazz, null, new HashSet(Arrays.asList(ids)).toArray()));
         }
         return resultSet;
     }
@@ -442,7 +668,6 @@ public class CouchDBClient extends ClientBase implements Client<CouchDBQuery>, B
     @Override
     protected void onPersist(EntityMetadata entityMetadata, Object entity, Object id, List<RelationHolder> rlHolders)
     {
-        HttpResponse response = null;
         try
         {
             JsonObject object = CouchDBObjectMapper.getJsonOfEntity(entityMetadata, entity, id, rlHolders);
@@ -450,45 +675,65 @@ public class CouchDBClient extends ClientBase implements Client<CouchDBQuery>, B
                     CouchDBConstants.URL_SAPRATOR + entityMetadata.getSchema().toLowerCase()
                             + CouchDBConstants.URL_SAPRATOR + entityMetadata.getTableName() + id, null, null);
 
-            HttpPut put = new HttpPut(uri);
-
-            StringEntity stringEntity = null;
+            String schemaName = entityMetadata.getSchema();
+            String _id = entityMetadata.getTableName() + id;
+            object.addProperty("_id", _id);
 
-            if (isUpdate)
+            // updates by known revision, reads latest revision only if it is
+            // not known or has changed meanwhile.
+            String rev = isUpdate ? revisions.get(getRevisionKey(schemaName, _id)) : null;
+            if (isUpdate && rev == null)
             {
-                uri = new URI(CouchDBConstants.PROTOCOL, null, httpHost.getHostName(), httpHost.getPort(),
-                        CouchDBConstants.URL_SAPRATOR + entityMetadata.getSchema().toLowerCase()
-                                + CouchDBConstants.URL_SAPRATOR + entityMetadata.getTableName() + id, null, null);
-                HttpGet get = new HttpGet(uri);
-                get.addHeader("Accept", "application/json");
-                response = httpClient.execute(httpHost, get, CouchDBUtils.getContext(httpHost));
-
-                try
-                {
-                    InputStream content = response.getEntity().getContent();
-                    Reader reader = new InputStreamReader(content);
-                    JsonObject jsonObject = gson.fromJson(reader, JsonObject.class);
-                    JsonElement rev = jsonObject.get("_rev");
-                    object.add("_rev", rev);
-                }
-                finally
-                {
-                    closeContent(response);
-                }
+                rev = getRevision(schemaName, _id);
+            }
+            int status = onPut(uri, schemaName, object, rev);
+            if (isUpdate && status == HttpStatus.SC_CONFLICT)
+            {
+                onPut(uri, schemaName, object, getRevision(schemaName, _id));
             }
-            object.addProperty("_id", entityMetadata.getTableName() + id);
-            stringEntity = new StringEntity(object.toString(), Constants.CHARSET_UTF8);
-            stringEntity.setContentType("application/json");
-            put.setEntity(stringEntity);
-
-            response = httpClient.execute(httpHost, put, CouchDBUtils.getContext(httpHost));
-
         }
         catch (Exception e)
         {
             log.error("Error while persisting entity " + id);
             throw new KunderaException(e);
         }
+    }
+
+    /**
+     * Saves document with given revision, null for a new document, and caches
+     * its new revision.
+     * 
+     * @return http status code.
+     */
+    private int onPut(URI uri, String schemaName, JsonObject document, String rev) throws IOException,
+            ClientProtocolException
+    {
+        if (rev != null)
+        {
+            document.addProperty("_rev", rev);
+        }
+        HttpPut put = new HttpPut(uri);
+        StringEntity stringEntity = new StringEntity(document.toString(), Constants.CHARSET_UTF8);
+        stringEntity.setContentType("application/json");
+        put.setEntity(stringEntity);
+
+        HttpResponse response = null;
+        try
+        {
+            response = httpClient.execute(httpHost, put, CouchDBUtils.getContext(httpHost));
+            String _id = document.get("_id").getAsString();
+            JsonObject result = gson.fromJson(new InputStreamReader(response.getEntity().getContent()),
+                    JsonObject.class);
+            if (result != null && result.get("rev") != null)
+            {
+                revisions.put(getRevisionKey(schemaName, _id), result.get("rev").getAsString());
+            }
+            else
+            {
+                revisions.remove(getRevisionKey(schemaName, _id));
+            }
+            return response.getStatusLine().getStatusCode();
+        }
         finally
         {
             closeContent(response);
@@ -527,10 +772,10 @@ public class CouchDBClient extends ClientBase implements Client<CouchDBQuery>, B
     @Override
     public int executeBatch()
     {
-        List<JsonObject> objectsToPersist = new ArrayList<JsonObject>();
-        HttpResponse response = null;
-        String databaseName = null;
-        boolean isbulk = false;
+        // documents to save or delete and ids of documents with unknown
+        // revision, per database.
+        Map<String, List<JsonObject>> documentsToPersist = new HashMap<String, List<JsonObject>>();
+        Map<String, List<String>> unknownRevisions = new HashMap<String, List<String>>();
         try
         {
             for (Node node : nodes)
@@ -538,43 +783,109 @@ public class CouchDBClient extends ClientBase implements Client<CouchDBQuery>, B
                 if (node.isDirty())
                 {
                     node.handlePreEvent();
-                    // delete can not be executed in batch
+                    EntityMetadata metadata = KunderaMetadataManager.getEntityMetadata(node.getDataClass());
+                    String databaseName = metadata.getSchema();
+                    String _id = metadata.getTableName() + node.getEntityId();
+                    JsonObject document;
                     if (node.isInState(RemovedState.class))
                     {
-                        delete(node.getData(), node.getEntityId());
+                        document = new JsonObject();
+                        document.addProperty("_id", _id);
+                        document.addProperty("_deleted", true);
                     }
                     else
                     {
-                        EntityMetadata metadata = KunderaMetadataManager.getEntityMetadata(node.getDataClass());
-                        databaseName = metadata.getSchema();
-                        JsonObject asJsonObject = CouchDBObjectMapper.getJsonOfEntity(metadata, node.getData(),
-                                node.getEntityId(), getRelationHolders(node));
-                        objectsToPersist.add(asJsonObject);
-                        isbulk = true;
+                        document = CouchDBObjectMapper.getJsonOfEntity(metadata, node.getData(), node.getEntityId(),
+                                getRelationHolders(node));
+                        document.addProperty("_id", _id);
+                    }
+
+                    if (!documentsToPersist.containsKey(databaseName))
+                    {
+                        documentsToPersist.put(databaseName, new ArrayList<JsonObject>());
+                        unknownRevisions.put(databaseName, new ArrayList<String>());
+                    }
+                    documentsToPersist.get(databaseName).add(document);
+
+                    String rev = revisions.get(getRevisionKey(databaseName, _id));
+                    if (rev != null)
+                    {
+                        document.addProperty("_rev", rev);
+                    }
+                    else if (node.isInState(RemovedState.class) || node.isUpdate())
+                    {
+                        unknownRevisions.get(databaseName).add(_id);
                     }
                     node.handlePostEvent();
                 }
             }
 
-            if (isbulk)
+            for (String databaseName : documentsToPersist.keySet())
             {
-                try
+                List<JsonObject> documents = documentsToPersist.get(databaseName);
+                Map<String, String> latestRevisions = getRevisions(databaseName, unknownRevisions.get(databaseName));
+                for (Iterator<JsonObject> iterator = documents.iterator(); iterator.hasNext();)
                 {
-                    URI uri = new URI(CouchDBConstants.PROTOCOL, null, httpHost.getHostName(), httpHost.getPort(),
-                            CouchDBConstants.URL_SAPRATOR + databaseName.toLowerCase() + CouchDBConstants.URL_SAPRATOR
-                                    + "_bulk_docs", null, null);
-
-                    HttpPost post = new HttpPost(uri);
-                    String object = String.format("{%s%s}", "\"all_or_nothing\": true,",
-                            "\"docs\": " + gson.toJson(objectsToPersist));
-                    StringEntity entity = new StringEntity(object, "UTF-8");
-                    entity.setContentType("application/json");
-                    post.setEntity(entity);
-                    response = httpClient.execute(httpHost, post, CouchDBUtils.getContext(httpHost));
+                    JsonObject document = iterator.next();
+                    if (!document.has("_rev"))
+                    {
+                        String rev = latestRevisions.get(document.get("_id").getAsString());
+                        if (rev != null)
+                        {
+                            document.addProperty("_rev", rev);
+                        }
+                        else if (document.has("_deleted"))
+                        {
+                            // nothing to delete.
+                            iterator.remove();
+                        }
+                    }
                 }
-                catch (Exception e)
+                if (!documents.isEmpty())
                 {
-                    throw new KunderaException("Error while executing batch. caused by :" + e);
+                    Map<String, JsonObject> errors = executeBulk(databaseName, documents);
+
+                    // a cached revision may be stale, retries conflicting
+                    // updates and deletes once with their latest revision.
+                    List<JsonObject> conflicts = new ArrayList<JsonObject>();
+                    List<String> conflictIds = new ArrayList<String>();
+                    for (JsonObject document : documents)
+                    {
+                        String _id = document.get("_id").getAsString();
+                        JsonObject error = errors.get(_id);
+                        if (error != null && document.has("_rev")
+                                && "conflict".equals(error.get("error").getAsString()))
+                        {
+                            conflicts.add(document);
+                            conflictIds.add(_id);
+                        }
+                    }
+                    if (!conflicts.isEmpty())
+                    {
+                        latestRevisions = getRevisions(databaseName, conflictIds);
+                        for (Iterator<JsonObject> iterator = conflicts.iterator(); iterator.hasNext();)
+                        {
+                            JsonObject document = iterator.next();
+                            String _id = document.get("_id").getAsString();
+                            String rev = latestRevisions.get(_id);
+                            document.remove("_rev");
+                            errors.remove(_id);
+                            if (rev != null)
+                            {
+                                document.addProperty("_rev", rev);
+                            }
+                            else if (document.has("_deleted"))
+                            {
+                                // deleted meanwhile.
+                                iterator.remove();
+                            }
+                        }
+                        if (!conflicts.isEmpty())
+                        {
+                            errors.putAll(executeBulk(databaseName, conflicts));
+                        }
+                    }
+                    onBulkErrors(errors);
                 }
             }
         }
@@ -582,14 +893,77 @@ public class CouchDBClient extends ClientBase implements Client<CouchDBQuery>, B
         {
             throw new KunderaException(e.getMessage());
         }
-        finally
+        catch (KunderaException e)
         {
-            CouchDBUtils.closeContent(response);
+            throw e;
+        }
+        catch (Exception e)
+        {
+            throw new KunderaException("Error while executing batch. caused by :" + e);
         }
 
         return nodes.size();
     }
 
+    /**
+     * Reads latest revisions of documents in a single request, without their
+     * content.
+     * 
+     * @return revision per document id, documents which do not exist are
+     *         omitted.
+     */
+    private Map<String, String> getRevisions(String schemaName, List<String> ids) throws URISyntaxException,
+            IOException, ClientProtocolException
+    {
+        Map<String, String> latestRevisions = new HashMap<String, String>();
+        if (ids.isEmpty())
+        {
+            return latestRevisions;
+        }
+
+        JsonObject body = new JsonObject();
+        body.add("keys", gson.toJsonTree(ids));
+        URI uri = new URI(CouchDBConstants.PROTOCOL, null, httpHost.getHostName(), httpHost.getPort(),
+                CouchDBConstants.URL_SAPRATOR + schemaName.toLowerCase() + CouchDBConstants.URL_SAPRATOR
+                        + "_all_docs", null, null);
+        HttpPost post = new HttpPost(uri);
+        post.addHeader("Accept", "application/json");
+        StringEntity stringEntity = new StringEntity(body.toString(), Constants.CHARSET_UTF8);
+        stringEntity.setContentType("application/json");
+        post.setEntity(stringEntity);
+
+        HttpResponse response = null;
+        try
+        {
+            response = httpClient.execute(httpHost, post, CouchDBUtils.getContext(httpHost));
+            JsonReader reader = new JsonReader(new InputStreamReader(response.getEntity().getContent()));
+            if (!beginRows(reader))
+            {
+                return latestRevisions;
+            }
+
+            JsonObject row;
+            while ((row = nextRow(reader)) != null)
+            {
+                // value of a deleted document is marked deleted, missing one
+                // has none.
+                JsonElement value = row.get("value");
+                if (value != null && value.isJsonObject() && !value.getAsJsonObject().has("deleted"))
+                {
+                    String _id = row.get("id").getAsString();
+                    String rev = value.getAsJsonObject().get("rev").getAsString();
+                    latestRevisions.put(_id, rev);
+                    revisions.put(getRevisionKey(schemaName, _id), rev);
+                }
+            }
+        }
+        finally
+        {
+            closeContent(response);
+        }
+        return latestRevisions;
+    }
+
     @Override
     public int getBatchSize()
     {
@@ -659,34 +1033,47 @@ public class CouchDBClient extends ClientBase implements Client<CouchDBQuery>, B
         return results;
     }
 
-    void executeQuery(StringBuilder q, String _id, EntityMetadata m, List results) throws IOException,
+    /**
+     * Executes view query with documents included and maps each row to an
+     * entity. Response is parsed incrementally, only one row is held as json
+     * tree at a time.
+     * 
+     * @return last row read (without its document), null if there was none.
+     */
+    JsonObject executeQuery(StringBuilder q, String _id, EntityMetadata m, List results) throws IOException,
             ClientProtocolException, URISyntaxException
     {
         HttpResponse response = null;
         try
         {
+            String query = q.length() > 0 ? q.toString() + "&include_docs=true" : "include_docs=true";
             URI uri = new URI(CouchDBConstants.PROTOCOL, null, httpHost.getHostName(), httpHost.getPort(), _id,
-                    q.toString(), null);
+                    query, null);
             HttpGet get = new HttpGet(uri);
             get.addHeader("Accept", "application/json");
             response = httpClient.execute(httpHost, get, CouchDBUtils.getContext(httpHost));
 
-            InputStream content = response.getEntity().getContent();
-            Reader reader = new InputStreamReader(content);
-            JsonObject json = gson.fromJson(reader, JsonObject.class);
-
-            JsonElement jsonElement = json.get("rows");
-
-            if (jsonElement == null)
+            JsonReader reader = new JsonReader(new InputStreamReader(response.getEntity().getContent()));
+            if (!beginRows(reader))
             {
-                return;
+                return null;
             }
-            JsonArray array = jsonElement.getAsJsonArray();
-            for (JsonElement element : array)
+
+            JsonObject lastRow = null;
+            JsonObject row;
+            while ((row = nextRow(reader)) != null)
             {
-                results.add(CouchDBObjectMapper.getEntityFromJson(m.getEntityClazz(), m,
-                        element.getAsJsonObject().get("value").getAsJsonObject(), m.getRelationNames()));
+                JsonElement document = row.remove("doc");
+                // document deleted after view was indexed.
+                if (document != null && document.isJsonObject())
+                {
+                    cacheRevision(m.getSchema(), document.getAsJsonObject());
+                    results.add(CouchDBObjectMapper.getEntityFromJson(m.getEntityClazz(), m,
+                            document.getAsJsonObject(), m.getRelationNames()));
+                }
+                lastRow = row;
             }
+            return lastRow;
         }
         finally
         {
@@ -695,6 +1082,68 @@ public class CouchDBClient extends ClientBase implements Client<CouchDBQuery>, B
 
     }
 
+    /**
+     * Advances reader of a view response to its first row.
+     * 
+     * @return false, if response has no rows e.g. view does not exist.
+     */
+    private boolean beginRows(JsonReader reader) throws IOException
+    {
+        if (reader.peek() != JsonToken.BEGIN_OBJECT)
+        {
+            return false;
+        }
+        reader.beginObject();
+        while (reader.hasNext())
+        {
+            if ("rows".equals(reader.nextName()))
+            {
+                reader.beginArray();
+                return true;
+            }
+            reader.skipValue();
+        }
+        return false;
+    }
+
+    /**
+     * Reads next row of a view response.
+     * 
+     * @return row, null if all rows are read.
+     */
+    private JsonObject nextRow(JsonReader reader) throws IOException
+    {
+        if (!reader.hasNext())
+        {
+            return null;
+        }
+        return gson.fromJson(reader, JsonObject.class);
+    }
+
+    /**
+     * Reads document of next row of a view response, queried with
+     * include_docs. Value is used instead if row has no document.
+     * 
+     * @return document, null if all rows are read.
+     */
+    private JsonObject nextDocument(JsonReader reader) throws IOException
+    {
+        JsonObject row;
+        while ((row = nextRow(reader)) != null)
+        {
+            JsonElement document = row.get("doc");
+            if (document == null || !document.isJsonObject())
+            {
+                document = row.get("value");
+            }
+            if (document != null && document.isJsonObject())
+            {
+                return document.getAsJsonObject();
+            }
+        }
+        return null;
+    }
+
     String createQuery(CouchDBQueryInterpreter interpreter, EntityMetadata m, StringBuilder q, String _id)
             throws URISyntaxException, UnsupportedEncodingException, IOException, ClientProtocolException
     {
@@ -890,7 +1339,7 @@ public class CouchDBClient extends ClientBase implements Client<CouchDBQuery>, B
         emitFunction.deleteCharAt(emitFunction.toString().lastIndexOf(","));
 
         ifBuilder.append(")");
-        emitFunction.append("], doc)}}");
+        emitFunction.append("], null)}}");
 
         mapBuilder.append(ifBuilder.toString()).append(emitFunction.toString());
 
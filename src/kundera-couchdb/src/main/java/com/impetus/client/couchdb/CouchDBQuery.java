@@ -85,9 +85,16 @@ public class CouchDBQuery extends QueryImpl
     @Override
     public Iterator iterate()
     {
+        return iterate(getFetchSize() != null ? getFetchSize() : this.maxResult);
+    }
+
+    @Override
+    protected Iterator iterate(int maxRows)
+    {
+        persistenceDelegeator.flushBeforeQuery();
         return new ResultIterator((CouchDBClient) persistenceDelegeator.getClient(getEntityMetadata()),
                 getEntityMetadata(), persistenceDelegeator, onTranslation(getKunderaQuery().getFilterClauseQueue(),
-                        getEntityMetadata()), getFetchSize() != null ? getFetchSize() : this.maxResult);
+                        getEntityMetadata()), maxRows);
     }
 
     private CouchDBQueryInterpreter onTranslation(Queue clauseQueue, EntityMetadata m)
@@ -357,7 +357,7 @@ public class CouchDBSchemaManager extends AbstractSchemaManager implements Schem
     private void createView(Map<String, MapReduce> views, String columnName)
     {
         MapReduce mapr = new MapReduce();
-        mapr.setMap("function(doc){if(doc." + columnName + "){emit(doc." + columnName + ", doc);}}");
+        mapr.setMap("function(doc){if(doc." + columnName + "){emit(doc." + columnName + ", null);}}");
         views.put(columnName, mapr);
     }
 
@@ -372,7 +372,7 @@ public class CouchDBSchemaManager extends AbstractSchemaManager implements Schem
     private void createViewForSelectAll(TableInfo tableInfo, Map<String, MapReduce> views)
     {
         MapReduce mapr = new MapReduce();
-        mapr.setMap("function(doc){if(doc." + tableInfo.getIdColumnName() + "){emit(null, doc);}}");
+        mapr.setMap("function(doc){if(doc." + tableInfo.getIdColumnName() + "){emit(null, null);}}");
         views.put("all", mapr);
     }
 
@@ -15,18 +15,14 @@
  */
 package com.impetus.client.couchdb;
 
-import java.awt.geom.CubicCurve2D;
-import java.io.IOException;
-import java.net.URISyntaxException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.NoSuchElementException;
 
-import org.apache.http.client.ClientProtocolException;
-
+import com.google.gson.JsonObject;
+import com.impetus.kundera.KunderaException;
 import com.impetus.kundera.client.Client;
 import com.impetus.kundera.client.EnhanceEntity;
-import com.impetus.kundera.loader.KunderaAuthenticationException;
 import com.impetus.kundera.metadata.model.EntityMetadata;
 import com.impetus.kundera.persistence.PersistenceDelegator;
 import com.impetus.kundera.property.PropertyAccessorHelper;
@@ -35,12 +31,18 @@ import com.impetus.kundera.query.IResultIterator;
 /**
  * @author kuldeep.mishra .
  * 
- *         Implementation of MongoDB result iteration.
+ *         Implementation of CouchDB result iteration. Results are fetched page
+ *         by page, each page starts after last row of previous one (by
+ *         startkey/startkey_docid) instead of skipping over all rows read so
+ *         far.
  * 
  * @param <E>
  */
 class ResultIterator<E> implements IResultIterator<E>
 {
+    /** Maximum number of rows fetched per page. */
+    private static final int PAGE_SIZE = 100;
+
     private EntityMetadata m;
 
     private CouchDBClient client;
@@ -55,16 +57,17 @@ class ResultIterator<E> implements IResultIterator<E>
 
     private CouchDBQueryInterpreter interpreter;
 
-    private int skipCounter = 0;
-
     private int count = 0;
 
-    private E currentObject = null;
-
     private boolean scrollComplete = false;
 
+    /** Last row read, next page starts after it. */
+    private JsonObject lastRow;
+
     private List results = new ArrayList();
 
+    private int index = 0;
+
     public ResultIterator(CouchDBClient client, EntityMetadata m, PersistenceDelegator pd,
             CouchDBQueryInterpreter interpreter, Integer fetchSize)
     {
@@ -80,88 +83,83 @@ class ResultIterator<E> implements IResultIterator<E>
     {
         try
         {
-            _id = CouchDBConstants.URL_SAPRATOR + m.getSchema() + CouchDBConstants.URL_SAPRATOR + "_design/"
-                    + m.getTableName() + "/_view/";
+            _id = CouchDBConstants.URL_SAPRATOR + m.getSchema().toLowerCase() + CouchDBConstants.URL_SAPRATOR
+                    + "_design/" + m.getTableName() + "/_view/";
             _id = client.createQuery(interpreter, m, q, _id);
-
-            if (!q.toString().isEmpty())
-            {
-                q.append("&");
-            }
-            q.append("limit=" + 1);
         }
         catch (Exception e)
         {
-            e.printStackTrace();
+            throw new KunderaException("Error while creating query", e);
         }
     }
 
     @Override
     public boolean hasNext()
     {
-        currentObject = fetchObject();
-        if (count < fetchSize && fetchSize > 0 && currentObject != null)
+        if (fetchSize <= 0 || count >= fetchSize)
+        {
+            return false;
+        }
+        if (index >= results.size() && !scrollComplete)
         {
-            count++;
-            return true;
+            fetchPage();
         }
-        scrollComplete = true;
-        return false;
+        return index < results.size();
     }
 
     @Override
     public E next()
     {
-        if (fetchSize <= 0 || count > fetchSize || scrollComplete)
+        if (!hasNext())
         {
             throw new NoSuchElementException("Nothing to scroll further for:" + m.getEntityClazz());
         }
-        else
+        Object object = results.get(index);
+        results.set(index++, null);
+        count++;
+        if (!m.isRelationViaJoinTable() && (m.getRelationNames() == null || (m.getRelationNames().isEmpty())))
         {
-            E objectToReturn = currentObject;
-            currentObject = null;
-            return objectToReturn;
+            return (E) object;
         }
+        return setRelationEntities(object, client, m);
     }
 
-    private E fetchObject()
+    /**
+     * Fetches next page of results, starting after last row read.
+     */
+    private void fetchPage()
     {
+        int limit = Math.min(PAGE_SIZE, fetchSize - count);
+        StringBuilder pageQuery = new StringBuilder(q);
+        if (lastRow != null)
+        {
+            // parameters given later override key/startkey of query.
+            appendParameter(pageQuery, "startkey=" + lastRow.get("key"));
+            appendParameter(pageQuery, "startkey_docid=" + lastRow.get("id").getAsString());
+            appendParameter(pageQuery, "skip=1");
+        }
+        appendParameter(pageQuery, "limit=" + limit);
+
+        results = new ArrayList();
+        index = 0;
         try
         {
-            String previousSkip = "&skip=" + (skipCounter - 1);
-            String currentSkip = "&skip=" + skipCounter;
-            int indexOf = q.indexOf(previousSkip);
-            if (indexOf > 0)
-            {
-                q.replace(indexOf, indexOf + previousSkip.length(), currentSkip);
-            }
-            else if (skipCounter > 0)
-            {
-                q.append(currentSkip);
-            }
-            client.executeQuery(q, _id, m, results);
-            skipCounter++;
+            lastRow = client.executeQuery(pageQuery, _id, m, results);
         }
         catch (Exception e)
         {
-            throw new KunderaAuthenticationException("Error while executing query, caused by : " + e);
+            throw new KunderaException("Error while executing query", e);
         }
-        if (results != null && results.size() >= 1)
+        scrollComplete = lastRow == null || results.size() < limit;
+    }
+
+    private void appendParameter(StringBuilder query, String parameter)
+    {
+        if (query.length() > 0)
         {
-            Object object = results.get(0);
-            results = new ArrayList();
-            if (!m.isRelationViaJoinTable() && (m.getRelationNames() == null || (m.getRelationNames().isEmpty())))
-            {
-                return (E) object;
-            }
-            else
-            {
-                List<EnhanceEntity> ls = new ArrayList<EnhanceEntity>();
-                ls.add((EnhanceEntity) object);
-                return setRelationEntities(ls.get(0), client, m);
-            }
+            query.append("&");
         }
-        return null;
+        query.append(parameter);
     }
 
     @Override
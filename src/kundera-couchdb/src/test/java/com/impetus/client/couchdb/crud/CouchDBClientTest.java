@@ -142,6 +142,56 @@ public class CouchDBClientTest
         em = null;
     }
 
+    @Test
+    public void testFindAllAndDeleteWithBatch()
+    {
+        Map<String, String> batchProperty = new HashMap<String, String>(1);
+        batchProperty.put(PersistenceProperties.KUNDERA_BATCH_SIZE, "5");
+        EntityManagerFactory emf = Persistence.createEntityManagerFactory(_PU, batchProperty);
+        EntityManager em = emf.createEntityManager();
+        Map<String, Client> clients = (Map<String, Client>) em.getDelegate();
+        CouchDBClient client = (CouchDBClient) clients.get(_PU);
+
+        for (int i = 0; i < 3; i++)
+        {
+            PersonCouchDB object = new PersonCouchDB();
+            object.setAge(32);
+            object.setPersonId("findAll" + i);
+            object.setPersonName("vivek");
+            em.persist(object);
+        }
+        em.flush();
+        em.clear();
+
+        // missing documents are skipped.
+        List<PersonCouchDB> results = client.findAll(PersonCouchDB.class, null, "findAll0", "findAll1", "findAll2",
+                "findAllMissing");
+        Assert.assertEquals(3, results.size());
+        for (PersonCouchDB result : results)
+        {
+            Assert.assertEquals("vivek", result.getPersonName());
+        }
+
+        // update and delete by bulk request.
+        PersonCouchDB updated = em.find(PersonCouchDB.class, "findAll0");
+        updated.setAge(33);
+        em.merge(updated);
+        em.remove(em.find(PersonCouchDB.class, "findAll1"));
+        em.remove(em.find(PersonCouchDB.class, "findAll2"));
+        em.flush();
+        em.clear();
+
+        results = client.findAll(PersonCouchDB.class, null, "findAll0", "findAll1", "findAll2");
+        Assert.assertEquals(1, results.size());
+        Assert.assertEquals(new Integer(33), results.get(0).getAge());
+
+        client.delete(results.get(0), "findAll0");
+        Assert.assertNull(client.find(PersonCouchDB.class, "findAll0"));
+
+        em.close();
+        emf.close();
+    }
+
     @Test
     public void testPersistJoinTableData() throws ClientProtocolException, URISyntaxException, IOException
     {
@@ -15,8 +15,10 @@
  */
 package com.impetus.client.couchdb.query;
 
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
+import java.util.Set;
 
 import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
@@ -74,6 +76,59 @@ public class ResultIteratorTest extends CouchDBBase
         assertOnTokenScroll();
     }
 
+    @Test
+    public void testScrollOverPages() throws Exception
+    {
+        for (int i = 0; i < 250; i++)
+        {
+            PersonCouchDB p = new PersonCouchDB();
+            p.setPersonId("" + i);
+            p.setPersonName(i % 2 == 0 ? "vivek" : "kuldeep");
+            p.setAge(i);
+            p.setDay(Day.THURSDAY);
+            p.setMonth(Month.APRIL);
+            em.persist(p);
+        }
+        em.flush();
+        em.clear();
+
+        // spans across multiple pages, none of the rows is read twice.
+        Query query = (Query) em.createQuery("Select p from PersonCouchDB p", PersonCouchDB.class);
+        query.setFetchSize(250);
+        Set<String> ids = new HashSet<String>();
+        Iterator<PersonCouchDB> iter = query.iterate();
+        while (iter.hasNext())
+        {
+            Assert.assertTrue(ids.add(iter.next().getPersonId()));
+        }
+        Assert.assertEquals(250, ids.size());
+
+        // pages of a key query.
+        query = (Query) em.createQuery("Select p from PersonCouchDB p where p.personName = vivek",
+                PersonCouchDB.class);
+        query.setFetchSize(200);
+        ids.clear();
+        iter = query.iterate();
+        while (iter.hasNext())
+        {
+            PersonCouchDB p = iter.next();
+            Assert.assertEquals("vivek", p.getPersonName());
+            Assert.assertTrue(ids.add(p.getPersonId()));
+        }
+        Assert.assertEquals(125, ids.size());
+
+        // limited by fetch size within second page.
+        query.setFetchSize(110);
+        int count = 0;
+        iter = query.iterate();
+        while (iter.hasNext())
+        {
+            Assert.assertNotNull(iter.next());
+            count++;
+        }
+        Assert.assertEquals(110, count);
+    }
+
     private void assertOnTokenScroll()
     {
         CouchDBToken token1 = new CouchDBToken();
@@ -0,0 +1,452 @@
+/*******************************************************************************
+ * * Copyright 2013 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.client.es;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import javax.persistence.PersistenceException;
+
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.ActionRequest;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.delete.DeleteRequest;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.action.update.UpdateRequest;
+import org.elasticsearch.client.Client;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Asynchronous bulk indexing pipeline, shared by all clients of a factory.
+ * Actions are collected into a bulk request which is sent once number of
+ * actions, their size or flush interval exceeds configured threshold. Number
+ * of bulk requests in flight is bounded, adding an action blocks if limit is
+ * reached.
+ *
+ * Each client adds its actions on behalf of its own {@link Session}, so that
+ * its flush waits for and reports failures of its own actions only.
+ */
+class ESBulkProcessor
+{
+    /**
+     * Bulk requests in flight and failures of actions added by a client.
+     */
+    static final class Session
+    {
+        /** bulk requests in flight, holding actions of this session. */
+        private int inFlight;
+
+        /** failure of an asynchronous bulk request, reported on next flush. */
+        private String failure;
+
+        private synchronized void onSent()
+        {
+            inFlight++;
+        }
+
+        private synchronized void onComplete(String failureMessage)
+        {
+            if (failure == null)
+            {
+                failure = failureMessage;
+            }
+            if (--inFlight == 0)
+            {
+                notifyAll();
+            }
+        }
+
+        private synchronized void awaitInFlight() throws InterruptedException
+        {
+            while (inFlight > 0)
+            {
+                wait();
+            }
+        }
+
+        private synchronized String takeFailure()
+        {
+            String failureMessage = failure;
+            failure = null;
+            return failureMessage;
+        }
+    }
+
+    /** log for this class. */
+    private static Logger log = LoggerFactory.getLogger(ESBulkProcessor.class);
+
+    private final Client client;
+
+    private final int bulkActions;
+
+    private final long bulkSize;
+
+    private final int concurrentRequests;
+
+    private final boolean awaitFlush;
+
+    private final boolean refreshOnFlush;
+
+    /** permits for bulk requests in flight. */
+    private final Semaphore semaphore;
+
+    private final ScheduledExecutorService scheduler;
+
+    /** indices written since last refresh. */
+    private final Set<String> indices = new HashSet<String>();
+
+    private BulkRequest bulkRequest = new BulkRequest();
+
+    /** session of each action of current bulk request, in order of actions. */
+    private List<Session> sessions = new ArrayList<Session>();
+
+    private volatile boolean closed;
+
+    /**
+     * @param client
+     *            elastic search client.
+     * @param bulkActions
+     *            number of actions per bulk request.
+     * @param bulkSize
+     *            size in bytes per bulk request, <= 0 for no limit.
+     * @param flushInterval
+     *            flush interval in milliseconds, <= 0 for no interval.
+     * @param concurrentRequests
+     *            bulk requests in flight, 0 to send synchronously.
+     * @param awaitFlush
+     *            whether flush waits for bulk requests in flight.
+     * @param refreshOnFlush
+     *            whether written indices are refreshed on flush.
+     */
+    ESBulkProcessor(Client client, int bulkActions, long bulkSize, long flushInterval, int concurrentRequests,
+            boolean awaitFlush, boolean refreshOnFlush)
+    {
+        this.client = client;
+        this.bulkActions = bulkActions;
+        this.bulkSize = bulkSize;
+        this.concurrentRequests = concurrentRequests;
+        this.awaitFlush = awaitFlush;
+        this.refreshOnFlush = refreshOnFlush;
+        this.semaphore = new Semaphore(Math.max(concurrentRequests, 1));
+
+        if (flushInterval > 0)
+        {
+            scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory()
+            {
+                @Override
+                public Thread newThread(Runnable r)
+                {
+                    Thread thread = new Thread(r, "kundera-es-bulk-flush");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+            scheduler.scheduleWithFixedDelay(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    try
+                    {
+                        send();
+                    }
+                    catch (Exception e)
+                    {
+                        log.error("Error while sending scheduled bulk request.", e);
+                    }
+                }
+            }, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+        }
+        else
+        {
+            scheduler = null;
+        }
+    }
+
+    /**
+     * Adds index, update or delete request on behalf of given session, sends
+     * bulk request if threshold is reached.
+     *
+     * @param session
+     *            session of client adding request.
+     * @param request
+     *            action request.
+     */
+    synchronized void add(Session session, ActionRequest request)
+    {
+        if (closed)
+        {
+            throw new IllegalStateException("Bulk processor is already closed.");
+        }
+
+        if (request instanceof IndexRequest)
+        {
+            bulkRequest.add((IndexRequest) request);
+            indices.add(((IndexRequest) request).index());
+        }
+        else if (request instanceof UpdateRequest)
+        {
+            bulkRequest.add((UpdateRequest) request);
+            indices.add(((UpdateRequest) request).index());
+        }
+        else if (request instanceof DeleteRequest)
+        {
+            bulkRequest.add((DeleteRequest) request);
+            indices.add(((DeleteRequest) request).index());
+        }
+        else
+        {
+            throw new IllegalArgumentException("Unsupported bulk action " + request);
+        }
+        sessions.add(session);
+
+        if (bulkRequest.numberOfActions() >= bulkActions
+                || (bulkSize > 0 && bulkRequest.estimatedSizeInBytes() >= bulkSize))
+        {
+            execute();
+        }
+    }
+
+    /**
+     * Sends pending actions and waits for bulk requests in flight of given
+     * session, if configured.
+     *
+     * @param session
+     *            session of flushing client.
+     */
+    void flush(Session session)
+    {
+        send();
+
+        if (awaitFlush)
+        {
+            try
+            {
+                session.awaitInFlight();
+            }
+            catch (InterruptedException iex)
+            {
+                Thread.currentThread().interrupt();
+                throw new PersistenceException(iex);
+            }
+
+            String failureMessage = session.takeFailure();
+            if (failureMessage != null)
+            {
+                throw new PersistenceException("Bulk indexing failed, Caused by: " + failureMessage);
+            }
+
+            if (refreshOnFlush)
+            {
+                refresh();
+            }
+        }
+    }
+
+    /**
+     * Sends pending actions, waits for all bulk requests in flight and stops
+     * scheduled flush. Failures are reported to sessions holding failed
+     * actions, on their flush.
+     */
+    void close()
+    {
+        if (scheduler != null)
+        {
+            scheduler.shutdown();
+        }
+        try
+        {
+            send();
+            awaitInFlight();
+        }
+        catch (PersistenceException pex)
+        {
+            log.error("Error while closing bulk processor.", pex);
+        }
+        closed = true;
+    }
+
+    /**
+     * Sends pending actions, if any.
+     */
+    private synchronized void send()
+    {
+        if (bulkRequest.numberOfActions() > 0)
+        {
+            execute();
+        }
+    }
+
+    /**
+     * Sends current bulk request, blocks if maximum of concurrent requests is
+     * in flight.
+     */
+    private void execute()
+    {
+        final BulkRequest request = bulkRequest;
+        final List<Session> requestSessions = sessions;
+        bulkRequest = new BulkRequest();
+        sessions = new ArrayList<Session>();
+
+        final Set<Session> distinctSessions = new HashSet<Session>(requestSessions);
+        for (Session session : distinctSessions)
+        {
+            session.onSent();
+        }
+
+        if (concurrentRequests == 0)
+        {
+            BulkResponse response;
+            try
+            {
+                response = client.bulk(request).actionGet();
+            }
+            catch (RuntimeException e)
+            {
+                onFailure(distinctSessions, e);
+                throw e;
+            }
+            onResponse(requestSessions, distinctSessions, response);
+            return;
+        }
+
+        try
+        {
+            semaphore.acquire();
+        }
+        catch (InterruptedException iex)
+        {
+            onFailure(distinctSessions, iex);
+            Thread.currentThread().interrupt();
+            throw new PersistenceException(iex);
+        }
+
+        client.bulk(request, new ActionListener<BulkResponse>()
+        {
+            @Override
+            public void onResponse(BulkResponse response)
+            {
+                try
+                {
+                    ESBulkProcessor.this.onResponse(requestSessions, distinctSessions, response);
+                }
+                finally
+                {
+                    semaphore.release();
+                }
+            }
+
+            @Override
+            public void onFailure(Throwable e)
+            {
+                try
+                {
+                    log.error("Error while executing bulk request.", e);
+                    ESBulkProcessor.this.onFailure(distinctSessions, e);
+                }
+                finally
+                {
+                    semaphore.release();
+                }
+            }
+        });
+    }
+
+    /**
+     * Completes sessions of a bulk request, failed actions are reported to
+     * sessions which added them.
+     */
+    private void onResponse(List<Session> requestSessions, Set<Session> distinctSessions, BulkResponse response)
+    {
+        Map<Session, String> failures = new HashMap<Session, String>();
+        if (response.hasFailures())
+        {
+            log.error("Error while executing bulk request, Caused by: {}.", response.buildFailureMessage());
+            for (BulkItemResponse item : response.getItems())
+            {
+                Session session = requestSessions.get(item.getItemId());
+                if (item.isFailed() && !failures.containsKey(session))
+                {
+                    failures.put(session, "[" + item.getId() + "]: " + item.getFailureMessage());
+                }
+            }
+        }
+
+        for (Session session : distinctSessions)
+        {
+            session.onComplete(failures.get(session));
+        }
+    }
+
+    /**
+     * Completes sessions of a failed bulk request, with failure.
+     */
+    private void onFailure(Set<Session> distinctSessions, Throwable e)
+    {
+        for (Session session : distinctSessions)
+        {
+            session.onComplete(e.getMessage() != null ? e.getMessage() : e.toString());
+        }
+    }
+
+    /**
+     * Waits till all bulk requests in flight are complete.
+     */
+    private void awaitInFlight()
+    {
+        if (concurrentRequests > 0)
+        {
+            try
+            {
+                semaphore.acquire(concurrentRequests);
+                semaphore.release(concurrentRequests);
+            }
+            catch (InterruptedException iex)
+            {
+                Thread.currentThread().interrupt();
+                throw new PersistenceException(iex);
+            }
+        }
+    }
+
+    private void refresh()
+    {
+        String[] toRefresh;
+        synchronized (this)
+        {
+            toRefresh = indices.toArray(new String[indices.size()]);
+            indices.clear();
+        }
+
+        if (toRefresh.length > 0)
+        {
+            client.admin().indices().prepareRefresh(toRefresh).execute().actionGet();
+        }
+    }
+
+}
@@ -31,6 +31,7 @@ import javax.persistence.metamodel.Attribute;
 import javax.persistence.metamodel.EntityType;
 import javax.persistence.metamodel.SingularAttribute;
 
+import org.elasticsearch.action.ActionRequest;
 import org.elasticsearch.action.bulk.BulkRequestBuilder;
 import org.elasticsearch.action.bulk.BulkResponse;
 import org.elasticsearch.action.delete.DeleteRequest;
@@ -38,9 +39,12 @@ import org.elasticsearch.action.deletebyquery.DeleteByQueryRequestBuilder;
 import org.elasticsearch.action.get.GetResponse;
 import org.elasticsearch.action.index.IndexRequest;
 import org.elasticsearch.action.index.IndexResponse;
+import org.elasticsearch.action.search.SearchRequestBuilder;
 import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.action.search.SearchType;
 import org.elasticsearch.action.update.UpdateRequest;
 import org.elasticsearch.client.transport.TransportClient;
+import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.index.query.FilterBuilder;
 import org.elasticsearch.index.query.FilterBuilders;
 import org.elasticsearch.index.query.QueryBuilders;
@@ -48,6 +52,7 @@ import org.elasticsearch.index.query.TermFilterBuilder;
 import org.elasticsearch.search.SearchHit;
 import org.elasticsearch.search.SearchHitField;
 import org.elasticsearch.search.SearchHits;
+import org.elasticsearch.search.facet.FacetBuilders;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -96,10 +101,22 @@ public class ESClient extends ClientBase implements Client<ESQuery>, Batcher, Cl
     /** batch size. */
     private int batchSize;
 
+    /** asynchronous bulk processor of factory, null if not enabled. */
+    private ESBulkProcessor bulkProcessor;
+
+    /** actions of this client in bulk processor. */
+    private final ESBulkProcessor.Session bulkSession = new ESBulkProcessor.Session();
+
+    /** number of actions handed over to bulk processor since last flush. */
+    private int submitted;
+
     private Map clientProperties;
     
     private static final String KEY_SEPERATOR = "\001";
 
+    /** keep alive time of scroll context between two scroll requests. */
+    private static final TimeValue SCROLL_TIMEOUT = TimeValue.timeValueMinutes(1);
+
 
     ESClient(final ESClientFactory factory, final TransportClient client, final Map<String, Object> externalProperties)
     {
@@ -107,6 +124,7 @@ public class ESClient extends ClientBase implements Client<ESQuery>, Batcher, Cl
         this.clientMetadata = factory.getClientMetadata();
         this.txClient = client;
         this.reader = new ESEntityReader();
+        this.bulkProcessor = factory.getBulkProcessor();
         setBatchSize(getPersistenceUnit(), externalProperties);
     }
 
@@ -246,10 +264,97 @@ public class ESClient extends ClientBase implements Client<ESQuery>, Batcher, Cl
         return result;
     }
 
-    List executeQuery(FilterBuilder filter, final EntityMetadata entityMetadata)
+    /**
+     * Executes search over given filter and returns a page of matching
+     * entities.
+     * 
+     * @param filter
+     *            filter, may be null.
+     * @param entityMetadata
+     *            entity metadata.
+     * @param firstResult
+     *            position of first result.
+     * @param maxResult
+     *            maximum number of results.
+     * @return list of entities.
+     */
+    List executeQuery(FilterBuilder filter, final EntityMetadata entityMetadata, int firstResult, int maxResult)
     {
+        SearchResponse response = txClient.prepareSearch(entityMetadata.getSchema().toLowerCase())
+                .setTypes(entityMetadata.getTableName()).setFilter(filter).setFrom(firstResult).setSize(maxResult)
+                .execute().actionGet();
 
-        
+        return getEntities(response.getHits(), entityMetadata);
+    }
+
+    /**
+     * Computes statistics (count, total, min, max and mean) of given numeric
+     * fields, as statistical facets named after fields, over documents
+     * matching filter. No hits are returned, only their total.
+     * 
+     * @param filter
+     *            filter, may be null.
+     * @param entityMetadata
+     *            entity metadata.
+     * @param fields
+     *            numeric fields.
+     * @return search response.
+     */
+    SearchResponse aggregate(FilterBuilder filter, final EntityMetadata entityMetadata, Set<String> fields)
+    {
+        // facets are computed over query, not over (post) filter.
+        SearchRequestBuilder builder = txClient.prepareSearch(entityMetadata.getSchema().toLowerCase())
+                .setTypes(entityMetadata.getTableName()).setSearchType(SearchType.COUNT)
+                .setQuery(filter != null ? QueryBuilders.constantScoreQuery(filter) : QueryBuilders.matchAllQuery());
+        for (String field : fields)
+        {
+            builder.addFacet(FacetBuilders.statisticalFacet(field).field(field));
+        }
+        return builder.execute().actionGet();
+    }
+
+    /**
+     * Opens a scan over given filter. Response of a scan carries no hits, but
+     * scroll id to be used for {@link #scroll(String)}.
+     * 
+     * @param filter
+     *            filter, may be null.
+     * @param entityMetadata
+     *            entity metadata.
+     * @param scrollSize
+     *            number of hits per shard, returned by each scroll.
+     * @return scan response.
+     */
+    SearchResponse scan(FilterBuilder filter, final EntityMetadata entityMetadata, int scrollSize)
+    {
+        return txClient.prepareSearch(entityMetadata.getSchema().toLowerCase())
+                .setTypes(entityMetadata.getTableName()).setSearchType(SearchType.SCAN).setScroll(SCROLL_TIMEOUT)
+                .setFilter(filter).setSize(scrollSize).execute().actionGet();
+    }
+
+    /**
+     * Returns next page of hits of an open scan.
+     * 
+     * @param scrollId
+     *            scroll id, returned by last scan or scroll response.
+     * @return scroll response, with no hits if scan is complete.
+     */
+    SearchResponse scroll(String scrollId)
+    {
+        return txClient.prepareSearchScroll(scrollId).setScroll(SCROLL_TIMEOUT).execute().actionGet();
+    }
+
+    /**
+     * Returns entities of given search hits.
+     * 
+     * @param hits
+     *            search hits.
+     * @param entityMetadata
+     *            entity metadata.
+     * @return list of entities.
+     */
+    List getEntities(Iterable<SearchHit> hits, final EntityMetadata entityMetadata)
+    {
         Class clazz = entityMetadata.getEntityClazz();
 
         MetamodelImpl metaModel = (MetamodelImpl) KunderaMetadata.INSTANCE.getApplicationMetadata().getMetamodel(
@@ -259,13 +364,9 @@ public class ESClient extends ClientBase implements Client<ESQuery>, Batcher, Cl
 
         List results = new ArrayList();
 
-        SearchResponse response = txClient.prepareSearch(entityMetadata.getSchema().toLowerCase())
-                .setTypes(entityMetadata.getTableName()).setFilter(filter).execute().actionGet();
-        SearchHits hits = response.getHits();
-
         Object entity = null;
 
-        for (SearchHit hit : hits.getHits())
+        for (SearchHit hit : hits)
         {
             entity = getInstance(clazz, entity);
             Map<String, Object> hitResult = hit.sourceAsMap();
@@ -564,6 +665,16 @@ public class ESClient extends ClientBase implements Client<ESQuery>, Batcher, Cl
 
         if (node != null)
         {
+            if (bulkProcessor != null)
+            {
+                // handed over to bulk processor, which batches on its own.
+                if (node.isDirty())
+                {
+                    bulkProcessor.add(bulkSession, getRequest(node));
+                    submitted++;
+                }
+                return;
+            }
             nodes.add(node);
         }
 
@@ -586,6 +697,19 @@ public class ESClient extends ClientBase implements Client<ESQuery>, Batcher, Cl
     @Override
     public int executeBatch()
     {
+        if (bulkProcessor != null)
+        {
+            try
+            {
+                bulkProcessor.flush(bulkSession);
+                return submitted;
+            }
+            finally
+            {
+                clear();
+            }
+        }
+
         BulkRequestBuilder bulkRequest = txClient.prepareBulk();
 
         try
@@ -594,53 +718,19 @@ public class ESClient extends ClientBase implements Client<ESQuery>, Batcher, Cl
             {
                 if (node.isDirty())
                 {
-                    node.handlePreEvent();
-                    Object entity = node.getData();
-                    Object id = node.getEntityId();
-                    EntityMetadata metadata = KunderaMetadataManager.getEntityMetadata(node.getDataClass());
-
-                    MetamodelImpl metaModel = (MetamodelImpl) KunderaMetadata.INSTANCE.getApplicationMetadata()
-                            .getMetamodel(metadata.getPersistenceUnit());
-
-                    EntityType entityType = metaModel.entity(metadata.getEntityClazz());
-
-                    String key = getKeyAsString(id, metadata, metaModel);
-
-                    if (node.isInState(RemovedState.class))
+                    ActionRequest request = getRequest(node);
+                    if (request instanceof DeleteRequest)
                     {
-                        // create a delete request.
-
-                        DeleteRequest request = new DeleteRequest(metadata.getSchema().toLowerCase(), metadata.getTableName(), key);
-                        bulkRequest.add(request);
-
+                        bulkRequest.add((DeleteRequest) request);
                     }
-                    else if (node.isUpdate())
+                    else if (request instanceof UpdateRequest)
                     {
-                        Map<String, Object> values = new HashMap<String, Object>();
-                        List<RelationHolder> relationHolders = getRelationHolders(node);
-
-                        addSource(entity, values, entityType);
-
-                        addRelations(relationHolders, values);
-
-                        UpdateRequest request = new UpdateRequest(metadata.getSchema().toLowerCase(), metadata.getTableName(), key).doc(values);
-                        bulkRequest.add(request);
+                        bulkRequest.add((UpdateRequest) request);
                     }
                     else
                     {
-                        // create an insert request.
-                        Map<String, Object> values = new HashMap<String, Object>();
-                        List<RelationHolder> relationHolders = getRelationHolders(node);
-
-                        addSource(entity, values, entityType);
-
-                        addRelations(relationHolders, values);
-
-                        IndexRequest request = new IndexRequest(metadata.getSchema().toLowerCase(), metadata.getTableName(), key).source(values);
-                        bulkRequest.add(request);
-
+                        bulkRequest.add((IndexRequest) request);
                     }
-
                 }
             }
 
@@ -659,15 +749,63 @@ public class ESClient extends ClientBase implements Client<ESQuery>, Batcher, Cl
 
     }
 
+    /**
+     * Returns delete, update or index request for given node.
+     * 
+     * @param node
+     *            dirty node.
+     * @return action request.
+     */
+    private ActionRequest getRequest(Node node)
+    {
+        node.handlePreEvent();
+        Object entity = node.getData();
+        Object id = node.getEntityId();
+        EntityMetadata metadata = KunderaMetadataManager.getEntityMetadata(node.getDataClass());
+
+        MetamodelImpl metaModel = (MetamodelImpl) KunderaMetadata.INSTANCE.getApplicationMetadata().getMetamodel(
+                metadata.getPersistenceUnit());
+
+        EntityType entityType = metaModel.entity(metadata.getEntityClazz());
+
+        String key = getKeyAsString(id, metadata, metaModel);
+
+        if (node.isInState(RemovedState.class))
+        {
+            // create a delete request.
+            return new DeleteRequest(metadata.getSchema().toLowerCase(), metadata.getTableName(), key);
+        }
+
+        Map<String, Object> values = new HashMap<String, Object>();
+        List<RelationHolder> relationHolders = getRelationHolders(node);
+
+        addSource(entity, values, entityType);
+
+        addRelations(relationHolders, values);
+
+        if (node.isUpdate())
+        {
+            return new UpdateRequest(metadata.getSchema().toLowerCase(), metadata.getTableName(), key).doc(values);
+        }
+
+        // create an insert request.
+        return new IndexRequest(metadata.getSchema().toLowerCase(), metadata.getTableName(), key).source(values);
+    }
+
+    /**
+     * Returns batch size, writes are routed through batch if asynchronous bulk
+     * processor is enabled.
+     */
     @Override
     public int getBatchSize()
     {
-        return batchSize;
+        return bulkProcessor != null ? Math.max(batchSize, 1) : batchSize;
     }
 
     @Override
     public void clear()
     {
+        submitted = 0;
         if (nodes != null)
         {
             nodes.clear();
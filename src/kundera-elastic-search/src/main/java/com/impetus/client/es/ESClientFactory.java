@@ -22,6 +22,8 @@ import org.elasticsearch.client.transport.TransportClient;
 import org.elasticsearch.common.settings.ImmutableSettings;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.transport.InetSocketTransportAddress;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.unit.TimeValue;
 
 import com.impetus.kundera.PersistenceProperties;
 import com.impetus.kundera.client.Client;
@@ -36,6 +38,14 @@ import com.impetus.kundera.metadata.model.PersistenceUnitMetadata;
  */
 public class ESClientFactory extends GenericClientFactory
 {
+    /** Default size of a bulk request. */
+    private static final String DEFAULT_BULK_SIZE = "5mb";
+
+    /** Default number of bulk requests in flight. */
+    private static final int DEFAULT_BULK_CONCURRENT_REQUESTS = 1;
+
+    /** Asynchronous bulk processor, null if bulk indexing is not enabled. */
+    private ESBulkProcessor bulkProcessor;
 
     /*
      * (non-Javadoc)
@@ -58,6 +68,12 @@ public class ESClientFactory extends GenericClientFactory
     @Override
     public void destroy()
     {
+        if (bulkProcessor != null)
+        {
+            bulkProcessor.close();
+            bulkProcessor = null;
+        }
+
         this.externalProperties = null;
         Object connection = getConnectionPoolOrConnection();
         
@@ -135,10 +151,68 @@ public class ESClientFactory extends GenericClientFactory
         {
             ((TransportClient) client).addTransportAddress(new InetSocketTransportAddress(h, new Integer(port)));
         }
-        
+
+        initializeBulkProcessor(client, props, properties);
+
         return client;
     }
 
+    /**
+     * Returns asynchronous bulk processor.
+     * 
+     * @return bulk processor, null if bulk indexing is not enabled.
+     */
+    ESBulkProcessor getBulkProcessor()
+    {
+        return bulkProcessor;
+    }
+
+    /**
+     * Initializes bulk processor, if {@link ESConstants#BULK_ACTIONS} is > 0.
+     * Bulk properties are read from external, persistence unit and then
+     * connection properties.
+     */
+    private void initializeBulkProcessor(org.elasticsearch.client.Client client, Properties puProperties,
+            Properties connectionProperties)
+    {
+        String bulkActions = getProperty(ESConstants.BULK_ACTIONS, puProperties, connectionProperties);
+        if (bulkActions == null || Integer.parseInt(bulkActions.trim()) <= 0)
+        {
+            return;
+        }
+
+        String bulkSize = getProperty(ESConstants.BULK_SIZE, puProperties, connectionProperties);
+        String flushInterval = getProperty(ESConstants.BULK_FLUSH_INTERVAL, puProperties, connectionProperties);
+        String concurrentRequests = getProperty(ESConstants.BULK_CONCURRENT_REQUESTS, puProperties,
+                connectionProperties);
+        String awaitFlush = getProperty(ESConstants.BULK_AWAIT_FLUSH, puProperties, connectionProperties);
+        String refreshOnFlush = getProperty(ESConstants.REFRESH_ON_FLUSH, puProperties, connectionProperties);
+
+        bulkProcessor = new ESBulkProcessor(client, Integer.parseInt(bulkActions.trim()), ByteSizeValue
+                .parseBytesSizeValue(bulkSize != null ? bulkSize.trim() : DEFAULT_BULK_SIZE).bytes(),
+                flushInterval != null ? TimeValue.parseTimeValue(flushInterval.trim(), null).millis() : 0,
+                concurrentRequests != null ? Integer.parseInt(concurrentRequests.trim())
+                        : DEFAULT_BULK_CONCURRENT_REQUESTS, awaitFlush == null || Boolean.parseBoolean(awaitFlush),
+                Boolean.parseBoolean(refreshOnFlush));
+    }
+
+    /**
+     * Returns value of given property.
+     */
+    private String getProperty(String name, Properties puProperties, Properties connectionProperties)
+    {
+        Object value = externalProperties != null ? externalProperties.get(name) : null;
+        if (value == null && puProperties != null)
+        {
+            value = puProperties.getProperty(name);
+        }
+        if (value == null && connectionProperties != null)
+        {
+            value = connectionProperties.getProperty(name);
+        }
+        return value != null ? value.toString() : null;
+    }
+
     /*
      * (non-Javadoc)
      * 
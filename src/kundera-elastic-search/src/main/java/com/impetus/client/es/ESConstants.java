@@ -0,0 +1,43 @@
+/*******************************************************************************
+ * * Copyright 2013 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.client.es;
+
+/**
+ * Holds constants for kundera-elastic-search module
+ */
+public interface ESConstants
+{
+    /**
+     * Number of actions after which a bulk request is sent. Asynchronous bulk
+     * indexing is enabled if it is > 0.
+     */
+    public static final String BULK_ACTIONS = "es.bulk.actions";
+
+    /** Size of actions (e.g. 5mb) after which a bulk request is sent. */
+    public static final String BULK_SIZE = "es.bulk.size";
+
+    /** Interval (e.g. 5s) after which pending actions are sent. */
+    public static final String BULK_FLUSH_INTERVAL = "es.bulk.flush.interval";
+
+    /** Number of bulk requests allowed to be in flight, 0 is synchronous. */
+    public static final String BULK_CONCURRENT_REQUESTS = "es.bulk.concurrent.requests";
+
+    /** Whether flush/commit waits for in flight bulk requests. */
+    public static final String BULK_AWAIT_FLUSH = "es.bulk.await.flush";
+
+    /** Whether indices are refreshed on flush/commit. */
+    public static final String REFRESH_ON_FLUSH = "es.refresh.on.flush";
+}
@@ -15,25 +15,37 @@
  ******************************************************************************/
 package com.impetus.client.es;
 
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 
 import javax.persistence.Query;
+import javax.persistence.metamodel.Attribute;
 import javax.persistence.metamodel.EntityType;
 
+import org.elasticsearch.action.search.SearchResponse;
+
 import org.elasticsearch.index.query.AndFilterBuilder;
 import org.elasticsearch.index.query.FilterBuilder;
 import org.elasticsearch.index.query.OrFilterBuilder;
 import org.elasticsearch.index.query.RangeFilterBuilder;
 import org.elasticsearch.index.query.TermFilterBuilder;
+import org.elasticsearch.search.facet.statistical.StatisticalFacet;
 
 import com.impetus.kundera.client.Client;
 import com.impetus.kundera.metadata.model.EntityMetadata;
 import com.impetus.kundera.metadata.model.KunderaMetadata;
 import com.impetus.kundera.metadata.model.MetamodelImpl;
+import com.impetus.kundera.metadata.model.attributes.AbstractAttribute;
 import com.impetus.kundera.persistence.EntityReader;
 import com.impetus.kundera.persistence.PersistenceDelegator;
+import com.impetus.kundera.query.Aggregator;
 import com.impetus.kundera.query.KunderaQuery;
+import com.impetus.kundera.query.KunderaQuery.Aggregation;
+import com.impetus.kundera.query.KunderaQuery.Aggregation.Function;
 import com.impetus.kundera.query.KunderaQuery.FilterClause;
 import com.impetus.kundera.query.QueryImpl;
 
@@ -43,6 +55,8 @@ import com.impetus.kundera.query.QueryImpl;
 
 public class ESQuery<E> extends QueryImpl
 {
+    /** position of first result. */
+    private int firstResult;
 
     /**
      * Constructor using fields.
@@ -74,7 +88,99 @@ public class ESQuery<E> extends QueryImpl
     @Override
     protected List<Object> populateEntities(EntityMetadata m, Client client)
     {
+        return ((ESClient) client).executeQuery(getFilter(m), m, firstResult, maxResult);
+    }
+
+    /**
+     * Computes aggregates without group by natively, COUNT of entities as
+     * total hits and aggregates of numeric fields as statistical facets.
+     * Grouped queries and aggregates of non numeric fields are aggregated
+     * while scrolling over matching entities.
+     */
+    @Override
+    protected List<Object> aggregate(EntityMetadata m, Client client)
+    {
+        MetamodelImpl metaModel = (MetamodelImpl) KunderaMetadata.INSTANCE.getApplicationMetadata().getMetamodel(
+                m.getPersistenceUnit());
+        EntityType entity = metaModel.entity(m.getEntityClazz());
+
+        List<Aggregation> aggregations = getKunderaQuery().getAggregations();
+        Field[] fields = new Field[aggregations.size()];
+        String[] columns = new String[aggregations.size()];
+        Set<String> facets = new HashSet<String>();
+        boolean isNative = getKunderaQuery().getGroupings().isEmpty();
+        for (int i = 0; i < aggregations.size() && isNative; i++)
+        {
+            Aggregation aggregation = aggregations.get(i);
+            if (!aggregation.isAggregate())
+            {
+                isNative = false;
+            }
+            else if (aggregation.getProperty() != null)
+            {
+                Attribute attribute = entity.getAttribute(aggregation.getProperty().trim());
+                fields[i] = (Field) attribute.getJavaMember();
+                columns[i] = ((AbstractAttribute) attribute).getJPAColumnName();
+                facets.add(columns[i]);
+                isNative = Aggregator.isNumeric(fields[i].getType());
+            }
+        }
+
+        if (!isNative)
+        {
+            // scroll over all matching entities.
+            int firstResult = this.firstResult;
+            this.firstResult = 0;
+            try
+            {
+                return super.aggregate(m, client);
+            }
+            finally
+            {
+                this.firstResult = firstResult;
+            }
+        }
+
+        SearchResponse response = ((ESClient) client).aggregate(getFilter(m), m, facets);
+
+        Object[] row = new Object[aggregations.size()];
+        for (int i = 0; i < row.length; i++)
+        {
+            Function function = aggregations.get(i).getFunction();
+            if (columns[i] == null)
+            {
+                row[i] = Aggregator.getResult(function, null, response.getHits().getTotalHits());
+                continue;
+            }
 
+            StatisticalFacet facet = response.getFacets().facet(columns[i]);
+            Number value = null;
+            if (function == Function.COUNT)
+            {
+                value = facet.getCount();
+            }
+            else if (facet.getCount() > 0)
+            {
+                value = function == Function.SUM ? facet.getTotal() : function == Function.MIN ? facet.getMin()
+                        : function == Function.MAX ? facet.getMax() : facet.getMean();
+            }
+            row[i] = Aggregator.getResult(function, fields[i].getType(), value);
+        }
+
+        List<Object> results = new ArrayList<Object>(1);
+        results.add(row.length == 1 ? row[0] : row);
+        return results;
+    }
+
+    /**
+     * Returns filter of query's where clause.
+     * 
+     * @param m
+     *            entity metadata.
+     * @return filter, null if there is no where clause.
+     */
+    private FilterBuilder getFilter(EntityMetadata m)
+    {
         MetamodelImpl metaModel = (MetamodelImpl) KunderaMetadata.INSTANCE.getApplicationMetadata().getMetamodel(
                 m.getPersistenceUnit());
         EntityType entity = metaModel.entity(m.getEntityClazz());
@@ -112,9 +218,7 @@ public class ESQuery<E> extends QueryImpl
             }
         }
 
-        return ((ESClient) client).executeQuery(preInterFilter != null ? preInterFilter : preIntraFilter, m);
-
-        // return null;
+        return preInterFilter != null ? preInterFilter : preIntraFilter;
     }
 
     /*
@@ -161,10 +265,37 @@ public class ESQuery<E> extends QueryImpl
 
     }
 
+    @Override
+    public Query setFirstResult(int startPosition)
+    {
+        this.firstResult = startPosition;
+        return this;
+    }
+
+    @Override
+    public int getFirstResult()
+    {
+        return firstResult;
+    }
+
+    /**
+     * Returns iterator over scan/scroll, fetch size (or max results, if not
+     * set) limits number of entities to be iterated.
+     */
     @Override
     public Iterator<E> iterate()
     {
-        return null;
+        return iterate(getFetchSize() != null ? getFetchSize() : this.maxResult);
+    }
+
+    @Override
+    protected Iterator<E> iterate(int maxRows)
+    {
+        persistenceDelegeator.flushBeforeQuery();
+
+        EntityMetadata m = getEntityMetadata();
+        Client client = persistenceDelegeator.getClient(m);
+        return new ResultIterator<E>(this, (ESClient) client, m, getFilter(m), firstResult, maxRows);
     }
 
     private FilterBuilder getFilter(FilterClause clause, final EntityMetadata metadata, final EntityType entityType)
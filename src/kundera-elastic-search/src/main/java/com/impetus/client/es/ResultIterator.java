@@ -0,0 +1,156 @@
+/*******************************************************************************
+ * * Copyright 2013 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.client.es;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.index.query.FilterBuilder;
+import org.elasticsearch.search.SearchHit;
+
+import com.impetus.kundera.metadata.model.EntityMetadata;
+import com.impetus.kundera.query.IResultIterator;
+
+/**
+ * Elastic search result iteration over scan/scroll api. Hits are fetched page
+ * by page and entities are materialized only on {@link #next()} or
+ * {@link #next(int)}, so memory is bounded by scroll size.
+ *
+ * @param <E>
+ */
+class ResultIterator<E> implements IResultIterator<E>
+{
+    /** Number of hits per shard, fetched by each scroll. */
+    static final int SCROLL_SIZE = 100;
+
+    private ESQuery query;
+
+    private ESClient client;
+
+    private EntityMetadata m;
+
+    private FilterBuilder filter;
+
+    /** number of hits to be skipped. */
+    private int skip;
+
+    /** number of entities still to be returned. */
+    private int remaining;
+
+    private String scrollId;
+
+    private boolean scrollComplete;
+
+    private LinkedList<SearchHit> hits = new LinkedList<SearchHit>();
+
+    ResultIterator(ESQuery query, ESClient client, EntityMetadata m, FilterBuilder filter, int firstResult,
+            int maxResult)
+    {
+        this.query = query;
+        this.client = client;
+        this.m = m;
+        this.filter = filter;
+        this.skip = firstResult;
+        this.remaining = maxResult;
+    }
+
+    @Override
+    public boolean hasNext()
+    {
+        while (remaining > 0 && hits.isEmpty() && !scrollComplete)
+        {
+            onScroll();
+        }
+        return remaining > 0 && !hits.isEmpty();
+    }
+
+    @Override
+    public E next()
+    {
+        List<E> results = next(1);
+        if (results.isEmpty())
+        {
+            throw new NoSuchElementException("Nothing to scroll further for:" + m.getEntityClazz());
+        }
+        return results.get(0);
+    }
+
+    @Override
+    public List<E> next(int chunkSize)
+    {
+        List<SearchHit> chunk = new ArrayList<SearchHit>(Math.min(chunkSize, SCROLL_SIZE));
+        while (chunk.size() < chunkSize && hasNext())
+        {
+            chunk.add(hits.poll());
+            remaining--;
+        }
+
+        if (chunk.isEmpty())
+        {
+            return new ArrayList<E>();
+        }
+
+        List entities = client.getEntities(chunk, m);
+
+        // relations of a chunk are loaded together.
+        if (m.isRelationViaJoinTable() || (m.getRelationNames() != null && !m.getRelationNames().isEmpty()))
+        {
+            entities = query.setRelationEntities(entities, client, m);
+        }
+        return entities;
+    }
+
+    @Override
+    public void remove()
+    {
+        throw new UnsupportedOperationException("remove method is not supported over pagination");
+    }
+
+    /**
+     * Opens scan on first call, fetches next page of hits afterwards and skips
+     * hits before first result.
+     */
+    private void onScroll()
+    {
+        if (scrollId == null)
+        {
+            // scan response carries no hits, only scroll id.
+            SearchResponse response = client.scan(filter, m, SCROLL_SIZE);
+            scrollId = response.getScrollId();
+            scrollComplete = scrollId == null || response.getHits().getTotalHits() == 0;
+            return;
+        }
+
+        SearchResponse response = client.scroll(scrollId);
+        scrollId = response.getScrollId();
+
+        SearchHit[] page = response.getHits().getHits();
+        if (page.length == 0)
+        {
+            scrollComplete = true;
+            return;
+        }
+
+        int from = Math.min(skip, page.length);
+        skip -= from;
+        hits.addAll(Arrays.asList(page).subList(from, page.length));
+        scrollComplete = scrollId == null;
+    }
+}
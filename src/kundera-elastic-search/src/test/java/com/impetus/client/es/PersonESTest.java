@@ -38,6 +38,8 @@ import org.junit.Test;
 import com.impetus.client.es.PersonES.Day;
 import com.impetus.kundera.PersistenceProperties;
 import com.impetus.kundera.metadata.model.KunderaMetadata;
+import com.impetus.kundera.query.IResultIterator;
+import com.impetus.kundera.query.QueryImpl;
 
 /**
  * @author vivek.mishra junit to demonstrate ESQuery implementation.
@@ -245,6 +247,111 @@ public class PersonESTest
         // TODO: >,<,>=,<=
     }
 
+    @Test
+    public void testWithBulkProcessor() throws InterruptedException
+    {
+        Map<String, Object> props = new HashMap<String, Object>();
+        props.put(ESConstants.BULK_ACTIONS, "10");
+        props.put(ESConstants.BULK_CONCURRENT_REQUESTS, "2");
+        props.put(ESConstants.BULK_FLUSH_INTERVAL, "1s");
+        props.put(ESConstants.REFRESH_ON_FLUSH, "true");
+        EntityManagerFactory emf = Persistence.createEntityManagerFactory("es-pu", props);
+        EntityManager em = emf.createEntityManager();
+
+        em.getTransaction().begin();
+        for (int i = 1; i <= 25; i++)
+        {
+            PersonES person = new PersonES();
+            person.setAge(i);
+            person.setDay(Day.FRIDAY);
+            person.setPersonId(i + "");
+            person.setPersonName("vivek" + i);
+            em.persist(person);
+        }
+        // commit waits for bulk requests and refreshes index.
+        em.getTransaction().commit();
+        em.clear();
+
+        Query query = em.createQuery("Select p from PersonES p");
+        Assert.assertEquals(25, query.getResultList().size());
+
+        for (int i = 1; i <= 25; i++)
+        {
+            PersonES found = em.find(PersonES.class, i + "");
+            Assert.assertNotNull(found);
+            Assert.assertEquals("vivek" + i, found.getPersonName());
+            em.remove(found);
+        }
+        em.flush();
+        em.clear();
+
+        Assert.assertNull(em.find(PersonES.class, "1"));
+        em.close();
+        emf.close();
+    }
+
+    @Test
+    public void testPaginationAndIterate() throws InterruptedException
+    {
+        for (int i = 1; i <= 25; i++)
+        {
+            PersonES person = new PersonES();
+            person.setAge(i);
+            person.setDay(Day.FRIDAY);
+            person.setPersonId(i + "");
+            person.setPersonName("vivek" + i);
+            em.persist(person);
+        }
+
+        waitThread();
+
+        String queryWithOutClause = "Select p from PersonES p";
+        Query query = em.createQuery(queryWithOutClause);
+        query.setMaxResults(10);
+        List<PersonES> persons = query.getResultList();
+        Assert.assertEquals(10, persons.size());
+
+        query = em.createQuery(queryWithOutClause);
+        query.setFirstResult(20);
+        query.setMaxResults(10);
+        persons = query.getResultList();
+        Assert.assertEquals(5, persons.size());
+        Assert.assertEquals(20, query.getFirstResult());
+
+        // iterate in chunks.
+        query = em.createQuery(queryWithOutClause);
+        query.setMaxResults(100);
+        IResultIterator<PersonES> iter = (IResultIterator<PersonES>) ((QueryImpl) query).iterate();
+        int count = 0;
+        while (iter.hasNext())
+        {
+            List<PersonES> chunk = iter.next(10);
+            Assert.assertTrue(chunk.size() <= 10);
+            count += chunk.size();
+        }
+        Assert.assertEquals(25, count);
+        Assert.assertTrue(iter.next(10).isEmpty());
+
+        // iterate honours first and max result.
+        query = em.createQuery("Select p from PersonES p where p.age > 5");
+        query.setFirstResult(5);
+        query.setMaxResults(12);
+        iter = (IResultIterator<PersonES>) ((QueryImpl) query).iterate();
+        count = 0;
+        while (iter.hasNext())
+        {
+            Assert.assertTrue(iter.next().getAge() > 5);
+            count++;
+        }
+        Assert.assertEquals(12, count);
+
+        for (int i = 1; i <= 25; i++)
+        {
+            em.remove(em.find(PersonES.class, i + ""));
+        }
+        waitThread();
+    }
+
     @AfterClass
     public static void tearDownAfterClass() throws Exception
     {
@@ -26,12 +26,11 @@ import java.util.Map;
 import java.util.Set;
 
 import javax.persistence.PersistenceException;
-import javax.persistence.metamodel.Attribute;
-import javax.persistence.metamodel.EntityType;
 
 import org.apache.hadoop.hbase.HBaseConfiguration;
 import org.apache.hadoop.hbase.client.HTableInterface;
 import org.apache.hadoop.hbase.client.HTablePool;
+import org.apache.hadoop.hbase.client.Put;
 import org.apache.hadoop.hbase.filter.CompareFilter.CompareOp;
 import org.apache.hadoop.hbase.filter.Filter;
 import org.apache.hadoop.hbase.filter.FilterList;
@@ -43,7 +42,6 @@ import org.slf4j.LoggerFactory;
 
 import com.impetus.client.hbase.admin.DataHandler;
 import com.impetus.client.hbase.admin.HBaseDataHandler;
-import com.impetus.client.hbase.admin.HBaseDataHandler.HBaseDataWrapper;
 import com.impetus.client.hbase.query.HBaseQuery;
 import com.impetus.client.hbase.utils.HBaseUtils;
 import com.impetus.kundera.KunderaException;
@@ -51,6 +49,7 @@ import com.impetus.kundera.PersistenceProperties;
 import com.impetus.kundera.client.Client;
 import com.impetus.kundera.client.ClientBase;
 import com.impetus.kundera.client.ClientPropertiesSetter;
+import com.impetus.kundera.client.EnhanceEntity;
 import com.impetus.kundera.db.RelationHolder;
 import com.impetus.kundera.generator.TableGenerator;
 import com.impetus.kundera.graph.Node;
@@ -60,8 +59,6 @@ import com.impetus.kundera.metadata.KunderaMetadataManager;
 import com.impetus.kundera.metadata.MetadataUtils;
 import com.impetus.kundera.metadata.model.ClientMetadata;
 import com.impetus.kundera.metadata.model.EntityMetadata;
-import com.impetus.kundera.metadata.model.KunderaMetadata;
-import com.impetus.kundera.metadata.model.MetamodelImpl;
 import com.impetus.kundera.metadata.model.PersistenceUnitMetadata;
 import com.impetus.kundera.metadata.model.TableGeneratorDiscriptor;
 import com.impetus.kundera.metadata.model.attributes.AbstractAttribute;
@@ -91,6 +88,12 @@ public class HBaseClient extends ClientBase implements Client<HBaseQuery>, Batch
 
     private int batchSize;
 
+    /** Whether writes are buffered on client side till flush. */
+    private boolean bufferedWrites;
+
+    /** Number of nodes written into buffer since last flush. */
+    private int buffered;
+
     private Map<String, Object> puProperties;
 
     /**
@@ -110,9 +113,24 @@ public class HBaseClient extends ClientBase implements Client<HBaseQuery>, Batch
      */
     public HBaseClient(IndexManager indexManager, HBaseConfiguration conf, HTablePool hTablePool, EntityReader reader,
             String persistenceUnit, Map<String, Object> puProperties, ClientMetadata clientMetadata)
+    {
+        this(indexManager, conf, hTablePool, reader, persistenceUnit, puProperties, clientMetadata, false);
+    }
+
+    /**
+     * Instantiates a new h base client.
+     * 
+     * @param bufferedWrites
+     *            whether tables of pool buffer writes on client side, in that
+     *            case buffer is sent on flush or commit.
+     */
+    public HBaseClient(IndexManager indexManager, HBaseConfiguration conf, HTablePool hTablePool, EntityReader reader,
+            String persistenceUnit, Map<String, Object> puProperties, ClientMetadata clientMetadata,
+            boolean bufferedWrites)
     {
         this.indexManager = indexManager;
-        this.handler = new HBaseDataHandler(conf, hTablePool);
+        this.bufferedWrites = bufferedWrites;
+        this.handler = new HBaseDataHandler(conf, hTablePool, bufferedWrites);
         this.reader = reader;
         this.persistenceUnit = persistenceUnit;
         this.puProperties = puProperties;
@@ -120,6 +138,7 @@ public class HBaseClient extends ClientBase implements Client<HBaseQuery>, Batch
         this.clientMetadata = clientMetadata;
 
         getBatchSize(persistenceUnit, this.puProperties);
+        getScanProperties(persistenceUnit, this.puProperties);
     }
 
     /*
@@ -408,6 +427,29 @@ public class HBaseClient extends ClientBase implements Client<HBaseQuery>, Batch
         ((HBaseDataHandler) handler).setFetchSize(fetchSize);
     }
 
+    /**
+     * Sets scanner properties (e.g. {@link HBaseConstants#SCAN_CACHING}) for
+     * all subsequent scans.
+     * 
+     * @param properties
+     *            scanner properties.
+     */
+    public void setScanProperties(Map<String, Object> properties)
+    {
+        ((HBaseDataHandler) handler).setScanProperties(properties);
+    }
+
+    /**
+     * Sets scanner properties of a query, given as query hints.
+     * 
+     * @param hints
+     *            query hints, null to reset.
+     */
+    public void setScanHints(Map<String, Object> hints)
+    {
+        ((HBaseDataHandler) handler).setScanHints(hints);
+    }
+
     /**
      * On persist.
      * 
@@ -422,13 +464,28 @@ public class HBaseClient extends ClientBase implements Client<HBaseQuery>, Batch
      */
     @Override
     protected void onPersist(EntityMetadata entityMetadata, Object entity, Object id, List<RelationHolder> relations)
+    {
+        onPersist(entityMetadata, entity, id, relations, null);
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see
+     * com.impetus.kundera.client.ClientBase#onPersist(com.impetus.kundera.metadata
+     * .model.EntityMetadata, java.lang.Object, java.lang.Object,
+     * java.util.List, java.util.Set)
+     */
+    @Override
+    protected void onPersist(EntityMetadata entityMetadata, Object entity, Object id, List<RelationHolder> relations,
+            Set<String> changedColumns)
     {
         String tableName = entityMetadata.getSchema();
 
         try
         {
             // Write data to HBase
-            handler.writeData(tableName, entityMetadata, entity, id, relations);
+            handler.writeData(tableName, entityMetadata, entity, id, relations, changedColumns);
         }
         catch (IOException e)
         {
@@ -514,6 +571,44 @@ public class HBaseClient extends ClientBase implements Client<HBaseQuery>, Batch
                 ((AbstractAttribute) metadata.getIdAttribute()).getJPAColumnName(), pKey);
     }
 
+    /**
+     * Deletes given entities in a single batch of row deletes.
+     * 
+     * @param metadata
+     *            entity metadata
+     * @param entities
+     *            entities to be deleted
+     * @return number of deleted rows
+     */
+    public int delete(EntityMetadata metadata, List<Object> entities)
+    {
+        List<Object> rowKeys = new ArrayList<Object>(entities.size());
+        for (int i = 0; i < entities.size(); i++)
+        {
+            if (entities.get(i) instanceof EnhanceEntity)
+            {
+                entities.set(i, ((EnhanceEntity) entities.get(i)).getEntity());
+            }
+            rowKeys.add(PropertyAccessorHelper.getId(entities.get(i), metadata));
+        }
+
+        try
+        {
+            handler.deleteRows(rowKeys, metadata.getSchema(), metadata.getTableName());
+        }
+        catch (IOException ioex)
+        {
+            log.error("Error during batch delete. Caused by: .", ioex);
+            throw new PersistenceException(ioex);
+        }
+
+        for (int i = 0; i < entities.size(); i++)
+        {
+            getIndexManager().remove(metadata, entities.get(i), rowKeys.get(i).toString());
+        }
+        return rowKeys.size();
+    }
+
     /*
      * (non-Javadoc)
      * 
@@ -617,6 +712,25 @@ public class HBaseClient extends ClientBase implements Client<HBaseQuery>, Batch
     {
         if (node != null)
         {
+            if (bufferedWrites)
+            {
+                // written into client side buffer, sent on executeBatch.
+                if (node.isDirty())
+                {
+                    node.handlePreEvent();
+                    if (node.isInState(RemovedState.class))
+                    {
+                        delete(node.getData(), node.getEntityId());
+                    }
+                    else
+                    {
+                        persist(node);
+                    }
+                    node.handlePostEvent();
+                    buffered++;
+                }
+                return;
+            }
             nodes.add(node);
         }
         onBatchLimit();
@@ -630,7 +744,8 @@ public class HBaseClient extends ClientBase implements Client<HBaseQuery>, Batch
     @Override
     public int getBatchSize()
     {
-        return batchSize;
+        // writes are routed through batch to be buffered.
+        return bufferedWrites ? Math.max(batchSize, 1) : batchSize;
     }
 
     /*
@@ -641,6 +756,7 @@ public class HBaseClient extends ClientBase implements Client<HBaseQuery>, Batch
     @Override
     public void clear()
     {
+        buffered = 0;
         if (nodes != null)
         {
             nodes.clear();
@@ -657,7 +773,16 @@ public class HBaseClient extends ClientBase implements Client<HBaseQuery>, Batch
     @Override
     public int executeBatch()
     {
-        Map<HTableInterface, List<HBaseDataWrapper>> data = new HashMap<HTableInterface, List<HBaseDataWrapper>>();
+        if (bufferedWrites)
+        {
+            handler.flush();
+            int count = buffered;
+            buffered = 0;
+            return count;
+        }
+
+        // one put per row, puts of a table are sent in a single batch.
+        Map<String, List<Put>> data = new HashMap<String, List<Put>>();
 
         try
         {
@@ -666,7 +791,6 @@ public class HBaseClient extends ClientBase implements Client<HBaseQuery>, Batch
                 if (node.isDirty())
                 {
                     node.handlePreEvent();
-                    HTableInterface hTable = null;
                     Object rowKey = node.getEntityId();
                     Object entity = node.getData();
                     if (node.isInState(RemovedState.class))
@@ -677,32 +801,17 @@ public class HBaseClient extends ClientBase implements Client<HBaseQuery>, Batch
                     {
                         EntityMetadata metadata = KunderaMetadataManager.getEntityMetadata(node.getDataClass());
 
-                        HBaseDataWrapper columnWrapper = new HBaseDataHandler.HBaseDataWrapper(rowKey,
-                                new java.util.HashMap<String, Attribute>(), entity, metadata.getTableName());
-
-                        MetamodelImpl metaModel = (MetamodelImpl) KunderaMetadata.INSTANCE.getApplicationMetadata()
-                                .getMetamodel(metadata.getPersistenceUnit());
-
-                        EntityType entityType = metaModel.entity(node.getDataClass());
-
-                        List<HBaseDataWrapper> embeddableData = new ArrayList<HBaseDataHandler.HBaseDataWrapper>();
-
-                        hTable = ((HBaseDataHandler) handler).gethTable(metadata.getSchema());
-                        ((HBaseDataHandler) handler).preparePersistentData(metadata.getSchema(),
-                                metadata.getTableName(), entity, rowKey, metaModel, entityType.getAttributes(),
-                                columnWrapper, embeddableData);
-
-                        List<HBaseDataWrapper> dataSet = null;
-                        if (data.containsKey(hTable))
+                        List<Put> dataSet = data.get(metadata.getSchema());
+                        if (dataSet == null)
                         {
-                            dataSet = data.get(metadata.getTableName());
-                            addRecords(columnWrapper, embeddableData, dataSet);
+                            dataSet = new ArrayList<Put>();
+                            data.put(metadata.getSchema(), dataSet);
                         }
-                        else
+                        Put put = ((HBaseDataHandler) handler).preparePut(metadata.getSchema(), metadata, entity,
+                                rowKey, getRelationHolders(node), getChangedColumns(node, metadata));
+                        if (!put.isEmpty())
                         {
-                            dataSet = new ArrayList<HBaseDataHandler.HBaseDataWrapper>();
-                            addRecords(columnWrapper, embeddableData, dataSet);
-                            data.put(hTable, dataSet);
+                            dataSet.add(put);
                         }
                     }
                     node.handlePostEvent();
@@ -711,7 +820,7 @@ public class HBaseClient extends ClientBase implements Client<HBaseQuery>, Batch
 
             if (!data.isEmpty())
             {
-                ((HBaseDataHandler) handler).batch_insert(data);
+                ((HBaseDataHandler) handler).batchWrite(data);
             }
             return data.size();
         }
@@ -723,27 +832,6 @@ public class HBaseClient extends ClientBase implements Client<HBaseQuery>, Batch
 
     }
 
-    /**
-     * Add records to data wrapper.
-     * 
-     * @param columnWrapper
-     *            column wrapper
-     * @param embeddableData
-     *            embeddable data
-     * @param dataSet
-     *            data collection set
-     */
-    private void addRecords(HBaseDataWrapper columnWrapper, List<HBaseDataWrapper> embeddableData,
-            List<HBaseDataWrapper> dataSet)
-    {
-        dataSet.add(columnWrapper);
-
-        if (!embeddableData.isEmpty())
-        {
-            dataSet.addAll(embeddableData);
-        }
-    }
-
     /**
      * Check on batch limit.
      */
@@ -775,6 +863,33 @@ public class HBaseClient extends ClientBase implements Client<HBaseQuery>, Batch
         }
     }
 
+    /**
+     * Reads scanner properties from external or persistence unit properties.
+     */
+    private void getScanProperties(String persistenceUnit, Map<String, Object> puProperties)
+    {
+        PersistenceUnitMetadata puMetadata = KunderaMetadataManager.getPersistenceUnitMetadata(persistenceUnit);
+        Map<String, Object> scanProperties = new HashMap<String, Object>();
+        for (String name : new String[] { HBaseConstants.SCAN_CACHING, HBaseConstants.SCAN_BATCH,
+                HBaseConstants.SCAN_CACHE_BLOCKS, HBaseConstants.SCAN_MAX_VERSIONS })
+        {
+            Object value = puProperties != null ? puProperties.get(name) : null;
+            if (value == null && puMetadata != null)
+            {
+                value = puMetadata.getProperties().getProperty(name);
+            }
+            if (value != null)
+            {
+                scanProperties.put(name, value);
+            }
+        }
+
+        if (!scanProperties.isEmpty())
+        {
+            setScanProperties(scanProperties);
+        }
+    }
+
     void setBatchSize(int batch_Size)
     {
         this.batchSize = batch_Size;
@@ -26,6 +26,7 @@ import org.slf4j.LoggerFactory;
 
 import com.impetus.client.hbase.config.HBasePropertyReader;
 import com.impetus.client.hbase.schemamanager.HBaseSchemaManager;
+import com.impetus.client.hbase.service.BufferedHTableFactory;
 import com.impetus.kundera.PersistenceProperties;
 import com.impetus.kundera.client.Client;
 import com.impetus.kundera.configure.ClientProperties.DataStore.Connection;
@@ -57,6 +58,9 @@ public class HBaseClientFactory extends GenericClientFactory
     /** The pool size. */
     private int poolSize;
 
+    /** Client side write buffer size, 0 if writes are not buffered. */
+    private long writeBufferSize;
+
     @Override
     public void initialize(Map<String, Object> externalProperty)
     {
@@ -68,11 +72,13 @@ public class HBaseClientFactory extends GenericClientFactory
         String node = null;
         String port = null;
         String poolSize = null;
+        String writeBufferSize = null;
         if (externalProperty != null)
         {
             node = (String) externalProperty.get(PersistenceProperties.KUNDERA_NODES);
             port = (String) externalProperty.get(PersistenceProperties.KUNDERA_PORT);
             poolSize = (String) externalProperty.get(PersistenceProperties.KUNDERA_POOL_SIZE_MAX_ACTIVE);
+            writeBufferSize = (String) externalProperty.get(HBaseConstants.WRITE_BUFFER_SIZE);
         }
         if (node == null)
         {
@@ -87,6 +93,12 @@ public class HBaseClientFactory extends GenericClientFactory
             poolSize = puMetadata.getProperties().getProperty(PersistenceProperties.KUNDERA_POOL_SIZE_MAX_ACTIVE);
         }
 
+        if (writeBufferSize == null)
+        {
+            writeBufferSize = puMetadata.getProperties().getProperty(HBaseConstants.WRITE_BUFFER_SIZE);
+        }
+        this.writeBufferSize = StringUtils.isEmpty(writeBufferSize) ? 0 : Long.parseLong(writeBufferSize.trim());
+
         if (StringUtils.isEmpty(poolSize))
         {
             this.poolSize = DEFAULT_POOL_SIZE;
@@ -125,20 +137,27 @@ public class HBaseClientFactory extends GenericClientFactory
     @Override
     protected Object createPoolOrConnection()
     {
-        hTablePool = new HTablePool(conf, poolSize);
+        hTablePool = writeBufferSize > 0 ? new HTablePool(conf, poolSize, new BufferedHTableFactory(
+                writeBufferSize)) : new HTablePool(conf, poolSize);
         return hTablePool;
     }
 
     @Override
     protected Client instantiateClient(String persistenceUnit)
     {
-        return new HBaseClient(indexManager, conf, hTablePool, reader, persistenceUnit, externalProperties, clientMetadata);
+        return new HBaseClient(indexManager, conf, hTablePool, reader, persistenceUnit, externalProperties,
+                clientMetadata, writeBufferSize > 0);
     }
 
+    /**
+     * Client is shared across entity managers, unless writes are buffered:
+     * buffered writes(and tables holding them) belong to an entity manager
+     * till its flush, so each one gets its own client then.
+     */
     @Override
     public boolean isThreadSafe()
     {
-        return true;
+        return writeBufferSize <= 0;
     }
 
     @Override
@@ -15,6 +15,7 @@
  */
 package com.impetus.client.hbase;
 
+import java.util.Collections;
 import java.util.Map;
 
 import org.apache.hadoop.hbase.filter.Filter;
@@ -37,6 +38,8 @@ class HBaseClientProperties
 
     private static final String FILTER = "hbase.filter";
 
+    private static final String SCAN_PROPERTY_PREFIX = "hbase.scan.";
+
     private HBaseClient hbaseClient;
 
     public void populateClientProperties(Client client, Map<String, Object> properties)
@@ -62,6 +65,12 @@ class HBaseClientProperties
 
                         setBatchSize(value);
 
+                    }
+                    else if (key.startsWith(SCAN_PROPERTY_PREFIX))
+                    {
+
+                        this.hbaseClient.setScanProperties(Collections.singletonMap(key, value));
+
                     }
 
                     // Add more
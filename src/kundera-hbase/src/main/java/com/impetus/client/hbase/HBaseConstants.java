@@ -28,4 +28,28 @@ public final class HBaseConstants
     public static final String ZOOKEEPER_PORT = "zookeeper.port";
 
     public static final String ZOOKEEPER_HOST = "zookeeper.host";
+
+    /**
+     * Client side write buffer size in bytes, writes are buffered till flush
+     * or commit if it is > 0.
+     */
+    public static final String WRITE_BUFFER_SIZE = "hbase.write.buffer.size";
+
+    /**
+     * Number of rows fetched per scanner rpc. Applicable as persistence unit
+     * property and query hint, defaults to fetch size of iterator.
+     */
+    public static final String SCAN_CACHING = "hbase.scan.caching";
+
+    /** Maximum number of columns returned per scanner result. */
+    public static final String SCAN_BATCH = "hbase.scan.batch";
+
+    /**
+     * Whether blocks read by scanner are cached, false avoids polluting block
+     * cache on full scans.
+     */
+    public static final String SCAN_CACHE_BLOCKS = "hbase.scan.cache.blocks";
+
+    /** Maximum number of versions of each column returned by scanner. */
+    public static final String SCAN_MAX_VERSIONS = "hbase.scan.max.versions";
 }
@@ -23,6 +23,7 @@ import java.util.Set;
 import javax.persistence.metamodel.Attribute;
 
 import org.apache.hadoop.hbase.client.HTableInterface;
+import org.apache.hadoop.hbase.client.Put;
 
 import com.impetus.client.hbase.admin.HBaseDataHandler.HBaseDataWrapper;
 import com.impetus.kundera.db.RelationHolder;
@@ -156,6 +157,18 @@ public interface Writer
      */
     void delete(HTableInterface hTable, Object rowKey, String columnFamily);
 
+    /**
+     * Deletes given rows in a single batch.
+     * 
+     * @param hTable
+     *            the h table
+     * @param rowKeys
+     *            the row keys
+     * @param columnFamily
+     *            the column family
+     */
+    void deleteRows(HTableInterface hTable, List<Object> rowKeys, String columnFamily);
+
     /**
      * method to perform batch insert/update.
      * 
@@ -165,4 +178,37 @@ public interface Writer
      *             throws io exception.
      */
     void persistRows(Map<HTableInterface, List<HBaseDataWrapper>> rows) throws IOException;
+
+    /**
+     * Prepares a single put holding all columns, embedded column families and
+     * relations of a row.
+     * 
+     * @param rowKey
+     *            the row key
+     * @param columnWrapper
+     *            columns of entity
+     * @param embeddableData
+     *            embedded column families
+     * @param relations
+     *            relations, may be null
+     * @param columnFamilyName
+     *            column family of entity
+     * @return the put
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    Put preparePut(Object rowKey, HBaseDataWrapper columnWrapper, List<HBaseDataWrapper> embeddableData,
+            List<RelationHolder> relations, String columnFamilyName) throws IOException;
+
+    /**
+     * Writes puts of different rows in a single batch.
+     * 
+     * @param htable
+     *            the htable
+     * @param puts
+     *            puts, one per row
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    void writeRows(HTableInterface htable, List<Put> puts) throws IOException;
 }
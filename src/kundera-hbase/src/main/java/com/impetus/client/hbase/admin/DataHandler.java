@@ -18,6 +18,7 @@ package com.impetus.client.hbase.admin;
 import java.io.IOException;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.apache.hadoop.hbase.filter.FilterList;
 
@@ -113,11 +114,13 @@ public interface DataHandler
      *            the row id
      * @param relations
      *            the relations
+     * @param columns
+     *            columns to be written, null if all
      * @throws IOException
      *             Signals that an I/O exception has occurred.
      */
-    void writeData(String tableName, EntityMetadata m, Object entity, Object rowId, List<RelationHolder> relations)
-            throws IOException;
+    void writeData(String tableName, EntityMetadata m, Object entity, Object rowId, List<RelationHolder> relations,
+            Set<String> columns) throws IOException;
 
     /**
      * Writes data into Join Table.
@@ -168,6 +171,11 @@ public interface DataHandler
      */
     void shutdown();
 
+    /**
+     * Sends writes buffered on client side, if any.
+     */
+    void flush();
+
     /**
      * Delete specific row.
      * 
@@ -180,6 +188,18 @@ public interface DataHandler
      */
     void deleteRow(Object rowKey, String tableName, String columnFamilyName) throws IOException;
 
+    /**
+     * Delete given rows in a single batch.
+     * 
+     * @param rowKeys
+     *            the row keys
+     * @param tableName
+     *            the table name
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    void deleteRows(List<Object> rowKeys, String tableName, String columnFamilyName) throws IOException;
+
     Object[] scanRowyKeys(FilterList filterList, String tableName, String columnFamilyName, String columnName,
             Class rowKeyClazz) throws IOException;
 }
@@ -22,6 +22,7 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -41,6 +42,7 @@ import org.apache.hadoop.hbase.MasterNotRunningException;
 import org.apache.hadoop.hbase.client.HBaseAdmin;
 import org.apache.hadoop.hbase.client.HTableInterface;
 import org.apache.hadoop.hbase.client.HTablePool;
+import org.apache.hadoop.hbase.client.Put;
 import org.apache.hadoop.hbase.filter.Filter;
 import org.apache.hadoop.hbase.filter.FilterList;
 import org.apache.hadoop.hbase.util.Bytes;
@@ -48,6 +50,7 @@ import org.jboss.netty.util.internal.ConcurrentHashMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.impetus.client.hbase.HBaseConstants;
 import com.impetus.client.hbase.HBaseData;
 import com.impetus.client.hbase.Reader;
 import com.impetus.client.hbase.Writer;
@@ -98,6 +101,21 @@ public class HBaseDataHandler implements DataHandler
 
     private Map<String, FilterList> filters = new ConcurrentHashMap<String, FilterList>();
 
+    /** Whether tables buffer writes on client side, till flush. */
+    private boolean bufferedWrites;
+
+    /**
+     * Tables holding buffered writes, by table name. Not shared across entity
+     * managers, as client is not thread safe with buffered writes.
+     */
+    private Map<String, HTableInterface> writeTables = new HashMap<String, HTableInterface>();
+
+    /** Scanner properties set via persistence unit or entity manager. */
+    private Map<String, Object> scanProperties = new HashMap<String, Object>();
+
+    /** Scanner properties set via query hints, override scanProperties. */
+    private Map<String, Object> scanHints;
+
     /**
      * Instantiates a new h base data handler.
      * 
@@ -107,11 +125,28 @@ public class HBaseDataHandler implements DataHandler
      *            the h table pool
      */
     public HBaseDataHandler(HBaseConfiguration conf, HTablePool hTablePool)
+    {
+        this(conf, hTablePool, false);
+    }
+
+    /**
+     * Instantiates a new h base data handler.
+     * 
+     * @param conf
+     *            the conf
+     * @param hTablePool
+     *            the h table pool
+     * @param bufferedWrites
+     *            whether tables of pool buffer writes, in that case written
+     *            tables are held till {@link #flush()}.
+     */
+    public HBaseDataHandler(HBaseConfiguration conf, HTablePool hTablePool, boolean bufferedWrites)
     {
         try
         {
             this.conf = conf;
             this.hTablePool = hTablePool;
+            this.bufferedWrites = bufferedWrites;
             this.admin = new HBaseAdmin(conf);
         }
         catch (Exception e)
@@ -306,20 +341,69 @@ public class HBaseDataHandler implements DataHandler
      * @see
      * com.impetus.client.hbase.admin.DataHandler#writeData(java.lang.String,
      * com.impetus.kundera.metadata.model.EntityMetadata, java.lang.Object,
-     * java.lang.String, java.util.List)
+     * java.lang.String, java.util.List, java.util.Set)
      */
     @Override
     public void writeData(String tableName, EntityMetadata m, Object entity, Object rowId,
-            List<RelationHolder> relations) throws IOException
+            List<RelationHolder> relations, Set<String> columns) throws IOException
     {
-        HTableInterface hTable = gethTable(tableName);
+        Put put = preparePut(tableName, m, entity, rowId, relations, columns);
+        if (!put.isEmpty())
+        {
+            HTableInterface hTable = getWriteTable(tableName);
+            try
+            {
+                hTable.put(put);
+            }
+            finally
+            {
+                releaseWriteTable(hTable);
+            }
+        }
+    }
 
+    /**
+     * Prepares a single put holding columns, embedded column families,
+     * relations and discriminator of given entity.
+     * 
+     * @param tableName
+     *            the table name
+     * @param m
+     *            entity metadata
+     * @param entity
+     *            the entity
+     * @param rowId
+     *            the row id
+     * @param relations
+     *            relations, may be null
+     * @param columns
+     *            columns to be written, e.g. changed ones on merge; null if
+     *            all
+     * @return the put
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    public Put preparePut(String tableName, EntityMetadata m, Object entity, Object rowId,
+            List<RelationHolder> relations, Set<String> columns) throws IOException
+    {
         MetamodelImpl metaModel = (MetamodelImpl) KunderaMetadata.INSTANCE.getApplicationMetadata().getMetamodel(
                 m.getPersistenceUnit());
 
         EntityType entityType = metaModel.entity(m.getEntityClazz());
 
         Set<Attribute> attributes = entityType.getAttributes();
+        if (columns != null)
+        {
+            Set<Attribute> changedAttributes = new HashSet<Attribute>();
+            for (Attribute attribute : attributes)
+            {
+                if (columns.contains(((AbstractAttribute) attribute).getJPAColumnName()))
+                {
+                    changedAttributes.add(attribute);
+                }
+            }
+            attributes = changedAttributes;
+        }
 
         HBaseDataWrapper columnWrapper = new HBaseDataWrapper(rowId, new java.util.HashMap<String, Attribute>(),
                 entity, null);
@@ -328,24 +412,11 @@ public class HBaseDataHandler implements DataHandler
         preparePersistentData(tableName, m.getTableName(), entity, rowId, metaModel, attributes, columnWrapper,
                 persistentData);
 
-        hbaseWriter.writeColumns(hTable, columnWrapper.getRowKey(), columnWrapper.getColumns(), entity,
-                m.getTableName());
-
-        for (HBaseDataWrapper wrapper : persistentData)
-        {
-            hbaseWriter.writeColumns(hTable, wrapper.getColumnFamily(), wrapper.getRowKey(), wrapper.getColumns(),
-                    wrapper.getValues(), wrapper.getEntity());
-        }
-
         // Persist relationships as a column in newly created Column family by
         // Kundera
-        boolean containsEmbeddedObjectsOnly = columnWrapper.getColumns().isEmpty() && persistentData.isEmpty();
+        List<RelationHolder> rowRelations = relations != null ? new ArrayList<RelationHolder>(relations)
+                : new ArrayList<RelationHolder>(1);
 
-        if (relations != null && !relations.isEmpty())
-        {
-            hbaseWriter.writeRelations(hTable, rowId, containsEmbeddedObjectsOnly, relations, m.getTableName());
-        }
-        
         // add discriminator column
         String discrColumn = ((AbstractManagedType)entityType).getDiscriminatorColumn();
         String discrValue = ((AbstractManagedType)entityType).getDiscriminatorValue();
@@ -353,12 +424,104 @@ public class HBaseDataHandler implements DataHandler
         // No need to check for empty or blank, as considering it as valid name for nosql!
         if(discrColumn != null && discrValue != null)
         {
-            List<RelationHolder> discriminator = new ArrayList<RelationHolder>(1);
-            discriminator.add(new RelationHolder(discrColumn, discrValue));
-            hbaseWriter.writeRelations(hTable, rowId, containsEmbeddedObjectsOnly, discriminator, m.getTableName());
+            rowRelations.add(new RelationHolder(discrColumn, discrValue));
         }
 
-        puthTable(hTable);
+        // all cells of row go in a single put.
+        return hbaseWriter.preparePut(rowId, columnWrapper, persistentData, rowRelations, m.getTableName());
+    }
+
+    /**
+     * Writes given puts, puts of a table are sent in a single batch.
+     * 
+     * @param rows
+     *            puts by table name.
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    public void batchWrite(Map<String, List<Put>> rows) throws IOException
+    {
+        for (Map.Entry<String, List<Put>> row : rows.entrySet())
+        {
+            HTableInterface hTable = gethTable(row.getKey());
+            try
+            {
+                hbaseWriter.writeRows(hTable, row.getValue());
+            }
+            finally
+            {
+                puthTable(hTable);
+            }
+        }
+    }
+
+    /**
+     * Sends writes buffered on client side and returns written tables to pool,
+     * every table is returned even if sending writes of a table fails.
+     */
+    public void flush()
+    {
+        IOException failure = null;
+        for (Map.Entry<String, HTableInterface> writeTable : writeTables.entrySet())
+        {
+            try
+            {
+                writeTable.getValue().flushCommits();
+            }
+            catch (IOException ioex)
+            {
+                log.error("Error while flushing buffered writes of table {}.", writeTable.getKey(), ioex);
+                failure = failure == null ? ioex : failure;
+            }
+            finally
+            {
+                try
+                {
+                    puthTable(writeTable.getValue());
+                }
+                catch (IOException ioex)
+                {
+                    log.warn("Error while returning table {} to pool.", writeTable.getKey(), ioex);
+                }
+            }
+        }
+        writeTables.clear();
+
+        if (failure != null)
+        {
+            throw new PersistenceException(failure);
+        }
+    }
+
+    /**
+     * Returns table to write into, table is held till flush in case of
+     * buffered writes.
+     */
+    private HTableInterface getWriteTable(final String tableName) throws IOException
+    {
+        if (!bufferedWrites)
+        {
+            return hTablePool.getTable(tableName);
+        }
+
+        HTableInterface hTable = writeTables.get(tableName);
+        if (hTable == null)
+        {
+            hTable = hTablePool.getTable(tableName);
+            writeTables.put(tableName, hTable);
+        }
+        return hTable;
+    }
+
+    /**
+     * Returns written table to pool, unless it holds buffered writes.
+     */
+    private void releaseWriteTable(HTableInterface hTable) throws IOException
+    {
+        if (!bufferedWrites)
+        {
+            puthTable(hTable);
+        }
     }
 
     /*
@@ -372,11 +535,16 @@ public class HBaseDataHandler implements DataHandler
     public void writeJoinTableData(String tableName, Object rowId, Map<String, Object> columns, String columnFamilyName)
             throws IOException
     {
-        HTableInterface hTable = gethTable(tableName);
-
-        hbaseWriter.writeColumns(hTable, rowId, columns, columnFamilyName);
+        HTableInterface hTable = getWriteTable(tableName);
 
-        puthTable(hTable);
+        try
+        {
+            hbaseWriter.writeColumns(hTable, rowId, columns, columnFamilyName);
+        }
+        finally
+        {
+            releaseWriteTable(hTable);
+        }
 
     }
 
@@ -462,6 +630,20 @@ public class HBaseDataHandler implements DataHandler
      */
     public HTableInterface gethTable(final String tableName) throws IOException
     {
+        // buffered writes are sent first, so that reads and deletes are
+        // applied after them.
+        HTableInterface writeTable = writeTables.remove(tableName);
+        if (writeTable != null)
+        {
+            try
+            {
+                writeTable.flushCommits();
+            }
+            finally
+            {
+                puthTable(writeTable);
+            }
+        }
         return hTablePool.getTable(tableName);
     }
 
@@ -484,6 +666,7 @@ public class HBaseDataHandler implements DataHandler
     @Override
     public void shutdown()
     {
+        flush();
 
         // TODO: Shutting down admin actually shuts down HMaster, something we
         // don't want.
@@ -649,10 +832,11 @@ public class HBaseDataHandler implements DataHandler
                         {
                             String cfInHbase = Bytes.toString(colData.getFamily());
 
-                            byte[] columnValue = colData.getValue();
-                            if (relationNames != null && relationNames.contains(cfInHbase) && columnValue.length != 0)
+                            int valueLength = colData.getValueLength();
+                            if (relationNames != null && relationNames.contains(cfInHbase) && valueLength != 0)
                             {
-                                relations.put(cfInHbase, getObjectFromByteArray(entityType, columnValue, cfInHbase, m));
+                                relations.put(cfInHbase,
+                                        getObjectFromByteArray(entityType, colData.getValue(), cfInHbase, m));
                             }
                             // Set Hbase data into the column family object
 
@@ -660,17 +844,17 @@ public class HBaseDataHandler implements DataHandler
 
                             // Get Column from metadata
                             Field columnField = columnNameToFieldMap.get(colName);
-                            if (columnField != null && columnValue.length != 0)
+                            if (columnField != null && valueLength != 0)
                             {
                                 if (columnFamilyFieldInEntity.isAnnotationPresent(Embedded.class)
                                         || columnFamilyFieldInEntity.isAnnotationPresent(ElementCollection.class))
                                 {
-                                    PropertyAccessorHelper.set(columnFamilyObj, columnField,
-                                            HBaseUtils.fromBytes(columnValue, columnField.getType()));
+                                    HBaseUtils.setValue(columnFamilyObj, columnField, colData);
                                 }
                                 else
                                 {
-                                    columnFamilyObj = getObjectFromByteArray(entityType, columnValue, cfInHbase, m);
+                                    columnFamilyObj = getObjectFromByteArray(entityType, colData.getValue(),
+                                            cfInHbase, m);
                                 }
                             }
                         }
@@ -686,16 +870,15 @@ public class HBaseDataHandler implements DataHandler
                     {
                         String hbaseColumn = Bytes.toString(colData.getQualifier());
                         String colName = hbaseColumn;
-                        byte[] columnValue = colData.getValue();
-                        if (relationNames != null && relationNames.contains(colName) && columnValue.length != 0)
+                        int valueLength = colData.getValueLength();
+                        if (relationNames != null && relationNames.contains(colName) && valueLength != 0)
                         {
-                            relations.put(colName, getObjectFromByteArray(entityType, columnValue, colName, m));
+                            relations.put(colName, getObjectFromByteArray(entityType, colData.getValue(), colName, m));
                         }
                         else if (colName != null && colName.equalsIgnoreCase(columnName.toLowerCase())
-                                && columnValue.length != 0)
+                                && valueLength != 0)
                         {
-                            PropertyAccessorHelper.set(entity, columnField,
-                                    HBaseUtils.fromBytes(columnValue, columnField.getType()));
+                            HBaseUtils.setValue(entity, columnField, colData);
                         }
                     }
                 }
@@ -769,6 +952,19 @@ public class HBaseDataHandler implements DataHandler
         hbaseWriter.delete(gethTable(tableName), rowKey, columnFamilyName);
     }
 
+    /*
+     * (non-Javadoc)
+     * 
+     * @see
+     * com.impetus.client.hbase.admin.DataHandler#deleteRows(java.util.List,
+     * java.lang.String, java.lang.String)
+     */
+    @Override
+    public void deleteRows(List<Object> rowKeys, String tableName, String columnFamilyName) throws IOException
+    {
+        hbaseWriter.deleteRows(gethTable(tableName), rowKeys, columnFamilyName);
+    }
+
     @Override
     public List<Object> findParentEntityFromJoinTable(EntityMetadata parentMetadata, String joinTableName,
             String joinColumnName, String inverseJoinColumnName, Object childId)
@@ -1264,9 +1460,65 @@ public class HBaseDataHandler implements DataHandler
         HBaseDataHandler handler = new HBaseDataHandler(this.conf, this.hTablePool);
         handler.filter = this.filter;
         handler.filters = this.filters;
+        handler.scanProperties = this.scanProperties;
+        handler.setScanHints(this.scanHints);
         return handler;
     }
 
+    /**
+     * Sets scanner properties (e.g. {@link HBaseConstants#SCAN_CACHING})
+     * applicable to all subsequent scans.
+     * 
+     * @param properties
+     *            scanner properties.
+     */
+    public void setScanProperties(Map<String, Object> properties)
+    {
+        scanProperties.putAll(properties);
+        setScanHints(scanHints);
+    }
+
+    /**
+     * Sets scanner properties of a query, overriding properties set via
+     * {@link #setScanProperties(Map)}.
+     * 
+     * @param hints
+     *            query hints, null to reset.
+     */
+    public void setScanHints(Map<String, Object> hints)
+    {
+        this.scanHints = hints;
+        Map<String, Object> properties = new HashMap<String, Object>(scanProperties);
+        if (hints != null)
+        {
+            properties.putAll(hints);
+        }
+        ((HBaseReader) hbaseReader).setScanProperties(getInteger(properties, HBaseConstants.SCAN_CACHING),
+                getInteger(properties, HBaseConstants.SCAN_BATCH),
+                getBoolean(properties, HBaseConstants.SCAN_CACHE_BLOCKS),
+                getInteger(properties, HBaseConstants.SCAN_MAX_VERSIONS));
+    }
+
+    private static Integer getInteger(Map<String, Object> properties, String name)
+    {
+        Object value = properties.get(name);
+        if (value == null)
+        {
+            return null;
+        }
+        return value instanceof Number ? ((Number) value).intValue() : Integer.valueOf(value.toString().trim());
+    }
+
+    private static Boolean getBoolean(Map<String, Object> properties, String name)
+    {
+        Object value = properties.get(name);
+        if (value == null)
+        {
+            return null;
+        }
+        return value instanceof Boolean ? (Boolean) value : Boolean.valueOf(value.toString().trim());
+    }
+
     private Filter getFilter(final String columnFamily)
     {
         FilterList filter = filters.get(columnFamily);
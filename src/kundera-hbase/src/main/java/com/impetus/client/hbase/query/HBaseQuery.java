@@ -137,12 +137,58 @@ public class HBaseQuery extends QueryImpl
     {
         if (kunderaQuery.isDeleteUpdate())
         {
+            EntityMetadata m = getEntityMetadata();
+            if (!kunderaQuery.isUpdateClause() && isBatchDeleteSupported(m))
+            {
+                // Matching rows are deleted in a single batch, instead of
+                // removing each of them via persistence context.
+                Client client = persistenceDelegeator.getClient(m);
+                List results = populateEntities(m, client);
+                return results != null && !results.isEmpty() ? ((HBaseClient) client).delete(m, results) : 0;
+            }
             List result = getResultList();
             return result != null ? result.size() : 0;
         }
         return 0;
     }
 
+    /**
+     * Returns true if rows of given entity can be deleted in batch, i.e.
+     * entity holds no relation to be cascaded and no entity listener to be
+     * invoked per row.
+     * 
+     * @param m
+     *            entity metadata
+     * @return true, if batch delete is supported.
+     */
+    private boolean isBatchDeleteSupported(EntityMetadata m)
+    {
+        return !m.isRelationViaJoinTable() && (m.getRelationNames() == null || m.getRelationNames().isEmpty())
+                && m.getCallbackMethodsMap().isEmpty();
+    }
+
+    /**
+     * Executes query with scanner properties given as query hints.
+     * 
+     * @param m
+     *            Entity metadata
+     * @param client
+     *            hbase client
+     * @return list of entities.
+     */
+    private List onQuery(EntityMetadata m, Client client)
+    {
+        ((HBaseClient) client).setScanHints(getHints());
+        try
+        {
+            return findEntities(m, client);
+        }
+        finally
+        {
+            ((HBaseClient) client).setScanHints(null);
+        }
+    }
+
     /**
      * Parses and translates query into HBase filter and invokes client's method
      * to return list of entities.
@@ -153,7 +199,7 @@ public class HBaseQuery extends QueryImpl
      *            hbase client
      * @return list of entities.
      */
-    private List onQuery(EntityMetadata m, Client client)
+    private List findEntities(EntityMetadata m, Client client)
     {
         // Called only in case of standalone entity.
         QueryTranslator translator = new QueryTranslator();
@@ -564,6 +610,14 @@ public class HBaseQuery extends QueryImpl
     @Override
     public Iterator iterate()
     {
+        return iterate(getFetchSize() != null ? getFetchSize() : this.maxResult);
+    }
+
+    @Override
+    protected Iterator iterate(int maxRows)
+    {
+        persistenceDelegeator.flushBeforeQuery();
+
         EntityMetadata m = getEntityMetadata();
         Client client = persistenceDelegeator.getClient(m);
 
@@ -576,9 +630,18 @@ public class HBaseQuery extends QueryImpl
         QueryTranslator translator = new QueryTranslator();
         translator.translate(getKunderaQuery(), m);
         // start with 1 as first element is alias.
-        List<String> columns = getTranslatedColumns(m, getKunderaQuery().getResult(), 1);
+        List<String> columns = getTranslatedColumns(m, getKunderaQuery().getProjection(), 1);
 
-        return new ResultIterator((HBaseClient) client, m, persistenceDelegeator,
-                getFetchSize() != null ? getFetchSize() : this.maxResult, translator, columns);
+        // scanner of iterator is opened with hints, fetch size is used as
+        // scanner caching unless given as hint.
+        ((HBaseClient) client).setScanHints(getHints());
+        try
+        {
+            return new ResultIterator((HBaseClient) client, m, persistenceDelegeator, maxRows, translator, columns);
+        }
+        finally
+        {
+            ((HBaseClient) client).setScanHints(null);
+        }
     }
 }
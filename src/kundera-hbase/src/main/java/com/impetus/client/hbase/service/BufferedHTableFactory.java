@@ -0,0 +1,58 @@
+/*******************************************************************************
+ * * Copyright 2013 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.client.hbase.service;
+
+import java.io.IOException;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.client.HTable;
+import org.apache.hadoop.hbase.client.HTableFactory;
+import org.apache.hadoop.hbase.client.HTableInterface;
+
+/**
+ * Table factory for table pool, creates tables with auto flush disabled. Puts
+ * are buffered on client side and sent once write buffer is full or on
+ * flushCommits.
+ */
+public class BufferedHTableFactory extends HTableFactory
+{
+    private final long writeBufferSize;
+
+    /**
+     * @param writeBufferSize
+     *            write buffer size in bytes.
+     */
+    public BufferedHTableFactory(long writeBufferSize)
+    {
+        this.writeBufferSize = writeBufferSize;
+    }
+
+    @Override
+    public HTableInterface createHTableInterface(Configuration config, byte[] tableName)
+    {
+        try
+        {
+            HTable hTable = new HTable(config, tableName);
+            hTable.setAutoFlush(false);
+            hTable.setWriteBufferSize(writeBufferSize);
+            return hTable;
+        }
+        catch (IOException ioex)
+        {
+            throw new RuntimeException(ioex);
+        }
+    }
+}
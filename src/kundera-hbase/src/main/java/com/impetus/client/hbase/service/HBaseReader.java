@@ -28,6 +28,8 @@ import org.apache.hadoop.hbase.client.ResultScanner;
 import org.apache.hadoop.hbase.client.Scan;
 import org.apache.hadoop.hbase.filter.Filter;
 import org.apache.hadoop.hbase.util.Bytes;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import com.impetus.client.hbase.HBaseData;
 import com.impetus.client.hbase.Reader;
@@ -40,6 +42,12 @@ import com.impetus.client.hbase.utils.HBaseUtils;
  */
 public class HBaseReader implements Reader
 {
+    /** log for this class. */
+    private static Logger log = LoggerFactory.getLogger(HBaseReader.class);
+
+    /** upper bound of scanner caching derived from fetch size. */
+    private static final int MAX_FETCH_CACHING = 1000;
+
     private ResultScanner scanner = null;
 
     private Iterator<Result> resultsIter;
@@ -48,6 +56,18 @@ public class HBaseReader implements Reader
 
     private Integer counter = 0;
 
+    /** rows fetched per scanner rpc, null for HBase default. */
+    private Integer caching;
+
+    /** columns per scanner result, null for whole row. */
+    private Integer batch;
+
+    /** whether scanned blocks are cached, null for HBase default. */
+    private Boolean cacheBlocks;
+
+    /** versions per column, null for latest version only. */
+    private Integer maxVersions;
+
     /*
      * (non-Javadoc)
      * 
@@ -135,6 +155,7 @@ public class HBaseReader implements Reader
                 scan = new Scan();
             }
             setScanCriteria(filter, columnFamily, null, scan, columns);
+            setScanProperties(scan);
             scanner = hTable.getScanner(scan);
             resultsIter = scanner.iterator();
         }
@@ -193,6 +214,7 @@ public class HBaseReader implements Reader
                 s = new Scan();
             }
             setScanCriteria(filter, columnFamily, qualifier, s, columns);
+            setScanProperties(s);
             scanner = hTable.getScanner(s);
             resultsIter = scanner.iterator();
         }
@@ -231,6 +253,67 @@ public class HBaseReader implements Reader
         }
     }
 
+    /**
+     * Sets scanner caching, batch, block caching and max versions on scan.
+     * Caching falls back to fetch size, so that an iterator fetches its rows
+     * in a single rpc instead of one rpc per row.
+     * 
+     * @param s
+     *            scan.
+     */
+    private void setScanProperties(Scan s)
+    {
+        Integer rows = caching != null ? caching : fetchSize != null ? Math.min(fetchSize, MAX_FETCH_CACHING) : null;
+        if (rows != null && rows > 0)
+        {
+            s.setCaching(rows);
+        }
+
+        // partial rows are merged by scanResults, not by iterator.
+        if (batch != null && batch > 0 && fetchSize == null)
+        {
+            if (s.hasFilter() && s.getFilter().hasFilterRow())
+            {
+                log.warn("Ignoring scanner batch {}, as it is incompatible with filter {}.", batch, s.getFilter());
+            }
+            else
+            {
+                s.setBatch(batch);
+            }
+        }
+
+        if (cacheBlocks != null)
+        {
+            s.setCacheBlocks(cacheBlocks);
+        }
+
+        if (maxVersions != null && maxVersions > 0)
+        {
+            s.setMaxVersions(maxVersions);
+        }
+    }
+
+    /**
+     * Sets scanner properties for subsequent scans, null values fall back to
+     * HBase defaults.
+     * 
+     * @param caching
+     *            rows fetched per rpc.
+     * @param batch
+     *            columns per result.
+     * @param cacheBlocks
+     *            whether scanned blocks are cached.
+     * @param maxVersions
+     *            versions per column.
+     */
+    public void setScanProperties(Integer caching, Integer batch, Boolean cacheBlocks, Integer maxVersions)
+    {
+        this.caching = caching;
+        this.batch = batch;
+        this.cacheBlocks = cacheBlocks;
+        this.maxVersions = maxVersions;
+    }
+
     /**
      * Scan and populate {@link HBaseData} collection using scanned results.
      * 
@@ -252,6 +335,16 @@ public class HBaseReader implements Reader
             for (Result result : scanner)
             {
                 List<KeyValue> values = result.list();
+
+                // with scanner batch, a row may span consecutive results.
+                if (data != null && Bytes.equals(data.getRowKey(), result.getRow()))
+                {
+                    List<KeyValue> columns = new ArrayList<KeyValue>(data.getColumns());
+                    columns.addAll(values);
+                    data.setColumns(columns);
+                    continue;
+                }
+
                 for (KeyValue value : values)
                 {
                     data = new HBaseData(columnFamily != null ? columnFamily : new String(value.getFamily()),
@@ -283,6 +376,7 @@ public class HBaseReader implements Reader
             Scan s = new Scan();
             s.setFilter(filter);
             s.addColumn(Bytes.toBytes(columnFamilyName), Bytes.toBytes(columnName));
+            setScanProperties(s);
             scanner = hTable.getScanner(s);
             resultsIter = scanner.iterator();
         }
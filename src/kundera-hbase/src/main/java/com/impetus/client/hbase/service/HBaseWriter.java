@@ -106,6 +106,20 @@ public class HBaseWriter implements Writer
     {
         Put p = new Put(HBaseUtils.getBytes(rowKey));
 
+        if (addColumns(p, columns, entity, columnFamilyName))
+        {
+            htable.put(p);
+        }
+    }
+
+    /**
+     * Adds non id, non collection columns of entity to given put.
+     * 
+     * @return true, if any column is added.
+     */
+    private boolean addColumns(Put p, Map<String, Attribute> columns, Object entity, String columnFamilyName)
+            throws IOException
+    {
         boolean present = false;
         for (String columnName : columns.keySet())
         {
@@ -130,10 +144,7 @@ public class HBaseWriter implements Writer
                 }
             }
         }
-        if (present)
-        {
-            htable.put(p);
-        }
+        return present;
     }
 
     /*
@@ -176,6 +187,20 @@ public class HBaseWriter implements Writer
     {
         Put p = new Put(HBaseUtils.getBytes(rowKey));
 
+        if (addRelations(p, containsEmbeddedObjectsOnly, relations, columnFamilyName))
+        {
+            htable.put(p);
+        }
+    }
+
+    /**
+     * Adds relations to given put.
+     * 
+     * @return true, if any relation is added.
+     */
+    private boolean addRelations(Put p, boolean containsEmbeddedObjectsOnly, List<RelationHolder> relations,
+            String columnFamilyName)
+    {
         boolean isPresent = false;
         for (RelationHolder r : relations)
         {
@@ -195,10 +220,69 @@ public class HBaseWriter implements Writer
                 }
             }
         }
+        return isPresent;
+    }
 
-        if (isPresent)
+    /*
+     * (non-Javadoc)
+     * 
+     * @see com.impetus.client.hbase.Writer#preparePut(java.lang.Object,
+     * com.impetus.client.hbase.admin.HBaseDataHandler.HBaseDataWrapper,
+     * java.util.List, java.util.List, java.lang.String)
+     */
+    @Override
+    public Put preparePut(Object rowKey, HBaseDataWrapper columnWrapper, List<HBaseDataWrapper> embeddableData,
+            List<RelationHolder> relations, String columnFamilyName) throws IOException
+    {
+        Put p = new Put(HBaseUtils.getBytes(rowKey));
+
+        addColumns(p, columnWrapper.getColumns(), columnWrapper.getEntity(), columnFamilyName);
+
+        for (HBaseDataWrapper wrapper : embeddableData)
         {
-            htable.put(p);
+            addColumns(p, wrapper.getColumnFamily(), wrapper.getColumns(), wrapper.getValues());
+        }
+
+        if (relations != null && !relations.isEmpty())
+        {
+            // relations go to a column family of their own, if entity holds
+            // embedded objects only.
+            boolean containsEmbeddedObjectsOnly = columnWrapper.getColumns().isEmpty() && embeddableData.isEmpty();
+            addRelations(p, containsEmbeddedObjectsOnly, relations, columnFamilyName);
+        }
+        return p;
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see
+     * com.impetus.client.hbase.Writer#writeRows(org.apache.hadoop.hbase.client
+     * .HTableInterface, java.util.List)
+     */
+    @Override
+    public void writeRows(HTableInterface htable, List<Put> puts) throws IOException
+    {
+        List<Put> rows = new ArrayList<Put>(puts.size());
+        for (Put p : puts)
+        {
+            if (!p.isEmpty())
+            {
+                rows.add(p);
+            }
+        }
+
+        if (!rows.isEmpty())
+        {
+            try
+            {
+                htable.batch(rows);
+            }
+            catch (InterruptedException iex)
+            {
+                Thread.currentThread().interrupt();
+                throw new IOException(iex);
+            }
         }
     }
 
@@ -286,6 +370,33 @@ public class HBaseWriter implements Writer
         }
     }
 
+    /*
+     * (non-Javadoc)
+     * 
+     * @see
+     * com.impetus.client.hbase.Writer#deleteRows(org.apache.hadoop.hbase.client
+     * .HTableInterface, java.util.List, java.lang.String)
+     */
+    @Override
+    public void deleteRows(HTableInterface hTable, List<Object> rowKeys, String columnFamily)
+    {
+        List<Delete> deletes = new ArrayList<Delete>(rowKeys.size());
+        for (Object rowKey : rowKeys)
+        {
+            deletes.add(new Delete(HBaseUtils.getBytes(rowKey)));
+        }
+
+        try
+        {
+            hTable.delete(deletes);
+        }
+        catch (IOException e)
+        {
+            log.error("Error while batch delete on hbase for : " + rowKeys.size() + " rows");
+            throw new PersistenceException(e);
+        }
+    }
+
     /*
      * (non-Javadoc)
      * 
@@ -327,6 +438,17 @@ public class HBaseWriter implements Writer
             throws IOException
     {
         Put p = new Put(HBaseUtils.getBytes(rowKey));
+        addColumns(p, columnFamily, columns, values);
+        return p;
+    }
+
+    /**
+     * Adds non id, non collection column values of a column family to given
+     * put.
+     */
+    private void addColumns(Put p, String columnFamily, Map<String, Attribute> columns, Map<String, Object> values)
+            throws IOException
+    {
         for (String columnName : columns.keySet())
         {
             Attribute column = columns.get(columnName);
@@ -349,6 +471,5 @@ public class HBaseWriter implements Writer
                 }
             }
         }
-        return p;
     }
 }
\ No newline at end of file
@@ -1,12 +1,16 @@
 package com.impetus.client.hbase.utils;
 
+import java.lang.reflect.Field;
 import java.math.BigDecimal;
+import java.nio.ByteBuffer;
 
+import org.apache.hadoop.hbase.KeyValue;
 import org.apache.hadoop.hbase.filter.CompareFilter.CompareOp;
 import org.apache.hadoop.hbase.util.Bytes;
 
 import com.impetus.kundera.metadata.model.EntityMetadata;
 import com.impetus.kundera.property.PropertyAccessorFactory;
+import com.impetus.kundera.property.PropertyAccessorHelper;
 
 public final class HBaseUtils
 {
@@ -135,6 +139,35 @@ public final class HBaseUtils
         }
     }
 
+    /**
+     * Sets value of a cell onto a field. Int, long and double values are
+     * decoded straight out of key value's backing buffer, without copying it
+     * into a byte array; remaining types go through
+     * {@link #fromBytes(byte[], Class)}.
+     * 
+     * @param target
+     *            the target
+     * @param field
+     *            the field
+     * @param colData
+     *            the cell
+     */
+    public static void setValue(Object target, Field field, KeyValue colData)
+    {
+        Class<?> clazz = field.getType();
+        if (clazz.equals(int.class) || clazz.equals(Integer.class) || clazz.equals(long.class)
+                || clazz.equals(Long.class) || clazz.equals(double.class) || clazz.equals(Double.class))
+        {
+            // both big-endian, same as Bytes.toInt/toLong/toDouble.
+            PropertyAccessorHelper.set(target, field,
+                    ByteBuffer.wrap(colData.getBuffer(), colData.getValueOffset(), colData.getValueLength()));
+        }
+        else
+        {
+            PropertyAccessorHelper.set(target, field, fromBytes(colData.getValue(), clazz));
+        }
+    }
+
     /**
      * Gets the operator.
      * 
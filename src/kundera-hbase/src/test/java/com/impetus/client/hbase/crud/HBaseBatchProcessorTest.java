@@ -16,6 +16,7 @@
 package com.impetus.client.hbase.crud;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -30,6 +31,7 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import com.impetus.client.hbase.HBaseConstants;
 import com.impetus.client.hbase.junits.HBaseCli;
 import com.impetus.kundera.client.Client;
 import com.impetus.kundera.persistence.api.Batcher;
@@ -116,6 +118,42 @@ public class HBaseBatchProcessorTest
         Assert.assertEquals(10, results.size());
     }
 
+    /**
+     * Test case for batch operation with client side write buffer.
+     */
+    @Test
+    public void onBufferedBatch()
+    {
+        em.close();
+        emf.close();
+
+        Map<String, String> props = new HashMap<String, String>();
+        props.put(HBaseConstants.WRITE_BUFFER_SIZE, "" + 1024 * 1024);
+        emf = Persistence.createEntityManagerFactory(PERSISTENCE_UNIT, props);
+        em = emf.createEntityManager();
+
+        rows = prepareData(10);
+        for (PersonBatchHBaseEntity entity : rows)
+        {
+            em.persist(entity);
+        }
+
+        // buffered puts are sent on flush.
+        em.flush();
+        em.clear();
+
+        for (PersonBatchHBaseEntity entity : rows)
+        {
+            Assert.assertNotNull(em.find(PersonBatchHBaseEntity.class, entity.getPersonId()));
+        }
+
+        String sql = " Select p from PersonBatchHBaseEntity p";
+        Query query = em.createQuery(sql);
+        List<PersonBatchHBaseEntity> results = query.getResultList();
+        Assert.assertNotNull(results);
+        Assert.assertEquals(10, results.size());
+    }
+
     /**
      * @throws java.lang.Exception
      */
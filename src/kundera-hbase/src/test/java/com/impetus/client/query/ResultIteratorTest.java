@@ -27,6 +27,7 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import com.impetus.client.hbase.HBaseConstants;
 import com.impetus.client.hbase.crud.BaseTest;
 import com.impetus.client.hbase.crud.PersonHBase;
 import com.impetus.client.hbase.junits.HBaseCli;
@@ -74,6 +75,32 @@ public class ResultIteratorTest extends BaseTest
         assertOnTokenScroll();
     }
 
+    @Test
+    public void testScrollWithScanHints() throws Exception
+    {
+        em.persist(prepareHbaseInstance("1", 10));
+        em.persist(prepareHbaseInstance("2", 20));
+        em.persist(prepareHbaseInstance("3", 15));
+        em.flush();
+        em.clear();
+
+        Query query = (Query) em.createQuery("Select p from PersonHBase p", PersonHBase.class);
+        query.setHint(HBaseConstants.SCAN_CACHING, 2);
+        query.setHint(HBaseConstants.SCAN_BATCH, "1");
+        query.setHint(HBaseConstants.SCAN_CACHE_BLOCKS, false);
+        query.setHint(HBaseConstants.SCAN_MAX_VERSIONS, 1);
+
+        // partial rows of scanner batch are merged into one entity.
+        Assert.assertEquals(3, query.getResultList().size());
+        for (Object person : query.getResultList())
+        {
+            Assert.assertNotNull(((PersonHBase) person).getPersonName());
+        }
+
+        assertOnFetch(query, 2, 3);
+        assertOnFetch(query, null, 3);
+    }
+
     private void assertOnTokenScroll()
     {
         HbaseToken token1 = new HbaseToken();
@@ -15,6 +15,7 @@
  ******************************************************************************/
 package com.impetus.client.mongodb;
 
+import java.lang.reflect.Field;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -22,6 +23,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import javax.persistence.PersistenceException;
+import javax.persistence.metamodel.Attribute;
+
 import org.apache.commons.lang.NotImplementedException;
 import org.bson.types.ObjectId;
 import org.slf4j.Logger;
@@ -44,9 +48,12 @@ import com.impetus.kundera.metadata.model.EntityMetadata;
 import com.impetus.kundera.metadata.model.KunderaMetadata;
 import com.impetus.kundera.metadata.model.MetamodelImpl;
 import com.impetus.kundera.metadata.model.PersistenceUnitMetadata;
+import com.impetus.kundera.metadata.model.attributes.AbstractAttribute;
 import com.impetus.kundera.persistence.EntityReader;
 import com.impetus.kundera.persistence.api.Batcher;
 import com.impetus.kundera.persistence.context.jointable.JoinTableData;
+import com.impetus.kundera.property.PropertyAccessorHelper;
+import com.mongodb.BasicDBList;
 import com.mongodb.BasicDBObject;
 import com.mongodb.DB;
 import com.mongodb.DBCollection;
@@ -276,7 +283,30 @@ public class MongoDBClient extends ClientBase implements Client<MongoDBQuery>, B
 
         BasicDBObject query = new BasicDBObject();
 
-        query.put("_id", new BasicDBObject("$in", keys));
+        MetamodelImpl metaModel = (MetamodelImpl) KunderaMetadata.INSTANCE.getApplicationMetadata().getMetamodel(
+                entityMetadata.getPersistenceUnit());
+
+        if (metaModel.isEmbeddable(entityMetadata.getIdAttribute().getBindableJavaType()))
+        {
+            // compound keys can't go with $in, match any of them.
+            BasicDBList compoundKeys = new BasicDBList();
+            for (Object key : keys)
+            {
+                BasicDBObject compoundKey = new BasicDBObject();
+                MongoDBUtils.populateCompoundKey(compoundKey, entityMetadata, metaModel, key);
+                compoundKeys.add(compoundKey);
+            }
+            query.put("$or", compoundKeys);
+        }
+        else
+        {
+            BasicDBList ids = new BasicDBList();
+            for (Object key : keys)
+            {
+                ids.add(MongoDBUtils.populateValue(key, key.getClass()));
+            }
+            query.put("_id", new BasicDBObject("$in", ids));
+        }
 
         DBCursor cursor = dbCollection.find(query);
 
@@ -520,6 +550,105 @@ public class MongoDBClient extends ClientBase implements Client<MongoDBQuery>, B
 
     }
 
+    /**
+     * Updates all documents matching given query in a single multi update,
+     * with given values of attributes. Null values are unset.
+     * 
+     * @param entityMetadata
+     *            entity metadata
+     * @param query
+     *            mongo query
+     * @param values
+     *            attribute values to be updated
+     * @return number of updated documents
+     */
+    public int update(EntityMetadata entityMetadata, BasicDBObject query, Map<Attribute, Object> values)
+    {
+        BasicDBObject setFields = new BasicDBObject();
+        BasicDBObject unsetFields = new BasicDBObject();
+        try
+        {
+            // Values are converted the same way as on persist, via a
+            // transient instance.
+            Object entity = entityMetadata.getEntityClazz().newInstance();
+            for (Map.Entry<Attribute, Object> entry : values.entrySet())
+            {
+                Attribute attribute = entry.getKey();
+                Object value = entry.getValue();
+                if (value instanceof String)
+                {
+                    PropertyAccessorHelper.set(entity, (Field) attribute.getJavaMember(), value.toString());
+                }
+                else
+                {
+                    PropertyAccessorHelper.set(entity, (Field) attribute.getJavaMember(), value);
+                }
+                DocumentObjectMapper.extractFieldValue(entity, setFields, attribute);
+
+                String columnName = ((AbstractAttribute) attribute).getJPAColumnName();
+                if (!setFields.containsField(columnName))
+                {
+                    unsetFields.put(columnName, 1);
+                }
+            }
+        }
+        catch (InstantiationException iex)
+        {
+            throw new PersistenceException(iex);
+        }
+        catch (IllegalAccessException iaex)
+        {
+            throw new PersistenceException(iaex);
+        }
+
+        BasicDBObject update = new BasicDBObject();
+        if (!setFields.isEmpty())
+        {
+            update.put("$set", setFields);
+        }
+        if (!unsetFields.isEmpty())
+        {
+            update.put("$unset", unsetFields);
+        }
+
+        DBCollection dbCollection = mongoDb.getCollection(entityMetadata.getTableName());
+        return dbCollection.update(query, update, false, true, getWriteConcern(), encoder).getN();
+    }
+
+    /**
+     * Removes all documents matching given query in one go.
+     * 
+     * @param entityMetadata
+     *            entity metadata
+     * @param query
+     *            mongo query
+     * @return number of removed documents
+     */
+    public int remove(EntityMetadata entityMetadata, BasicDBObject query)
+    {
+        DBCollection dbCollection = mongoDb.getCollection(entityMetadata.getTableName());
+        return dbCollection.remove(query, getWriteConcern(), encoder).getN();
+    }
+
+    /**
+     * Runs aggregation pipeline of a $match over given query followed by given
+     * $group, over collection of given entity.
+     * 
+     * @param entityMetadata
+     *            entity metadata
+     * @param query
+     *            mongo query
+     * @param group
+     *            group specification
+     * @return one document per group
+     */
+    public Iterable<DBObject> aggregate(EntityMetadata entityMetadata, BasicDBObject query, BasicDBObject group)
+    {
+        DBCollection dbCollection = mongoDb.getCollection(entityMetadata.getTableName());
+        return dbCollection.aggregate(new BasicDBObject("$match", query), new BasicDBObject("$group", group))
+                .results();
+    }
+
     /*
      * (non-Javadoc)
      * 
@@ -539,6 +668,99 @@ public class MongoDBClient extends ClientBase implements Client<MongoDBQuery>, B
         onFlushCollection(collections);
     }
 
+    /*
+     * (non-Javadoc)
+     * 
+     * @see
+     * com.impetus.kundera.client.ClientBase#persist(com.impetus.kundera.graph
+     * .Node)
+     */
+    @Override
+    public void persist(Node node)
+    {
+        if (isPartialUpdate(node))
+        {
+            EntityMetadata metadata = KunderaMetadataManager.getEntityMetadata(node.getDataClass());
+            persistenceUnit = metadata.getPersistenceUnit();
+            onPartialUpdate(node, metadata, getRelationHolders(node));
+            indexNode(node, metadata);
+        }
+        else
+        {
+            super.persist(node);
+        }
+    }
+
+    /**
+     * Returns true if node is an update of an entity whose state in database
+     * is known, so only changed fields need to be written.
+     * 
+     * @param node
+     *            node to be persisted.
+     * @return true, if partial update is possible.
+     */
+    private boolean isPartialUpdate(Node node)
+    {
+        return node.isUpdate() && node.getSnapshot() != null;
+    }
+
+    /**
+     * Writes changed fields of node's entity with a single update
+     * ($set/$unset), as compared to node's snapshot. No write is issued if
+     * nothing is changed.
+     * 
+     * @param node
+     *            node to be persisted.
+     * @param metadata
+     *            entity metadata.
+     * @param relationHolders
+     *            relation holders.
+     */
+    private void onPartialUpdate(Node node, EntityMetadata metadata, List<RelationHolder> relationHolders)
+    {
+        Object entity = node.getData();
+        DBObject document = handler.getDocumentFromEntity(new BasicDBObject(), metadata, entity, relationHolders);
+
+        // relations are not part of snapshot, hence always written.
+        DBObject snapshot = handler.getDocumentFromEntity(new BasicDBObject(), metadata, node.getSnapshot(),
+                new ArrayList<RelationHolder>());
+
+        DBObject update = MongoDBUtils.getUpdateDocument(document, snapshot);
+        if (!update.keySet().isEmpty())
+        {
+            DBCollection dbCollection = mongoDb.getCollection(metadata.getTableName());
+            dbCollection.update(getIdQuery(metadata, node.getEntityId()), update, false, false, getWriteConcern(),
+                    encoder);
+        }
+    }
+
+    /**
+     * Returns query on _id for given entity id.
+     * 
+     * @param metadata
+     *            entity metadata.
+     * @param id
+     *            entity id.
+     * @return query object.
+     */
+    private BasicDBObject getIdQuery(EntityMetadata metadata, Object id)
+    {
+        BasicDBObject query = new BasicDBObject();
+
+        MetamodelImpl metaModel = (MetamodelImpl) KunderaMetadata.INSTANCE.getApplicationMetadata().getMetamodel(
+                metadata.getPersistenceUnit());
+
+        if (metaModel.isEmbeddable(metadata.getIdAttribute().getBindableJavaType()))
+        {
+            MongoDBUtils.populateCompoundKey(query, metadata, metaModel, id);
+        }
+        else
+        {
+            query.put("_id", MongoDBUtils.populateValue(id, id.getClass()));
+        }
+        return query;
+    }
+
     /*
      * (non-Javadoc)
      * 
@@ -602,6 +824,15 @@ public class MongoDBClient extends ClientBase implements Client<MongoDBQuery>, B
                 {
                     delete(node.getData(), node.getEntityId());
                 }
+                else if (isPartialUpdate(node))
+                {
+                    EntityMetadata metadata = KunderaMetadataManager.getEntityMetadata(node.getDataClass());
+                    onPartialUpdate(node, metadata, getRelationHolders(node));
+                    indexNode(node, metadata);
+                    // batched node remains dirty, so snapshot is not
+                    // refreshed on flush.
+                    node.refreshSnapshot();
+                }
                 else
                 {
 
@@ -665,19 +896,7 @@ public class MongoDBClient extends ClientBase implements Client<MongoDBQuery>, B
 
         if (isUpdate)
         {
-            BasicDBObject query = new BasicDBObject();
-
-            MetamodelImpl metaModel = (MetamodelImpl) KunderaMetadata.INSTANCE.getApplicationMetadata().getMetamodel(
-                    metadata.getPersistenceUnit());
-
-            if (metaModel.isEmbeddable(metadata.getIdAttribute().getBindableJavaType()))
-            {
-                MongoDBUtils.populateCompoundKey(query, metadata, metaModel, id);
-            }
-            else
-            {
-                query.put("_id", MongoDBUtils.populateValue(id, id.getClass()));
-            }
+            BasicDBObject query = getIdQuery(metadata, id);
             DBCollection dbCollection = mongoDb.getCollection(documentName);
             // dbCollection.findAndModify(query, document);
 
@@ -22,11 +22,14 @@ import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.GregorianCalendar;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Queue;
 
 import javax.persistence.Query;
 import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.Attribute.PersistentAttributeType;
 import javax.persistence.metamodel.EmbeddableType;
 import javax.persistence.metamodel.EntityType;
 
@@ -51,13 +54,19 @@ import com.impetus.kundera.metadata.model.type.AbstractManagedType;
 import com.impetus.kundera.persistence.EntityReader;
 import com.impetus.kundera.persistence.PersistenceDelegator;
 import com.impetus.kundera.property.PropertyAccessorFactory;
+import com.impetus.kundera.query.Aggregator;
 import com.impetus.kundera.query.KunderaQuery;
+import com.impetus.kundera.query.KunderaQuery.Aggregation;
+import com.impetus.kundera.query.KunderaQuery.Aggregation.Function;
 import com.impetus.kundera.query.KunderaQuery.FilterClause;
 import com.impetus.kundera.query.KunderaQuery.SortOrder;
 import com.impetus.kundera.query.KunderaQuery.SortOrdering;
+import com.impetus.kundera.query.KunderaQuery.UpdateClause;
 import com.impetus.kundera.query.QueryHandlerException;
 import com.impetus.kundera.query.QueryImpl;
+import com.mongodb.BasicDBList;
 import com.mongodb.BasicDBObject;
+import com.mongodb.DBObject;
 
 /**
  * Query class for MongoDB data store.
@@ -144,9 +153,146 @@ public class MongoDBQuery extends QueryImpl
         }
     }
 
+    /**
+     * Computes aggregates and groups natively via aggregation framework, i.e.
+     * a $match over where clause followed by a $group. Aggregates of non
+     * numeric fields, or groups over non primitive fields, are aggregated
+     * while iterating over matching entities.
+     */
+    @Override
+    protected List<Object> aggregate(EntityMetadata m, Client client)
+    {
+        MetamodelImpl metaModel = (MetamodelImpl) KunderaMetadata.INSTANCE.getApplicationMetadata().getMetamodel(
+                m.getPersistenceUnit());
+        EntityType entity = metaModel.entity(m.getEntityClazz());
+
+        List<String> groupings = getKunderaQuery().getGroupings();
+        List<Aggregation> aggregations = getKunderaQuery().getAggregations();
+
+        BasicDBObject groupKey = null;
+        for (int i = 0; i < groupings.size(); i++)
+        {
+            Attribute attribute = entity.getAttribute(groupings.get(i).trim());
+            if (!isPrimitive(((Field) attribute.getJavaMember()).getType()))
+            {
+                return super.aggregate(m, client);
+            }
+            groupKey = groupKey != null ? groupKey : new BasicDBObject();
+            groupKey.append("g" + i, "$" + getColumnName(m, attribute));
+        }
+
+        BasicDBObject group = new BasicDBObject("_id", groupKey);
+        Class[] types = new Class[aggregations.size()];
+        for (int i = 0; i < aggregations.size(); i++)
+        {
+            Aggregation aggregation = aggregations.get(i);
+            if (aggregation.getProperty() == null)
+            {
+                // COUNT of entities.
+                group.append("a" + i, new BasicDBObject("$sum", 1));
+                continue;
+            }
+
+            Attribute attribute = entity.getAttribute(aggregation.getProperty().trim());
+            types[i] = ((Field) attribute.getJavaMember()).getType();
+            String column = "$" + getColumnName(m, attribute);
+            if (!aggregation.isAggregate())
+            {
+                if (!groupings.contains(aggregation.getProperty().trim()))
+                {
+                    // reported by aggregator.
+                    return super.aggregate(m, client);
+                }
+            }
+            else if (aggregation.getFunction() == Function.COUNT)
+            {
+                // count of non null values.
+                BasicDBList notNull = new BasicDBList();
+                notNull.add(column);
+                notNull.add(null);
+                BasicDBList condition = new BasicDBList();
+                condition.add(new BasicDBObject("$gt", notNull));
+                condition.add(1);
+                condition.add(0);
+                group.append("a" + i, new BasicDBObject("$sum", new BasicDBObject("$cond", condition)));
+            }
+            else if (Aggregator.isNumeric(types[i]))
+            {
+                group.append("a" + i, new BasicDBObject("$" + aggregation.getFunction().name().toLowerCase(), column));
+            }
+            else
+            {
+                return super.aggregate(m, client);
+            }
+        }
+
+        List<Object> results = new ArrayList<Object>();
+        for (DBObject document : ((MongoDBClient) client).aggregate(m,
+                createMongoQuery(m, getKunderaQuery().getFilterClauseQueue()), group))
+        {
+            Object[] row = new Object[aggregations.size()];
+            for (int i = 0; i < row.length; i++)
+            {
+                Aggregation aggregation = aggregations.get(i);
+                if (aggregation.isAggregate())
+                {
+                    row[i] = Aggregator.getResult(aggregation.getFunction(), types[i],
+                            (Number) document.get("a" + i));
+                }
+                else
+                {
+                    Object value = ((DBObject) document.get("_id")).get("g"
+                            + groupings.indexOf(aggregation.getProperty().trim()));
+                    row[i] = value instanceof Number && Aggregator.isNumeric(types[i]) ? Aggregator.toType(types[i],
+                            (Number) value) : value;
+                }
+            }
+            results.add(row.length == 1 ? row[0] : row);
+            if (results.size() == maxResult)
+            {
+                break;
+            }
+        }
+
+        // aggregates without group by always yield a row, e.g. COUNT is 0.
+        if (results.isEmpty() && groupings.isEmpty())
+        {
+            Object[] row = new Object[aggregations.size()];
+            for (int i = 0; i < row.length; i++)
+            {
+                row[i] = Aggregator.getResult(aggregations.get(i).getFunction(), types[i], null);
+            }
+            results.add(row.length == 1 ? row[0] : row);
+        }
+        return results;
+    }
+
+    /**
+     * Returns document field of given attribute.
+     */
+    private String getColumnName(EntityMetadata m, Attribute attribute)
+    {
+        return attribute.equals(m.getIdAttribute()) ? "_id" : ((AbstractAttribute) attribute).getJPAColumnName();
+    }
+
+    /**
+     * Returns true, if values of given type are stored as is, i.e. a string,
+     * number or boolean.
+     */
+    private boolean isPrimitive(Class type)
+    {
+        return type.isPrimitive() || String.class.equals(type) || Boolean.class.equals(type)
+                || Aggregator.isNumeric(type);
+    }
+
     @Override
     public Object getSingleResult()
     {
+        if (kunderaQuery.isAggregated())
+        {
+            return super.getSingleResult();
+        }
+
         // to fetch a single result form database.
         isSingleResult = true;
         List results = getResultList();
@@ -468,6 +614,19 @@ public class MongoDBQuery extends QueryImpl
     {
         if (kunderaQuery.isDeleteUpdate())
         {
+            EntityMetadata m = getEntityMetadata();
+            Client client = persistenceDelegeator.getClient(m);
+            Map<Attribute, Object> values = kunderaQuery.isUpdateClause() ? getUpdateValues(m) : null;
+
+            if (isPushDownSupported(m, client) && (values != null || !kunderaQuery.isUpdateClause()))
+            {
+                // Bulk update/delete is executed on server, without loading
+                // matching documents.
+                BasicDBObject mongoQuery = createMongoQuery(m, getKunderaQuery().getFilterClauseQueue());
+                return values != null ? ((MongoDBClient) client).update(m, mongoQuery, values)
+                        : ((MongoDBClient) client).remove(m, mongoQuery);
+            }
+
             List result = getResultList();
             return result != null ? result.size() : 0;
         }
@@ -475,6 +634,67 @@ public class MongoDBQuery extends QueryImpl
         return 0;
     }
 
+    /**
+     * Returns true if delete/update query can be executed on server, i.e.
+     * entity holds no relation, secondary index and entity listener to be
+     * maintained per row and no inheritance.
+     * 
+     * @param m
+     *            entity metadata
+     * @param client
+     *            client
+     * @return true, if push down is supported.
+     */
+    private boolean isPushDownSupported(EntityMetadata m, Client client)
+    {
+        MetamodelImpl metaModel = (MetamodelImpl) KunderaMetadata.INSTANCE.getApplicationMetadata().getMetamodel(
+                m.getPersistenceUnit());
+        AbstractManagedType entityType = (AbstractManagedType) metaModel.entity(m.getEntityClazz());
+
+        return !m.isRelationViaJoinTable() && (m.getRelationNames() == null || m.getRelationNames().isEmpty())
+                && client.getIndexManager().getIndexer() == null && m.getCallbackMethodsMap().isEmpty()
+                && !entityType.isInherited();
+    }
+
+    /**
+     * Returns values to be set by update query, keyed by attributes. Returns
+     * null, if any of them is not a basic attribute and hence can not be
+     * updated on server.
+     * 
+     * @param m
+     *            entity metadata
+     * @return attribute values
+     */
+    private Map<Attribute, Object> getUpdateValues(EntityMetadata m)
+    {
+        EntityType entityType = KunderaMetadata.INSTANCE.getApplicationMetadata()
+                .getMetamodel(m.getPersistenceUnit()).entity(m.getEntityClazz());
+
+        Map<Attribute, Object> values = new LinkedHashMap<Attribute, Object>();
+        for (UpdateClause c : kunderaQuery.getUpdateClauseQueue())
+        {
+            Attribute attribute;
+            try
+            {
+                // That will always be attribute name.
+                attribute = entityType.getAttribute(c.getProperty());
+            }
+            catch (IllegalArgumentException iax)
+            {
+                log.error("Invalid column name: " + c.getProperty() + " for class : " + m.getEntityClazz());
+                throw new QueryHandlerException("Error while executing query: " + iax);
+            }
+
+            if (!attribute.getPersistentAttributeType().equals(PersistentAttributeType.BASIC)
+                    || attribute.equals(m.getIdAttribute()))
+            {
+                return null;
+            }
+            values.put(attribute, c.getValue());
+        }
+        return values;
+    }
+
     /**
      * @param valObj
      * @return
@@ -506,10 +726,18 @@ public class MongoDBQuery extends QueryImpl
     @Override
     public Iterator iterate()
     {
+        return iterate(getFetchSize() != null ? getFetchSize() : this.maxResult);
+    }
+
+    @Override
+    protected Iterator iterate(int maxRows)
+    {
+        persistenceDelegeator.flushBeforeQuery();
+
         EntityMetadata m = getEntityMetadata();
         Client client = persistenceDelegeator.getClient(m);
         return new ResultIterator((MongoDBClient) client, m, createMongoQuery(m, getKunderaQuery()
-                .getFilterClauseQueue()), getOrderByClause(), getKeys(m, getKunderaQuery().getResult()),persistenceDelegeator,
-                getFetchSize() != null ? getFetchSize() : this.maxResult);
+                .getFilterClauseQueue()), getOrderByClause(), getKeys(m, getKunderaQuery().getProjection()),
+                persistenceDelegeator, maxRows);
     }
 }
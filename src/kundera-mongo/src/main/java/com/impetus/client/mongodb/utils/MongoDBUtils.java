@@ -7,6 +7,7 @@ import java.lang.reflect.Field;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.sql.Date;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.GregorianCalendar;
 import java.util.Map;
@@ -33,6 +34,59 @@ import com.mongodb.DBObject;
  */
 public class MongoDBUtils
 {
+    /**
+     * Prepares update document for given document as compared to its snapshot
+     * document, i.e. $set for new or modified fields and $unset for removed
+     * ones. Returns an empty document if nothing is changed.
+     * 
+     * @param document
+     *            current document.
+     * @param snapshot
+     *            document as last read from or written to database.
+     * @return update document.
+     */
+    public static DBObject getUpdateDocument(DBObject document, DBObject snapshot)
+    {
+        BasicDBObject setFields = new BasicDBObject();
+        for (String field : document.keySet())
+        {
+            if (!"_id".equals(field)
+                    && (!snapshot.containsField(field) || !isEqual(document.get(field), snapshot.get(field))))
+            {
+                setFields.put(field, document.get(field));
+            }
+        }
+
+        BasicDBObject unsetFields = new BasicDBObject();
+        for (String field : snapshot.keySet())
+        {
+            if (!"_id".equals(field) && !document.containsField(field))
+            {
+                unsetFields.put(field, 1);
+            }
+        }
+
+        BasicDBObject update = new BasicDBObject();
+        if (!setFields.isEmpty())
+        {
+            update.put("$set", setFields);
+        }
+        if (!unsetFields.isEmpty())
+        {
+            update.put("$unset", unsetFields);
+        }
+        return update;
+    }
+
+    private static boolean isEqual(Object value, Object snapshotValue)
+    {
+        if (value instanceof byte[] && snapshotValue instanceof byte[])
+        {
+            return Arrays.equals((byte[]) value, (byte[]) snapshotValue);
+        }
+        return value == null ? snapshotValue == null : value.equals(snapshotValue);
+    }
+
     public static void populateCompoundKey(DBObject dbObj, EntityMetadata m, MetamodelImpl metaModel, Object id)
     {
         EmbeddableType compoundKey = metaModel.embeddable(m.getIdAttribute().getBindableJavaType());
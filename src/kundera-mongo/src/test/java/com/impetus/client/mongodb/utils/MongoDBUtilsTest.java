@@ -0,0 +1,58 @@
+/*******************************************************************************
+ * * Copyright 2013 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.client.mongodb.utils;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBObject;
+
+/**
+ * Junit for {@link MongoDBUtils#getUpdateDocument(DBObject, DBObject)}.
+ */
+public class MongoDBUtilsTest
+{
+    @Test
+    public void testGetUpdateDocument()
+    {
+        BasicDBObject snapshot = new BasicDBObject("_id", "1").append("name", "kuldeep").append("age", 30)
+                .append("city", "noida").append("photo", new byte[] { 1, 2 });
+        BasicDBObject document = new BasicDBObject("_id", "1").append("name", "kuldeep").append("age", 31)
+                .append("email", "kuldeep@impetus.com").append("photo", new byte[] { 1, 2 });
+
+        DBObject update = MongoDBUtils.getUpdateDocument(document, snapshot);
+
+        DBObject setFields = (DBObject) update.get("$set");
+        Assert.assertEquals(2, setFields.keySet().size());
+        Assert.assertEquals(31, setFields.get("age"));
+        Assert.assertEquals("kuldeep@impetus.com", setFields.get("email"));
+
+        DBObject unsetFields = (DBObject) update.get("$unset");
+        Assert.assertEquals(1, unsetFields.keySet().size());
+        Assert.assertTrue(unsetFields.containsField("city"));
+    }
+
+    @Test
+    public void testGetUpdateDocumentWithoutChange()
+    {
+        BasicDBObject snapshot = new BasicDBObject("_id", "1").append("name", "kuldeep");
+        BasicDBObject document = new BasicDBObject("_id", "1").append("name", "kuldeep");
+
+        Assert.assertTrue(MongoDBUtils.getUpdateDocument(document, snapshot).keySet().isEmpty());
+    }
+}
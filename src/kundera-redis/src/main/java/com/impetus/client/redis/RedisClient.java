@@ -124,6 +124,21 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
      */
     @Override
     protected void onPersist(EntityMetadata entityMetadata, Object entity, Object id, List<RelationHolder> rlHolders)
+    {
+        onPersist(entityMetadata, entity, id, rlHolders, null);
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see
+     * com.impetus.kundera.client.ClientBase#onPersist(com.impetus.kundera.metadata
+     * .model.EntityMetadata, java.lang.Object, java.lang.Object,
+     * java.util.List, java.util.Set)
+     */
+    @Override
+    protected void onPersist(EntityMetadata entityMetadata, Object entity, Object id, List<RelationHolder> rlHolders,
+            Set<String> changedColumns)
     {
         Object connection = getConnection();
         // Create a hashset and populate data into it
@@ -135,11 +150,11 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
             if (resource == null)
             {
                 pipeLine = ((Jedis) connection).pipelined();
-                onPersist(entityMetadata, entity, id, rlHolders, pipeLine);
+                onPersist(entityMetadata, entity, id, rlHolders, pipeLine, changedColumns);
             }
             else
             {
-                onPersist(entityMetadata, entity, id, rlHolders, connection);
+                onPersist(entityMetadata, entity, id, rlHolders, connection, changedColumns);
 
             }
 
@@ -218,22 +233,7 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
         MetamodelImpl metaModel = (MetamodelImpl) KunderaMetadata.INSTANCE.getApplicationMetadata().getMetamodel(
                 entityMetadata.getPersistenceUnit());
 
-        String rowKey = null;
-        if (metaModel.isEmbeddable(entityMetadata.getIdAttribute().getBindableJavaType()))
-        {
-            rowKey = KunderaCoreUtils.prepareCompositeKey(entityMetadata, metaModel, key);
-        }
-        else
-        {
-            ObjectAccessor accessor = new ObjectAccessor();
-
-            rowKey = accessor.toString(key);/*
-                                             * PropertyAccessorHelper.getString(key
-                                             * );
-                                             */
-        }
-
-        String hashKey = getHashKey(entityMetadata.getTableName(), rowKey);
+        String hashKey = getHashKey(entityMetadata.getTableName(), getRowKey(entityMetadata, metaModel, key));
 
         try
         {
@@ -281,6 +281,27 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
         return result;
     }
 
+    /**
+     * Returns row key for given primary key, composite key in case of
+     * embeddable id.
+     * 
+     * @param entityMetadata
+     *            entity metadata
+     * @param metaModel
+     *            meta model
+     * @param key
+     *            primary key
+     * @return row key
+     */
+    private String getRowKey(EntityMetadata entityMetadata, MetamodelImpl metaModel, Object key)
+    {
+        if (metaModel.isEmbeddable(entityMetadata.getIdAttribute().getBindableJavaType()))
+        {
+            return KunderaCoreUtils.prepareCompositeKey(entityMetadata, metaModel, key);
+        }
+        return new ObjectAccessor().toString(key);
+    }
+
     private Map<byte[], byte[]> getColumns(Object connection, String hashKey, Map<byte[], byte[]> columns)
     {
         if (resource != null && resource.isActive())
@@ -318,14 +339,22 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
         List results = new ArrayList();
         try
         {
-            for (Object key : keys)
+            // within transaction, commands are queued on transaction itself.
+            if (resource != null && resource.isActive())
             {
-                Object result = fetch(entityClass, key, connection, null);
-                if (result != null)
+                for (Object key : keys)
                 {
-                    results.add(result);
+                    Object result = fetch(entityClass, key, connection, null);
+                    if (result != null)
+                    {
+                        results.add(result);
+                    }
                 }
             }
+            else
+            {
+                fetchAll(entityClass, (Jedis) connection, results, keys);
+            }
         }
         catch (InstantiationException e)
         {
@@ -337,9 +366,64 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
             logger.error("Error during find by key:", e);
             throw new PersistenceException(e);
         }
+        finally
+        {
+            onCleanup(connection);
+        }
         return results;
     }
 
+    /**
+     * Fetches all rows for given keys in a single round trip by pipelining
+     * HGETALL command for each key. Commands are sent over binary client,
+     * as {@link Pipeline} decodes hash values into strings, which would
+     * corrupt non UTF-8 values(e.g. numbers and dates).
+     * 
+     * @param entityClass
+     *            entity class
+     * @param connection
+     *            jedis connection
+     * @param results
+     *            list to populate with found entities
+     * @param keys
+     *            primary keys
+     */
+    private void fetchAll(Class entityClass, Jedis connection, List results, Object... keys)
+            throws InstantiationException, IllegalAccessException
+    {
+        EntityMetadata entityMetadata = KunderaMetadataManager.getEntityMetadata(entityClass);
+
+        MetamodelImpl metaModel = (MetamodelImpl) KunderaMetadata.INSTANCE.getApplicationMetadata().getMetamodel(
+                entityMetadata.getPersistenceUnit());
+
+        redis.clients.jedis.Client client = connection.getClient();
+        for (Object key : keys)
+        {
+            String hashKey = getHashKey(entityMetadata.getTableName(), getRowKey(entityMetadata, metaModel, key));
+            client.hgetAll(getEncodedBytes(hashKey));
+        }
+
+        for (int i = 0; i < keys.length; i++)
+        {
+            // reply holds field and value alternately.
+            List<byte[]> flatHash = client.getBinaryMultiBulkReply();
+            Map<byte[], byte[]> columns = new HashMap<byte[], byte[]>();
+            if (flatHash != null)
+            {
+                for (int j = 0; j + 1 < flatHash.size(); j += 2)
+                {
+                    columns.put(flatHash.get(j), flatHash.get(j + 1));
+                }
+            }
+
+            Object result = unwrap(entityMetadata, columns, keys[i]);
+            if (result != null)
+            {
+                results.add(result);
+            }
+        }
+    }
+
     @Override
     public <E> List<E> find(Class<E> entityClass, Map<String, String> embeddedColumnMap)
     {
@@ -839,7 +923,7 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
                         EntityMetadata metadata = KunderaMetadataManager.getEntityMetadata(node.getDataClass());
 
                         onPersist(metadata, node.getData(), node.getEntityId(), relationHolders,
-                                pipeLine != null ? pipeLine : connection);
+                                pipeLine != null ? pipeLine : connection, getChangedColumns(node, metadata));
                     }
                     node.handlePostEvent();
                 }
@@ -1151,6 +1235,21 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
      * @return
      */
     private AttributeWrapper wrap(EntityMetadata entityMetadata, Object entity)
+    {
+        return wrap(entityMetadata, entity, null);
+    }
+
+    /**
+     * Wraps given columns of entity into byte[] and return instance of
+     * attribute wrapper.
+     * 
+     * @param entityMetadata
+     * @param entity
+     * @param columns
+     *            columns to be wrapped, null if all.
+     * @return
+     */
+    private AttributeWrapper wrap(EntityMetadata entityMetadata, Object entity, Set<String> columns)
     {
 
         MetamodelImpl metaModel = (MetamodelImpl) KunderaMetadata.INSTANCE.getApplicationMetadata().getMetamodel(
@@ -1167,6 +1266,11 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
         // PropertyAccessorHelper.get(entity,
         for (Attribute attr : attributes)
         {
+            if (columns != null && !columns.contains(((AbstractAttribute) attr).getJPAColumnName()))
+            {
+                // not changed.
+                continue;
+            }
             if (!entityMetadata.getIdAttribute().equals(attr) && !attr.isAssociation())
             {
                 if (metaModel.isEmbeddable(((AbstractAttribute) attr).getBindableJavaType()))
@@ -1708,10 +1812,10 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
     }
 
     private void onPersist(EntityMetadata entityMetadata, Object entity, Object id, List<RelationHolder> rlHolders,
-            Object connection)
+            Object connection, Set<String> columns)
     {
         // first open a pipeline
-        AttributeWrapper wrapper = wrap(entityMetadata, entity);
+        AttributeWrapper wrapper = wrap(entityMetadata, entity, columns);
 
         // add relations.
 
@@ -1775,7 +1879,10 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
 
         if (resource != null && resource.isActive())
         {
-            ((Transaction) connection).hmset(getEncodedBytes(hashKey), wrapper.getColumns());
+            if (!wrapper.getColumns().isEmpty())
+            {
+                ((Transaction) connection).hmset(getEncodedBytes(hashKey), wrapper.getColumns());
+            }
 
             ((Transaction) connection).zadd(
                     getHashKey(entityMetadata.getTableName(),
@@ -1793,7 +1900,10 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
         }
         else
         {
-            ((Pipeline) connection).hmset(getEncodedBytes(hashKey), wrapper.getColumns());
+            if (!wrapper.getColumns().isEmpty())
+            {
+                ((Pipeline) connection).hmset(getEncodedBytes(hashKey), wrapper.getColumns());
+            }
 
             ((Pipeline) connection).zadd(
                     getHashKey(entityMetadata.getTableName(),